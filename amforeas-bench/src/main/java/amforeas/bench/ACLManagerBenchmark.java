@@ -0,0 +1,76 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.bench;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import amforeas.acl.ACLFilter;
+import amforeas.acl.ACLManager;
+
+/**
+ * Validates the ACL of an alias which allows everything, an alias with rules for some of its resources
+ * and a resource without rules of its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ACLManagerBenchmark {
+
+    private ACLManager manager;
+
+    @Setup
+    public void setUp () {
+        final Properties p = new Properties();
+        p.setProperty("amforeas.server.root", "/amforeas/*");
+        p.setProperty("amforeas.server.host", "0.0.0.0");
+        p.setProperty("amforeas.server.http.port", "8080");
+        p.setProperty("amforeas.alias.list", "open, restricted");
+        p.setProperty("amforeas.open.jdbc.driver", "H2_MEM");
+        p.setProperty("amforeas.open.jdbc.database", "open_db");
+        p.setProperty("amforeas.restricted.jdbc.driver", "H2_MEM");
+        p.setProperty("amforeas.restricted.jdbc.database", "restricted_db");
+        p.setProperty("amforeas.restricted.acl.allow", "meta, read, update");
+        p.setProperty("amforeas.restricted.acl.rules.users.allow", "none");
+        p.setProperty("amforeas.restricted.acl.rules.movies.allow", "insert, delete");
+        manager = new ACLManager(new BenchSingletonFactory(p));
+    }
+
+    @Benchmark
+    public Boolean validateAlias () {
+        return manager.validate("open", ACLFilter.READ);
+    }
+
+    @Benchmark
+    public Boolean validateResource () {
+        return manager.validate("restricted", "movies", ACLFilter.INSERT);
+    }
+
+    @Benchmark
+    public Boolean validateResourceWithoutRules () {
+        return manager.validate("restricted", "cars", ACLFilter.READ);
+    }
+
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.bench;
+
+import java.util.Properties;
+import amforeas.AliasExecutors;
+import amforeas.SingletonFactory;
+import amforeas.RestController;
+import amforeas.cache.ResponseCache;
+import amforeas.config.AmforeasConfiguration;
+import amforeas.jdbc.JDBCConnectionFactory;
+import amforeas.jdbc.JDBCExecutor;
+import amforeas.sql.dialect.DialectFactory;
+
+/**
+ * A {@link amforeas.SingletonFactory} with a fixed configuration which doesn't read any file
+ * or connect to any database.
+ */
+public class BenchSingletonFactory implements SingletonFactory {
+
+    private final AmforeasConfiguration configuration;
+
+    public BenchSingletonFactory(final Properties javaProperties) {
+        this.configuration = new AmforeasConfiguration() {
+            @Override
+            public void loadProperties () {
+                this.properties.load(javaProperties);
+            }
+        };
+        this.configuration.loadProperties();
+        this.configuration.load();
+    }
+
+    @Override
+    public JDBCExecutor getJDBCExecutor () {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public AmforeasConfiguration getConfiguration () {
+        return configuration;
+    }
+
+    @Override
+    public void resetConfiguration () {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public JDBCConnectionFactory getJDBCConnectionFactory () {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public RestController getRESTController (String alias) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public DialectFactory getDialectFactory () {
+        return new DialectFactory();
+    }
+
+    @Override
+    public AliasExecutors getAliasExecutors () {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void shutdownAliasExecutors () {}
+
+    @Override
+    public ResponseCache getResponseCache () {
+        throw new UnsupportedOperationException();
+    }
+
+}
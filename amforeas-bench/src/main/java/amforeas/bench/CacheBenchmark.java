@@ -0,0 +1,85 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.bench;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import amforeas.cache.BoundedCache;
+
+/**
+ * Reads and writes a {@link amforeas.cache.BoundedCache} from 64 threads. The keys are twice the
+ * size of the cache, so about half of the reads miss and write the entry. The synchronized map
+ * the cache replaced is measured the same way as a baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+public class CacheBenchmark {
+
+    private static final int SIZE = 10000;
+
+    private BoundedCache<Integer, Integer> cache;
+    private Map<Integer, Integer> synchronizedMap;
+
+    @Setup
+    public void setUp () {
+        cache = new BoundedCache<>(SIZE, TimeUnit.MINUTES.toMillis(30));
+        synchronizedMap = Collections.synchronizedMap(new WeakHashMap<>());
+        for (int i = 0; i < SIZE; i++) {
+            cache.put(i, i);
+            synchronizedMap.put(i, i);
+        }
+    }
+
+    @Benchmark
+    public Integer boundedCache () {
+        final Integer key = ThreadLocalRandom.current().nextInt(SIZE * 2);
+        final Optional<Integer> hit = cache.get(key);
+        if (hit.isPresent()) {
+            return hit.get();
+        }
+        cache.put(key, key);
+        return key;
+    }
+
+    @Benchmark
+    public Integer synchronizedMap () {
+        final Integer key = ThreadLocalRandom.current().nextInt(SIZE * 2);
+        final Integer hit = synchronizedMap.get(key);
+        if (hit != null) {
+            return hit;
+        }
+        synchronizedMap.put(key, key);
+        return key;
+    }
+
+}
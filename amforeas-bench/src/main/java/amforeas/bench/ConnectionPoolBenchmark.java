@@ -0,0 +1,106 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.bench;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.apache.commons.dbcp.DriverManagerConnectionFactory;
+import org.apache.commons.dbcp.PoolableConnectionFactory;
+import org.apache.commons.dbcp.PoolingDataSource;
+import org.apache.commons.pool.impl.GenericObjectPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import amforeas.config.DatabaseConfiguration;
+import amforeas.enums.JDBCDriver;
+import amforeas.jdbc.ConnectionPool;
+import amforeas.jdbc.StatementCache;
+import amforeas.sql.dialect.DialectFactory;
+
+/**
+ * Borrows and returns connections of a {@link amforeas.jdbc.ConnectionPool} from more threads than
+ * connections, with and without preparing a statement from the {@link amforeas.jdbc.StatementCache}.
+ * The <i>baseline</i> runs the same with the pool Amforeas used before, a GenericObjectPool with its
+ * defaults behind a PoolingDataSource.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class ConnectionPoolBenchmark {
+
+    @Param({"baseline", "pool"})
+    String implementation;
+
+    @Param({"4", "16"})
+    int maxConnections;
+
+    private ConnectionPool pool;
+    private GenericObjectPool baseline;
+    private DataSource dataSource;
+
+    @Setup
+    public void setUp () {
+        final DatabaseConfiguration db = DatabaseConfiguration.instanceOf("bench", JDBCDriver.HSQLDB_MEM, "SA", "", "bench_pool", null, null, maxConnections, false);
+        db.setMaxWait(60000);
+        if ("baseline".equals(implementation)) {
+            baseline = new GenericObjectPool(null, maxConnections);
+            new PoolableConnectionFactory(new DriverManagerConnectionFactory(db.toJdbcURL(), db.getUsername(), db.getPassword()), baseline,
+                new StatementCache("bench", 50), null, false, true);
+            dataSource = new PoolingDataSource(baseline);
+        } else {
+            pool = new ConnectionPool(db, new DialectFactory().getDialect(db), new StatementCache("bench", 50));
+            dataSource = pool.getDataSource();
+        }
+    }
+
+    @TearDown
+    public void tearDown () throws Exception {
+        if (baseline != null) {
+            baseline.close();
+        } else {
+            pool.close();
+        }
+    }
+
+    @Benchmark
+    public boolean borrow () throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            return conn.isReadOnly();
+        }
+    }
+
+    @Benchmark
+    public boolean borrowAndPrepare () throws SQLException {
+        try (Connection conn = dataSource.getConnection(); PreparedStatement ps = conn.prepareStatement("SELECT 1 FROM INFORMATION_SCHEMA.SYSTEM_USERS WHERE USER_NAME = ?")) {
+            return ps.getParameterMetaData().getParameterCount() == 1;
+        }
+    }
+
+}
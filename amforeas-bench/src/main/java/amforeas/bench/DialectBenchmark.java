@@ -0,0 +1,139 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import amforeas.enums.JDBCDriver;
+import amforeas.enums.Operator;
+import amforeas.exceptions.AmforeasBadRequestException;
+import amforeas.jdbc.KeysetCursor;
+import amforeas.jdbc.LimitParam;
+import amforeas.jdbc.OrderParam;
+import amforeas.sql.Delete;
+import amforeas.sql.DynamicFinder;
+import amforeas.sql.Insert;
+import amforeas.sql.Select;
+import amforeas.sql.SelectParam;
+import amforeas.sql.Table;
+import amforeas.sql.Update;
+import amforeas.sql.dialect.Dialect;
+import amforeas.sql.dialect.DialectFactory;
+
+/**
+ * Generates the statements of every request with each {@link amforeas.sql.dialect.Dialect}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DialectBenchmark {
+
+    @Param({"HSQLDB_MEM", "H2_MEM", "MySQL", "PostgreSQL", "ORACLE", "MSSQL", "DERBY_MEM"})
+    JDBCDriver driver;
+
+    private Dialect dialect;
+
+    private final Table table = new Table("bench", "users");
+    private Select select;
+    private Select page;
+    private Select keyset;
+    private Insert insert;
+    private Insert batch;
+    private Update update;
+    private Delete delete;
+    private DynamicFinder finder;
+    private final LimitParam limit = new LimitParam(25, 50);
+    private final OrderParam order = new OrderParam("name", "DESC");
+
+    @Setup
+    public void setUp () throws AmforeasBadRequestException {
+        dialect = new DialectFactory().getDialect(driver);
+
+        select = new Select(table).setParameter(new SelectParam("id", Operator.EQUALS, "1"));
+        page = new Select(table).addColumn("name").addColumn("age")
+            .setParameter(new SelectParam("age", Operator.GREATERTHAN, "30"))
+            .setLimitParam(limit)
+            .setOrderParam(order);
+        keyset = new Select(table)
+            .setLimitParam(new LimitParam(25, 0, new KeysetCursor("user_50", "50")))
+            .setOrderParam(order);
+
+        insert = new Insert(table).addColumn("name", "foo").addColumn("age", "30").addColumn("credit", "10.5");
+        final List<Map<String, String>> rows = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            rows.add(Map.of("name", "user_" + i, "age", String.valueOf(i)));
+        }
+        batch = new Insert(table).setRows(rows);
+
+        update = new Update(table).setId("1").addColumn("name", "foo").addColumn("age", "30");
+        delete = new Delete(table).setId("1");
+        finder = DynamicFinder.valueOf("users", "findAllByNameLikeAndAgeGreaterThanEquals", "foo%", "30");
+    }
+
+    @Benchmark
+    public String select () {
+        return dialect.toStatementString(select);
+    }
+
+    @Benchmark
+    public String selectPage () {
+        return dialect.toStatementString(page);
+    }
+
+    @Benchmark
+    public String selectKeyset () {
+        return dialect.toStatementString(keyset);
+    }
+
+    @Benchmark
+    public String insert () {
+        return dialect.toStatementString(insert);
+    }
+
+    @Benchmark
+    public String insertBatch () {
+        return dialect.toStatementString(batch);
+    }
+
+    @Benchmark
+    public String update () {
+        return dialect.toStatementString(update);
+    }
+
+    @Benchmark
+    public String delete () {
+        return dialect.toStatementString(delete);
+    }
+
+    @Benchmark
+    public String dynamicFinder () {
+        return dialect.toStatementString(finder, limit, order);
+    }
+
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.bench;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import amforeas.AmforeasUtils;
+import amforeas.config.DatabaseConfiguration;
+import amforeas.filter.DigestOutputStream;
+import amforeas.jdbc.LimitParam;
+import amforeas.rest.xstream.Pagination;
+import amforeas.rest.xstream.Row;
+import amforeas.rest.xstream.SuccessResponse;
+
+/**
+ * Compares the Content-MD5 of the old response filter, which digested the {@code toString()} of the entity, with the
+ * {@link amforeas.filter.DigestInterceptor} which digests the serialized bytes on their way to the client.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DigestBenchmark {
+
+    @Param({"500"})
+    int rows;
+
+    private final ObjectWriter writer = new ObjectMapper().writerFor(SuccessResponse.class);
+    private SuccessResponse response;
+
+    @Setup
+    public void setUp () {
+        final List<Row> results = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            final Map<String, Object> cells = new LinkedHashMap<>();
+            cells.put("id", i);
+            cells.put("name", "user_" + i);
+            cells.put("age", 18 + i % 60);
+            cells.put("credit", BigDecimal.valueOf(i * 25, 2));
+            cells.put("birthday", "1980-01-01");
+            cells.put("lastupdate", "2020-05-01T10:15:30.000Z");
+            cells.put("active", i % 2 == 0);
+            cells.put("comment", i % 3 == 0 ? null : "A comment about the user number " + i);
+            results.add(new Row(i, cells));
+        }
+        final LimitParam limit = new LimitParam(rows, 0);
+        response = new SuccessResponse("users", results, Pagination.of(limit, rows, Fixtures.ROWS));
+    }
+
+    @Benchmark
+    public byte[] withoutDigest () throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        writer.writeValue(output, response);
+        return output.toByteArray();
+    }
+
+    @Benchmark
+    public void toStringDigest (Blackhole bh) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        writer.writeValue(output, response);
+        bh.consume(AmforeasUtils.getMD5Base64(response.toString()));
+        bh.consume(output.toByteArray());
+    }
+
+    @Benchmark
+    public void streamingDigest (Blackhole bh) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final DigestOutputStream digest = new DigestOutputStream(output, DatabaseConfiguration.DEFAULT_DIGEST_MAX_SIZE);
+        writer.writeValue(digest, response);
+        bh.consume(digest.getDigest());
+        digest.release();
+        bh.consume(output.toByteArray());
+    }
+
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import amforeas.exceptions.AmforeasBadRequestException;
+import amforeas.sql.DynamicFinder;
+
+/**
+ * Parses dynamic finders with one, two and three columns.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DynamicFinderBenchmark {
+
+    /**
+     * The finder followed by its values.
+     */
+    @Param({"findByName:foo", "findAllByAgeBetween:18,30", "findAllByNameLikeAndAgeGreaterThanEquals:foo%,30", "findAllByCreditIsNullOrAgeLessThan:18"})
+    String query;
+
+    private String finder;
+    private String[] values;
+
+    @Setup
+    public void setUp () {
+        final String[] parts = query.split(":");
+        finder = parts[0];
+        values = parts[1].split(",");
+    }
+
+    @Benchmark
+    public DynamicFinder valueOf () throws AmforeasBadRequestException {
+        return DynamicFinder.valueOf("users", finder, values);
+    }
+
+}
@@ -0,0 +1,152 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.bench;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+
+/**
+ * Creates the in memory databases the benchmarks read from. Every database has a <i>users</i>
+ * table with the usual column types and {@link #ROWS} rows. {@link #createWide(Connection)} adds a
+ * <i>wide</i> table with {@link #WIDE_COLUMNS} columns of mixed types.
+ */
+public class Fixtures {
+
+    public static final int ROWS = 1000;
+
+    /**
+     * The columns of the wide table, the id and then the same types over and over.
+     */
+    public static final int WIDE_COLUMNS = 57;
+
+    private static final String[] WIDE_TYPES = {"INTEGER", "BIGINT", "SMALLINT", "VARCHAR(50)", "DECIMAL(12,2)", "DOUBLE", "DATE", "TIMESTAMP"};
+
+    public enum Database {
+        HSQLDB("jdbc:hsqldb:mem:bench", "SA"), H2("jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1", "sa");
+
+        private final String url;
+        private final String username;
+
+        Database(final String url, final String username) {
+            this.url = url;
+            this.username = username;
+        }
+    }
+
+    /**
+     * @param database the {@link amforeas.bench.Fixtures.Database}
+     * @return a new connection to the database
+     * @throws SQLException if the connection fails
+     */
+    public static Connection connect (final Database database) throws SQLException {
+        return DriverManager.getConnection(database.url, database.username, "");
+    }
+
+    /**
+     * Opens a connection to the database and (re)creates the users table.
+     * @param database the {@link amforeas.bench.Fixtures.Database}
+     * @return a connection to the database
+     * @throws SQLException if the table can't be created
+     */
+    public static Connection open (final Database database) throws SQLException {
+        final Connection conn = connect(database);
+        try (Statement st = conn.createStatement()) {
+            st.execute("DROP TABLE users IF EXISTS");
+            st.execute("CREATE TABLE users (id INTEGER PRIMARY KEY, name VARCHAR(50) NOT NULL, age INTEGER, "
+                + "credit DECIMAL(10,2), birthday DATE, lastupdate TIMESTAMP, active BOOLEAN, comment VARCHAR(255))");
+        }
+
+        try (PreparedStatement ps = conn.prepareStatement("INSERT INTO users VALUES (?,?,?,?,?,?,?,?)")) {
+            for (int i = 0; i < ROWS; i++) {
+                ps.setInt(1, i);
+                ps.setString(2, "user_" + i);
+                ps.setInt(3, 18 + i % 60);
+                ps.setBigDecimal(4, BigDecimal.valueOf(i * 25, 2));
+                ps.setDate(5, Date.valueOf("1980-01-01"));
+                ps.setTimestamp(6, new Timestamp(System.currentTimeMillis()));
+                ps.setBoolean(7, i % 2 == 0);
+                if (i % 3 == 0) {
+                    ps.setNull(8, java.sql.Types.VARCHAR);
+                } else {
+                    ps.setString(8, "A comment about the user number " + i);
+                }
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        return conn;
+    }
+
+    /**
+     * (Re)creates the wide table with {@link #ROWS} rows, every eighth value is NULL.
+     * @param conn a connection given by {@link #open(Database)}
+     * @throws SQLException if the table can't be created
+     */
+    public static void createWide (final Connection conn) throws SQLException {
+        final StringBuilder create = new StringBuilder("CREATE TABLE wide (id INTEGER PRIMARY KEY");
+        final StringBuilder insert = new StringBuilder("INSERT INTO wide VALUES (?");
+        for (int c = 1; c < WIDE_COLUMNS; c++) {
+            create.append(", c").append(c).append(" ").append(WIDE_TYPES[c % WIDE_TYPES.length]);
+            insert.append(",?");
+        }
+        try (Statement st = conn.createStatement()) {
+            st.execute("DROP TABLE wide IF EXISTS");
+            st.execute(create.append(")").toString());
+        }
+
+        final long now = System.currentTimeMillis();
+        try (PreparedStatement ps = conn.prepareStatement(insert.append(")").toString())) {
+            for (int i = 0; i < ROWS; i++) {
+                ps.setInt(1, i);
+                for (int c = 1; c < WIDE_COLUMNS; c++) {
+                    if ((i + c) % 8 == 0) {
+                        ps.setObject(c + 1, null);
+                        continue;
+                    }
+                    switch (c % WIDE_TYPES.length) {
+                        case 0:
+                        case 2:
+                            ps.setInt(c + 1, i % 1000);
+                            break;
+                        case 1:
+                            ps.setLong(c + 1, (long) i * c * 1000003L);
+                            break;
+                        case 3:
+                            ps.setString(c + 1, "value " + i + " of column " + c);
+                            break;
+                        case 4:
+                            ps.setBigDecimal(c + 1, BigDecimal.valueOf(i * c, 2));
+                            break;
+                        case 5:
+                            ps.setDouble(c + 1, i / (double) c);
+                            break;
+                        case 6:
+                            ps.setDate(c + 1, new Date(now - i * 86400000L));
+                            break;
+                        default:
+                            ps.setTimestamp(c + 1, new Timestamp(now - i * 1000L));
+                    }
+                }
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+}
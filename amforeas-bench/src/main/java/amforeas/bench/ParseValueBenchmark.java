@@ -0,0 +1,81 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.bench;
+
+import java.sql.Types;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import amforeas.AmforeasUtils;
+import amforeas.jdbc.TypedValue;
+
+/**
+ * Parses the values of dynamic finders and stored procedures, one of each kind, guessing their type or with the type
+ * of their column.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseValueBenchmark {
+
+    @Param({"12345", "-12.50", "2020-05-01", "2020-05-01T10:15:30.000Z", "10:15:30", "foo bar"})
+    String value;
+
+    private int type;
+
+    @Setup
+    public void setUp () {
+        switch (value) {
+            case "12345":
+                type = Types.INTEGER;
+                break;
+            case "-12.50":
+                type = Types.DECIMAL;
+                break;
+            case "2020-05-01":
+                type = Types.DATE;
+                break;
+            case "2020-05-01T10:15:30.000Z":
+                type = Types.TIMESTAMP;
+                break;
+            case "10:15:30":
+                type = Types.TIME;
+                break;
+            default:
+                type = Types.VARCHAR;
+        }
+    }
+
+    @Benchmark
+    public Object parseValue () {
+        return AmforeasUtils.parseValue(value);
+    }
+
+    @Benchmark
+    public Object convert () {
+        return TypedValue.convert(value, type);
+    }
+
+}
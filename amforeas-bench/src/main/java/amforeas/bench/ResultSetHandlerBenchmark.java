@@ -0,0 +1,119 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.bench;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import amforeas.handler.AmforeasResultSetHandler;
+import amforeas.rest.xstream.Row;
+
+/**
+ * Maps the rows of the users table and of a wide table with {@link amforeas.bench.Fixtures#WIDE_COLUMNS} columns
+ * of mixed types. {@link #handle()} generates the column plan once per result set while {@link #resultSetToMap(Blackhole)}
+ * generates it for every row. {@link #baseline()} maps them with the {@link amforeas.bench.BaselineResultSetHandler},
+ * which reads the metadata and calls getObject for every column of every row. The tables are created once and
+ * every thread reads them with its own connection.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResultSetHandlerBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Table {
+
+        @Param({"HSQLDB", "H2"})
+        Fixtures.Database database;
+
+        private Connection conn;
+
+        @Setup
+        public void setUp () throws SQLException {
+            conn = Fixtures.open(database);
+            Fixtures.createWide(conn);
+        }
+
+        @TearDown
+        public void tearDown () throws SQLException {
+            conn.close();
+        }
+    }
+
+    @Param({"users", "wide"})
+    String table;
+
+    @Param({"25", "1000"})
+    int rows;
+
+    private Connection conn;
+    private PreparedStatement stmt;
+    private final AmforeasResultSetHandler handler = new AmforeasResultSetHandler(true);
+    private final BaselineResultSetHandler baseline = new BaselineResultSetHandler(true);
+
+    @Setup
+    public void setUp (final Table fixture) throws SQLException {
+        conn = Fixtures.connect(fixture.database);
+        stmt = conn.prepareStatement("SELECT * FROM " + table + " WHERE id < ?");
+        stmt.setInt(1, rows);
+    }
+
+    @TearDown
+    public void tearDown () throws SQLException {
+        stmt.close();
+        conn.close();
+    }
+
+    @Benchmark
+    public List<Row> handle () throws SQLException {
+        try (ResultSet rs = stmt.executeQuery()) {
+            return handler.handle(rs);
+        }
+    }
+
+    @Benchmark
+    public List<Row> baseline () throws SQLException {
+        try (ResultSet rs = stmt.executeQuery()) {
+            return baseline.handle(rs);
+        }
+    }
+
+    @Benchmark
+    public void resultSetToMap (final Blackhole bh) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                bh.consume(AmforeasResultSetHandler.resultSetToMap(rs));
+            }
+        }
+    }
+
+}
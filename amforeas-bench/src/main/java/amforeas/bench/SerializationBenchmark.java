@@ -0,0 +1,114 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.bench;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import javax.ws.rs.core.MediaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import amforeas.AmforeasWS;
+import amforeas.filter.JacksonBinaryWriter;
+import amforeas.jdbc.LimitParam;
+import amforeas.rest.xstream.Pagination;
+import amforeas.rest.xstream.Row;
+import amforeas.rest.xstream.SuccessResponse;
+
+/**
+ * Serializes a {@link amforeas.rest.xstream.SuccessResponse} to JSON the way the Jackson provider of
+ * Jersey does, and to the binary formats with the mappers of {@link amforeas.filter.JacksonBinaryWriter},
+ * then reads it back like a client would. The size of the payload of every format is reported as the
+ * <i>bytes</i> counter of the serialize benchmark.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"25", "1000"})
+    int rows;
+
+    @Param({MediaType.APPLICATION_JSON, AmforeasWS.APPLICATION_CBOR, AmforeasWS.APPLICATION_SMILE, AmforeasWS.APPLICATION_MSGPACK})
+    String format;
+
+    private ObjectMapper mapper;
+    private ObjectWriter writer;
+    private SuccessResponse response;
+    private byte[] payload;
+
+    @Setup
+    public void setUp () throws IOException {
+        final List<Row> results = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            final Map<String, Object> cells = new LinkedHashMap<>();
+            cells.put("id", i);
+            cells.put("name", "user_" + i);
+            cells.put("age", 18 + i % 60);
+            cells.put("credit", BigDecimal.valueOf(i * 25, 2));
+            cells.put("birthday", "1980-01-01");
+            cells.put("lastupdate", "2020-05-01T10:15:30.000Z");
+            cells.put("active", i % 2 == 0);
+            cells.put("comment", i % 3 == 0 ? null : "A comment about the user number " + i);
+            results.add(new Row(i, cells));
+        }
+        final LimitParam limit = new LimitParam(rows, 0);
+        response = new SuccessResponse("users", results, Pagination.of(limit, rows, Fixtures.ROWS));
+
+        mapper = JacksonBinaryWriter.mapperOf(MediaType.valueOf(format)).orElseGet(ObjectMapper::new);
+        writer = mapper.writerFor(SuccessResponse.class);
+        payload = writer.writeValueAsBytes(response);
+    }
+
+    /**
+     * The size of the last payload written, JMH reports it next to the score.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Size {
+        public long bytes;
+    }
+
+    @Benchmark
+    public byte[] serialize (final Size size) throws IOException {
+        final byte[] bytes = writer.writeValueAsBytes(response);
+        size.bytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public JsonNode deserialize () throws IOException {
+        return mapper.readTree(payload);
+    }
+
+}
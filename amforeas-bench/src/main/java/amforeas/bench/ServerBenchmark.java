@@ -0,0 +1,143 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.bench;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.jetty.server.Server;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import amforeas.AmforeasJetty;
+import amforeas.SingletonFactoryImpl;
+import amforeas.config.AmforeasConfiguration;
+
+/**
+ * Sends requests from 1024 clients to an embedded server which reads the users table of HSQLDB, once with
+ * the platform thread pools and once with virtual threads, both for Jetty and for the requests of the alias.
+ * Results are given as throughput and as sampled latencies, which include the p99. On JVMs without virtual
+ * threads both runs use the platform pools.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(1024)
+@Fork(1)
+public class ServerBenchmark {
+
+    private static final int PORT = 18080;
+
+    @Param({"false", "true"})
+    boolean virtual;
+
+    private Connection fixture;
+    private Server server;
+    private HttpClient client;
+    private URI page;
+
+    @Setup
+    public void setUp () throws Exception {
+        fixture = Fixtures.open(Fixtures.Database.HSQLDB);
+
+        final Properties properties = new Properties();
+        properties.setProperty("amforeas.server.root", "/amforeas/*");
+        properties.setProperty("amforeas.server.host", "127.0.0.1");
+        properties.setProperty("amforeas.server.http.port", String.valueOf(PORT));
+        properties.setProperty("amforeas.server.threads.min", "10");
+        properties.setProperty("amforeas.server.threads.max", "200");
+        properties.setProperty("amforeas.server.threads.virtual", String.valueOf(virtual));
+        properties.setProperty("amforeas.alias.list", "bench");
+        properties.setProperty("amforeas.bench.jdbc.driver", "HSQLDB_MEM");
+        properties.setProperty("amforeas.bench.jdbc.database", "bench");
+        properties.setProperty("amforeas.bench.jdbc.username", "SA");
+        properties.setProperty("amforeas.bench.jdbc.password", "");
+        properties.setProperty("amforeas.bench.jdbc.max.connections", "32");
+        properties.setProperty("amforeas.bench.executor.queue.size", "2048");
+
+        final AmforeasConfiguration conf = ServerSingletonFactory.configure(properties);
+        server = new AmforeasJetty().createServer(conf);
+        server.start();
+
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        page = URI.create("http://127.0.0.1:" + PORT + "/amforeas/bench/users?pageSize=25");
+    }
+
+    @TearDown
+    public void tearDown () throws Exception {
+        server.stop();
+        new SingletonFactoryImpl().shutdownAliasExecutors();
+        new SingletonFactoryImpl().getJDBCConnectionFactory().closeConnections();
+        fixture.close();
+    }
+
+    @Benchmark
+    public int get () throws IOException, InterruptedException {
+        final int id = ThreadLocalRandom.current().nextInt(Fixtures.ROWS);
+        return send(URI.create("http://127.0.0.1:" + PORT + "/amforeas/bench/users/" + id));
+    }
+
+    @Benchmark
+    public int getAll () throws IOException, InterruptedException {
+        return send(page);
+    }
+
+    private int send (final URI uri) throws IOException, InterruptedException {
+        final HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Request to " + uri + " failed with " + response.statusCode());
+        }
+        return response.body().length;
+    }
+
+    /**
+     * The resources create their own {@link amforeas.SingletonFactoryImpl}, so the configuration of the
+     * benchmark is set on the shared instance.
+     */
+    private static class ServerSingletonFactory extends SingletonFactoryImpl {
+
+        static AmforeasConfiguration configure (final Properties javaProperties) {
+            final AmforeasConfiguration conf = new AmforeasConfiguration() {
+                @Override
+                public void loadProperties () {
+                    this.properties.load(javaProperties);
+                }
+            };
+            conf.loadProperties();
+            conf.load();
+            synchronized (SingletonFactoryImpl.class) {
+                configuration = conf;
+            }
+            return conf;
+        }
+    }
+
+}
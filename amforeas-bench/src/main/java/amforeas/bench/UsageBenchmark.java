@@ -0,0 +1,62 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.bench;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import amforeas.rest.xstream.AmforeasResponse;
+import amforeas.rest.xstream.Usage;
+
+/**
+ * Records requests in {@link amforeas.rest.xstream.Usage} from 64 threads while another one reads
+ * the statistics.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UsageBenchmark {
+
+    private static final String[] RESOURCES = {"users", "car", "maker", "comments"};
+
+    private final Usage usage = Usage.getInstance();
+
+    @Benchmark
+    @Group("usage")
+    @GroupThreads(64)
+    public void record () {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        usage.addRead("bench", RESOURCES[random.nextInt(RESOURCES.length)], random.nextLong(100000, 50000000), 200);
+    }
+
+    @Benchmark
+    @Group("usage")
+    @GroupThreads(1)
+    public AmforeasResponse stats () {
+        return usage.getUsageData();
+    }
+
+}
@@ -1,5 +1,6 @@
 package amforeas.client;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 import org.apache.http.NameValuePair;
@@ -47,6 +48,15 @@ public interface AmforeasClient<T> {
      */
     public Optional<T> get (String resource, String pk, String id);
 
+    /**
+     * Obtains the records of a resource that match any of the given ids in one request
+     * SELECT * FROM resource WHERE id IN (?, ?, ...);
+     * @param resource - the resource name
+     * @param ids - ids of the resources
+     * @return
+     */
+    public Optional<T> getMany (String resource, String... ids);
+
     /**
      * Obtains all records of a resource that matche the given name on the given column
      * SELECT * FROM resource WHERE ${col} = ${arg}
@@ -101,6 +111,24 @@ public interface AmforeasClient<T> {
      */
     public Optional<T> update (String resource, String pk, String id, String json);
 
+    /**
+     * Insert the entity or, if one with the same primary key exists, update it
+     * @param resource - the resource name
+     * @param json - the data in JSON format including the primary key, or an array of entities
+     * @return
+     */
+    public Optional<T> upsert (String resource, String json);
+
+    /**
+     * Load the rows of a CSV with a header or of a JSON object per line, streaming the body
+     * @param resource - the resource name
+     * @param body - the rows, read until its end
+     * @param contentType - text/csv or application/x-ndjson
+     * @param commitEvery - commit every this many rows, or every batch when 0
+     * @return the rows loaded and the rows rejected with their line
+     */
+    public Optional<T> ingest (String resource, InputStream body, String contentType, int commitEvery);
+
     /**
      * Delete the entity with the given fields
      * @param resource - the resource name
@@ -126,6 +154,14 @@ public interface AmforeasClient<T> {
      */
     public Optional<T> call (String function, StoredProcedureParam... params);
 
+    /**
+     * Executes many operations in a single transaction
+     * @param json - an array of operations like [{"op":"insert", "resource":"users", "values":{"name":"foo"}}]
+     * @param continueOnError - commit the operations which succeed even if others fail
+     * @return
+     */
+    public Optional<T> batch (String json, boolean continueOnError);
+
     /**
      * Performs an HTTP GET for the given request
      * @param request - a {@link RequestParams} with the paramters
@@ -13,6 +13,7 @@
 package amforeas.client;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -36,6 +37,8 @@ import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.InputStreamEntity;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
@@ -54,12 +57,23 @@ public class AmforeasRestClient implements AmforeasClient<AmforeasResponse> {
 
     private static final Logger l = LoggerFactory.getLogger(AmforeasRestClient.class);
 
+    /**
+     * Formats the responses can be asked in, besides JSON. They are smaller and quicker to decode than JSON when the
+     * rows have many numbers.
+     */
+    public static final String APPLICATION_CBOR = "application/cbor";
+    public static final String APPLICATION_SMILE = "application/x-jackson-smile";
+    public static final String APPLICATION_MSGPACK = "application/msgpack";
+
     private static final String alias_path = "%s/%s";
     private static final String resource_path = "%s/%s/%s";
     private static final String item_path = "%s/%s/%s/%s";
     private static final String find_path = "%s/%s/%s/%s/%s";
+    private static final String ids_path = "%s/%s/%s/_ids";
     private static final String query_path = "%s/%s/%s/dynamic/%s";
     private static final String call_path = "%s/%s/call/%s";
+    private static final String batch_path = "%s/%s/_batch";
+    private static final String ingest_path = "%s/%s/%s/_ingest";
 
     private final String protocol;
     private final String host;
@@ -79,6 +93,10 @@ public class AmforeasRestClient implements AmforeasClient<AmforeasResponse> {
         this.accept = new BasicHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON);
     }
 
+    /**
+     * @param format the media type sent in the Accept header, JSON or one of {@link #APPLICATION_CBOR},
+     *        {@link #APPLICATION_SMILE} or {@link #APPLICATION_MSGPACK}
+     */
     public AmforeasRestClient(String protocol, String host, Integer port, String root, String alias, String format) {
         validateInput(protocol, host, port, root, alias);
 
@@ -145,6 +163,23 @@ public class AmforeasRestClient implements AmforeasClient<AmforeasResponse> {
         return this.execute(req);
     }
 
+    public Optional<AmforeasResponse> getMany (String resource, String... ids) {
+        final URI url = this.build(String.format(ids_path, root, alias, resource)).orElseThrow();
+        final HttpPost req = new HttpPost(url);
+        req.addHeader(this.accept);
+        req.addHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON);
+
+        try {
+            req.setEntity(new StringEntity(writeAsJSON(ids)));
+        } catch (Exception e) {
+            final String msg = "Failed to encode JSON body " + e.getMessage();
+            l.error(msg);
+            return Optional.of(new ErrorResponse(resource, Response.Status.BAD_REQUEST, msg));
+        }
+
+        return this.execute(req);
+    }
+
     public Optional<AmforeasResponse> find (String resource, String col, String arg) {
         final URI url = this.build(String.format(find_path, root, alias, resource, col, arg)).orElseThrow();
         final HttpGet req = new HttpGet(url);
@@ -224,6 +259,34 @@ public class AmforeasRestClient implements AmforeasClient<AmforeasResponse> {
         return this.execute(req);
     }
 
+    public Optional<AmforeasResponse> upsert (String resource, String json) {
+        final URI url = this.build(String.format(resource_path, root, alias, resource)).orElseThrow();
+        final HttpPut req = new HttpPut(url);
+        req.addHeader(this.accept);
+        req.addHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON);
+        req.addHeader("Prefer", "resolution=merge");
+
+        try {
+            req.setEntity(new StringEntity(json));
+        } catch (UnsupportedEncodingException e) {
+            final String msg = "Failed to encode JSON body " + e.getMessage();
+            l.error(msg);
+            return Optional.of(new ErrorResponse(resource, Response.Status.BAD_REQUEST, msg));
+        }
+
+        return this.execute(req);
+    }
+
+    public Optional<AmforeasResponse> ingest (String resource, InputStream body, String contentType, int commitEvery) {
+        final NameValuePair commitParam = new BasicNameValuePair("commitEvery", Integer.toString(commitEvery));
+        final URI url = this.build(String.format(ingest_path, root, alias, resource), commitParam).orElseThrow();
+        final HttpPost req = new HttpPost(url);
+        req.addHeader(this.accept);
+        // streamed with a chunked transfer encoding
+        req.setEntity(new InputStreamEntity(body, ContentType.parse(contentType)));
+        return this.execute(req);
+    }
+
     /* DELETE */
 
     public Optional<AmforeasResponse> delete (String resource, String id) {
@@ -257,6 +320,26 @@ public class AmforeasRestClient implements AmforeasClient<AmforeasResponse> {
         return this.execute(req);
     }
 
+    /* Batch */
+
+    public Optional<AmforeasResponse> batch (String json, boolean continueOnError) {
+        final NameValuePair continueParam = new BasicNameValuePair("continueOnError", Boolean.toString(continueOnError));
+        final URI url = this.build(String.format(batch_path, root, alias), continueParam).orElseThrow();
+        final HttpPost req = new HttpPost(url);
+        req.addHeader(this.accept);
+        req.addHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON);
+
+        try {
+            req.setEntity(new StringEntity(json));
+        } catch (UnsupportedEncodingException e) {
+            final String msg = "Failed to encode JSON body " + e.getMessage();
+            l.error(msg);
+            return Optional.of(new ErrorResponse(alias, Response.Status.BAD_REQUEST, msg));
+        }
+
+        return this.execute(req);
+    }
+
     /* With Request Params */
 
     public Optional<AmforeasResponse> get (final RequestParams request) {
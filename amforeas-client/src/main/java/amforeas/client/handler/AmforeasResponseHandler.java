@@ -13,28 +13,49 @@
 package amforeas.client.handler;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
 import javax.ws.rs.core.Response;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.ClientProtocolException;
 import org.apache.http.client.ResponseHandler;
+import org.apache.http.entity.ContentType;
 import org.apache.http.util.EntityUtils;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import amforeas.client.AmforeasRestClient;
 import amforeas.client.model.AmforeasResponse;
 import amforeas.client.model.ErrorResponse;
 import amforeas.client.model.SuccessResponse;
 
+/**
+ * Reads the responses in JSON or, if the server answered with one of them, in CBOR, Smile or MessagePack.
+ */
 public class AmforeasResponseHandler implements ResponseHandler<AmforeasResponse> {
 
     private static final Logger l = LoggerFactory.getLogger(AmforeasResponseHandler.class);
 
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final Map<String, ObjectMapper> BINARY = Map.of(
+        AmforeasRestClient.APPLICATION_CBOR, new ObjectMapper(new CBORFactory()),
+        AmforeasRestClient.APPLICATION_SMILE, new ObjectMapper(new SmileFactory()),
+        AmforeasRestClient.APPLICATION_MSGPACK, new ObjectMapper(new MessagePackFactory()));
+
     @Override
     public AmforeasResponse handleResponse (HttpResponse response) throws ClientProtocolException, IOException {
-        final String body = EntityUtils.toString(response.getEntity(), "UTF-8");
+        final byte[] body = EntityUtils.toByteArray(response.getEntity());
         final int code = response.getStatusLine().getStatusCode();
+        final ObjectMapper binary = BINARY.get(ContentType.getOrDefault(response.getEntity()).getMimeType());
 
-        l.debug("Got response ({}): {}", code, body);
+        if (binary == null) {
+            l.debug("Got response ({}): {}", code, new String(body, StandardCharsets.UTF_8));
+        } else {
+            l.debug("Got response ({}) of {} bytes", code, body.length);
+        }
 
         Class<? extends AmforeasResponse> marshall = null;
         if (code == Response.Status.OK.getStatusCode() || code == Response.Status.CREATED.getStatusCode()) {
@@ -43,7 +64,7 @@ public class AmforeasResponseHandler implements ResponseHandler<AmforeasResponse
             marshall = ErrorResponse.class;
         }
 
-        return new ObjectMapper().readValue(body, marshall);
+        return (binary == null ? JSON : binary).readValue(body, marshall);
     }
 
 }
@@ -33,6 +33,7 @@ public class SuccessResponse implements AmforeasResponse {
     private List<Row> rows;
     private String resource;
     private Pagination pagination;
+    private List<String> missing;
 
     public SuccessResponse() {
         this.status = Response.Status.OK;
@@ -125,4 +126,12 @@ public class SuccessResponse implements AmforeasResponse {
         this.pagination = pagination;
     }
 
+    public List<String> getMissing () {
+        return missing;
+    }
+
+    public void setMissing (List<String> missing) {
+        this.missing = missing;
+    }
+
 }
@@ -0,0 +1,86 @@
+package amforeas.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.jupiter.api.Test;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import amforeas.client.handler.AmforeasResponseHandler;
+import amforeas.client.model.AmforeasResponse;
+import amforeas.client.model.ErrorResponse;
+import amforeas.client.model.SuccessResponse;
+
+public class AmforeasResponseHandlerTest {
+
+    // what the server writes, numbers are not quoted
+    private static final Map<String, Object> success = Map.of(
+        "success", true,
+        "status", "OK",
+        "resource", "car",
+        "rows", List.of(Map.of("roi", 0, "cells", Map.of("id", 1, "name", "Ford"))));
+
+    private static final Map<String, Object> error = Map.of(
+        "success", false,
+        "status", "BAD_REQUEST",
+        "resource", "car",
+        "message", "nope");
+
+    @Test
+    public void testJson () throws IOException {
+        assertSuccess(response(200, new JsonFactory(), "application/json", success));
+        assertError(response(400, new JsonFactory(), "application/json", error));
+    }
+
+    @Test
+    public void testCbor () throws IOException {
+        assertSuccess(response(200, new CBORFactory(), AmforeasRestClient.APPLICATION_CBOR, success));
+        assertError(response(400, new CBORFactory(), AmforeasRestClient.APPLICATION_CBOR, error));
+    }
+
+    @Test
+    public void testSmile () throws IOException {
+        assertSuccess(response(200, new SmileFactory(), AmforeasRestClient.APPLICATION_SMILE, success));
+        assertError(response(400, new SmileFactory(), AmforeasRestClient.APPLICATION_SMILE, error));
+    }
+
+    @Test
+    public void testMsgpack () throws IOException {
+        assertSuccess(response(200, new MessagePackFactory(), AmforeasRestClient.APPLICATION_MSGPACK, success));
+        assertError(response(400, new MessagePackFactory(), AmforeasRestClient.APPLICATION_MSGPACK, error));
+    }
+
+    private static HttpResponse response (int code, JsonFactory factory, String contentType, Object body) throws IOException {
+        final HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, code, null);
+        response.setEntity(new ByteArrayEntity(new ObjectMapper(factory).writeValueAsBytes(body), ContentType.create(contentType)));
+        return response;
+    }
+
+    private static void assertSuccess (HttpResponse response) throws IOException {
+        final AmforeasResponse res = new AmforeasResponseHandler().handleResponse(response);
+        assertTrue(res.isSuccess());
+        assertEquals("car", res.getResource());
+        final SuccessResponse success = (SuccessResponse) res;
+        assertEquals(1, success.getRows().size());
+        assertEquals("1", success.getRows().get(0).getCells().get("id"));
+        assertEquals("Ford", success.getRows().get(0).getCells().get("name"));
+    }
+
+    private static void assertError (HttpResponse response) throws IOException {
+        final AmforeasResponse res = new AmforeasResponseHandler().handleResponse(response);
+        assertFalse(res.isSuccess());
+        assertEquals("nope", ((ErrorResponse) res).getMessage());
+    }
+
+}
@@ -0,0 +1,535 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import amforeas.config.AmforeasConfiguration;
+import amforeas.config.DatabaseConfiguration;
+import amforeas.enums.RejectionPolicy;
+import amforeas.jdbc.QueryContext;
+import amforeas.rest.xstream.ErrorResponse;
+
+/**
+ * Runs the requests of every alias on its own pool of threads, so the HTTP threads go back to accept requests
+ * right away and a slow database only holds the threads of its alias. Every pool has as many threads as
+ * connections the alias has, unless a limit is configured, and a bounded queue. When both are full the request
+ * is answered with a 503 or run on the HTTP thread, as configured by the {@link amforeas.enums.RejectionPolicy}
+ * of the alias. Requests which wait in the queue longer than the queue timeout of the alias are answered with a
+ * 503 too. Every 503 tells the client when to retry with a Retry-After header. A request keeps running when its
+ * client disconnects, neither Jersey nor Jetty report it before the response is written, so its statements are
+ * only bounded by the query timeout.
+ * <p>
+ * When the server runs on virtual threads every request runs on a new virtual thread instead, and a semaphore
+ * with as many permits as the pool would have threads limits how many of them use the database at once.
+ */
+public class AliasExecutors {
+
+    private static final Logger l = LoggerFactory.getLogger(AliasExecutors.class);
+
+    /**
+     * Seconds an idle thread waits for a request before it ends.
+     */
+    private static final long KEEP_ALIVE = 60L;
+
+    private final AmforeasConfiguration configuration;
+    private final ThreadFactory threads;
+    private final Map<String, AliasExecutor> executors = new ConcurrentHashMap<>();
+
+    public AliasExecutors() {
+        this(new SingletonFactoryImpl());
+    }
+
+    public AliasExecutors(SingletonFactory factory) {
+        this(factory, virtualThreads(factory.getConfiguration()));
+    }
+
+    /**
+     * @param factory the {@link amforeas.SingletonFactory} with the configuration of the aliases
+     * @param threads the factory of the thread every request runs on, or null to run them on a pool of threads per alias
+     */
+    public AliasExecutors(SingletonFactory factory, ThreadFactory threads) {
+        this.configuration = factory.getConfiguration();
+        this.threads = threads;
+    }
+
+    /**
+     * Runs the task on the executor of the alias and resumes the response with its result. Tasks for an
+     * alias which is not registered run on the calling thread, so the {@link amforeas.RestService} answers
+     * with the usual error. The task runs with a {@link amforeas.jdbc.QueryContext} attached to its thread.
+     * @param alias the alias the request is for
+     * @param asyncResponse the suspended response
+     * @param task the call to the {@link amforeas.RestService}
+     */
+    public void submit (final String alias, final AsyncResponse asyncResponse, final Supplier<Response> task) {
+        final QueryContext context = new QueryContext();
+
+        final AliasExecutor executor = this.getExecutor(alias);
+        if (executor == null) {
+            resume(asyncResponse, context, task);
+            return;
+        }
+
+        final QueuedRequest request = new QueuedRequest(alias, executor, asyncResponse, context, task);
+        if (executor.queueTimeout > 0) {
+            asyncResponse.setTimeoutHandler(r -> request.timeout());
+            asyncResponse.setTimeout(executor.queueTimeout, TimeUnit.MILLISECONDS);
+        }
+
+        try {
+            executor.execute(request);
+        } catch (RejectedExecutionException e) {
+            request.claimed.set(true);
+            executor.rejected.increment();
+            l.warn("Rejected request for {}, {} running and {} queued", alias, executor.getActiveCount(), executor.getQueued());
+            request.unavailable("Too many requests for " + alias);
+        }
+    }
+
+    /**
+     * Adds the figures of the executor of every alias to the statistics of the alias.
+     * @param stats a List of Maps with an alias key, as given by {@link amforeas.jdbc.JDBCConnectionFactory#getStatistics()}
+     * @return the same list
+     */
+    public List<Map<String, Object>> addStatistics (final List<Map<String, Object>> stats) {
+        for (Map<String, Object> map : stats) {
+            final AliasExecutor executor = this.executors.get(String.valueOf(map.get("alias")).toLowerCase());
+            if (executor != null) {
+                map.put("executor-threads", executor.getThreads());
+                map.put("executor-active", executor.getActiveCount());
+                map.put("executor-queued", executor.getQueued());
+                map.put("executor-completed", executor.getCompletedTaskCount());
+                map.put("executor-rejected", executor.rejected.sum());
+                map.put("executor-timed-out", executor.timedOut.sum());
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Stops accepting requests and waits a few seconds for the running ones to finish.
+     */
+    public void shutdown () {
+        this.executors.values().forEach(AliasExecutor::shutdown);
+        for (AliasExecutor executor : this.executors.values()) {
+            try {
+                if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        this.executors.clear();
+    }
+
+    private AliasExecutor getExecutor (final String alias) {
+        if (alias == null) {
+            return null;
+        }
+
+        final String key = alias.toLowerCase();
+        final AliasExecutor executor = this.executors.get(key);
+        if (executor != null) {
+            return executor;
+        }
+
+        final DatabaseConfiguration db;
+        try {
+            db = this.configuration.getDatabaseConfigurationForAlias(alias);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return this.executors.computeIfAbsent(key, k -> this.threads == null ? new PoolExecutor(db) : new ThreadPerTaskExecutor(db, this.threads));
+    }
+
+    private static ThreadFactory virtualThreads (final AmforeasConfiguration configuration) {
+        if (!configuration.isServerThreadsVirtual()) {
+            return null;
+        }
+        final ThreadFactory threads = VirtualThreads.factory("amforeas-virtual-").orElse(null);
+        if (threads != null) {
+            l.info("Running the requests of every alias on virtual threads");
+        }
+        return threads;
+    }
+
+    private static void resume (final AsyncResponse asyncResponse, final QueryContext context, final Supplier<Response> task) {
+        // streamed rows are written while the response is resumed, so the context stays attached until then
+        context.attach();
+        try {
+            asyncResponse.resume(task.get());
+        } catch (Throwable t) {
+            asyncResponse.resume(t);
+        } finally {
+            context.detach();
+        }
+    }
+
+    /**
+     * A request which runs only once, either on a thread of the executor or, if it waited too long in the queue,
+     * as a 503 from the timeout of its suspended response.
+     */
+    private static class QueuedRequest implements Runnable {
+
+        private final String alias;
+        private final AliasExecutor executor;
+        private final AsyncResponse asyncResponse;
+        private final QueryContext context;
+        private final Supplier<Response> task;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        QueuedRequest(final String alias, final AliasExecutor executor, final AsyncResponse asyncResponse, final QueryContext context,
+            final Supplier<Response> task) {
+            this.alias = alias;
+            this.executor = executor;
+            this.asyncResponse = asyncResponse;
+            this.context = context;
+            this.task = task;
+        }
+
+        @Override
+        public void run () {
+            if (!this.claimed.compareAndSet(false, true)) {
+                return;
+            }
+            if (this.executor.queueTimeout > 0) {
+                // the request left the queue, it may now take as long as its query timeout allows
+                this.asyncResponse.setTimeout(0, TimeUnit.MILLISECONDS);
+            }
+            resume(this.asyncResponse, this.context, this.task);
+        }
+
+        void timeout () {
+            if (!this.claimed.compareAndSet(false, true)) {
+                this.asyncResponse.setTimeout(0, TimeUnit.MILLISECONDS);
+                return;
+            }
+            this.executor.remove(this);
+            this.executor.timedOut.increment();
+            l.warn("Request for {} waited more than {}ms in the queue, {} running and {} queued", alias, executor.queueTimeout, executor.getActiveCount(),
+                executor.getQueued());
+            this.unavailable("Timed out waiting for " + alias);
+        }
+
+        void unavailable (final String message) {
+            final Response error = new ErrorResponse(this.alias, Response.Status.SERVICE_UNAVAILABLE, message).getResponse();
+            this.asyncResponse.resume(Response.fromResponse(error).header(HttpHeaders.RETRY_AFTER, this.executor.retryAfter).build());
+        }
+    }
+
+    /**
+     * Runs the requests of an alias and keeps its figures.
+     */
+    private abstract static class AliasExecutor {
+
+        final LongAdder rejected = new LongAdder();
+        final LongAdder timedOut = new LongAdder();
+        final long queueTimeout;
+
+        /**
+         * Seconds a rejected client should wait before it tries again, about as long as a request may wait in the queue.
+         */
+        final long retryAfter;
+
+        AliasExecutor(final DatabaseConfiguration db) {
+            this.queueTimeout = db.getExecutorQueueTimeout();
+            this.retryAfter = Math.max(1L, TimeUnit.MILLISECONDS.toSeconds(this.queueTimeout));
+        }
+
+        /**
+         * Runs the request now or queues it.
+         * @throws RejectedExecutionException if the request can't be run nor queued
+         */
+        abstract void execute (QueuedRequest request);
+
+        /**
+         * Takes a request which is still waiting out of the queue.
+         */
+        abstract void remove (QueuedRequest request);
+
+        abstract int getThreads ();
+
+        abstract int getActiveCount ();
+
+        abstract int getQueued ();
+
+        abstract long getCompletedTaskCount ();
+
+        abstract void shutdown ();
+
+        abstract boolean awaitTermination (long timeout, TimeUnit unit) throws InterruptedException;
+
+        abstract void shutdownNow ();
+    }
+
+    private static class PoolExecutor extends AliasExecutor {
+
+        private final ThreadPoolExecutor pool;
+
+        PoolExecutor(final DatabaseConfiguration db) {
+            super(db);
+            this.pool = new ThreadPoolExecutor(db.getExecutorThreads(), db.getExecutorThreads(), KEEP_ALIVE, TimeUnit.SECONDS,
+                queueOf(db.getExecutorQueueSize()), threadsFor(db.getAlias()), handlerFor(db.getExecutorRejection()));
+            this.pool.allowCoreThreadTimeOut(true);
+            l.debug("Registered executor for {} with {} threads, {} queued requests for {}ms and {} rejection", db.getAlias(), db.getExecutorThreads(),
+                db.getExecutorQueueSize(), db.getExecutorQueueTimeout(), db.getExecutorRejection());
+        }
+
+        @Override
+        void execute (final QueuedRequest request) {
+            this.pool.execute(request);
+        }
+
+        @Override
+        void remove (final QueuedRequest request) {
+            this.pool.remove(request);
+        }
+
+        @Override
+        int getThreads () {
+            return this.pool.getMaximumPoolSize();
+        }
+
+        @Override
+        int getActiveCount () {
+            return this.pool.getActiveCount();
+        }
+
+        @Override
+        int getQueued () {
+            return this.pool.getQueue().size();
+        }
+
+        @Override
+        long getCompletedTaskCount () {
+            return this.pool.getCompletedTaskCount();
+        }
+
+        @Override
+        void shutdown () {
+            this.pool.shutdown();
+        }
+
+        @Override
+        boolean awaitTermination (final long timeout, final TimeUnit unit) throws InterruptedException {
+            return this.pool.awaitTermination(timeout, unit);
+        }
+
+        @Override
+        void shutdownNow () {
+            this.pool.shutdownNow();
+        }
+
+        private static BlockingQueue<Runnable> queueOf (final int size) {
+            return size > 0 ? new ArrayBlockingQueue<>(size) : new SynchronousQueue<>();
+        }
+
+        private static RejectedExecutionHandler handlerFor (final RejectionPolicy policy) {
+            return policy == RejectionPolicy.CALLER_RUNS ? new ThreadPoolExecutor.CallerRunsPolicy() : new ThreadPoolExecutor.AbortPolicy();
+        }
+
+        private static ThreadFactory threadsFor (final String alias) {
+            final AtomicInteger count = new AtomicInteger();
+            return r -> {
+                final Thread t = new Thread(r, "amforeas-" + alias + "-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            };
+        }
+    }
+
+    /**
+     * Starts a new thread for every request, meant for virtual threads which cost nothing while they wait. The
+     * permits of a semaphore take the place of the threads of the pool, requests wait for one on their own thread
+     * and the waiting ones count as queued.
+     */
+    private static class ThreadPerTaskExecutor extends AliasExecutor {
+
+        private final String alias;
+        private final ThreadFactory factory;
+        private final int threads;
+        private final int queueSize;
+        private final RejectionPolicy rejection;
+        private final Semaphore permits;
+        private final Map<QueuedRequest, Thread> waiting = new ConcurrentHashMap<>();
+        private final Map<Thread, Boolean> running = new ConcurrentHashMap<>();
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicInteger count = new AtomicInteger();
+        private final LongAdder completed = new LongAdder();
+        private volatile boolean stopped;
+
+        ThreadPerTaskExecutor(final DatabaseConfiguration db, final ThreadFactory factory) {
+            super(db);
+            this.alias = db.getAlias();
+            this.factory = factory;
+            this.threads = db.getExecutorThreads();
+            this.queueSize = db.getExecutorQueueSize();
+            this.rejection = db.getExecutorRejection();
+            this.permits = new Semaphore(this.threads, true);
+            l.debug("Registered executor for {} with a thread per request, {} at once, {} queued requests for {}ms and {} rejection", db.getAlias(),
+                db.getExecutorThreads(), db.getExecutorQueueSize(), db.getExecutorQueueTimeout(), db.getExecutorRejection());
+        }
+
+        @Override
+        void execute (final QueuedRequest request) {
+            if (this.stopped) {
+                throw new RejectedExecutionException("Executor for " + this.alias + " is shut down");
+            }
+            if (this.tryAcquire()) {
+                this.start(request, false);
+                return;
+            }
+            synchronized (this.waiting) {
+                if (this.waiting.size() < this.queueSize) {
+                    this.start(request, true);
+                    return;
+                }
+            }
+            if (this.rejection != RejectionPolicy.CALLER_RUNS) {
+                throw new RejectedExecutionException("Executor for " + this.alias + " is full");
+            }
+            request.run();
+        }
+
+        /**
+         * Takes a permit if one is free and no request is waiting for it, a fair semaphore keeps the order of the queue.
+         */
+        private boolean tryAcquire () {
+            try {
+                return this.permits.tryAcquire(0, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        private void start (final QueuedRequest request, final boolean queued) {
+            final Thread t = this.factory.newThread( () -> {
+                try {
+                    if (!queued || this.acquire(request)) {
+                        this.run(request);
+                    }
+                } finally {
+                    this.running.remove(Thread.currentThread());
+                }
+            });
+            t.setName("amforeas-" + this.alias + "-" + this.count.incrementAndGet());
+            t.setDaemon(true);
+            if (queued) {
+                this.waiting.put(request, t);
+            }
+            this.running.put(t, Boolean.TRUE);
+            t.start();
+        }
+
+        private boolean acquire (final QueuedRequest request) {
+            try {
+                if (this.queueTimeout > 0) {
+                    // the timeout of the suspended response answers the request when the wait is over
+                    return this.permits.tryAcquire(this.queueTimeout, TimeUnit.MILLISECONDS);
+                }
+                this.permits.acquire();
+                return true;
+            } catch (InterruptedException e) {
+                return false;
+            } finally {
+                this.waiting.remove(request);
+            }
+        }
+
+        private void run (final QueuedRequest request) {
+            this.active.incrementAndGet();
+            try {
+                request.run();
+            } finally {
+                this.active.decrementAndGet();
+                this.completed.increment();
+                this.permits.release();
+            }
+        }
+
+        @Override
+        void remove (final QueuedRequest request) {
+            final Thread t = this.waiting.remove(request);
+            if (t != null) {
+                t.interrupt();
+            }
+        }
+
+        @Override
+        int getThreads () {
+            return this.threads;
+        }
+
+        @Override
+        int getActiveCount () {
+            return this.active.get();
+        }
+
+        @Override
+        int getQueued () {
+            return this.waiting.size();
+        }
+
+        @Override
+        long getCompletedTaskCount () {
+            return this.completed.sum();
+        }
+
+        @Override
+        void shutdown () {
+            this.stopped = true;
+        }
+
+        @Override
+        boolean awaitTermination (final long timeout, final TimeUnit unit) throws InterruptedException {
+            final long deadline = System.nanoTime() + unit.toNanos(timeout);
+            for (Thread t : this.running.keySet()) {
+                final long left = deadline - System.nanoTime();
+                if (left <= 0) {
+                    break;
+                }
+                TimeUnit.NANOSECONDS.timedJoin(t, left);
+            }
+            return this.running.isEmpty();
+        }
+
+        @Override
+        void shutdownNow () {
+            this.stopped = true;
+            this.running.keySet().forEach(Thread::interrupt);
+        }
+    }
+
+}
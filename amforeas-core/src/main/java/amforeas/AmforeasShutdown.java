@@ -16,7 +16,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Executes a JDBCExecutor.shutdown() in an independent thread.
+ * Stops the {@link amforeas.AliasExecutors} and executes a JDBCExecutor.shutdown() in an independent thread.
  */
 public class AmforeasShutdown extends Thread {
 
@@ -38,10 +38,17 @@ public class AmforeasShutdown extends Thread {
     public void run () {
         l.info("Shutting down Amforeas");
 
+        // nothing is created here, loading the configuration would register another hook and fail
+        try {
+            this.factory.shutdownAliasExecutors();
+        } catch (Exception e) {
+            l.warn("Failed to stop the alias executors: {}", e.getMessage());
+        }
+
         try {
             this.factory.getJDBCExecutor().shutdown();
         } catch (Exception e) {
-            l.warn("Failed to cleanup database connections", e.getMessage());
+            l.warn("Failed to cleanup database connections: {}", e.getMessage());
         }
 
     }
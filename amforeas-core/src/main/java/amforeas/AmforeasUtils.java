@@ -14,17 +14,23 @@ package amforeas;
 
 import java.io.UnsupportedEncodingException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.xml.bind.DatatypeConverter;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.joda.time.Chronology;
 import org.joda.time.DateTime;
+import org.joda.time.chrono.ISOChronology;
 import org.joda.time.format.DateTimeFormatter;
+import org.joda.time.format.DateTimeParserBucket;
 import org.joda.time.format.ISODateTimeFormat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,6 +38,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import amforeas.exceptions.AmforeasBadRequestException;
+import amforeas.jdbc.BatchOperation;
 import amforeas.jdbc.StoredProcedureParam;
 
 /**
@@ -41,6 +48,15 @@ public class AmforeasUtils {
 
     private static final Logger l = LoggerFactory.getLogger(AmforeasUtils.class);
 
+    private static final DateTimeFormatter DATE_TIME = ISODateTimeFormat.dateTime();
+    private static final DateTimeFormatter DATE = ISODateTimeFormat.date();
+    private static final DateTimeFormatter BASIC_DATE = ISODateTimeFormat.basicDate();
+    private static final DateTimeFormatter TIME = ISODateTimeFormat.time();
+    private static final DateTimeFormatter BASIC_TIME = ISODateTimeFormat.basicTime();
+
+    private static final Pattern INTEGER = Pattern.compile("[+-]?\\d+");
+    private static final Pattern DECIMAL = Pattern.compile("[+-]?(\\d+(\\.\\d*)?|\\.\\d+)([eE][+-]?\\d+)?");
+
     /**
      * Check if a string has the ISO date time format. Uses the ISODateTimeFormat.dateTime() from JodaTime
      * and returns a DateTime instance. The correct format is yyyy-MM-ddTHH:mm:ss.SSSZ
@@ -48,16 +64,7 @@ public class AmforeasUtils {
      * @return a DateTime instance if the string is in the correct ISO format.
      */
     public static DateTime isDateTime (final String arg) {
-        if (arg == null)
-            return null;
-        DateTimeFormatter f = ISODateTimeFormat.dateTime();
-        DateTime ret = null;
-        try {
-            ret = f.parseDateTime(arg);
-        } catch (IllegalArgumentException e) {
-            l.debug("{} is not a valid ISO DateTime", arg);
-        }
-        return ret;
+        return parseDateTime(DATE_TIME, arg);
     }
 
     /**
@@ -69,21 +76,7 @@ public class AmforeasUtils {
     public static DateTime isDate (final String arg) {
         if (arg == null)
             return null;
-        DateTime ret = null;
-        DateTimeFormatter df;
-        if (arg.contains("-")) {
-            df = ISODateTimeFormat.date();
-        } else {
-            df = ISODateTimeFormat.basicDate();
-        }
-
-        try {
-            ret = df.parseDateTime(arg);
-        } catch (IllegalArgumentException e) {
-            l.debug("{} is not a valid ISO date", arg);
-        }
-
-        return ret;
+        return parseDateTime(arg.contains("-") ? DATE : BASIC_DATE, arg);
     }
 
     /**
@@ -95,21 +88,68 @@ public class AmforeasUtils {
     public static DateTime isTime (final String arg) {
         if (arg == null)
             return null;
-        DateTime ret = null;
-        DateTimeFormatter df;
-        if (arg.contains(":")) {
-            df = ISODateTimeFormat.time();
-        } else {
-            df = ISODateTimeFormat.basicTime();
-        }
+        return parseDateTime(arg.contains(":") ? TIME : BASIC_TIME, arg);
+    }
 
+    /**
+     * Parses the whole string with the given formatter like {@linkplain DateTimeFormatter#parseDateTime(String)} does,
+     * but returns null instead of throwing an exception when the string has another format.
+     * @param formatter a JodaTime formatter
+     * @param arg the string to parse
+     * @return a DateTime instance or null if the string doesn't have the format of the formatter.
+     */
+    public static DateTime parseDateTime (final DateTimeFormatter formatter, final String arg) {
+        if (arg == null)
+            return null;
+        final Chronology chrono = ISOChronology.getInstance();
+        final DateTimeParserBucket bucket = new DateTimeParserBucket(0, chrono, Locale.getDefault(), null, 2000);
+        if (formatter.getParser().parseInto(bucket, arg, 0) != arg.length()) {
+            l.trace("{} is not a valid ISO date or time", arg);
+            return null;
+        }
         try {
-            ret = df.parseDateTime(arg);
+            return new DateTime(bucket.computeMillis(true, arg), chrono);
         } catch (IllegalArgumentException e) {
-            l.debug("{} is not a valid ISO time", arg);
+            // the format is right but a field is out of range, like the month in 2011-19-01
+            l.debug("{} is not a valid ISO date or time", arg);
+            return null;
         }
+    }
 
-        return ret;
+    /**
+     * @param arg the string to check
+     * @return true if the string is an integer number, with an optional sign.
+     */
+    public static boolean isInteger (final String arg) {
+        return arg != null && INTEGER.matcher(arg).matches();
+    }
+
+    /**
+     * @param arg the string to check
+     * @return true if the string is a number {@link java.math.BigDecimal} can parse, without spaces.
+     */
+    public static boolean isDecimal (final String arg) {
+        return arg != null && DECIMAL.matcher(arg).matches();
+    }
+
+    /**
+     * Converts an integer number to the smallest of Integer, Long or BigDecimal which holds it.
+     * @param arg a string for which {@link #isInteger(String)} is true
+     * @return an Integer, a Long or a BigDecimal
+     */
+    public static Number toInteger (final String arg) {
+        final int digits = arg.length() - (Character.isDigit(arg.charAt(0)) ? 0 : 1);
+        if (digits < 10) {
+            return Integer.valueOf(arg);
+        }
+        if (digits < 19) {
+            final long value = Long.parseLong(arg);
+            if (value == (int) value) {
+                return Integer.valueOf((int) value);
+            }
+            return Long.valueOf(value);
+        }
+        return new BigDecimal(arg);
     }
 
     /**
@@ -134,54 +174,46 @@ public class AmforeasUtils {
 
     /**
      * Infers the java.sql.Types of the given String and returns the JDBC mappable Object corresponding to it.
+     * Only used when the type of the column of the value is unknown, see {@link amforeas.jdbc.TypedValue}.
      * The conversions are like this:
      * String -> String
-     * Numeric -> Integer
-     * Date or Time -> Date
+     * Integer -> Integer, Long or BigDecimal
+     * Date time -> Timestamp
+     * Date -> Date
+     * Time -> Time
      * Decimal -> BigDecimal
-     * ??? -> TimeStamp
      * @param val a String with the value to be mapped
      * @return a JDBC mappable object instance with the value
      */
     public static Object parseValue (String val) {
-        Object ret = null;
-        // TODO: REFACTOR THIS!!!!!
-        if (!StringUtils.isWhitespace(val) && StringUtils.isNumeric(val)) {
-            try {
-                ret = Integer.valueOf(val);
-            } catch (Exception e) {
-                l.debug(e.getMessage());
-            }
-        } else {
-            DateTime date = AmforeasUtils.isDateTime(val);
-            if (date != null) {
-                l.trace("Got a DateTime {}", date.toString(ISODateTimeFormat.dateTime()));
-                ret = new java.sql.Timestamp(date.getMillis());
-            } else {
-                date = AmforeasUtils.isDate(val);
-                if (date != null) {
-                    l.trace("Got a Date {}", date.toString(ISODateTimeFormat.date()));
-                    ret = new java.sql.Date(date.getMillis());
-                } else {
-                    date = AmforeasUtils.isTime(val);
-                    if (date != null) {
-                        l.trace("Got a Time {}", date.toString(ISODateTimeFormat.time()));
-                        ret = new java.sql.Time(date.getMillis());
-                    }
-                }
-            }
+        if (val == null)
+            return null;
 
-            if (ret == null && val != null) {
-                l.trace("Not a datetime. Try someting else. ");
-                try {
-                    ret = new BigDecimal(val);
-                } catch (NumberFormatException e) {
-                    l.debug(e.getMessage());
-                    ret = val;
-                }
-            }
+        if (isInteger(val))
+            return toInteger(val);
+
+        DateTime date = AmforeasUtils.isDateTime(val);
+        if (date != null) {
+            l.trace("Got a DateTime {}", val);
+            return new java.sql.Timestamp(date.getMillis());
         }
-        return ret;
+
+        date = AmforeasUtils.isDate(val);
+        if (date != null) {
+            l.trace("Got a Date {}", val);
+            return new java.sql.Date(date.getMillis());
+        }
+
+        date = AmforeasUtils.isTime(val);
+        if (date != null) {
+            l.trace("Got a Time {}", val);
+            return new java.sql.Time(date.getMillis());
+        }
+
+        if (isDecimal(val))
+            return new BigDecimal(val);
+
+        return val;
     }
 
     /**
@@ -212,6 +244,56 @@ public class AmforeasUtils {
         }
     }
 
+    /**
+     * Reads a JSON array of objects, like [{"name":"foo", "age":40}, {"name":"bar", "age":41}], and returns
+     * a Map for every object in the array.
+     * @param json a string with a JSON array
+     * @return a List with a Map of keys/values for every object in the array.
+     * @throws AmforeasBadRequestException if the JSON string is not readable or the array is empty.
+     */
+    public static List<Map<String, String>> getRowsFromJSON (final String json) throws AmforeasBadRequestException {
+        if (StringUtils.isBlank(json))
+            throw new AmforeasBadRequestException("Invalid number of arguments for request " + json);
+        List<Map<String, String>> ret;
+        try {
+            ret = new ObjectMapper().readValue(json, new TypeReference<List<Map<String, String>>>() {});
+        } catch (Exception ex) {
+            throw new AmforeasBadRequestException(ex.getMessage());
+        }
+        if (ret.isEmpty())
+            throw new AmforeasBadRequestException("Invalid number of arguments for request " + json);
+        return ret;
+    }
+
+    /**
+     * From a JSON array of values like [1, 2, "a"] generates a list with the values as strings.
+     * @param json a string with a JSON array of values
+     * @return a list with the values
+     * @throws AmforeasBadRequestException if the JSON isn't an array of values or it's empty
+     */
+    public static List<String> getValuesFromJSON (final String json) throws AmforeasBadRequestException {
+        if (StringUtils.isBlank(json))
+            throw new AmforeasBadRequestException("Invalid number of arguments for request " + json);
+        List<String> ret;
+        try {
+            ret = new ObjectMapper().readValue(json, new TypeReference<List<String>>() {});
+        } catch (Exception ex) {
+            throw new AmforeasBadRequestException(ex.getMessage());
+        }
+        if (ret.isEmpty())
+            throw new AmforeasBadRequestException("Invalid number of arguments for request " + json);
+        return ret;
+    }
+
+    /**
+     * Checks if the given JSON string is an array.
+     * @param json a string in JSON format
+     * @return true if the first character which isn't a whitespace opens an array.
+     */
+    public static boolean isJSONArray (final String json) {
+        return StringUtils.startsWith(StringUtils.stripStart(json, null), "[");
+    }
+
     /**
      * From a JSON string generated a list of {@link amforeas.jdbc.StoredProcedureParam}. The format of this JSON is:
      * [
@@ -233,6 +315,30 @@ public class AmforeasUtils {
         }
     }
 
+    /**
+     * From a JSON string generates a list of {@link amforeas.jdbc.BatchOperation}. The format of this JSON is:
+     * [
+     *  {"op":"insert", "resource":"orders", "values":{"id":"10", "total":"30.5"}},
+     *  {"op":"update", "resource":"stock", "id":"5", "values":{"units":"9"}}
+     * ]
+     * @param json a string with a JSON array of operations
+     * @return a list of {@link amforeas.jdbc.BatchOperation} in the order of the array.
+     * @throws AmforeasBadRequestException if we fail to parse the JSON or the array is empty.
+     */
+    public static List<BatchOperation> getBatchOperationsFromJSON (final String json) throws AmforeasBadRequestException {
+        if (StringUtils.isBlank(json))
+            throw new AmforeasBadRequestException("Invalid number of arguments for request " + json);
+        List<BatchOperation> ret;
+        try {
+            ret = new ObjectMapper().readValue(json, new TypeReference<List<BatchOperation>>() {});
+        } catch (Exception ex) {
+            throw new AmforeasBadRequestException(ex.getMessage());
+        }
+        if (ret.isEmpty())
+            throw new AmforeasBadRequestException("Invalid number of arguments for request " + json);
+        return ret;
+    }
+
     /**
      * Generates a HashMap with the first value of a MultivaluedMap because working with this "maps" is a PITA.
      * @param mv the MultivaluedMap with the keys and values
@@ -260,10 +366,22 @@ public class AmforeasUtils {
         if (input == null)
             throw new IllegalArgumentException("Invalid null argument");
 
+        return getMD5Base64OfBytes(input.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Generates a Base64-encoded binary MD5 sum of the given bytes as described by rfc1864
+     * @param input the bytes
+     * @return Base64-encoded binary MD5 sum of the bytes
+     */
+    public static String getMD5Base64OfBytes (byte[] input) {
+        if (input == null)
+            throw new IllegalArgumentException("Invalid null argument");
+
         String ret = "";
         try {
             MessageDigest digest = MessageDigest.getInstance("MD5");
-            digest.update(input.getBytes("UTF-8"));
+            digest.update(input);
             byte[] rawData = digest.digest();
             ret = DatatypeConverter.printBase64Binary(rawData);
         } catch (Exception ex) {
@@ -12,120 +12,188 @@
 
 package amforeas;
 
+import java.io.InputStream;
 import java.util.List;
 
+import javax.ws.rs.container.AsyncResponse;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
 
 /**
- * Public RESTful webservice which allows CRUD operations on a given resource.
+ * Public RESTful webservice which allows CRUD operations on a given resource. Requests are suspended and run on
+ * the {@link amforeas.AliasExecutors} of their alias, so the HTTP threads don't wait for the database.
  * @author Alejandro Ayuso 
  */
 public interface AmforeasWS {
 
+    /**
+     * Newline delimited JSON, a JSON object per line.
+     */
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    /**
+     * Comma separated values with a header, as described by RFC 4180.
+     */
+    public static final String TEXT_CSV = "text/csv";
+
+    /**
+     * Concise Binary Object Representation, as described by RFC 7049.
+     */
+    public static final String APPLICATION_CBOR = "application/cbor";
+
+    /**
+     * Smile, the binary JSON of Jackson.
+     */
+    public static final String APPLICATION_SMILE = "application/x-jackson-smile";
+
+    /**
+     * MessagePack.
+     */
+    public static final String APPLICATION_MSGPACK = "application/msgpack";
+
     /**
      * REST gateway for alias metadata
      * @param alias name of the database we want to access
-     * @return depends on alias implementations but probably, a list of the
-     * tables defined in the alias or schema.
+     * @param cacheControl the Cache-Control header. With no-cache the tables are read again from the database.
+     * @param asyncResponse resumed with a list of the tables defined in the alias or schema.
      */
-    public Response dbMeta (String alias);
+    public void dbMeta (String alias, String cacheControl, AsyncResponse asyncResponse);
 
     /**
      * REST gateway for resource metadata. A resource can be a table, a view, etc.
      * @param alias name of the database the resource belongs to
      * @param resource name of the resource we want to access
-     * @return metadata about the resource, like its fields.
+     * @param cacheControl the Cache-Control header. With no-cache the resource is read again from the database.
+     * @param asyncResponse resumed with metadata about the resource, like its fields.
      */
-    public Response resourceMeta (String alias, String resource);
+    public void resourceMeta (String alias, String resource, String cacheControl, AsyncResponse asyncResponse);
 
     /**
      * Obtains the requested record from the given resource
      * @param alias name of the database the resource belongs to
      * @param resource name of the resource we want to access
-     * @param pk optional field which indicates the primary key column name. Defaults to "id"
+     * @param pk optional field which indicates the primary key column name. Defaults to the primary key of the resource or "id"
      * @param id the primary key value of the record we want to access
-     * @return the record if it's found, or a 404 if it's not.
+     * @param asyncResponse resumed with the record if it's found, or a 404 if it's not.
      */
-    public Response get (String alias, String resource, String pk, String id);
+    public void get (String alias, String resource, String pk, String id, AsyncResponse asyncResponse);
 
     /**
      * Obtain all the records from a given resource.
      * @param alias name of the database the resource belongs to
      * @param resource name of the resource we want to access
-     * @param pk optional field which indicates the primary key column name. Defaults to "id"
-     * @return all the records if found, or a 404 if it's not.
+     * @param pk optional field which indicates the primary key column name. Defaults to the primary key of the resource or "id"
+     * @param asyncResponse resumed with all the records if found, or a 404 if it's not.
      */
-    public Response getAll (String alias, String resource, String pk);
+    public void getAll (String alias, String resource, String pk, AsyncResponse asyncResponse);
+
+    /**
+     * Obtain the records from a given resource whose primary key is in the given list.
+     * @param alias name of the database the resource belongs to
+     * @param resource name of the resource we want to access
+     * @param pk optional field which indicates the primary key column name. Defaults to the primary key of the resource or "id"
+     * @param jsonRequest JSON array with the primary keys of the records we want to access. For example: [1, 2, 3]
+     * @param asyncResponse resumed with the records found in the order of the keys and the keys which weren't found.
+     */
+    public void getMany (String alias, String resource, String pk, String jsonRequest, AsyncResponse asyncResponse);
 
     /**
      * Finds a record from the given resource which matches the given argument in the given column.
      * @param alias name of the database the resource belongs to
      * @param resource name of the resource we want to access7
-     * @param pk optional field which indicates the primary key column name. Defaults to "id"
+     * @param pk optional field which indicates the primary key column name. Defaults to the primary key of the resource or "id"
      * @param col name of the column the record must match
      * @param arg value in the column the record must match.
-     * @return the record if it's found, or a 404 if it's not.
+     * @param asyncResponse resumed with the record if it's found, or a 404 if it's not.
      */
-    public Response find (String alias, String resource, String pk, String col, String arg);
+    public void find (String alias, String resource, String pk, String col, String arg, AsyncResponse asyncResponse);
 
     /**
      * Finds all records from the given resource which matches the given query with the given list of arguments.
      * @param alias name of the database the resource belongs to
      * @param resource name of the resource we want to access
-     * @param pk optional field which indicates the primary key column name. Defaults to "id"
+     * @param pk optional field which indicates the primary key column name. Defaults to the primary key of the resource or "id"
      * @param query a {@link org.amforeas.jdbc.DynamicFinder} query
      * @param args a list of arguments to be given to the {@link org.amforeas.jdbc.DynamicFinder}
-     * @return all the records which match the given {@link org.amforeas.jdbc.DynamicFinder}
+     * @param asyncResponse resumed with all the records which match the given {@link org.amforeas.jdbc.DynamicFinder}
      */
-    public Response findBy (String alias, String resource, String pk, String query, List<String> args);
+    public void findBy (String alias, String resource, String pk, String query, List<String> args, AsyncResponse asyncResponse);
 
     /**
      * Creates a record in the given resource with values from a JSON representation.
      * @param alias name of the database the resource belongs to
      * @param resource name of the resource we want to access
-     * @param pk optional field which indicates the primary key column name. Defaults to "id"
+     * @param pk optional field which indicates the primary key column name. Defaults to the primary key of the resource or "id"
      * @param jsonRequest JSON representation of the values we want to insert. For example:
-     * {"name":"foo", "age":40}
-     * @return a {@link amforeas.rest.xstream.SuccessResponse} response with the number of records inserted and a
-     * CREATED HTTP Code.
+     * {"name":"foo", "age":40}. Many records are inserted with an array: [{"name":"foo"}, {"name":"bar"}]
+     * @param prefer optional Prefer header, return=representation answers with the created record instead of its primary key.
+     * @param asyncResponse resumed with a {@link amforeas.rest.xstream.SuccessResponse} response with the primary key of the record
+     * and its Location, or the number of records inserted for an array, and a CREATED HTTP Code.
      */
-    public Response insert (String alias, String resource, String pk, String jsonRequest);
+    public void insert (String alias, String resource, String pk, String prefer, String jsonRequest, AsyncResponse asyncResponse);
 
     /**
      * Creates a record in the given resource with values from a x-www-form-urlencoded representation as given
      * by a HTML form.
      * @param alias name of the database the resource belongs to
      * @param resource name of the resource we want to access
-     * @param pk optional field which indicates the primary key column name. Defaults to "id"
+     * @param pk optional field which indicates the primary key column name. Defaults to the primary key of the resource or "id"
+     * @param prefer optional Prefer header, return=representation answers with the created record instead of its primary key.
      * @param formParams a x-www-form-urlencoded representation of the values we want to insert.
-     * @return a {@link amforeas.rest.xstream.SuccessResponse} response with the number of records inserted and a
-     * CREATED HTTP Code. If an error occurs a BAD REQUEST or NO CONTENT errors are returned.
+     * @param asyncResponse resumed with a {@link amforeas.rest.xstream.SuccessResponse} response with the primary key of the record
+     * and its Location and a CREATED HTTP Code. If an error occurs a BAD REQUEST or NO CONTENT errors are returned.
      */
-    public Response insert (String alias, String resource, String pk, MultivaluedMap<String, String> formParams);
+    public void insert (String alias, String resource, String pk, String prefer, MultivaluedMap<String, String> formParams, AsyncResponse asyncResponse);
 
     /**
      * Updates a record in the given resource with values from a JSON representation.
      * @param alias name of the database the resource belongs to
      * @param resource name of the resource we want to access
-     * @param pk optional field which indicates the primary key column name. Defaults to "id"
+     * @param pk optional field which indicates the primary key column name. Defaults to the primary key of the resource or "id"
      * @param id the primary key value of the record we want to update.
      * @param jsonRequest JSON representation of the values we want to insert. For example:
      * {"name":"foo", "age":40}
-     * @return a {@link amforeas.rest.xstream.SuccessResponse} response with the updated record.
+     * @param asyncResponse resumed with a {@link amforeas.rest.xstream.SuccessResponse} response with the updated record.
      */
-    public Response update (String alias, String resource, String pk, String id, String jsonRequest);
+    public void update (String alias, String resource, String pk, String id, String jsonRequest, AsyncResponse asyncResponse);
+
+    /**
+     * Loads the rows of a newline delimited JSON or a CSV body as they are read, so the body can be of any size. A
+     * gzip Content-Encoding is inflated while it's read. The rows are inserted in batches and committed every
+     * commitEvery rows, or every batch. The rows which can't be parsed or are refused by the database are rejected
+     * and the load goes on.
+     * @param alias name of the database the resource belongs to
+     * @param resource name of the resource where the rows are loaded
+     * @param contentType application/x-ndjson or text/csv, with an optional charset. Defaults to UTF-8
+     * @param body the rows, a JSON object per line or a CSV with a header
+     * @param asyncResponse resumed with a {@link amforeas.rest.xstream.SuccessResponse} with the rows loaded, the rows rejected
+     * with their line, the time it took and the rows loaded per second.
+     */
+    public void ingest (String alias, String resource, String contentType, InputStream body, AsyncResponse asyncResponse);
+
+    /**
+     * Creates a record in the given resource or, if a record with the same primary key exists, updates it.
+     * @param alias name of the database the resource belongs to
+     * @param resource name of the resource we want to access
+     * @param pk optional field which indicates the primary key column name. Defaults to the primary key of the resource or "id"
+     * @param prefer Prefer header, it must be resolution=merge.
+     * @param jsonRequest JSON representation of the values of the record, including its primary key. For example:
+     * {"id":1, "name":"foo", "age":40}. Many records are upserted with an array: [{"id":1, "name":"foo"}, {"id":2, "name":"bar"}]
+     * @param asyncResponse resumed with a {@link amforeas.rest.xstream.SuccessResponse} response with the record, or the number
+     * of records upserted for an array. A BAD REQUEST if the header is missing.
+     */
+    public void upsert (String alias, String resource, String pk, String prefer, String jsonRequest, AsyncResponse asyncResponse);
 
     /**
      * Deletes a record in the given resource with the given id.
      * @param alias name of the database the resource belongs to
      * @param resource name of the resource we want to access
-     * @param pk optional field which indicates the primary key column name. Defaults to "id"
+     * @param pk optional field which indicates the primary key column name. Defaults to the primary key of the resource or "id"
      * @param id the primary key value of the record we want to delete.
-     * @return a {@link amforeas.rest.xstream.SuccessResponse} response with the number of records deleted and a
+     * @param asyncResponse resumed with a {@link amforeas.rest.xstream.SuccessResponse} response with the number of records deleted and a
      * OK HTTP Code. If an error occurs a BAD REQUEST or NO CONTENT errors are returned.
      */
-    public Response delete (String alias, String resource, String pk, String id);
+    public void delete (String alias, String resource, String pk, String id, AsyncResponse asyncResponse);
 
     /**
      * Calls the given function or stored procedure with the given JSON parameters.
@@ -136,9 +204,24 @@ public interface AmforeasWS {
      *  {"value":2010, "name":"year", "outParameter":false, "type":"INTEGER", "index":1},
      *  {"name":"out_total", "outParameter":true, "type":"INTEGER", "index":2}
      * ]
-     * @return 
+     * @param asyncResponse resumed with the values of the OUT parameters.
+     */
+    public void storedProcedure (String alias, String query, String jsonRequest, AsyncResponse asyncResponse);
+
+    /**
+     * Executes the given operations in order in a single transaction.
+     * @param alias name of the database the resources belong to
+     * @param jsonRequest the operations in JSON format. For example:
+     * [
+     *  {"op":"insert", "resource":"orders", "values":{"id":"10", "total":"30.5"}},
+     *  {"op":"update", "resource":"stock", "id":"5", "values":{"units":"9"}},
+     *  {"op":"delete", "resource":"cart", "pk":"cart_id", "id":"3"},
+     *  {"op":"get", "resource":"orders", "id":"10"}
+     * ]
+     * @param asyncResponse resumed with the status and records of every operation. If an operation fails the batch is
+     * rolled back and the error is returned, unless the continueOnError parameter is given.
      */
-    public Response storedProcedure (String alias, String query, String jsonRequest);
+    public void batch (String alias, String jsonRequest, AsyncResponse asyncResponse);
 
     /**
      * Returns statistics about amforeas usage. {@link amforeas.rest.xstream.Usage}
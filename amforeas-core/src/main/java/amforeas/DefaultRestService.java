@@ -12,15 +12,28 @@
 
 package amforeas;
 
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import amforeas.acl.ACLFilter;
 import amforeas.acl.ACLManager;
+import amforeas.exceptions.AmforeasBadRequestException;
+import amforeas.jdbc.BatchOperation;
+import amforeas.jdbc.CsvRowReader;
+import amforeas.jdbc.JsonLinesRowReader;
 import amforeas.jdbc.LimitParam;
 import amforeas.jdbc.OrderParam;
+import amforeas.jdbc.QueryContext;
+import amforeas.jdbc.RowReader;
+import amforeas.jdbc.SchemaCatalog;
 import amforeas.rest.xstream.ErrorResponse;
 import amforeas.rest.xstream.Usage;
 
@@ -44,6 +57,11 @@ public class DefaultRestService implements RestService {
 
     @Override
     public Response dbMeta (String alias) {
+        return this.dbMeta(alias, false);
+    }
+
+    @Override
+    public Response dbMeta (String alias, boolean refresh) {
         if (!aclManager.validate(alias, ACLFilter.META)) {
             return new ErrorResponse(alias, Response.Status.METHOD_NOT_ALLOWED).getResponse();
         }
@@ -51,6 +69,10 @@ public class DefaultRestService implements RestService {
         PerformanceLogger p = PerformanceLogger.start(PerformanceLogger.Code.DBMETA);
 
         try {
+            this.setQueryTimeout(alias, null, null);
+            if (refresh) {
+                this.getSchemaCatalog(alias).refresh();
+            }
             return factory.getRESTController(alias).getDatabaseMetadata().getResponse();
         } catch (IllegalArgumentException e) {
             return new ErrorResponse(alias, Response.Status.BAD_REQUEST, e.getMessage()).getResponse();
@@ -61,6 +83,11 @@ public class DefaultRestService implements RestService {
 
     @Override
     public Response resourceMeta (String alias, String resource) {
+        return this.resourceMeta(alias, resource, false);
+    }
+
+    @Override
+    public Response resourceMeta (String alias, String resource, boolean refresh) {
         if (!aclManager.validate(alias, resource, ACLFilter.META)) {
             return new ErrorResponse(resource, Response.Status.METHOD_NOT_ALLOWED).getResponse();
         }
@@ -68,6 +95,10 @@ public class DefaultRestService implements RestService {
         var p = PerformanceLogger.start(PerformanceLogger.Code.RSMETA);
 
         try {
+            this.setQueryTimeout(alias, resource, null);
+            if (refresh) {
+                this.getSchemaCatalog(alias).refresh(resource);
+            }
             return factory.getRESTController(alias).getResourceMetadata(resource).getResponse();
         } catch (IllegalArgumentException e) {
             return new ErrorResponse(alias, Response.Status.BAD_REQUEST, e.getMessage()).getResponse();
@@ -83,18 +114,19 @@ public class DefaultRestService implements RestService {
 
         var p = PerformanceLogger.start(PerformanceLogger.Code.READ);
 
-        var limit = LimitParam.valueOf(queryParams, this.getPageSize(queryParams));
-        var order = OrderParam.valueOf(queryParams, pk);
-        var columns = queryParams.getFirst("columns");
-
         Response response = null;
         try {
+            this.setQueryTimeout(alias, resource, queryParams);
+            pk = this.primaryKeyOf(alias, resource, pk);
+            var limit = LimitParam.valueOf(queryParams, this.getPageSize(queryParams));
+            var order = OrderParam.valueOf(queryParams, pk);
+            var columns = queryParams.getFirst("columns");
             response = factory.getRESTController(alias).getResource(resource, pk, id, limit, order, columns).getResponse();
         } catch (IllegalArgumentException e) {
             response = new ErrorResponse(alias, Response.Status.BAD_REQUEST, e.getMessage()).getResponse();
         } finally {
             if (response != null) {
-                u.addRead(p.end(), response.getStatus());
+                u.addRead(alias, resource, p.endNanos(), response.getStatus());
             }
         }
         return response;
@@ -107,20 +139,55 @@ public class DefaultRestService implements RestService {
 
         var p = PerformanceLogger.start(PerformanceLogger.Code.READALL);
 
-        var limit = LimitParam.valueOf(queryParams, this.getPageSize(queryParams));
-        var order = OrderParam.valueOf(queryParams, pk);
-        var columns = queryParams.getFirst("columns");
-
         Response response = null;
         try {
-            response = factory.getRESTController(alias).getAllResources(resource, limit, order, columns).getResponse();
+            this.setQueryTimeout(alias, resource, queryParams);
+            pk = this.primaryKeyOf(alias, resource, pk);
+            var limit = LimitParam.valueOf(queryParams, this.getPageSize(queryParams));
+            var order = OrderParam.valueOf(queryParams, pk);
+            var columns = queryParams.getFirst("columns");
+            var controller = factory.getRESTController(alias);
+            if (queryParams.containsKey("ids")) {
+                var ids = Arrays.asList(StringUtils.split(queryParams.getFirst("ids"), ","));
+                response = controller.getResources(resource, pk, ids, columns).getResponse();
+            } else if (this.isStreaming(queryParams)) {
+                response = controller.streamAllResources(resource, limit, order, columns).getResponse();
+            } else {
+                response = controller.getAllResources(resource, limit, order, columns).getResponse();
+            }
         } catch (IllegalArgumentException e) {
             response = new ErrorResponse(alias, Response.Status.BAD_REQUEST, e.getMessage()).getResponse();
         } catch (Exception e) {
             response = new ErrorResponse(alias, Response.Status.INTERNAL_SERVER_ERROR, e.getMessage()).getResponse();
         } finally {
             if (response != null) {
-                u.addRead(p.end(), response.getStatus());
+                u.addReadAll(alias, resource, p.endNanos(), response.getStatus());
+            }
+        }
+        return response;
+    }
+
+    @Override
+    public Response getMany (String alias, String resource, String pk, String jsonRequest, MultivaluedMap<String, String> queryParams) {
+        if (!aclManager.validate(alias, resource, ACLFilter.READ)) {
+            return new ErrorResponse(resource, Response.Status.METHOD_NOT_ALLOWED).getResponse();
+        }
+
+        var p = PerformanceLogger.start(PerformanceLogger.Code.READALL);
+
+        Response response = null;
+        try {
+            this.setQueryTimeout(alias, resource, queryParams);
+            pk = this.primaryKeyOf(alias, resource, pk);
+            var ids = AmforeasUtils.getValuesFromJSON(jsonRequest);
+            response = factory.getRESTController(alias).getResources(resource, pk, ids, queryParams.getFirst("columns")).getResponse();
+        } catch (AmforeasBadRequestException e) {
+            response = new ErrorResponse(resource, Response.Status.BAD_REQUEST, e.getMessage()).getResponse();
+        } catch (IllegalArgumentException e) {
+            response = new ErrorResponse(alias, Response.Status.BAD_REQUEST, e.getMessage()).getResponse();
+        } finally {
+            if (response != null) {
+                u.addReadAll(alias, resource, p.endNanos(), response.getStatus());
             }
         }
         return response;
@@ -133,18 +200,24 @@ public class DefaultRestService implements RestService {
 
         PerformanceLogger p = PerformanceLogger.start(PerformanceLogger.Code.READ);
 
-        var limit = LimitParam.valueOf(queryParams, this.getPageSize(queryParams));
-        var order = OrderParam.valueOf(queryParams, pk);
-        var columns = queryParams.getFirst("columns");
-
         Response response = null;
         try {
-            response = factory.getRESTController(alias).findResources(resource, col, arg, limit, order, columns).getResponse();
+            this.setQueryTimeout(alias, resource, queryParams);
+            pk = this.primaryKeyOf(alias, resource, pk);
+            var limit = LimitParam.valueOf(queryParams, this.getPageSize(queryParams));
+            var order = OrderParam.valueOf(queryParams, pk);
+            var columns = queryParams.getFirst("columns");
+            var controller = factory.getRESTController(alias);
+            if (this.isStreaming(queryParams)) {
+                response = controller.streamResources(resource, col, arg, limit, order, columns).getResponse();
+            } else {
+                response = controller.findResources(resource, col, arg, limit, order, columns).getResponse();
+            }
         } catch (IllegalArgumentException e) {
             response = new ErrorResponse(alias, Response.Status.BAD_REQUEST, e.getMessage()).getResponse();
         } finally {
             if (response != null) {
-                u.addRead(p.end(), response.getStatus());
+                u.addRead(alias, resource, p.endNanos(), response.getStatus());
             }
         }
         return response;
@@ -157,17 +230,23 @@ public class DefaultRestService implements RestService {
 
         PerformanceLogger p = PerformanceLogger.start(PerformanceLogger.Code.READ);
 
-        LimitParam limit = LimitParam.valueOf(queryParams, this.getPageSize(queryParams));
-        OrderParam order = OrderParam.valueOf(queryParams, pk);
-
         Response response = null;
         try {
-            response = factory.getRESTController(alias).findByDynamicFinder(resource, query, args, limit, order).getResponse();
+            this.setQueryTimeout(alias, resource, queryParams);
+            pk = this.primaryKeyOf(alias, resource, pk);
+            LimitParam limit = LimitParam.valueOf(queryParams, this.getPageSize(queryParams));
+            OrderParam order = OrderParam.valueOf(queryParams, pk);
+            var controller = factory.getRESTController(alias);
+            if (this.isStreaming(queryParams)) {
+                response = controller.streamByDynamicFinder(resource, query, args, limit, order).getResponse();
+            } else {
+                response = controller.findByDynamicFinder(resource, query, args, limit, order).getResponse();
+            }
         } catch (IllegalArgumentException e) {
             response = new ErrorResponse(alias, Response.Status.BAD_REQUEST, e.getMessage()).getResponse();
         } finally {
             if (response != null) {
-                u.addDynamic(p.end(), response.getStatus());
+                u.addDynamic(alias, resource, p.endNanos(), response.getStatus());
             }
         }
         return response;
@@ -175,6 +254,11 @@ public class DefaultRestService implements RestService {
 
     @Override
     public Response insert (String alias, String resource, String pk, String jsonRequest) {
+        return this.insert(alias, resource, pk, jsonRequest, false);
+    }
+
+    @Override
+    public Response insert (String alias, String resource, String pk, String jsonRequest, boolean record) {
         if (!aclManager.validate(alias, resource, ACLFilter.INSERT)) {
             return new ErrorResponse(resource, Response.Status.METHOD_NOT_ALLOWED).getResponse();
         }
@@ -183,18 +267,25 @@ public class DefaultRestService implements RestService {
 
         Response response = null;
         try {
-            response = factory.getRESTController(alias).insertResource(resource, pk, jsonRequest).getResponse();
+            this.setQueryTimeout(alias, resource, null);
+            pk = this.primaryKeyOf(alias, resource, pk);
+            response = factory.getRESTController(alias).insertResource(resource, pk, jsonRequest, record).getResponse();
         } catch (IllegalArgumentException e) {
             response = new ErrorResponse(alias, Response.Status.BAD_REQUEST, e.getMessage()).getResponse();
         } finally {
             if (response != null) {
-                u.addCreate(p.end(), response.getStatus());
+                u.addCreate(alias, resource, p.endNanos(), response.getStatus());
             }
         }
         return response;
     }
 
     public Response insert (String alias, String resource, String pk, MultivaluedMap<String, String> formParams) {
+        return this.insert(alias, resource, pk, formParams, false);
+    }
+
+    @Override
+    public Response insert (String alias, String resource, String pk, MultivaluedMap<String, String> formParams, boolean record) {
         if (!aclManager.validate(alias, resource, ACLFilter.INSERT)) {
             return new ErrorResponse(resource, Response.Status.METHOD_NOT_ALLOWED).getResponse();
         }
@@ -205,12 +296,14 @@ public class DefaultRestService implements RestService {
 
         Response response = null;
         try {
-            response = factory.getRESTController(alias).insertResource(resource, pk, map).getResponse();
+            this.setQueryTimeout(alias, resource, null);
+            pk = this.primaryKeyOf(alias, resource, pk);
+            response = factory.getRESTController(alias).insertResource(resource, pk, map, record).getResponse();
         } catch (IllegalArgumentException e) {
             response = new ErrorResponse(alias, Response.Status.BAD_REQUEST, e.getMessage()).getResponse();
         } finally {
             if (response != null) {
-                u.addCreate(p.end(), response.getStatus());
+                u.addCreate(alias, resource, p.endNanos(), response.getStatus());
             }
         }
         return response;
@@ -225,12 +318,40 @@ public class DefaultRestService implements RestService {
 
         Response response = null;
         try {
+            this.setQueryTimeout(alias, resource, null);
+            pk = this.primaryKeyOf(alias, resource, pk);
             response = factory.getRESTController(alias).updateResource(resource, pk, id, jsonRequest).getResponse();
         } catch (IllegalArgumentException e) {
             response = new ErrorResponse(alias, Response.Status.BAD_REQUEST, e.getMessage()).getResponse();
         } finally {
             if (response != null) {
-                u.addUpdate(p.end(), response.getStatus());
+                u.addUpdate(alias, resource, p.endNanos(), response.getStatus());
+            }
+        }
+        return response;
+    }
+
+    public Response upsert (String alias, String resource, String pk, String jsonRequest, boolean merge) {
+        if (!aclManager.validate(alias, resource, ACLFilter.INSERT) || !aclManager.validate(alias, resource, ACLFilter.UPDATE)) {
+            return new ErrorResponse(resource, Response.Status.METHOD_NOT_ALLOWED).getResponse();
+        }
+
+        if (!merge) {
+            return new ErrorResponse(resource, Response.Status.BAD_REQUEST, "An upsert needs the header Prefer: resolution=merge").getResponse();
+        }
+
+        PerformanceLogger p = PerformanceLogger.start(PerformanceLogger.Code.UPDATE);
+
+        Response response = null;
+        try {
+            this.setQueryTimeout(alias, resource, null);
+            pk = this.primaryKeyOf(alias, resource, pk);
+            response = factory.getRESTController(alias).upsertResource(resource, pk, jsonRequest).getResponse();
+        } catch (IllegalArgumentException e) {
+            response = new ErrorResponse(alias, Response.Status.BAD_REQUEST, e.getMessage()).getResponse();
+        } finally {
+            if (response != null) {
+                u.addUpdate(alias, resource, p.endNanos(), response.getStatus());
             }
         }
         return response;
@@ -245,12 +366,14 @@ public class DefaultRestService implements RestService {
 
         Response response = null;
         try {
+            this.setQueryTimeout(alias, resource, null);
+            pk = this.primaryKeyOf(alias, resource, pk);
             response = factory.getRESTController(alias).deleteResource(resource, pk, id).getResponse();
         } catch (IllegalArgumentException e) {
             response = new ErrorResponse(alias, Response.Status.BAD_REQUEST, e.getMessage()).getResponse();
         } finally {
             if (response != null) {
-                u.addDelete(p.end(), response.getStatus());
+                u.addDelete(alias, resource, p.endNanos(), response.getStatus());
             }
         }
         return response;
@@ -265,19 +388,118 @@ public class DefaultRestService implements RestService {
 
         Response response = null;
         try {
+            this.setQueryTimeout(alias, query, null);
             response = factory.getRESTController(alias).executeStoredProcedure(query, jsonRequest).getResponse();
         } catch (IllegalArgumentException e) {
             response = new ErrorResponse(alias, Response.Status.BAD_REQUEST, e.getMessage()).getResponse();
         } finally {
             if (response != null) {
-                u.addQuery(p.end(), response.getStatus());
+                u.addQuery(alias, query, p.endNanos(), response.getStatus());
+            }
+        }
+        return response;
+    }
+
+    @Override
+    public Response ingest (String alias, String resource, String contentType, InputStream body, MultivaluedMap<String, String> queryParams) {
+        if (!aclManager.validate(alias, resource, ACLFilter.INSERT)) {
+            return new ErrorResponse(resource, Response.Status.METHOD_NOT_ALLOWED).getResponse();
+        }
+
+        PerformanceLogger p = PerformanceLogger.start(PerformanceLogger.Code.INGEST);
+
+        Response response = null;
+        try {
+            final Optional<RowReader> reader = readerOf(contentType, body);
+            if (reader.isEmpty()) {
+                response = new ErrorResponse(resource, Response.Status.UNSUPPORTED_MEDIA_TYPE).getResponse();
+            } else {
+                final String commitEvery = queryParams.getFirst("commitEvery");
+                this.setQueryTimeout(alias, resource, queryParams);
+                response = factory.getRESTController(alias).ingestResource(resource, reader.get(), commitEvery == null ? 0 : Integer.parseInt(commitEvery)).getResponse();
+            }
+        } catch (IllegalArgumentException e) {
+            response = new ErrorResponse(alias, Response.Status.BAD_REQUEST, e.getMessage()).getResponse();
+        } finally {
+            if (response != null) {
+                u.addIngest(alias, resource, p.endNanos(), response.getStatus());
+            }
+        }
+        return response;
+    }
+
+    @Override
+    public Response batch (String alias, String jsonRequest, MultivaluedMap<String, String> queryParams) {
+        var p = PerformanceLogger.start(PerformanceLogger.Code.BATCH);
+
+        Response response = null;
+        try {
+            var operations = AmforeasUtils.getBatchOperationsFromJSON(jsonRequest);
+            var denied = this.deniedOperation(alias, operations);
+            if (denied.isPresent()) {
+                response = new ErrorResponse(denied.get().getResource(), Response.Status.METHOD_NOT_ALLOWED).getResponse();
+            } else {
+                this.setQueryTimeout(alias, null, queryParams);
+                var continueOnError = Boolean.parseBoolean(queryParams.getFirst("continueOnError"));
+                response = factory.getRESTController(alias).executeBatch(operations, continueOnError).getResponse();
+            }
+        } catch (AmforeasBadRequestException | IllegalArgumentException e) {
+            response = new ErrorResponse(alias, Response.Status.BAD_REQUEST, e.getMessage()).getResponse();
+        } finally {
+            if (response != null) {
+                u.addBatch(alias, "_batch", p.endNanos(), response.getStatus());
             }
         }
         return response;
     }
 
+    /**
+     * A reader of the rows of a body of the given media type, in the charset of the media type or UTF-8.
+     * @throws IllegalArgumentException if the media type or the charset are invalid
+     */
+    private static Optional<RowReader> readerOf (String contentType, InputStream body) {
+        final MediaType type = MediaType.valueOf(contentType);
+        final Charset charset = Charset.forName(type.getParameters().getOrDefault(MediaType.CHARSET_PARAMETER, "UTF-8"));
+        if (type.isCompatible(MediaType.valueOf(AmforeasWS.TEXT_CSV))) {
+            return Optional.of(new CsvRowReader(body, charset));
+        } else if (type.isCompatible(MediaType.valueOf(AmforeasWS.APPLICATION_NDJSON))) {
+            return Optional.of(new JsonLinesRowReader(body, charset));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Every operation of a batch is checked against the ACL of its resource, like a single request.
+     * @return the first operation which isn't allowed
+     */
+    private Optional<BatchOperation> deniedOperation (String alias, List<BatchOperation> operations) throws AmforeasBadRequestException {
+        for (BatchOperation op : operations) {
+            if (StringUtils.isBlank(op.getResource())) {
+                throw new AmforeasBadRequestException("Invalid resource for batch operation " + op);
+            }
+            if (!aclManager.validate(alias, op.getResource(), filterOf(op))) {
+                return Optional.of(op);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static ACLFilter filterOf (BatchOperation op) throws AmforeasBadRequestException {
+        switch (op.getType()) {
+            case INSERT:
+                return ACLFilter.INSERT;
+            case UPDATE:
+                return ACLFilter.UPDATE;
+            case DELETE:
+                return ACLFilter.DELETE;
+            default:
+                return ACLFilter.READ;
+        }
+    }
+
     public Response getStatistics () {
-        return u.getUsageData().getResponse();
+        final var stats = factory.getAliasExecutors().addStatistics(factory.getJDBCConnectionFactory().getStatistics());
+        return u.getUsageData(factory.getResponseCache().addStatistics(stats)).getResponse();
     }
 
     private Integer getPageSize (MultivaluedMap<String, String> params) {
@@ -294,4 +516,66 @@ public class DefaultRestService implements RestService {
 
     }
 
+    /**
+     * Statements run for as long as the query timeout of the resource allows. Requests may ask for less with ?timeout=seconds
+     */
+    private void setQueryTimeout (String alias, String resource, MultivaluedMap<String, String> params) {
+        final Optional<QueryContext> context = QueryContext.current();
+        if (context.isEmpty()) {
+            return;
+        }
+
+        final Integer max = this.factory.getConfiguration().getDatabaseConfigurationForAlias(alias).getQueryTimeout(resource);
+        final int requested = params == null ? 0 : NumberUtils.toInt(params.getFirst("timeout"), 0);
+        context.get().setTimeout(requested > 0 && (max == 0 || requested < max) ? requested : max);
+    }
+
+    /**
+     * The primary key given by the client with the Primary-Key header, or the one of the table if it has none.
+     */
+    private String primaryKeyOf (String alias, String resource, String pk) {
+        if (StringUtils.isNotBlank(pk)) {
+            return pk;
+        }
+        return this.getSchemaCatalog(alias).getPrimaryKey(resource).orElse("id");
+    }
+
+    private SchemaCatalog getSchemaCatalog (String alias) {
+        return this.factory.getJDBCConnectionFactory().getSchemaCatalog(this.factory.getConfiguration().getDatabaseConfigurationForAlias(alias));
+    }
+
+    /**
+     * Clients ask for the metadata to be read again from the database with Cache-Control: no-cache
+     * @param cacheControl the Cache-Control header of the request, may be null
+     * @return true if the header has the no-cache directive
+     */
+    public static boolean isNoCache (String cacheControl) {
+        return cacheControl != null && cacheControl.toLowerCase().contains("no-cache");
+    }
+
+    /**
+     * Clients ask for the created record instead of its primary key with Prefer: return=representation
+     * @param prefer the Prefer header of the request, may be null
+     * @return true if the header has the return=representation preference
+     */
+    public static boolean isReturnRepresentation (String prefer) {
+        return prefer != null && prefer.toLowerCase().replace(" ", "").contains("return=representation");
+    }
+
+    /**
+     * Clients ask to update the record with the same primary key instead of failing with Prefer: resolution=merge
+     * @param prefer the Prefer header of the request, may be null
+     * @return true if the header has the resolution=merge preference
+     */
+    public static boolean isMergeResolution (String prefer) {
+        return prefer != null && prefer.toLowerCase().replace(" ", "").contains("resolution=merge");
+    }
+
+    /**
+     * Rows are streamed to the client when the request has ?stream=true
+     */
+    private boolean isStreaming (MultivaluedMap<String, String> params) {
+        return Boolean.parseBoolean(params.getFirst("stream"));
+    }
+
 }
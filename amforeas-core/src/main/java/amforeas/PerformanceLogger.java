@@ -86,6 +86,15 @@ public class PerformanceLogger {
         return dur;
     }
     
+    /**
+     * Ends the current logger like {@link #end()} does.
+     * @return the time since the start method was called in nanoseconds.
+     */
+    public long endNanos(){
+        end();
+        return this.end - this.start;
+    }
+    
     /**
      * Enum of codes supported. Each operation has its own.
      */
@@ -97,6 +106,8 @@ public class PerformanceLogger {
         READALL,
         CREATE,
         UPDATE,
-        DELETE;
+        DELETE,
+        BATCH,
+        INGEST;
     }
 }
@@ -11,25 +11,46 @@
  */
 package amforeas;
 
+import java.io.IOException;
 import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriBuilder;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import amforeas.config.DatabaseConfiguration;
 import amforeas.exceptions.AmforeasBadRequestException;
+import amforeas.jdbc.Batch;
+import amforeas.jdbc.BatchOperation;
+import amforeas.jdbc.BatchResult;
+import amforeas.jdbc.Ingest;
 import amforeas.jdbc.JDBCExecutor;
+import amforeas.jdbc.KeysetCursor;
 import amforeas.jdbc.LimitParam;
 import amforeas.jdbc.OrderParam;
+import amforeas.jdbc.QueryContext;
+import amforeas.jdbc.ResultSetCursor;
+import amforeas.jdbc.RowReader;
+import amforeas.jdbc.SchemaCatalog;
 import amforeas.jdbc.StoredProcedureParam;
+import amforeas.jdbc.TableMetadata;
 import amforeas.rest.xstream.AmforeasResponse;
 import amforeas.rest.xstream.ErrorResponse;
 import amforeas.rest.xstream.HeadResponse;
 import amforeas.rest.xstream.Pagination;
 import amforeas.rest.xstream.Row;
+import amforeas.rest.xstream.StreamingResponse;
 import amforeas.rest.xstream.SuccessResponse;
 import amforeas.sql.Delete;
 import amforeas.sql.DynamicFinder;
@@ -49,6 +70,10 @@ public class RestController {
     private final String alias;
     private final String database;
 
+    private final DatabaseConfiguration dbconf;
+
+    private final SingletonFactory factory;
+
     private final JDBCExecutor executor;
 
     /**
@@ -60,9 +85,10 @@ public class RestController {
         if (StringUtils.isBlank(alias))
             throw new IllegalArgumentException("Alias name can't be blank, empty or null");
 
-        SingletonFactory factory = new SingletonFactoryImpl();
+        this.factory = new SingletonFactoryImpl();
         this.alias = alias;
-        this.database = factory.getConfiguration().getDatabaseConfigurationForAlias(alias).getDatabase();
+        this.dbconf = factory.getConfiguration().getDatabaseConfigurationForAlias(alias);
+        this.database = dbconf.getDatabase();
         this.executor = factory.getJDBCExecutor();
     }
 
@@ -70,29 +96,33 @@ public class RestController {
         if (StringUtils.isBlank(alias))
             throw new IllegalArgumentException("Alias name can't be blank, empty or null");
 
+        this.factory = factory;
         this.alias = alias;
-        this.database = factory.getConfiguration().getDatabaseConfigurationForAlias(alias).getDatabase();
+        this.dbconf = factory.getConfiguration().getDatabaseConfigurationForAlias(alias);
+        this.database = dbconf.getDatabase();
         this.executor = factory.getJDBCExecutor();
     }
 
     /**
-     * Obtains a list of tables for the given database/schema and returns a {@link amforeas.rest.xstream.SuccessResponse}
-     * response.
+     * Obtains a list of tables for the given database/schema from the {@link amforeas.jdbc.SchemaCatalog} and returns
+     * a {@link amforeas.rest.xstream.SuccessResponse} tagged with a digest of the list.
      * @return  a {@link amforeas.rest.xstream.SuccessResponse} or a {@link amforeas.rest.xstream.ErrorResponse}
      */
     public AmforeasResponse getDatabaseMetadata () {
         l.debug("Obtaining metadata for {}", database);
         AmforeasResponse response = null;
 
-        List<Row> results = null;
+        SchemaCatalog.Tables tables = null;
         try {
-            results = this.getExecutor().getListOfTables(database);
+            tables = this.getSchemaCatalog().getTables();
         } catch (Throwable ex) {
             response = handleException(ex, database);
         }
 
         if (response == null) {
-            response = new SuccessResponse(database, results);
+            SuccessResponse success = new SuccessResponse(database, tables.getRows());
+            success.setTag(new EntityTag(tables.getTag(), true));
+            response = success;
         }
 
         return response;
@@ -100,7 +130,8 @@ public class RestController {
 
     /**
      * Obtains a list of columns for the given resource and returns a {@link amforeas.rest.xstream.SuccessResponse}
-     * response.
+     * response. The columns of the tables known by the {@link amforeas.jdbc.SchemaCatalog} are answered from memory,
+     * tagged with a digest of their metadata. For any other resource the columns are read from the first row.
      * @param table name of the resource to obtain the metadata from
      * @return a {@link amforeas.rest.xstream.SuccessResponse} or a {@link amforeas.rest.xstream.ErrorResponse}
      */
@@ -115,6 +146,13 @@ public class RestController {
             return new ErrorResponse(table, Response.Status.BAD_REQUEST, e.getMessage());
         }
 
+        final Optional<TableMetadata> metadata = this.getSchemaCatalog().getTable(table);
+        if (metadata.isPresent()) {
+            HeadResponse head = new HeadResponse(table, metadata.get().toRows());
+            head.setTag(new EntityTag(metadata.get().getTag(), true));
+            return head;
+        }
+
         Select select = new Select(t).setLimitParam(new LimitParam(1));
 
         AmforeasResponse response = null;
@@ -150,7 +188,7 @@ public class RestController {
 
         Table t;
         try {
-            t = new Table(database, table);
+            t = this.tableOf(table);
         } catch (IllegalArgumentException e) {
             l.debug("Failed to generate select: {}", e.getMessage());
             return new ErrorResponse(table, Response.Status.BAD_REQUEST, e.getMessage());
@@ -175,13 +213,112 @@ public class RestController {
         }
 
         if (response == null) {
-            Pagination page = Pagination.of(limit, results, this.executor.count(t));
+            Pagination page = Pagination.of(limit, results, this.executor.count(t)).setNext(nextCursor(results, order, t), limit);
             response = new SuccessResponse(table, results, page);
         }
 
         return response;
     }
 
+    /**
+     * Retrieves the records of a table with the given primary keys with a single query, or one per chunk of keys.
+     * The rows are given in the order of the keys and the keys without a record are listed as missing.
+     * @param table the table or view to query
+     * @param pk optional field which indicates the primary key column name. Defaults to "id"
+     * @param ids the values of the primary key of the records
+     * @param columns - comma separated string of columns
+     * @return a {@link amforeas.rest.xstream.SuccessResponse} with the records found and the missing keys, or
+     * a {@link amforeas.rest.xstream.ErrorResponse}
+     */
+    public AmforeasResponse getResources (final String table, final String pk, final List<String> ids, final String columns) {
+        l.debug("Geting resources {} from {}.{}", ids, alias, table);
+
+        if (ids == null || ids.isEmpty()) {
+            return new ErrorResponse(table, Response.Status.BAD_REQUEST, "Invalid number of ids");
+        }
+
+        Table t;
+        try {
+            t = new Table(database, table, pk);
+        } catch (IllegalArgumentException e) {
+            l.debug("Failed to generate select: {}", e.getMessage());
+            return new ErrorResponse(table, Response.Status.BAD_REQUEST, e.getMessage());
+        }
+
+        final Select s = new Select(t);
+
+        if (StringUtils.isNotEmpty(columns)) {
+            Arrays.asList(columns.split(",")).forEach(s::addColumn);
+            // the rows are matched to their key
+            if (s.getColumns().stream().noneMatch(t.getPrimaryKey()::equalsIgnoreCase)) {
+                s.addColumn(t.getPrimaryKey());
+            }
+        }
+
+        List<Row> results;
+        try {
+            results = this.getExecutor().getMany(s, ids);
+        } catch (Throwable ex) {
+            return handleException(ex, table);
+        }
+
+        final String key = t.getPrimaryKey().toLowerCase();
+        final Map<String, Row> found = new HashMap<String, Row>();
+        results.forEach(row -> found.putIfAbsent(String.valueOf(row.getCells().get(key)), row));
+
+        final List<Row> rows = new ArrayList<Row>();
+        final List<String> missing = new ArrayList<String>();
+        int roi = 0;
+        for (String id : new LinkedHashSet<String>(ids)) {
+            final Row row = found.get(id);
+            if (row == null) {
+                missing.add(id);
+            } else {
+                rows.add(new Row(roi++, row.getCells()));
+            }
+        }
+
+        final SuccessResponse response = new SuccessResponse(table, rows);
+        response.setMissing(missing);
+        return response;
+    }
+
+    /**
+     * Same as {@link #getAllResources(String, LimitParam, OrderParam, String)} but the rows are written
+     * to the client as they are read from the database.
+     * @param table the table or view to query
+     * @param limit a LimitParam object with the limit values
+     * @param order order an OrderParam object with the ordering values.
+     * @param columns - comma separated string of columns
+     * @return a {@link amforeas.rest.xstream.StreamingResponse} or a {@link amforeas.rest.xstream.ErrorResponse}
+     */
+    public AmforeasResponse streamAllResources (final String table, final LimitParam limit, final OrderParam order, final String columns) {
+        l.debug("Streaming all resources from {}.{}", alias, table);
+
+        Table t;
+        try {
+            t = this.tableOf(table);
+        } catch (IllegalArgumentException e) {
+            l.debug("Failed to generate select: {}", e.getMessage());
+            return new ErrorResponse(table, Response.Status.BAD_REQUEST, e.getMessage());
+        }
+
+        final Select s = new Select(t).setLimitParam(limit).setOrderParam(order);
+
+        if (StringUtils.isNotEmpty(columns)) {
+            Arrays.asList(columns.split(",")).forEach(s::addColumn);
+        }
+
+        // count before opening the cursor, it holds a connection until the response is written
+        final Integer total = this.executor.count(t);
+
+        try {
+            return new StreamingResponse(table, this.getExecutor().stream(s), limit, total, order, t.getPrimaryKey());
+        } catch (Throwable ex) {
+            return handleException(ex, table);
+        }
+    }
+
     /**
      * Retrieves one resource for the given id. 
      * @param table the table or view to query
@@ -247,7 +384,7 @@ public class RestController {
 
         Table t;
         try {
-            t = new Table(database, table);
+            t = this.tableOf(table);
         } catch (IllegalArgumentException e) {
             l.debug("Failed to generate select " + e.getMessage());
             return new ErrorResponse(table, Response.Status.BAD_REQUEST, e.getMessage());
@@ -272,30 +409,84 @@ public class RestController {
         }
 
         if (response == null) {
-            Pagination page = Pagination.of(limit, results, this.executor.count(t));
+            Pagination page = Pagination.of(limit, results, this.executor.count(t)).setNext(nextCursor(results, order, t), limit);
             response = new SuccessResponse(table, results, page);
         }
 
         return response;
     }
 
+    /**
+     * Same as {@link #findResources(String, String, String, LimitParam, OrderParam, String)} but the rows are written
+     * to the client as they are read from the database.
+     * @param table the table or view to query
+     * @param col the column defined to be used in the query. Defaults to "id"
+     * @param arg the value of the col.
+     * @param limit a LimitParam object with the limit values
+     * @param order an OrderParam object with the ordering values.
+     * @param columns - comma separated string of columns
+     * @return a {@link amforeas.rest.xstream.StreamingResponse} or a {@link amforeas.rest.xstream.ErrorResponse}
+     */
+    public AmforeasResponse streamResources (final String table, final String col, final String arg, final LimitParam limit, final OrderParam order, final String columns) {
+        l.debug("Streaming resources from {}.{} with id {}", alias, table, arg);
+
+        if (StringUtils.isEmpty(arg) || StringUtils.isEmpty(col))
+            return new ErrorResponse(table, Response.Status.BAD_REQUEST, "Invalid argument");
+
+        Table t;
+        try {
+            t = this.tableOf(table);
+        } catch (IllegalArgumentException e) {
+            l.debug("Failed to generate select " + e.getMessage());
+            return new ErrorResponse(table, Response.Status.BAD_REQUEST, e.getMessage());
+        }
+
+        Select select = new Select(t).setParameter(new SelectParam(col, arg)).setLimitParam(limit).setOrderParam(order);
+
+        if (StringUtils.isNotEmpty(columns)) {
+            Arrays.asList(columns.split(",")).forEach(select::addColumn);
+        }
+
+        final Integer total = this.executor.count(t);
+
+        return streamResponse(table, () -> this.getExecutor().stream(select), limit, total, order, t.getPrimaryKey(), Response.Status.NOT_FOUND, null);
+    }
+
     /**
      * Generates an instance of {@link amforeas.sql.Insert} for the given JSON arguments and calls the 
      * insertResource(Insert) method.
      * @param resource the resource or view where to insert the record.
      * @param pk optional field which indicates the primary key column name. Defaults to "id"
      * @param jsonRequest JSON representation of the values we want to insert. For example:
-     * {"name":"foo", "age":40}
+     * {"name":"foo", "age":40}. A JSON array of objects inserts all of them in a single transaction.
      * @return a {@link amforeas.rest.xstream.SuccessResponse} or a {@link amforeas.rest.xstream.ErrorResponse}
      */
     public AmforeasResponse insertResource (final String resource, final String pk, final String jsonRequest) {
+        return insertResource(resource, pk, jsonRequest, false);
+    }
+
+    /**
+     * Generates an instance of {@link amforeas.sql.Insert} for the given JSON arguments and calls the 
+     * insertResource(Insert) method.
+     * @param resource the resource or view where to insert the record.
+     * @param pk optional field which indicates the primary key column name. Defaults to "id"
+     * @param jsonRequest JSON representation of the values we want to insert. For example:
+     * {"name":"foo", "age":40}. A JSON array of objects inserts all of them in a single transaction.
+     * @param record if true the response has the created record, otherwise only its primary key.
+     * @return a {@link amforeas.rest.xstream.SuccessResponse} or a {@link amforeas.rest.xstream.ErrorResponse}
+     */
+    public AmforeasResponse insertResource (final String resource, final String pk, final String jsonRequest, final boolean record) {
         l.debug("Insert new {}.{} with JSON values: {}", alias, resource, jsonRequest);
 
         AmforeasResponse response;
 
         try {
-            Map<String, String> params = AmforeasUtils.getParamsFromJSON(jsonRequest);
-            response = insertResource(resource, pk, params);
+            if (AmforeasUtils.isJSONArray(jsonRequest)) {
+                response = insertResources(resource, AmforeasUtils.getRowsFromJSON(jsonRequest));
+            } else {
+                Map<String, String> params = AmforeasUtils.getParamsFromJSON(jsonRequest);
+                response = insertResource(resource, pk, params, record);
+            }
         } catch (AmforeasBadRequestException ex) {
             l.info("Failed to parse JSON arguments " + ex.getMessage());
             response = new ErrorResponse(resource, Response.Status.BAD_REQUEST, ex.getMessage());
@@ -313,46 +504,123 @@ public class RestController {
      * @return a {@link amforeas.rest.xstream.SuccessResponse} or a {@link amforeas.rest.xstream.ErrorResponse}
      */
     public AmforeasResponse insertResource (final String resource, final String pk, final Map<String, String> formParams) {
+        return insertResource(resource, pk, formParams, false);
+    }
+
+    /**
+     * Generates an instance of {@link amforeas.sql.Insert} for the given x-www-form-urlencoded arguments and calls the 
+     * insertResource(Insert) method.
+     * @param resource the resource or view where to insert the record.
+     * @param pk optional field which indicates the primary key column name. Defaults to "id"
+     * @param formParams a x-www-form-urlencoded representation of the values we want to insert.
+     * @param record if true the response has the created record, otherwise only its primary key.
+     * @return a {@link amforeas.rest.xstream.SuccessResponse} or a {@link amforeas.rest.xstream.ErrorResponse}
+     */
+    public AmforeasResponse insertResource (final String resource, final String pk, final Map<String, String> formParams, final boolean record) {
         l.debug("Insert new {}.{} with values: {}", alias, resource, formParams);
 
         AmforeasResponse response;
         Table t;
         try {
-            t = new Table(database, resource);
+            t = new Table(database, resource, pk);
         } catch (IllegalArgumentException e) {
             l.debug("Failed to generate Insert " + e.getMessage());
             return new ErrorResponse(resource, Response.Status.BAD_REQUEST, e.getMessage());
         }
 
         Insert insert = new Insert(t).setColumns(formParams);
-        response = insertResource(insert);
+        response = insertResource(insert, record);
+
+        return response;
+    }
+
+    /**
+     * Inserts many records with the {@link amforeas.jdbc.JDBCExecutor} insertBatch method. On success the 
+     * response has a row for every chunk with the number of records it inserted. If any record fails
+     * nothing is inserted and the response has a row for every failed record, with its position in 
+     * the request as the row number and the error given by the database.
+     * @param resource the resource or view where to insert the records.
+     * @param rows a list with the values of every record.
+     * @return a {@link amforeas.rest.xstream.SuccessResponse} or a {@link amforeas.rest.xstream.ErrorResponse}
+     */
+    public AmforeasResponse insertResources (final String resource, final List<Map<String, String>> rows) {
+        l.debug("Insert {} new {}.{}", rows.size(), alias, resource);
+
+        Insert insert;
+        try {
+            insert = new Insert(new Table(database, resource)).setRows(rows);
+        } catch (IllegalArgumentException e) {
+            l.debug("Failed to generate Insert " + e.getMessage());
+            return new ErrorResponse(resource, Response.Status.BAD_REQUEST, e.getMessage());
+        }
+
+        BatchResult result;
+        try {
+            result = this.getExecutor().insertBatch(insert);
+        } catch (Throwable ex) {
+            return handleException(ex, resource);
+        }
+
+        return batchResponse(resource, result, "inserted", Response.Status.CREATED);
+    }
+
+    /**
+     * The response of a bulk insert or upsert. On success it has a row for every chunk with the number of records it
+     * wrote, otherwise a row for every failed record with its position in the request as the row number.
+     */
+    private AmforeasResponse batchResponse (final String resource, final BatchResult result, final String count, final Response.Status status) {
+        List<Row> results = new ArrayList<Row>();
+        if (result.isSuccess()) {
+            int roi = 0;
+            for (Integer written : result.getChunks()) {
+                Map<String, Object> cells = new HashMap<String, Object>();
+                cells.put(count, written);
+                results.add(new Row(roi++, cells));
+            }
+            return new SuccessResponse(resource, results, status);
+        }
 
+        for (Map.Entry<Integer, SQLException> failure : result.getFailures().entrySet()) {
+            SQLException ex = unwrap(failure.getValue());
+            Map<String, Object> cells = new HashMap<String, Object>();
+            cells.put("message", ex.getMessage());
+            cells.put("sqlState", ex.getSQLState());
+            cells.put("sqlCode", ex.getErrorCode());
+            results.add(new Row(failure.getKey(), cells));
+        }
+        SuccessResponse response = new SuccessResponse(resource, results, Response.Status.BAD_REQUEST);
+        response.setSuccess(false);
         return response;
     }
 
     /**
-     * Calls the {@link amforeas.jdbc.JDBCExecutor} insert method with the 
-     * given {@link amforeas.sql.Insert} instance and handles errors.
+     * Calls the {@link amforeas.jdbc.JDBCExecutor} insertReturning method with the 
+     * given {@link amforeas.sql.Insert} instance and handles errors. The response has the
+     * location of the created record when its primary key is known.
      * @param insert a {@link amforeas.sql.Insert} instance
+     * @param record if true the response has the created record, otherwise only its primary key.
      * @return a {@link amforeas.rest.xstream.SuccessResponse} or a {@link amforeas.rest.xstream.ErrorResponse}
      */
-    private AmforeasResponse insertResource (Insert insert) {
+    private AmforeasResponse insertResource (Insert insert, boolean record) {
         AmforeasResponse response = null;
-        int result = 0;
+        List<Row> results = null;
         try {
-            result = this.getExecutor().insert(insert);
+            results = this.getExecutor().insertReturning(insert, record);
         } catch (Throwable ex) {
             response = handleException(ex, insert.getTable().getName());
         }
 
-        if (result == 0 && response == null) {
+        if ((results == null || results.isEmpty()) && response == null) {
             response = new ErrorResponse(null, Response.Status.NO_CONTENT);
         }
 
         if (response == null) {
-            List<Row> results = new ArrayList<Row>();
-            results.add(new Row(0));
-            response = new SuccessResponse(null, results, Response.Status.CREATED);
+            SuccessResponse success = new SuccessResponse(null, results, Response.Status.CREATED);
+            Object id = results.get(0).getCells().get(insert.getTable().getPrimaryKey());
+            if (id != null) {
+                success.setLocation(UriBuilder.fromPath("{alias}/{resource}/{id}").build(alias, insert.getTable().getName(), id.toString()));
+            }
+            response = success;
         }
         return response;
     }
@@ -399,6 +667,131 @@ public class RestController {
         return response;
     }
 
+    /**
+     * Generates an instance of {@link amforeas.sql.Insert} for the given JSON arguments and calls the 
+     * {@link amforeas.jdbc.JDBCExecutor} upsert method, which inserts the record or updates it if a record with the
+     * same primary key already exists.
+     * @param resource the resource or view where to upsert the record.
+     * @param pk optional field which indicates the primary key column name. Defaults to "id"
+     * @param jsonRequest JSON representation of the values of the record, including its primary key. For example:
+     * {"id":1, "name":"foo", "age":40}. A JSON array of objects upserts all of them in a single transaction.
+     * @return a {@link amforeas.rest.xstream.SuccessResponse} with the record or a {@link amforeas.rest.xstream.ErrorResponse}
+     */
+    public AmforeasResponse upsertResource (final String resource, final String pk, final String jsonRequest) {
+        l.debug("Upsert {}.{} with JSON values: {}", alias, resource, jsonRequest);
+
+        Table t;
+        try {
+            t = new Table(database, resource, pk);
+        } catch (IllegalArgumentException e) {
+            l.debug("Failed to generate upsert " + e.getMessage());
+            return new ErrorResponse(resource, Response.Status.BAD_REQUEST, e.getMessage());
+        }
+
+        AmforeasResponse response = null;
+        List<Row> results = null;
+        try {
+            if (AmforeasUtils.isJSONArray(jsonRequest)) {
+                return upsertResources(t, AmforeasUtils.getRowsFromJSON(jsonRequest));
+            }
+            results = this.getExecutor().upsert(new Insert(t).setColumns(AmforeasUtils.getParamsFromJSON(jsonRequest)));
+        } catch (Throwable ex) {
+            response = handleException(ex, resource);
+        }
+
+        if ((results == null || results.isEmpty()) && response == null) {
+            response = new ErrorResponse(resource, Response.Status.NO_CONTENT);
+        }
+
+        if (response == null) {
+            response = new SuccessResponse(resource, results, Response.Status.OK);
+        }
+
+        return response;
+    }
+
+    /**
+     * Upserts many records with the {@link amforeas.jdbc.JDBCExecutor} upsertBatch method. On success the 
+     * response has a row for every chunk with the number of records it upserted. If any record fails
+     * nothing is written and the response has a row for every failed record, with its position in 
+     * the request as the row number and the error given by the database.
+     */
+    private AmforeasResponse upsertResources (final Table table, final List<Map<String, String>> rows) {
+        l.debug("Upsert {} {}.{}", rows.size(), alias, table.getName());
+
+        BatchResult result;
+        try {
+            result = this.getExecutor().upsertBatch(new Insert(table).setRows(rows));
+        } catch (Throwable ex) {
+            return handleException(ex, table.getName());
+        }
+
+        return batchResponse(table.getName(), result, "upserted", Response.Status.OK);
+    }
+
+    /**
+     * Loads the rows given by the reader with the {@link amforeas.jdbc.JDBCExecutor} ingest method as they are read
+     * from the request body.
+     * @param resource the table where the rows are loaded.
+     * @param reader the reader of the rows of the request body, it's closed once the load ends.
+     * @param commitEvery the number of rows committed by every transaction, 0 or less to commit every batch.
+     * @return a {@link amforeas.rest.xstream.SuccessResponse} with a row with the number of rows loaded and rejected, the
+     * line and reason of the first rejected rows, the time it took and the rows loaded per second. A
+     * {@link amforeas.rest.xstream.ErrorResponse} if the load fails, the rows committed before stay loaded.
+     */
+    public AmforeasResponse ingestResource (final String resource, final RowReader reader, final int commitEvery) {
+        l.debug("Ingest rows into {}.{}", alias, resource);
+
+        final Ingest ingest;
+        try {
+            ingest = new Ingest(new Table(database, resource), reader).setCommitEvery(commitEvery);
+        } catch (IllegalArgumentException e) {
+            l.debug("Failed to generate ingest " + e.getMessage());
+            return new ErrorResponse(resource, Response.Status.BAD_REQUEST, e.getMessage());
+        }
+
+        try {
+            this.getExecutor().ingest(ingest);
+        } catch (Throwable ex) {
+            final AmforeasResponse response;
+            if (ex instanceof IOException) {
+                l.debug("Failed to read the body " + ex.getMessage());
+                response = new ErrorResponse(resource, Response.Status.BAD_REQUEST, "Failed to read the body: " + ex.getMessage());
+            } else {
+                response = handleException(ex, resource);
+            }
+            if (response instanceof ErrorResponse && ingest.getLoaded() > 0) {
+                final ErrorResponse error = (ErrorResponse) response;
+                error.setMessage(error.getMessage() + ". " + ingest.getLoaded() + " rows were loaded before the failure");
+            }
+            return response;
+        } finally {
+            try {
+                reader.close();
+            } catch (IOException ex) {
+                l.debug("Failed to close the body " + ex.getMessage());
+            }
+        }
+
+        final List<Map<String, Object>> rejects = new ArrayList<>();
+        for (Map.Entry<Long, String> reject : ingest.getRejects().entrySet()) {
+            final Map<String, Object> cells = new LinkedHashMap<>();
+            cells.put("line", reject.getKey());
+            cells.put("message", reject.getValue());
+            rejects.add(cells);
+        }
+
+        final Map<String, Object> cells = new LinkedHashMap<>();
+        cells.put("loaded", ingest.getLoaded());
+        cells.put("rejected", ingest.getRejected());
+        cells.put("rejects", rejects);
+        cells.put("elapsedMillis", ingest.getElapsedMillis());
+        cells.put("rowsPerSecond", ingest.getRowsPerSecond());
+        final List<Row> results = new ArrayList<>();
+        results.add(new Row(0, cells));
+        return new SuccessResponse(resource, results, Response.Status.OK);
+    }
+
     /**
      * Creates an instance of {@link amforeas.sql.Delete}, calls 
      * the {@link amforeas.jdbc.JDBCExecutor} delete method and handles errors
@@ -439,6 +832,105 @@ public class RestController {
         return response;
     }
 
+    /**
+     * Generates the statements of the given operations and calls the {@link amforeas.jdbc.JDBCExecutor} execute
+     * method to run them in a single transaction.
+     * @param operations a list of {@link amforeas.jdbc.BatchOperation} in the order they are executed
+     * @param continueOnError if true the operations which succeed are committed even if others fail
+     * @return a {@link amforeas.rest.xstream.SuccessResponse} with a row for every operation with its status and its
+     * records, or the reason it failed. A {@link amforeas.rest.xstream.ErrorResponse} if an operation is invalid or, when
+     * the batch doesn't continue on errors, with the error of the operation which failed and rolled back the batch.
+     */
+    public AmforeasResponse executeBatch (final List<BatchOperation> operations, final boolean continueOnError) {
+        l.debug("Execute batch of {} operations in {}", operations.size(), alias);
+
+        final Batch batch = new Batch(database, continueOnError);
+        final List<BatchOperation.Type> types = new ArrayList<BatchOperation.Type>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            final BatchOperation op = operations.get(i);
+            try {
+                types.add(addOperation(batch, op));
+            } catch (AmforeasBadRequestException | IllegalArgumentException e) {
+                l.debug("Failed to generate operation {} of batch: {}", i, e.getMessage());
+                return new ErrorResponse(op.getResource(), Response.Status.BAD_REQUEST, "Operation " + i + ": " + e.getMessage());
+            }
+        }
+
+        try {
+            this.getExecutor().execute(batch);
+        } catch (Throwable ex) {
+            return handleException(ex, alias);
+        }
+
+        if (!batch.isCommitted()) {
+            final Map.Entry<Integer, SQLException> failure = batch.getFailures().entrySet().iterator().next();
+            final ErrorResponse error = (ErrorResponse) handleException(failure.getValue(), operations.get(failure.getKey()).getResource());
+            error.setMessage("Operation " + failure.getKey() + " failed and the batch was rolled back: " + error.getMessage());
+            return error;
+        }
+
+        final List<Row> rows = new ArrayList<Row>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            final BatchOperation op = operations.get(i);
+            final Map<String, Object> cells = new LinkedHashMap<String, Object>();
+            cells.put("op", op.getOp().toLowerCase());
+            cells.put("resource", op.getResource());
+            if (batch.getFailures().containsKey(i)) {
+                final ErrorResponse error = (ErrorResponse) handleException(batch.getFailures().get(i), op.getResource());
+                cells.put("status", error.getStatus().getStatusCode());
+                cells.put("message", error.getMessage());
+                cells.put("sqlState", error.getSqlState());
+                cells.put("sqlCode", error.getSqlCode());
+            } else {
+                final List<Row> results = batch.getResults().get(i);
+                cells.put("status", statusOf(types.get(i), results).getStatusCode());
+                cells.put("rows", results.stream().map(Row::getCells).collect(Collectors.toList()));
+            }
+            rows.add(new Row(i, cells));
+        }
+        return new SuccessResponse("_batch", rows);
+    }
+
+    private BatchOperation.Type addOperation (final Batch batch, final BatchOperation op) throws AmforeasBadRequestException {
+        final BatchOperation.Type type = op.getType();
+        final Table t = StringUtils.isBlank(op.getPk()) ? tableOf(op.getResource()) : new Table(database, op.getResource(), op.getPk());
+        if (type != BatchOperation.Type.INSERT && StringUtils.isBlank(op.getId())) {
+            throw new AmforeasBadRequestException("The " + op.getOp() + " needs the id of the record");
+        }
+
+        switch (type) {
+            case INSERT:
+                batch.add(new Insert(t).setColumns(op.getValues() == null ? new HashMap<String, String>() : op.getValues()));
+                break;
+            case UPDATE:
+                if (op.getValues() == null || op.getValues().isEmpty()) {
+                    throw new AmforeasBadRequestException("The update needs the values of the record");
+                }
+                batch.add(new Update(t).setId(op.getId()).setColumns(op.getValues()));
+                break;
+            case DELETE:
+                batch.add(new Delete(t).setId(op.getId()));
+                break;
+            default:
+                batch.add(new Select(t).setParameter(new SelectParam(t.getPrimaryKey(), op.getId())));
+        }
+        return type;
+    }
+
+    /**
+     * The status of an operation of a batch which succeeded, the same a single request would get.
+     */
+    private static Response.Status statusOf (final BatchOperation.Type type, final List<Row> results) {
+        switch (type) {
+            case INSERT:
+                return Response.Status.CREATED;
+            case GET:
+                return results.isEmpty() ? Response.Status.NOT_FOUND : Response.Status.OK;
+            default:
+                return results.isEmpty() ? Response.Status.NO_CONTENT : Response.Status.OK;
+        }
+    }
+
     /**
      * Generates a {@link org.amforeas.jdbc.DynamicFinder} from the given parameters and calls
      * the {@link amforeas.jdbc.JDBCExecutor} find method and handles errors
@@ -458,6 +950,9 @@ public class RestController {
         if (query == null)
             return new ErrorResponse(resource, Response.Status.BAD_REQUEST, "Invalid query");
 
+        if (limit != null && limit.isKeyset())
+            return new ErrorResponse(resource, Response.Status.BAD_REQUEST, "Dynamic finders can't be paged with a cursor");
+
         AmforeasResponse response = null;
         List<Row> results = null;
 
@@ -471,7 +966,7 @@ public class RestController {
         } else {
             try {
                 DynamicFinder df = DynamicFinder.valueOf(resource, query, values.toArray(new String[] {}));
-                results = this.getExecutor().find(database, df, limit, order, AmforeasUtils.parseValues(values));
+                results = this.getExecutor().find(database, df, limit, order, values.toArray());
             } catch (Throwable ex) {
                 response = handleException(ex, resource);
             }
@@ -497,6 +992,80 @@ public class RestController {
         return response;
     }
 
+    /**
+     * Same as {@link #findByDynamicFinder(String, String, List, LimitParam, OrderParam)} but the rows are written
+     * to the client as they are read from the database.
+     * @param resource the resource or view where to insert the record.
+     * @param query a {@link org.amforeas.jdbc.DynamicFinder} query
+     * @param values a list of arguments to be given to the {@link org.amforeas.jdbc.DynamicFinder}
+     * @param limit a {@link amforeas.jdbc.LimitParam} instance.
+     * @param order a {@link amforeas.jdbc.OrderParam} instance.
+     * @return a {@link amforeas.rest.xstream.StreamingResponse} or a {@link amforeas.rest.xstream.ErrorResponse}
+     */
+    public AmforeasResponse streamByDynamicFinder (final String resource, final String query, final List<String> values, final LimitParam limit, final OrderParam order) {
+        l.debug("Streaming resources from table {}.{} with {}", alias, resource, query);
+
+        if (values == null)
+            throw new IllegalArgumentException("Invalid null argument");
+
+        if (query == null)
+            return new ErrorResponse(resource, Response.Status.BAD_REQUEST, "Invalid query");
+
+        if (limit != null && limit.isKeyset())
+            return new ErrorResponse(resource, Response.Status.BAD_REQUEST, "Dynamic finders can't be paged with a cursor");
+
+        Integer count = -1;
+        try {
+            count = this.executor.count(new Table(database, resource));
+        } catch (IllegalArgumentException e) {
+            l.warn("Failed to obtain count because the Table {}.{} couldn\'t be instantiated", database, resource);
+        }
+
+        return streamResponse(resource, () -> {
+            if (values.isEmpty()) {
+                return this.getExecutor().stream(database, DynamicFinder.valueOf(resource, query), limit, order);
+            }
+            DynamicFinder df = DynamicFinder.valueOf(resource, query, values.toArray(new String[] {}));
+            return this.getExecutor().stream(database, df, limit, order, values.toArray());
+        }, limit, count, null, null, Response.Status.NOT_FOUND, "No results for " + query);
+    }
+
+    /**
+     * Opens the cursor and wraps it in a {@link amforeas.rest.xstream.StreamingResponse}. If the cursor
+     * is empty it is closed and an {@link amforeas.rest.xstream.ErrorResponse} with the given status is returned.
+     */
+    private AmforeasResponse streamResponse (final String resource, final CursorSupplier supplier, final LimitParam limit, final Integer total, final OrderParam order, final String pk,
+        final Response.Status onEmpty, final String message) {
+        ResultSetCursor cursor;
+        try {
+            cursor = supplier.open();
+        } catch (Throwable ex) {
+            return handleException(ex, resource);
+        }
+
+        if (cursor.isEmpty()) {
+            cursor.close();
+            return message == null ? new ErrorResponse(resource, onEmpty) : new ErrorResponse(resource, onEmpty, message);
+        }
+
+        return new StreamingResponse(resource, cursor, limit, total, order, pk);
+    }
+
+    /**
+     * The cursor of the last row, used by clients to read the next page with a keyset.
+     */
+    private KeysetCursor nextCursor (final List<Row> results, final OrderParam order, final Table t) {
+        if (results == null || results.isEmpty()) {
+            return null;
+        }
+        return KeysetCursor.of(results.get(results.size() - 1).getCells(), order, t.getPrimaryKey());
+    }
+
+    @FunctionalInterface
+    private interface CursorSupplier {
+        ResultSetCursor open () throws Exception;
+    }
+
     /**
      * Generates a List of {@link amforeas.jdbc.StoredProcedureParam} and executes
      * the {@link amforeas.jdbc.JDBCExecutor} executeQuery method with the given JSON parameters.
@@ -535,7 +1104,9 @@ public class RestController {
     /**
      * Method in charge of handling the possible exceptions thrown by the executor or any other
      * operation. The current implementation handles SQLException, AmforeasBadRequestException &
-     * IllegalArgumentException to return different errors. For any other exception 
+     * IllegalArgumentException to return different errors. When no connection is available before
+     * the pool's max wait a 503 is returned and when a statement runs out of time a
+     * 504. For any other exception 
      * a {@link amforeas.rest.xstream.ErrorResponse} with a 500 status code is returned.
      * @param t the exception to handle.
      * @param resource the name of the resource which is throwing the exception.
@@ -546,7 +1117,7 @@ public class RestController {
         AmforeasResponse response;
         StringBuilder b;
         if (t instanceof SQLException) {
-            SQLException ex = (SQLException) t;
+            SQLException ex = unwrap((SQLException) t);
             b = new StringBuilder("Received a SQLException ");
             b.append(ex.getMessage());
             b.append(" state [");
@@ -555,7 +1126,13 @@ public class RestController {
             b.append(ex.getErrorCode());
             b.append("]");
             l.debug(b.toString());
-            response = new ErrorResponse(resource, ex);
+            ErrorResponse error = new ErrorResponse(resource, ex);
+            if (ex instanceof SQLTransientConnectionException) {
+                error.setStatus(Response.Status.SERVICE_UNAVAILABLE);
+            } else if (QueryContext.isTimeout((SQLException) t)) {
+                error.setStatus(Response.Status.GATEWAY_TIMEOUT);
+            }
+            response = error;
         } else if (t instanceof AmforeasBadRequestException) {
             b = new StringBuilder("Received a AmforeasBadRequestException ");
             b.append(t.getMessage());
@@ -575,6 +1152,38 @@ public class RestController {
         return response;
     }
 
+    /**
+     * The statements pool wraps the driver exception when a statement can't be prepared, so the
+     * SQL state is lost. Look for the exception thrown by the driver.
+     * @param ex the SQLException received
+     * @return the first exception in the chain with a SQL state, or the given one.
+     */
+    private SQLException unwrap (final SQLException ex) {
+        SQLException current = ex;
+        while (current.getSQLState() == null) {
+            SQLException next = current.getCause() instanceof SQLException ? (SQLException) current.getCause() : current.getNextException();
+            if (next == null) {
+                return ex;
+            }
+            current = next;
+        }
+        return current;
+    }
+
+    /**
+     * A table with the primary key given by the {@link amforeas.jdbc.SchemaCatalog}, or <b>id</b> if it's unknown.
+     * @throws IllegalArgumentException if the name is blank, null or empty.
+     */
+    private Table tableOf (final String name) {
+        final Table t = new Table(database, name);
+        final Optional<String> pk = this.getSchemaCatalog().getPrimaryKey(name);
+        return pk.isPresent() ? new Table(database, name, pk.get()) : t;
+    }
+
+    private SchemaCatalog getSchemaCatalog () {
+        return this.factory.getJDBCConnectionFactory().getSchemaCatalog(this.dbconf);
+    }
+
     public JDBCExecutor getExecutor () {
         return executor;
     }
@@ -12,6 +12,7 @@
 
 package amforeas;
 
+import java.io.InputStream;
 import java.util.List;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
@@ -23,12 +24,37 @@ public interface RestService {
 
     public Response dbMeta (String alias);
 
+    /**
+     * @param alias the alias of the database
+     * @param refresh true to read the tables of the alias again from the database
+     * @return the tables of the alias
+     */
+    public Response dbMeta (String alias, boolean refresh);
+
     public Response resourceMeta (String alias, String resource);
 
+    /**
+     * @param alias the alias of the database
+     * @param resource the name of the table or view
+     * @param refresh true to read the metadata of the resource again from the database
+     * @return the columns of the resource
+     */
+    public Response resourceMeta (String alias, String resource, boolean refresh);
+
     public Response get (String alias, String resource, String pk, String id, MultivaluedMap<String, String> queryParams);
 
     public Response getAll (String alias, String resource, String pk, MultivaluedMap<String, String> queryParams);
 
+    /**
+     * @param alias the alias of the database
+     * @param resource the table to read
+     * @param pk the primary key of the table, or null to detect it
+     * @param jsonRequest a JSON array with the values of the primary key of the records
+     * @param queryParams the columns to read
+     * @return the records found and the keys which weren't found
+     */
+    public Response getMany (String alias, String resource, String pk, String jsonRequest, MultivaluedMap<String, String> queryParams);
+
     public Response find (String alias, String resource, String pk, String col, String arg, MultivaluedMap<String, String> queryParams);
 
     public Response findBy (String alias, String resource, String pk, String query, List<String> args, MultivaluedMap<String, String> queryParams);
@@ -37,12 +63,60 @@ public interface RestService {
 
     public Response insert (String alias, String resource, String pk, MultivaluedMap<String, String> formParams);
 
+    /**
+     * @param alias the alias of the database
+     * @param resource the table where the record is inserted
+     * @param pk the primary key of the table, or null to detect it
+     * @param jsonRequest the values of the record
+     * @param record true to answer with the created record instead of its primary key
+     * @return the created record or its primary key, with the location of the record
+     */
+    public Response insert (String alias, String resource, String pk, String jsonRequest, boolean record);
+
+    /**
+     * @param alias the alias of the database
+     * @param resource the table where the record is inserted
+     * @param pk the primary key of the table, or null to detect it
+     * @param formParams the values of the record
+     * @param record true to answer with the created record instead of its primary key
+     * @return the created record or its primary key, with the location of the record
+     */
+    public Response insert (String alias, String resource, String pk, MultivaluedMap<String, String> formParams, boolean record);
+
     public Response update (String alias, String resource, String pk, String id, String jsonRequest);
 
+    /**
+     * @param alias the alias of the database
+     * @param resource the table where the record is inserted or updated
+     * @param pk the primary key of the table, or null to detect it
+     * @param jsonRequest the values of the record with its primary key, or a JSON array with many records
+     * @param merge true if the client asked to merge with the existing record with Prefer: resolution=merge
+     * @return the written record, or the number of records written by a JSON array
+     */
+    public Response upsert (String alias, String resource, String pk, String jsonRequest, boolean merge);
+
     public Response delete (String alias, String resource, String pk, String id);
 
+    /**
+     * @param alias the alias of the database
+     * @param resource the table where the rows are loaded
+     * @param contentType the media type of the body, application/x-ndjson or text/csv
+     * @param body the rows, read as they are loaded
+     * @param queryParams commitEvery=N commits every N rows instead of every batch
+     * @return the number of rows loaded and rejected, the line of the rejected rows and the throughput
+     */
+    public Response ingest (String alias, String resource, String contentType, InputStream body, MultivaluedMap<String, String> queryParams);
+
     public Response storedProcedure (String alias, String query, String jsonRequest);
 
+    /**
+     * @param alias the alias of the database
+     * @param jsonRequest a JSON array with the operations of the batch
+     * @param queryParams continueOnError=true commits the operations which succeed even if others fail
+     * @return the status and records of every operation, or the error which rolled back the batch
+     */
+    public Response batch (String alias, String jsonRequest, MultivaluedMap<String, String> queryParams);
+
     public Response getStatistics ();
 
 }
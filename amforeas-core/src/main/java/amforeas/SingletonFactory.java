@@ -12,6 +12,7 @@
 
 package amforeas;
 
+import amforeas.cache.ResponseCache;
 import amforeas.config.AmforeasConfiguration;
 import amforeas.jdbc.JDBCConnectionFactory;
 import amforeas.jdbc.JDBCExecutor;
@@ -31,4 +32,14 @@ public interface SingletonFactory {
 
     public DialectFactory getDialectFactory ();
 
+    public AliasExecutors getAliasExecutors ();
+
+    /**
+     * Stops the {@link amforeas.AliasExecutors} if they were created. They are never created by this method, so it
+     * is safe to call while the JVM shuts down.
+     */
+    public void shutdownAliasExecutors ();
+
+    public ResponseCache getResponseCache ();
+
 }
@@ -12,55 +12,99 @@
 
 package amforeas;
 
+import amforeas.cache.ResponseCache;
 import amforeas.config.AmforeasConfiguration;
 import amforeas.jdbc.JDBCConnectionFactory;
 import amforeas.jdbc.JDBCExecutor;
 import amforeas.sql.dialect.DialectFactory;
 
+/**
+ * Holds the instances shared by every request. The instances are static and every caller creates its own
+ * factory, so they are guarded by a lock on the class instead of a lock on each factory.
+ */
 public class SingletonFactoryImpl implements SingletonFactory {
 
     protected static JDBCExecutor jdbcExecutor;
     protected static AmforeasConfiguration configuration;
     protected static JDBCConnectionFactory jdbcConnectionFactory;
     protected static DialectFactory dialectFactory;
+    protected static AliasExecutors aliasExecutors;
+    protected static ResponseCache responseCache;
 
-    public synchronized JDBCExecutor getJDBCExecutor () {
-        if (jdbcExecutor == null) {
-            jdbcExecutor = new JDBCExecutor();
+    public JDBCExecutor getJDBCExecutor () {
+        synchronized (SingletonFactoryImpl.class) {
+            if (jdbcExecutor == null) {
+                jdbcExecutor = new JDBCExecutor();
+            }
+            return jdbcExecutor;
         }
-        return jdbcExecutor;
     }
 
-    public synchronized AmforeasConfiguration getConfiguration () {
-        if (configuration == null) {
-            configuration = new AmforeasConfiguration();
-            configuration.loadProperties();
-            configuration.load();
+    public AmforeasConfiguration getConfiguration () {
+        synchronized (SingletonFactoryImpl.class) {
+            if (configuration == null) {
+                configuration = new AmforeasConfiguration();
+                configuration.loadProperties();
+                configuration.load();
+            }
+            return configuration;
         }
-        return configuration;
     }
 
-    public synchronized void resetConfiguration () {
-        configuration = null;
+    public void resetConfiguration () {
+        synchronized (SingletonFactoryImpl.class) {
+            configuration = null;
+        }
     }
 
-    public synchronized JDBCConnectionFactory getJDBCConnectionFactory () {
-        if (jdbcConnectionFactory == null) {
-            jdbcConnectionFactory = new JDBCConnectionFactory();
-            jdbcConnectionFactory.load();
+    public JDBCConnectionFactory getJDBCConnectionFactory () {
+        synchronized (SingletonFactoryImpl.class) {
+            if (jdbcConnectionFactory == null) {
+                jdbcConnectionFactory = new JDBCConnectionFactory();
+                jdbcConnectionFactory.load();
+            }
+            return jdbcConnectionFactory;
         }
-        return jdbcConnectionFactory;
     }
 
-    public synchronized RestController getRESTController (String alias) {
+    public RestController getRESTController (String alias) {
         return new RestController(alias);
     }
 
     public DialectFactory getDialectFactory () {
-        if (dialectFactory == null) {
-            dialectFactory = new DialectFactory();
+        synchronized (SingletonFactoryImpl.class) {
+            if (dialectFactory == null) {
+                dialectFactory = new DialectFactory();
+            }
+            return dialectFactory;
+        }
+    }
+
+    public AliasExecutors getAliasExecutors () {
+        synchronized (SingletonFactoryImpl.class) {
+            if (aliasExecutors == null) {
+                aliasExecutors = new AliasExecutors(this);
+            }
+            return aliasExecutors;
+        }
+    }
+
+    public void shutdownAliasExecutors () {
+        synchronized (SingletonFactoryImpl.class) {
+            if (aliasExecutors != null) {
+                aliasExecutors.shutdown();
+                aliasExecutors = null;
+            }
+        }
+    }
+
+    public ResponseCache getResponseCache () {
+        synchronized (SingletonFactoryImpl.class) {
+            if (responseCache == null) {
+                responseCache = new ResponseCache(getConfiguration().getServerCacheSize());
+            }
+            return responseCache;
         }
-        return dialectFactory;
     }
 
 }
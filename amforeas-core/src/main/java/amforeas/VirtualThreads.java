@@ -0,0 +1,47 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates virtual threads on the JVMs which have them. Amforeas is built for Java 11, so the virtual threads API
+ * is looked up with reflection.
+ */
+public class VirtualThreads {
+
+    private static final Logger l = LoggerFactory.getLogger(VirtualThreads.class);
+
+    private VirtualThreads() {}
+
+    /**
+     * @param prefix the prefix of the name of the threads, followed by a counter
+     * @return a {@link java.util.concurrent.ThreadFactory} of virtual threads or empty if virtual threads are not available
+     */
+    public static Optional<ThreadFactory> factory (final String prefix) {
+        try {
+            final Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            final Object ofVirtual = Thread.class.getMethod("ofVirtual").invoke(null);
+            final Object named = builder.getMethod("name", String.class, long.class).invoke(ofVirtual, prefix, 0L);
+            return Optional.of((ThreadFactory) builder.getMethod("factory").invoke(named));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Java 19 and 20 have the API but throw when preview features are not enabled
+            l.debug("Virtual threads are not available: {}", e.toString());
+            return Optional.empty();
+        }
+    }
+
+}
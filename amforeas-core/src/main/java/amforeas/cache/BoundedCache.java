@@ -0,0 +1,480 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.cache;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * A concurrent cache bounded by the total weight of its entries.
+ * <p>
+ * Reads never block: entries live in a {@link java.util.concurrent.ConcurrentHashMap} and every hit is
+ * recorded in a lossy ring buffer which is replayed under the eviction lock once it fills up. Writes take
+ * the eviction lock, so they are serialized.
+ * <p>
+ * Eviction follows a segmented LRU. New entries go into a probation segment and move to a protected
+ * segment when they are read again, so a scan of entries read once can't flush the entries which are
+ * read often. Victims are taken from the probation segment first.
+ * <p>
+ * Expired entries are never returned and are removed by a hashed timing wheel, so they don't need to
+ * be read again to free their space.
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public class BoundedCache<K, V> {
+
+    private static final int READ_BUFFER_SIZE = 128;
+    private static final int WHEEL_SIZE = 64;
+    private static final double PROTECTED_RATIO = 0.8;
+
+    private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final long maximumWeight;
+    private final long maximumProtected;
+    private final long ttl;
+    private final ToIntBiFunction<K, V> weigher;
+    private final LongSupplier ticker;
+
+    /* guarded by the eviction lock */
+    private final AccessOrder<K, V> probation = new AccessOrder<>();
+    private final AccessOrder<K, V> protectedSegment = new AccessOrder<>();
+    private final TimerWheel timerWheel;
+    private volatile long weight;
+
+    private final AtomicReferenceArray<Node<K, V>> readBuffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+    private final AtomicLong readBufferWrites = new AtomicLong();
+    private volatile long readBufferReads;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    /**
+     * Create a cache bounded by the number of entries
+     * @param maximumSize the maximum number of entries
+     * @param ttl - in milliseconds, 0 or less to never expire the entries
+     */
+    public BoundedCache(final long maximumSize, final long ttl) {
+        this(maximumSize, ttl, (k, v) -> 1);
+    }
+
+    /**
+     * Create a cache bounded by the total weight of the entries
+     * @param maximumWeight the maximum total weight of the entries
+     * @param ttl - in milliseconds, 0 or less to never expire the entries
+     * @param weigher computes the weight of an entry
+     */
+    public BoundedCache(final long maximumWeight, final long ttl, final ToIntBiFunction<K, V> weigher) {
+        this(maximumWeight, ttl, weigher, System::nanoTime);
+    }
+
+    /**
+     * Create a cache bounded by the total weight of the entries with a custom time source
+     * @param maximumWeight the maximum total weight of the entries
+     * @param ttl - in milliseconds, 0 or less to never expire the entries
+     * @param weigher computes the weight of an entry
+     * @param ticker the time source in nanoseconds
+     */
+    public BoundedCache(final long maximumWeight, final long ttl, final ToIntBiFunction<K, V> weigher, final LongSupplier ticker) {
+        if (maximumWeight <= 0)
+            throw new IllegalArgumentException("The maximum weight of a cache must be positive");
+
+        this.maximumWeight = maximumWeight;
+        this.maximumProtected = (long) (maximumWeight * PROTECTED_RATIO);
+        this.ttl = ttl > 0 ? TimeUnit.MILLISECONDS.toNanos(ttl) : 0;
+        this.weigher = Objects.requireNonNull(weigher);
+        this.ticker = Objects.requireNonNull(ticker);
+        this.timerWheel = new TimerWheel(Math.max(TimeUnit.MILLISECONDS.toNanos(1), this.ttl / WHEEL_SIZE), ticker.getAsLong());
+    }
+
+    /**
+     * Adds or replaces an entry and evicts entries if the cache goes over its maximum weight.
+     * @param key the key
+     * @param value the value
+     * @return the previous value of the key or null
+     */
+    public V put (final K key, final V value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+
+        final int w = weigher.applyAsInt(key, value);
+        if (w < 0)
+            throw new IllegalArgumentException("The weight of an entry can't be negative");
+
+        final long now = ticker.getAsLong();
+        final Node<K, V> node = new Node<>(key, value, w, now + ttl);
+
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+            final Node<K, V> old = data.put(key, node);
+            if (old != null) {
+                unlink(old);
+            }
+            probation.add(node);
+            timerWheel.schedule(node);
+            weight += w;
+
+            expire(now);
+            evict();
+            return old == null || isExpired(old, now) ? null : old.value;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public Optional<V> get (final K key) {
+        final Node<K, V> node = data.get(key);
+        if (node == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+
+        if (isExpired(node, ticker.getAsLong())) {
+            misses.increment();
+            tryMaintenance();
+            return Optional.empty();
+        }
+
+        hits.increment();
+        afterRead(node);
+        return Optional.of(node.value);
+    }
+
+    /**
+     * @param key the key
+     * @return the value of the removed entry or null
+     */
+    public V remove (final K key) {
+        evictionLock.lock();
+        try {
+            final Node<K, V> old = data.remove(key);
+            if (old == null) {
+                return null;
+            }
+            unlink(old);
+            return old.value;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Removes all the entries.
+     */
+    public void clear () {
+        evictionLock.lock();
+        try {
+            for (Node<K, V> node : data.values()) {
+                unlink(node);
+            }
+            data.clear();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Removes the expired entries and replays the pending reads.
+     */
+    public void cleanUp () {
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+            expire(ticker.getAsLong());
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of entries, including the expired ones which haven't been removed yet.
+     */
+    public long size () {
+        return data.size();
+    }
+
+    public long getWeight () {
+        return weight;
+    }
+
+    public long getMaximumWeight () {
+        return maximumWeight;
+    }
+
+    public long getHits () {
+        return hits.sum();
+    }
+
+    public long getMisses () {
+        return misses.sum();
+    }
+
+    public long getEvictions () {
+        return evictions.sum();
+    }
+
+    public long getExpirations () {
+        return expirations.sum();
+    }
+
+    private boolean isExpired (final Node<K, V> node, final long now) {
+        return ttl > 0 && now - node.expiresAt >= 0;
+    }
+
+    /**
+     * Records the read without blocking. When the buffer is full the read is dropped, which only
+     * makes the recency of the entry less accurate.
+     */
+    private void afterRead (final Node<K, V> node) {
+        final long writes = readBufferWrites.get();
+        if (writes - readBufferReads < READ_BUFFER_SIZE && readBufferWrites.compareAndSet(writes, writes + 1)) {
+            readBuffer.lazySet((int) (writes & (READ_BUFFER_SIZE - 1)), node);
+            if (writes + 1 - readBufferReads < READ_BUFFER_SIZE / 2) {
+                return;
+            }
+        }
+        tryMaintenance();
+    }
+
+    private void tryMaintenance () {
+        if (evictionLock.tryLock()) {
+            try {
+                drainReadBuffer();
+                expire(ticker.getAsLong());
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void drainReadBuffer () {
+        long reads = readBufferReads;
+        final long writes = readBufferWrites.get();
+        for (; reads < writes; reads++) {
+            final Node<K, V> node = readBuffer.getAndSet((int) (reads & (READ_BUFFER_SIZE - 1)), null);
+            if (node == null) {
+                // the reader didn't publish the node yet, it's picked up on the next drain
+                break;
+            }
+            onAccess(node);
+        }
+        readBufferReads = reads;
+    }
+
+    private void onAccess (final Node<K, V> node) {
+        if (node.retired) {
+            return;
+        }
+
+        if (node.isProtected) {
+            protectedSegment.moveToTail(node);
+            return;
+        }
+
+        probation.remove(node);
+        protectedSegment.add(node);
+        node.isProtected = true;
+
+        while (protectedSegment.weight > maximumProtected && protectedSegment.head != protectedSegment.tail) {
+            final Node<K, V> demoted = protectedSegment.head;
+            protectedSegment.remove(demoted);
+            probation.add(demoted);
+            demoted.isProtected = false;
+        }
+    }
+
+    private void evict () {
+        while (weight > maximumWeight) {
+            final Node<K, V> victim = probation.head != null ? probation.head : protectedSegment.head;
+            if (victim == null) {
+                return;
+            }
+            data.remove(victim.key, victim);
+            unlink(victim);
+            evictions.increment();
+        }
+    }
+
+    private void expire (final long now) {
+        if (ttl > 0) {
+            timerWheel.advance(now);
+        }
+    }
+
+    private void unlink (final Node<K, V> node) {
+        if (node.retired) {
+            return;
+        }
+        node.retired = true;
+        if (node.isProtected) {
+            protectedSegment.remove(node);
+        } else {
+            probation.remove(node);
+        }
+        timerWheel.deschedule(node);
+        weight -= node.weight;
+    }
+
+    private static final class Node<K, V> {
+
+        final K key;
+        final V value;
+        final int weight;
+        final long expiresAt;
+
+        volatile boolean retired;
+
+        /* guarded by the eviction lock */
+        boolean isProtected;
+        Node<K, V> prev;
+        Node<K, V> next;
+        Node<K, V> prevInBucket;
+        Node<K, V> nextInBucket;
+        int bucket = -1;
+
+        Node(final K key, final V value, final int weight, final long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * A segment of the cache ordered from the least to the most recently used entry.
+     */
+    private static final class AccessOrder<K, V> {
+
+        Node<K, V> head;
+        Node<K, V> tail;
+        long weight;
+
+        void add (final Node<K, V> node) {
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+            weight += node.weight;
+        }
+
+        void remove (final Node<K, V> node) {
+            if (node.prev == null) {
+                head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            weight -= node.weight;
+        }
+
+        void moveToTail (final Node<K, V> node) {
+            if (tail != node) {
+                remove(node);
+                add(node);
+            }
+        }
+    }
+
+    /**
+     * Entries are hashed into buckets by the tick they expire in. Advancing the wheel visits the
+     * buckets of the ticks which have fully elapsed and removes their expired entries; entries which
+     * expire in a later revolution stay in their bucket. The bucket of the current tick is left
+     * alone until the tick is over, so writes within the same tick don't scan it again.
+     */
+    private final class TimerWheel {
+
+        private final long tick;
+        private long currentTick;
+
+        @SuppressWarnings("unchecked")
+        private final Node<K, V>[] buckets = new Node[WHEEL_SIZE];
+
+        TimerWheel(final long tick, final long now) {
+            this.tick = tick;
+            this.currentTick = Math.floorDiv(now, tick);
+        }
+
+        void schedule (final Node<K, V> node) {
+            if (ttl <= 0) {
+                return;
+            }
+            final int bucket = (int) (Math.floorDiv(node.expiresAt, tick) & (WHEEL_SIZE - 1));
+            node.bucket = bucket;
+            node.prevInBucket = null;
+            node.nextInBucket = buckets[bucket];
+            if (buckets[bucket] != null) {
+                buckets[bucket].prevInBucket = node;
+            }
+            buckets[bucket] = node;
+        }
+
+        void deschedule (final Node<K, V> node) {
+            if (node.bucket < 0) {
+                return;
+            }
+            if (node.prevInBucket == null) {
+                buckets[node.bucket] = node.nextInBucket;
+            } else {
+                node.prevInBucket.nextInBucket = node.nextInBucket;
+            }
+            if (node.nextInBucket != null) {
+                node.nextInBucket.prevInBucket = node.prevInBucket;
+            }
+            node.prevInBucket = null;
+            node.nextInBucket = null;
+            node.bucket = -1;
+        }
+
+        void advance (final long now) {
+            final long target = Math.floorDiv(now, tick);
+            if (target <= currentTick) {
+                return;
+            }
+            for (long t = currentTick; t < target && t < currentTick + WHEEL_SIZE; t++) {
+                Node<K, V> node = buckets[(int) (t & (WHEEL_SIZE - 1))];
+                while (node != null) {
+                    final Node<K, V> next = node.nextInBucket;
+                    if (isExpired(node, now)) {
+                        data.remove(node.key, node);
+                        unlink(node);
+                        expirations.increment();
+                    }
+                    node = next;
+                }
+            }
+            currentTick = target;
+        }
+    }
+
+}
@@ -0,0 +1,191 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.cache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.MediaType;
+import amforeas.AmforeasUtils;
+
+/**
+ * The serialized responses of the resources which are configured to be cached, bounded by their size in bytes.
+ * <p>
+ * Every table has a version which is bumped by the {@link amforeas.jdbc.JDBCExecutor} after it writes to it. An entry
+ * keeps the version its table had before the rows were read and is only returned while the table is still on that
+ * version, so a write makes every response read before it stale without having to find them.
+ */
+public class ResponseCache {
+
+    private final BoundedCache<String, Entry> entries;
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> hits = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> misses = new ConcurrentHashMap<>();
+    private final LongSupplier ticker;
+
+    /**
+     * @param maximumSize the maximum number of bytes of the cached responses
+     */
+    public ResponseCache(final long maximumSize) {
+        this(maximumSize, System::nanoTime);
+    }
+
+    /**
+     * @param maximumSize the maximum number of bytes of the cached responses
+     * @param ticker the time source in nanoseconds
+     */
+    public ResponseCache(final long maximumSize, final LongSupplier ticker) {
+        this.entries = new BoundedCache<>(maximumSize, 0, (key, entry) -> key.length() + entry.body.length, ticker);
+        this.ticker = ticker;
+    }
+
+    /**
+     * @param path the path of the request, which starts with the alias and the resource
+     * @param query the raw query string of the request, may be null
+     * @param accept the Accept header of the request, may be null
+     * @param primaryKey the Primary-Key header of the request, which changes the column of the reads by id and the
+     *        default order, may be null
+     * @return the key of the response of the request
+     */
+    public static String keyOf (final String path, final String query, final String accept, final String primaryKey) {
+        return path + '?' + (query == null ? "" : query) + '\n' + (accept == null ? "" : accept) + '\n' + (primaryKey == null ? "" : primaryKey);
+    }
+
+    /**
+     * The version of a table is the sum of the writes to the table and the stored procedures called on its alias,
+     * so it changes when any of them does.
+     * @param alias the alias of the database
+     * @param resource the name of the table or view
+     * @return the current version of the table
+     */
+    public long version (final String alias, final String resource) {
+        return counter(alias.toLowerCase()).get() + counter(tableOf(alias, resource)).get();
+    }
+
+    /**
+     * Makes the cached responses of a table stale.
+     * @param alias the alias of the database
+     * @param resource the name of the table which was written to
+     */
+    public void invalidate (final String alias, final String resource) {
+        counter(tableOf(alias, resource)).incrementAndGet();
+    }
+
+    /**
+     * Makes the cached responses of every table of an alias stale, for the writes we can't tell the table of.
+     * @param alias the alias of the database
+     */
+    public void invalidate (final String alias) {
+        counter(alias.toLowerCase()).incrementAndGet();
+    }
+
+    /**
+     * @param alias the alias of the database, used for the statistics
+     * @param key the key of the response given by {@link #keyOf(String, String, String, String)}
+     * @param version the current version of the table of the response
+     * @return the cached response if it was read on the same version of the table and hasn't expired.
+     */
+    public Optional<Entry> get (final String alias, final String key, final long version) {
+        final long now = ticker.getAsLong();
+        final Optional<Entry> entry = this.entries.get(key).filter(e -> e.version == version && e.expires - now > 0);
+        (entry.isPresent() ? this.hits : this.misses).computeIfAbsent(alias.toLowerCase(), k -> new LongAdder()).increment();
+        return entry;
+    }
+
+    /**
+     * @param key the key of the response given by {@link #keyOf(String, String, String, String)}
+     * @param version the version of the table before the rows were read
+     * @param ttl seconds the response is cached
+     * @param body the serialized response
+     * @param type the media type of the response
+     * @return the cached response
+     */
+    public Entry put (final String key, final long version, final int ttl, final byte[] body, final MediaType type) {
+        final Entry entry = new Entry(body, type, version, ticker.getAsLong() + TimeUnit.SECONDS.toNanos(ttl));
+        this.entries.put(key, entry);
+        return entry;
+    }
+
+    /**
+     * Removes every cached response.
+     */
+    public void clear () {
+        this.entries.clear();
+    }
+
+    /**
+     * Adds the hits and misses of the cache to the statistics of every alias.
+     * @param stats the statistics of the aliases
+     * @return the same statistics
+     */
+    public List<Map<String, Object>> addStatistics (final List<Map<String, Object>> stats) {
+        for (Map<String, Object> map : stats) {
+            final String alias = String.valueOf(map.get("alias")).toLowerCase();
+            map.put("cache-hits", sum(this.hits.get(alias)));
+            map.put("cache-misses", sum(this.misses.get(alias)));
+        }
+        return stats;
+    }
+
+    private AtomicLong counter (final String key) {
+        return this.versions.computeIfAbsent(key, k -> new AtomicLong());
+    }
+
+    private static String tableOf (final String alias, final String resource) {
+        return alias.toLowerCase() + '.' + resource.toLowerCase();
+    }
+
+    private static long sum (final LongAdder adder) {
+        return adder == null ? 0 : adder.sum();
+    }
+
+    /**
+     * A cached response with a strong ETag of its bytes.
+     */
+    public static class Entry {
+
+        private final byte[] body;
+        private final MediaType type;
+        private final EntityTag tag;
+        private final long version;
+        private final long expires;
+
+        private Entry(final byte[] body, final MediaType type, final long version, final long expires) {
+            this.body = body;
+            this.type = type;
+            this.tag = new EntityTag(AmforeasUtils.getMD5Base64OfBytes(body));
+            this.version = version;
+            this.expires = expires;
+        }
+
+        public byte[] getBody () {
+            return body;
+        }
+
+        public MediaType getType () {
+            return type;
+        }
+
+        public EntityTag getTag () {
+            return tag;
+        }
+
+    }
+
+}
@@ -12,28 +12,20 @@
 
 package amforeas.cache;
 
-import java.time.Instant;
-import java.util.Collections;
-import java.util.Map;
-import java.util.Optional;
-import java.util.WeakHashMap;
-
 /**
- * A very simple cache implementation
+ * A {@link amforeas.cache.BoundedCache} with a TTL and a maximum number of entries.
  * @param <K>
  * @param <J>
  */
-public class SimpleCache<K extends Comparable<K>, J> {
-
-    private final Map<K, Item<J>> cache = Collections.synchronizedMap(new WeakHashMap<>());
+public class SimpleCache<K extends Comparable<K>, J> extends BoundedCache<K, J> {
 
-    private final Integer ttl;
+    public static final long DEFAULT_MAXIMUM_SIZE = 10000;
 
     /**
      * Create a cache with a default TTL of 30 minutes
      */
     public SimpleCache() {
-        this.ttl = 1800000; // 30 minutes
+        this(1800000); // 30 minutes
     }
 
     /**
@@ -41,55 +33,16 @@ public class SimpleCache<K extends Comparable<K>, J> {
      * @param ttl - in milliseconds
      */
     public SimpleCache(Integer ttl) {
-        this.ttl = ttl;
-    }
-
-    public Item<J> put (K key, J value) {
-        Item<J> i = new Item<J>(value, Instant.now().plusMillis(ttl));
-        return cache.put(key, i);
-    }
-
-    public Optional<J> get (K key) {
-        Item<J> i = cache.get(key);
-
-        if (i == null) {
-            return Optional.empty();
-        }
-
-        if (!i.isValid()) {
-            return Optional.empty();
-        }
-
-        return Optional.of(i.getValue());
+        this(ttl, DEFAULT_MAXIMUM_SIZE);
     }
 
-    public J remove (K key) {
-        Item<J> i = this.cache.remove(key);
-        return i != null ? i.getValue() : null;
+    /**
+     * Create a cache with a custom TTL and size
+     * @param ttl - in milliseconds
+     * @param maximumSize - the maximum number of entries
+     */
+    public SimpleCache(Integer ttl, long maximumSize) {
+        super(maximumSize, ttl);
     }
 
-    private class Item<V> {
-
-        private final V value;
-        private final Instant from;
-
-        public Item(V value, Instant from) {
-            super();
-            this.value = value;
-            this.from = from;
-        }
-
-        public V getValue () {
-            return value;
-        }
-
-        public Instant getFrom () {
-            return from;
-        }
-
-        public boolean isValid () {
-            return this.getFrom().isAfter(Instant.now());
-        }
-
-    }
 }
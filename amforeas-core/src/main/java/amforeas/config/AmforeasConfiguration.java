@@ -27,6 +27,7 @@ import org.slf4j.LoggerFactory;
 import amforeas.AmforeasShutdown;
 import amforeas.acl.ACLRule;
 import amforeas.enums.JDBCDriver;
+import amforeas.enums.RejectionPolicy;
 import amforeas.exceptions.StartupException;
 
 /**
@@ -153,9 +154,62 @@ public class AmforeasConfiguration {
         Integer max = integerValueOf(AmforeasProperties.DB_MAX_CONNECTIONS, alias, Integer.valueOf(25));
         Boolean readOnly = Boolean.valueOf(this.properties.get(AmforeasProperties.DB_READONLY, alias));
         String url = this.properties.get(AmforeasProperties.DB_URL, alias);
+        Integer statementCacheSize = integerValueOf(AmforeasProperties.DB_STATEMENT_CACHE_SIZE, alias, Integer.valueOf(50));
+        Integer minIdle = integerValueOf(AmforeasProperties.DB_MIN_IDLE, alias, Integer.valueOf(0));
+        Integer maxWait = integerValueOf(AmforeasProperties.DB_MAX_WAIT, alias, Integer.valueOf(10000));
+        Boolean testOnBorrow = Boolean.valueOf(this.properties.get(AmforeasProperties.DB_TEST_ON_BORROW, alias));
+        Integer maxLifetime = integerValueOf(AmforeasProperties.DB_MAX_LIFETIME, alias, Integer.valueOf(1800000));
+        Integer idleTimeout = integerValueOf(AmforeasProperties.DB_IDLE_TIMEOUT, alias, Integer.valueOf(600000));
+        Integer batchSize = integerValueOf(AmforeasProperties.DB_BATCH_SIZE, alias, Integer.valueOf(500));
+        Integer keysetThreshold = integerValueOf(AmforeasProperties.DB_KEYSET_THRESHOLD, alias, Integer.valueOf(0));
+        Integer queryTimeout = integerValueOf(AmforeasProperties.DB_QUERY_TIMEOUT, alias, Integer.valueOf(0));
+        Integer executorThreads = integerValueOf(AmforeasProperties.DB_EXECUTOR_THREADS, alias, Integer.valueOf(0));
+        Integer executorQueueSize = integerValueOf(AmforeasProperties.DB_EXECUTOR_QUEUE_SIZE, alias, Integer.valueOf(100));
+        Integer executorQueueTimeout = integerValueOf(AmforeasProperties.DB_EXECUTOR_QUEUE_TIMEOUT, alias, Integer.valueOf(10000));
+        RejectionPolicy executorRejection = RejectionPolicy.of(this.properties.get(AmforeasProperties.DB_EXECUTOR_REJECTION, alias));
+        Integer cacheTtl = integerValueOf(AmforeasProperties.DB_CACHE_TTL, alias, Integer.valueOf(0));
+        Integer digestMaxSize = integerValueOf(AmforeasProperties.DB_DIGEST_MAX_SIZE, alias, DatabaseConfiguration.DEFAULT_DIGEST_MAX_SIZE);
+        Integer catalogRefresh = integerValueOf(AmforeasProperties.DB_CATALOG_REFRESH, alias, Integer.valueOf(1800));
 
         DatabaseConfiguration c = DatabaseConfiguration.instanceOf(alias, driver, username, password, database, host, port, max, readOnly);
         c.setUrl(url);
+        c.setStatementCacheSize(statementCacheSize);
+        c.setMinIdle(minIdle);
+        c.setMaxWait(maxWait);
+        c.setTestOnBorrow(testOnBorrow);
+        c.setMaxLifetime(maxLifetime);
+        c.setIdleTimeout(idleTimeout);
+        c.setBatchSize(batchSize);
+        c.setKeysetThreshold(keysetThreshold);
+        c.setQueryTimeout(queryTimeout);
+        this.properties.getResourceQueryTimeouts(alias).forEach( (resource, timeout) -> {
+            try {
+                c.setQueryTimeout(resource, Integer.valueOf(timeout.trim()));
+            } catch (NumberFormatException e) {
+                l.warn("Invalid query timeout {} for {}.{}", timeout, alias, resource);
+            }
+        });
+        c.setExecutorThreads(executorThreads);
+        c.setExecutorQueueSize(executorQueueSize);
+        c.setExecutorQueueTimeout(executorQueueTimeout);
+        c.setExecutorRejection(executorRejection);
+        c.setCacheTtl(cacheTtl);
+        this.properties.getResourceCacheTtls(alias).forEach( (resource, ttl) -> {
+            try {
+                c.setCacheTtl(resource, Integer.valueOf(ttl.trim()));
+            } catch (NumberFormatException e) {
+                l.warn("Invalid cache TTL {} for {}.{}", ttl, alias, resource);
+            }
+        });
+        c.setDigestMaxSize(digestMaxSize);
+        this.properties.getResourceDigestMaxSizes(alias).forEach( (resource, size) -> {
+            try {
+                c.setDigestMaxSize(resource, Integer.valueOf(size.trim()));
+            } catch (NumberFormatException e) {
+                l.warn("Invalid digest max size {} for {}.{}", size, alias, resource);
+            }
+        });
+        c.setCatalogRefresh(catalogRefresh);
 
         l.debug("Loaded DB config {}", c.toString());
         return c;
@@ -221,6 +275,13 @@ public class AmforeasConfiguration {
         return getPropertyInt(AmforeasProperties.SERVER_THREADS_MAX).orElse(25);
     }
 
+    /**
+     * @return true if the server should handle requests on virtual threads when the JVM supports them.
+     */
+    public boolean isServerThreadsVirtual () {
+        return Boolean.parseBoolean(this.properties.get(AmforeasProperties.SERVER_THREADS_VIRTUAL));
+    }
+
     public Integer getSecurePort () {
         return getPropertyInt(AmforeasProperties.SERVER_SECURE_PORT).orElse(null);
     }
@@ -241,6 +302,13 @@ public class AmforeasConfiguration {
         return getPropertyInt(AmforeasProperties.SERVER_PAGE_SIZE_MAX).orElse(500);
     }
 
+    /**
+     * @return the maximum number of bytes of the cached responses of every alias.
+     */
+    public Integer getServerCacheSize () {
+        return getPropertyInt(AmforeasProperties.SERVER_CACHE_SIZE).filter(size -> size > 0).orElse(33554432);
+    }
+
     /**
      * Obtains the rule for the given alias.
      * If the rule is not found, a new rule ALL is created.
@@ -14,6 +14,7 @@ package amforeas.config;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -46,8 +47,10 @@ public class AmforeasProperties {
     public static final String SERVER_PORT = "server.http.port";
     public static final String SERVER_THREADS_MIN = "server.threads.min";
     public static final String SERVER_THREADS_MAX = "server.threads.max";
+    public static final String SERVER_THREADS_VIRTUAL = "server.threads.virtual";
     public static final String SERVER_PAGE_SIZE = "server.page.size";
     public static final String SERVER_PAGE_SIZE_MAX = "server.page.size.max";
+    public static final String SERVER_CACHE_SIZE = "server.cache.size";
 
     /* SSL */
     public static final String SERVER_SECURE_PORT = "server.https.port";
@@ -65,6 +68,33 @@ public class AmforeasProperties {
     public static final String DB_READONLY = "%s.jdbc.readonly";
     public static final String DB_MAX_CONNECTIONS = "%s.jdbc.max.connections";
     public static final String DB_URL = "%s.jdbc.url";
+    public static final String DB_STATEMENT_CACHE_SIZE = "%s.jdbc.statement.cache.size";
+    public static final String DB_MIN_IDLE = "%s.jdbc.min.idle";
+    public static final String DB_MAX_WAIT = "%s.jdbc.max.wait";
+    public static final String DB_TEST_ON_BORROW = "%s.jdbc.test.on.borrow";
+    public static final String DB_MAX_LIFETIME = "%s.jdbc.max.lifetime";
+    public static final String DB_IDLE_TIMEOUT = "%s.jdbc.idle.timeout";
+    public static final String DB_BATCH_SIZE = "%s.jdbc.batch.size";
+    public static final String DB_KEYSET_THRESHOLD = "%s.jdbc.keyset.threshold";
+    public static final String DB_QUERY_TIMEOUT = "%s.jdbc.query.timeout";
+    public static final String DB_RESOURCE_QUERY_TIMEOUT = "%s.jdbc.query.timeout.%s";
+
+    /* Executors */
+    public static final String DB_EXECUTOR_THREADS = "%s.executor.threads";
+    public static final String DB_EXECUTOR_QUEUE_SIZE = "%s.executor.queue.size";
+    public static final String DB_EXECUTOR_QUEUE_TIMEOUT = "%s.executor.queue.timeout";
+    public static final String DB_EXECUTOR_REJECTION = "%s.executor.rejection";
+
+    /* Response cache */
+    public static final String DB_CACHE_TTL = "%s.cache.ttl";
+    public static final String DB_RESOURCE_CACHE_TTL = "%s.cache.ttl.%s";
+
+    /* Response digests */
+    public static final String DB_DIGEST_MAX_SIZE = "%s.digest.max.size";
+    public static final String DB_RESOURCE_DIGEST_MAX_SIZE = "%s.digest.max.size.%s";
+
+    /* Schema catalog */
+    public static final String DB_CATALOG_REFRESH = "%s.catalog.refresh";
 
     /* ACLs */
     public static final String DB_ACL_ALLOW_RULE = "%s.acl.allow";
@@ -97,6 +127,8 @@ public class AmforeasProperties {
         this.addProperty(SERVER_SECURE_PORT, false);
         this.addProperty(SERVER_SECURE_FILE, false);
         this.addProperty(SERVER_SECURE_FILE_PASSWORD, false);
+        this.addProperty(SERVER_THREADS_VIRTUAL, "false", false);
+        this.addProperty(SERVER_CACHE_SIZE, "33554432", false);
     }
 
     /**
@@ -143,13 +175,13 @@ public class AmforeasProperties {
         this.addProperty(formatted, system.get(withPrefix).orElse(fromFile), false);
     }
 
-    private void addResourceRule (String key, String alias, String resource, Properties javaProperties) {
+    private void addResourceProperty (String key, String alias, String resource, Properties javaProperties) {
         final String formatted = String.format(key, alias, resource);
         final String withPrefix = AmforeasProperty.PREFIX + formatted;
         final String fromFile = javaProperties.getProperty(withPrefix);
         final String finalValue = system.get(withPrefix).orElse(fromFile);
 
-        l.debug("Adding ACL rule {} to alias {} resource {} with value: {}", formatted, alias, resource, finalValue);
+        l.debug("Adding property {} to alias {} resource {} with value: {}", formatted, alias, resource, finalValue);
         this.addProperty(formatted, finalValue, false);
     }
 
@@ -244,8 +276,27 @@ public class AmforeasProperties {
         this.addAliasProperty(DB_READONLY, alias, javaProperties);
         this.addAliasProperty(DB_MAX_CONNECTIONS, alias, javaProperties);
         this.addAliasProperty(DB_URL, alias, javaProperties);
+        this.addAliasProperty(DB_STATEMENT_CACHE_SIZE, alias, javaProperties);
+        this.addAliasProperty(DB_MIN_IDLE, alias, javaProperties);
+        this.addAliasProperty(DB_MAX_WAIT, alias, javaProperties);
+        this.addAliasProperty(DB_TEST_ON_BORROW, alias, javaProperties);
+        this.addAliasProperty(DB_MAX_LIFETIME, alias, javaProperties);
+        this.addAliasProperty(DB_IDLE_TIMEOUT, alias, javaProperties);
+        this.addAliasProperty(DB_BATCH_SIZE, alias, javaProperties);
+        this.addAliasProperty(DB_KEYSET_THRESHOLD, alias, javaProperties);
+        this.addAliasProperty(DB_QUERY_TIMEOUT, alias, javaProperties);
+        this.addAliasProperty(DB_EXECUTOR_THREADS, alias, javaProperties);
+        this.addAliasProperty(DB_EXECUTOR_QUEUE_SIZE, alias, javaProperties);
+        this.addAliasProperty(DB_EXECUTOR_QUEUE_TIMEOUT, alias, javaProperties);
+        this.addAliasProperty(DB_EXECUTOR_REJECTION, alias, javaProperties);
+        this.addAliasProperty(DB_CACHE_TTL, alias, javaProperties);
+        this.addAliasProperty(DB_DIGEST_MAX_SIZE, alias, javaProperties);
+        this.addAliasProperty(DB_CATALOG_REFRESH, alias, javaProperties);
         this.addAliasProperty(DB_ACL_ALLOW_RULE, alias, javaProperties);
         this.loadRules(alias, javaProperties);
+        this.loadResourceProperties(DB_QUERY_TIMEOUT, DB_RESOURCE_QUERY_TIMEOUT, alias, javaProperties);
+        this.loadResourceProperties(DB_CACHE_TTL, DB_RESOURCE_CACHE_TTL, alias, javaProperties);
+        this.loadResourceProperties(DB_DIGEST_MAX_SIZE, DB_RESOURCE_DIGEST_MAX_SIZE, alias, javaProperties);
     }
 
     private void loadRules (final String alias, final Properties javaProperties) {
@@ -261,13 +312,66 @@ public class AmforeasProperties {
             final String[] split = key.split("\\.");
             try {
                 String resource = split[4];
-                this.addResourceRule(DB_ALIAS_ALLOW_RULE, alias, resource, javaProperties);
+                this.addResourceProperty(DB_ALIAS_ALLOW_RULE, alias, resource, javaProperties);
             } catch (ArrayIndexOutOfBoundsException e) {
                 l.warn("Invalid ACL rule {}", key);
             }
         }
     }
 
+    /**
+     * Loads the properties of the resources of an alias which override a property of the alias,
+     * i.e. amforeas.alias1.jdbc.query.timeout.users overrides amforeas.alias1.jdbc.query.timeout
+     */
+    private void loadResourceProperties (final String aliasKey, final String resourceKey, final String alias, final Properties javaProperties) {
+        final String prefix = AmforeasProperty.PREFIX + String.format(aliasKey, alias) + ".";
+
+        for (Object key : javaProperties.keySet()) {
+            if (((String) key).startsWith(prefix)) {
+                this.addResourceProperty(resourceKey, alias, ((String) key).substring(prefix.length()), javaProperties);
+            }
+        }
+    }
+
+    /**
+     * Obtains the query timeouts configured for the resources of an alias.
+     * @param alias - the database alias
+     * @return a Map with the resource names as keys and the timeouts as values
+     */
+    public Map<String, String> getResourceQueryTimeouts (final String alias) {
+        return this.getResourceProperties(DB_QUERY_TIMEOUT, alias);
+    }
+
+    /**
+     * Obtains the TTLs of the cached responses configured for the resources of an alias.
+     * @param alias - the database alias
+     * @return a Map with the resource names as keys and the TTLs as values
+     */
+    public Map<String, String> getResourceCacheTtls (final String alias) {
+        return this.getResourceProperties(DB_CACHE_TTL, alias);
+    }
+
+    /**
+     * Obtains the maximum sizes of the digested responses configured for the resources of an alias.
+     * @param alias - the database alias
+     * @return a Map with the resource names as keys and the sizes as values
+     */
+    public Map<String, String> getResourceDigestMaxSizes (final String alias) {
+        return this.getResourceProperties(DB_DIGEST_MAX_SIZE, alias);
+    }
+
+    private Map<String, String> getResourceProperties (final String aliasKey, final String alias) {
+        final String prefix = AmforeasProperty.PREFIX + String.format(aliasKey, alias) + ".";
+
+        final Map<String, String> values = new HashMap<>();
+        for (Entry<String, AmforeasProperty> entry : this.properties.entrySet()) {
+            if (entry.getKey().startsWith(prefix) && StringUtils.isNotBlank(entry.getValue().getValue())) {
+                values.put(entry.getKey().substring(prefix.length()), entry.getValue().getValue());
+            }
+        }
+        return values;
+    }
+
     public List<String> getAliases () {
         String aliases = this.get(ALIAS_LIST);
 
@@ -11,7 +11,10 @@
  */
 package amforeas.config;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import amforeas.enums.JDBCDriver;
+import amforeas.enums.RejectionPolicy;
 
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -25,6 +28,11 @@ public class DatabaseConfiguration {
 
     private static final Logger l = LoggerFactory.getLogger(DatabaseConfiguration.class);
 
+    /**
+     * Responses up to 1 MB are digested unless the alias says otherwise.
+     */
+    public static final Integer DEFAULT_DIGEST_MAX_SIZE = 1048576;
+
     /**
      * Alias of the configuration. It should be unique for the whole amforeas instance. This is the alias
      * that will be used to access this configuration.
@@ -71,6 +79,103 @@ public class DatabaseConfiguration {
      */
     protected final Integer maxConnections;
 
+    /**
+     * Maximum number of prepared statements cached by every connection. 0 disables the cache.
+     */
+    protected Integer statementCacheSize = 50;
+
+    /**
+     * Minimum number of idle connections kept in the pool.
+     */
+    protected Integer minIdle = 0;
+
+    /**
+     * Milliseconds to wait for a connection when the pool is exhausted before failing.
+     */
+    protected Integer maxWait = 10000;
+
+    /**
+     * Validate connections with the dialect validation query before handing them out.
+     */
+    protected boolean testOnBorrow = false;
+
+    /**
+     * Milliseconds a connection can be open before it's retired. 0 disables it.
+     */
+    protected Integer maxLifetime = 1800000;
+
+    /**
+     * Milliseconds a connection can be idle before it's closed. 0 disables it.
+     */
+    protected Integer idleTimeout = 600000;
+
+    /**
+     * Number of rows sent to the database on each round trip of a bulk insert.
+     */
+    protected Integer batchSize = 500;
+
+    /**
+     * Offset from which pages are read with a keyset instead of an offset. 0 disables it.
+     */
+    protected Integer keysetThreshold = 0;
+
+    /**
+     * Seconds a statement may run before the driver cancels it. 0 lets statements run forever.
+     */
+    protected Integer queryTimeout = 0;
+
+    /**
+     * Query timeouts of the resources which don't use the one of the alias, by resource name in lower case.
+     */
+    protected final Map<String, Integer> resourceQueryTimeouts = new ConcurrentHashMap<>();
+
+    /**
+     * Number of requests of the alias which run at the same time. 0 runs as many as maxConnections.
+     */
+    protected Integer executorThreads = 0;
+
+    /**
+     * Number of requests which wait for a thread of the alias executor. 0 hands requests only to idle threads.
+     */
+    protected Integer executorQueueSize = 100;
+
+    /**
+     * Milliseconds a request waits in the queue of the alias executor before it is rejected. 0 waits forever.
+     */
+    protected Integer executorQueueTimeout = 10000;
+
+    /**
+     * What to do with a request when the alias executor and its queue are full.
+     */
+    protected RejectionPolicy executorRejection = RejectionPolicy.ABORT;
+
+    /**
+     * Seconds the responses of the resources of the alias are cached. 0 doesn't cache them.
+     */
+    protected Integer cacheTtl = 0;
+
+    /**
+     * Cache TTLs of the resources which don't use the one of the alias, by resource name in lower case.
+     */
+    protected final Map<String, Integer> resourceCacheTtls = new ConcurrentHashMap<>();
+
+    /**
+     * Bytes of a response which are held back to send its digest before the body. Bigger responses are sent without it.
+     * 0 never digests the responses.
+     */
+    protected Integer digestMaxSize = DEFAULT_DIGEST_MAX_SIZE;
+
+    /**
+     * Maximum digested sizes of the resources which don't use the one of the alias, by resource name in lower case.
+     */
+    protected final Map<String, Integer> resourceDigestMaxSizes = new ConcurrentHashMap<>();
+
+    /**
+     * Seconds the tables, columns, primary keys and indexes read from the database are kept before they are read again.
+     * 0 keeps them until they are refreshed on demand.
+     */
+    protected Integer catalogRefresh = 1800;
+
     private boolean loaded = false;
 
     /**
@@ -157,6 +262,182 @@ public class DatabaseConfiguration {
     }
 
 
+    public Integer getStatementCacheSize () {
+        return statementCacheSize;
+    }
+
+    public void setStatementCacheSize (Integer statementCacheSize) {
+        this.statementCacheSize = statementCacheSize == null ? 0 : statementCacheSize;
+    }
+
+    public Integer getMinIdle () {
+        return minIdle;
+    }
+
+    public void setMinIdle (Integer minIdle) {
+        this.minIdle = minIdle;
+    }
+
+    public Integer getMaxWait () {
+        return maxWait;
+    }
+
+    public void setMaxWait (Integer maxWait) {
+        this.maxWait = maxWait;
+    }
+
+    public boolean isTestOnBorrow () {
+        return testOnBorrow;
+    }
+
+    public void setTestOnBorrow (boolean testOnBorrow) {
+        this.testOnBorrow = testOnBorrow;
+    }
+
+    public Integer getMaxLifetime () {
+        return maxLifetime;
+    }
+
+    public void setMaxLifetime (Integer maxLifetime) {
+        this.maxLifetime = maxLifetime;
+    }
+
+    public Integer getIdleTimeout () {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout (Integer idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public Integer getBatchSize () {
+        return batchSize;
+    }
+
+    public void setBatchSize (Integer batchSize) {
+        this.batchSize = batchSize == null || batchSize < 1 ? 1 : batchSize;
+    }
+
+    public Integer getKeysetThreshold () {
+        return keysetThreshold;
+    }
+
+    public void setKeysetThreshold (Integer keysetThreshold) {
+        this.keysetThreshold = keysetThreshold == null ? 0 : keysetThreshold;
+    }
+
+    /**
+     * @return the number of requests of the alias which run at the same time, maxConnections unless it was set.
+     */
+    public Integer getQueryTimeout () {
+        return queryTimeout;
+    }
+
+    public void setQueryTimeout (Integer queryTimeout) {
+        this.queryTimeout = queryTimeout == null || queryTimeout < 0 ? 0 : queryTimeout;
+    }
+
+    /**
+     * @param resource the name of a table, view or stored procedure, may be null
+     * @return the query timeout of the resource, or the one of the alias if the resource has none.
+     */
+    public Integer getQueryTimeout (final String resource) {
+        if (resource == null || this.resourceQueryTimeouts.isEmpty()) {
+            return queryTimeout;
+        }
+        return this.resourceQueryTimeouts.getOrDefault(resource.toLowerCase(), queryTimeout);
+    }
+
+    public void setQueryTimeout (final String resource, final Integer queryTimeout) {
+        this.resourceQueryTimeouts.put(resource.toLowerCase(), queryTimeout == null || queryTimeout < 0 ? 0 : queryTimeout);
+    }
+
+    public Integer getExecutorThreads () {
+        return executorThreads > 0 ? executorThreads : maxConnections;
+    }
+
+    public void setExecutorThreads (Integer executorThreads) {
+        this.executorThreads = executorThreads == null || executorThreads < 0 ? 0 : executorThreads;
+    }
+
+    public Integer getExecutorQueueTimeout () {
+        return executorQueueTimeout;
+    }
+
+    public void setExecutorQueueTimeout (Integer executorQueueTimeout) {
+        this.executorQueueTimeout = executorQueueTimeout == null || executorQueueTimeout < 0 ? 0 : executorQueueTimeout;
+    }
+
+    public Integer getExecutorQueueSize () {
+        return executorQueueSize;
+    }
+
+    public void setExecutorQueueSize (Integer executorQueueSize) {
+        this.executorQueueSize = executorQueueSize == null || executorQueueSize < 0 ? 0 : executorQueueSize;
+    }
+
+    public RejectionPolicy getExecutorRejection () {
+        return executorRejection;
+    }
+
+    public void setExecutorRejection (RejectionPolicy executorRejection) {
+        this.executorRejection = executorRejection == null ? RejectionPolicy.ABORT : executorRejection;
+    }
+
+    public Integer getCacheTtl () {
+        return cacheTtl;
+    }
+
+    public void setCacheTtl (Integer cacheTtl) {
+        this.cacheTtl = cacheTtl == null || cacheTtl < 0 ? 0 : cacheTtl;
+    }
+
+    /**
+     * @param resource the name of a table or view
+     * @return the seconds the responses of the resource are cached, or the TTL of the alias if the resource has none.
+     */
+    public Integer getCacheTtl (final String resource) {
+        if (resource == null || this.resourceCacheTtls.isEmpty()) {
+            return cacheTtl;
+        }
+        return this.resourceCacheTtls.getOrDefault(resource.toLowerCase(), cacheTtl);
+    }
+
+    public void setCacheTtl (final String resource, final Integer cacheTtl) {
+        this.resourceCacheTtls.put(resource.toLowerCase(), cacheTtl == null || cacheTtl < 0 ? 0 : cacheTtl);
+    }
+
+    public Integer getDigestMaxSize () {
+        return digestMaxSize;
+    }
+
+    public void setDigestMaxSize (Integer digestMaxSize) {
+        this.digestMaxSize = digestMaxSize == null || digestMaxSize < 0 ? 0 : digestMaxSize;
+    }
+
+    /**
+     * @param resource the name of a table, view or stored procedure, may be null
+     * @return the maximum size of the digested responses of the resource, or the one of the alias if the resource has none.
+     */
+    public Integer getDigestMaxSize (final String resource) {
+        if (resource == null || this.resourceDigestMaxSizes.isEmpty()) {
+            return digestMaxSize;
+        }
+        return this.resourceDigestMaxSizes.getOrDefault(resource.toLowerCase(), digestMaxSize);
+    }
+
+    public void setDigestMaxSize (final String resource, final Integer digestMaxSize) {
+        this.resourceDigestMaxSizes.put(resource.toLowerCase(), digestMaxSize == null || digestMaxSize < 0 ? 0 : digestMaxSize);
+    }
+
+    public Integer getCatalogRefresh () {
+        return catalogRefresh;
+    }
+
+    public void setCatalogRefresh (Integer catalogRefresh) {
+        this.catalogRefresh = catalogRefresh == null || catalogRefresh < 0 ? 0 : catalogRefresh;
+    }
+
     public String getUrl () {
         return url;
     }
@@ -32,7 +32,8 @@ public enum Operator {
     ISNULL,
     NOT,
     EQUALS,
-    NOTEQUALS;
+    NOTEQUALS,
+    IN;
 
     private static final List<String> keywords = new ArrayList<String>();
 
@@ -70,6 +71,8 @@ public enum Operator {
                 return "<>";
             case BETWEEN:
                 return "BETWEEN";
+            case IN:
+                return "IN";
             default:
                 throw new UnsupportedOperationException();
         }
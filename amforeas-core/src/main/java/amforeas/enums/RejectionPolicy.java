@@ -0,0 +1,47 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.enums;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * What to do with a request when every thread of an alias executor is busy and its queue is full.
+ */
+public enum RejectionPolicy {
+
+    /**
+     * Answer right away with a 503 Service Unavailable.
+     */
+    ABORT,
+
+    /**
+     * Run the request on the HTTP thread which received it, which slows down the clients of every alias.
+     */
+    CALLER_RUNS;
+
+    /**
+     * @param value the name of the policy, case insensitive
+     * @return the policy or {@link #ABORT} if the value is blank or unknown
+     */
+    public static RejectionPolicy of (final String value) {
+        if (StringUtils.isBlank(value)) {
+            return ABORT;
+        }
+        try {
+            return RejectionPolicy.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ABORT;
+        }
+    }
+
+}
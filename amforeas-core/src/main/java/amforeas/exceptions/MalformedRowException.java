@@ -0,0 +1,38 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+package amforeas.exceptions;
+
+import java.io.IOException;
+
+/**
+ * Thrown by a {@link amforeas.jdbc.RowReader} when a row of the body can't be parsed. The reader can go on with the
+ * next row, so the row is rejected instead of failing the whole load.
+ */
+public class MalformedRowException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long line;
+
+    public MalformedRowException(final long line, final String msg) {
+        super(msg);
+        this.line = line;
+    }
+
+    /**
+     * @return the line of the body where the row starts, the first one is 1.
+     */
+    public long getLine () {
+        return line;
+    }
+
+}
@@ -0,0 +1,207 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.handler;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.joda.time.DateTime;
+import org.joda.time.format.DateTimeFormatter;
+import org.joda.time.format.ISODateTimeFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Describes how to read every column of a {@linkplain java.sql.ResultSet}. The plan is built once from the
+ * {@linkplain java.sql.ResultSetMetaData} and then used to map every row with exactly one getter per column.
+ * Columns of unsupported SQL types are dropped from the plan.
+ */
+public class ColumnPlan {
+
+    private static final Logger l = LoggerFactory.getLogger(ColumnPlan.class);
+
+    private static final DateTimeFormatter dateTimeFTR = ISODateTimeFormat.dateTime();
+    private static final DateTimeFormatter dateFTR = ISODateTimeFormat.date();
+    private static final DateTimeFormatter timeFTR = ISODateTimeFormat.time();
+
+    static final byte STRING = 0;
+    static final byte DATE = 1;
+    static final byte TIMESTAMP = 2;
+    static final byte TIME = 3;
+    static final byte DECIMAL = 4;
+    static final byte FLOAT = 5;
+    static final byte DOUBLE = 6;
+    static final byte INTEGER = 7;
+    static final byte LONG = 8;
+
+    private final int[] indexes;
+    private final String[] names;
+    private final byte[] readers;
+
+    private ColumnPlan(final int[] indexes, final String[] names, final byte[] readers) {
+        this.indexes = indexes;
+        this.names = names;
+        this.readers = readers;
+    }
+
+    /**
+     * Generates a plan for the given metadata.
+     * @param meta the {@linkplain java.sql.ResultSetMetaData} of the results to map
+     * @return a {@link amforeas.handler.ColumnPlan}
+     * @throws SQLException if we fail to read the metadata
+     */
+    public static ColumnPlan of (final ResultSetMetaData meta) throws SQLException {
+        final int columnCount = meta.getColumnCount();
+        final int[] indexes = new int[columnCount];
+        final String[] names = new String[columnCount];
+        final byte[] readers = new byte[columnCount];
+
+        int size = 0;
+        for (int i = 1; i <= columnCount; i++) {
+            final int colType = meta.getColumnType(i);
+            final String colName = meta.getColumnName(i).toLowerCase();
+
+            if (isIgnored(colType)) {
+                l.trace("Ignoring column {} with type {}. Unsupported SQL Type.", colName, colType);
+                continue;
+            }
+
+            indexes[size] = i;
+            names[size] = colName;
+            readers[size] = readerOf(colType);
+            size++;
+        }
+
+        l.trace("Generated a plan to map {} of {} columns", size, columnCount);
+
+        if (size == columnCount) {
+            return new ColumnPlan(indexes, names, readers);
+        }
+
+        final int[] i = new int[size];
+        final String[] n = new String[size];
+        final byte[] r = new byte[size];
+        System.arraycopy(indexes, 0, i, 0, size);
+        System.arraycopy(names, 0, n, 0, size);
+        System.arraycopy(readers, 0, r, 0, size);
+        return new ColumnPlan(i, n, r);
+    }
+
+    /**
+     * Converts the current row of the ResultSet to a Map. Important to note that DATE, TIMESTAMP & TIME objects generate
+     * a {@linkplain org.joda.time.DateTime} object using {@linkplain org.joda.time.format.ISODateTimeFormat}.
+     * @param rs a {@linkplain java.sql.ResultSet} positioned on a row
+     * @return a Map with the column names as keys, in the order of the ResultSet, and the values.
+     * @throws SQLException if we fail to read a value
+     */
+    public Map<String, Object> map (final ResultSet rs) throws SQLException {
+        final Map<String, Object> map = new LinkedHashMap<>((int) (this.names.length / 0.75f) + 1);
+        for (int c = 0; c < this.names.length; c++) {
+            map.put(this.names[c], read(rs, this.indexes[c], this.readers[c]));
+        }
+        return map;
+    }
+
+    /**
+     * @return the number of columns that will be mapped.
+     */
+    public int size () {
+        return this.names.length;
+    }
+
+    private static Object read (final ResultSet rs, final int i, final byte reader) throws SQLException {
+        switch (reader) {
+            case DATE:
+                final java.sql.Date date = rs.getDate(i);
+                return date == null ? null : new DateTime(date).toString(dateFTR);
+            case TIMESTAMP:
+                final Timestamp timestamp = rs.getTimestamp(i);
+                return timestamp == null ? null : new DateTime(timestamp).toString(dateTimeFTR);
+            case TIME:
+                final Timestamp time = rs.getTimestamp(i);
+                return time == null ? null : new DateTime(time).toString(timeFTR);
+            case DECIMAL:
+                return rs.getBigDecimal(i);
+            case FLOAT:
+                final float f = rs.getFloat(i);
+                return rs.wasNull() ? null : f;
+            case DOUBLE:
+                final double d = rs.getDouble(i);
+                return rs.wasNull() ? null : d;
+            case INTEGER:
+                final int n = rs.getInt(i);
+                return rs.wasNull() ? null : n;
+            case LONG:
+                final long v = rs.getLong(i);
+                return rs.wasNull() ? null : v;
+            default:
+                return rs.getString(i);
+        }
+    }
+
+    private static byte readerOf (final int colType) {
+        switch (colType) {
+            case Types.DATE:
+                return DATE;
+            case Types.TIMESTAMP:
+                return TIMESTAMP;
+            case Types.TIME:
+                return TIME;
+            case Types.DECIMAL:
+                return DECIMAL;
+            case Types.FLOAT:
+                return FLOAT;
+            case Types.DOUBLE:
+                return DOUBLE;
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+                return INTEGER;
+            case Types.BIGINT:
+                return LONG;
+            default:
+                return STRING;
+        }
+    }
+
+    /**
+     * Ignored SQL Types.
+     */
+    static boolean isIgnored (final int colType) {
+        switch (colType) {
+            case Types.ARRAY:
+            case Types.BINARY:
+            case Types.BLOB:
+            case Types.CLOB:
+            case Types.DATALINK:
+            case Types.DISTINCT:
+            case Types.JAVA_OBJECT:
+            case Types.LONGVARBINARY:
+            case Types.NCHAR:
+            case Types.NCLOB:
+            case Types.REF:
+            case Types.REF_CURSOR:
+            case Types.SQLXML:
+            case Types.STRUCT:
+            case Types.VARBINARY:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+}
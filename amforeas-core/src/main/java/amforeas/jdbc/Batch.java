@@ -0,0 +1,129 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package amforeas.jdbc;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import amforeas.rest.xstream.Row;
+import amforeas.sql.Delete;
+import amforeas.sql.Insert;
+import amforeas.sql.Select;
+import amforeas.sql.Update;
+
+/**
+ * The statements of a batch and their outcome. The statements are executed in order with a single connection
+ * and transaction by {@link amforeas.jdbc.JDBCExecutor#execute(Batch)}. When a statement fails the transaction
+ * is rolled back, unless the batch continues on errors, then only the failed statement is undone and the others
+ * are committed.
+ */
+public class Batch {
+
+    private final String database;
+    private final boolean continueOnError;
+    private final List<Object> statements = new ArrayList<>();
+    private final Map<Integer, List<Row>> results = new TreeMap<>();
+    private final Map<Integer, SQLException> failures = new TreeMap<>();
+    private boolean committed;
+
+    /**
+     * @param database the database every statement is executed in
+     * @param continueOnError if true the statements which succeed are committed even if others fail
+     */
+    public Batch(final String database, final boolean continueOnError) {
+        this.database = database;
+        this.continueOnError = continueOnError;
+    }
+
+    public Batch add (final Insert insert) {
+        this.statements.add(insert);
+        return this;
+    }
+
+    public Batch add (final Update update) {
+        this.statements.add(update);
+        return this;
+    }
+
+    public Batch add (final Delete delete) {
+        this.statements.add(delete);
+        return this;
+    }
+
+    public Batch add (final Select select) {
+        this.statements.add(select);
+        return this;
+    }
+
+    List<Object> getStatements () {
+        return statements;
+    }
+
+    void setResult (final int statement, final List<Row> rows) {
+        this.results.put(statement, rows);
+    }
+
+    void addFailure (final int statement, final SQLException ex) {
+        this.failures.put(statement, ex);
+    }
+
+    void setCommitted (final boolean committed) {
+        this.committed = committed;
+    }
+
+    public String getDatabase () {
+        return database;
+    }
+
+    public boolean isContinueOnError () {
+        return continueOnError;
+    }
+
+    public int size () {
+        return statements.size();
+    }
+
+    /**
+     * @return the rows of every executed statement keyed by its position in the batch. Inserts and updates give
+     * the written record, deletes the key of the deleted record and selects the records read. Results of a batch
+     * which was rolled back were never committed.
+     */
+    public Map<Integer, List<Row>> getResults () {
+        return Collections.unmodifiableMap(results);
+    }
+
+    /**
+     * @return the exception of every failed statement keyed by its position in the batch.
+     */
+    public Map<Integer, SQLException> getFailures () {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    public boolean isCommitted () {
+        return committed;
+    }
+
+    public boolean isSuccess () {
+        return failures.isEmpty();
+    }
+
+    @Override
+    public String toString () {
+        return "Batch{" + "database=" + database + ", statements=" + statements.size() + ", continueOnError=" + continueOnError + '}';
+    }
+
+}
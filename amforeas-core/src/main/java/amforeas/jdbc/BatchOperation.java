@@ -0,0 +1,125 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package amforeas.jdbc;
+
+import java.util.Map;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlTransient;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import amforeas.exceptions.AmforeasBadRequestException;
+
+/**
+ * An operation of a batch as given by the client. The format of the JSON is:
+ * [
+ *  {"op":"insert", "resource":"orders", "values":{"id":"10", "total":"30.5"}},
+ *  {"op":"update", "resource":"stock", "id":"5", "values":{"units":"9"}},
+ *  {"op":"delete", "resource":"cart", "pk":"cart_id", "id":"3"},
+ *  {"op":"get", "resource":"orders", "id":"10"}
+ * ]
+ * The primary key is the one of the table, or "id", when no pk is given.
+ */
+@XmlRootElement
+public class BatchOperation {
+
+    /**
+     * The operations which can be given in a batch.
+     */
+    public enum Type {
+        INSERT, UPDATE, DELETE, GET
+    }
+
+    private String op;
+    private String resource;
+    private String pk;
+    private String id;
+    private Map<String, String> values;
+
+    public BatchOperation() {}
+
+    public BatchOperation(String op, String resource, String id, Map<String, String> values) {
+        this.op = op;
+        this.resource = resource;
+        this.id = id;
+        this.values = values;
+    }
+
+    public String getOp () {
+        return op;
+    }
+
+    public void setOp (String op) {
+        this.op = op;
+    }
+
+    public String getResource () {
+        return resource;
+    }
+
+    public void setResource (String resource) {
+        this.resource = resource;
+    }
+
+    public String getPk () {
+        return pk;
+    }
+
+    public void setPk (String pk) {
+        this.pk = pk;
+    }
+
+    public String getId () {
+        return id;
+    }
+
+    public void setId (String id) {
+        this.id = id;
+    }
+
+    public Map<String, String> getValues () {
+        return values;
+    }
+
+    public void setValues (Map<String, String> values) {
+        this.values = values;
+    }
+
+    @XmlTransient
+    @JsonIgnore
+    public Type getType () throws AmforeasBadRequestException {
+        for (final Type type : Type.values()) {
+            if (type.name().equalsIgnoreCase(this.op)) {
+                return type;
+            }
+        }
+        throw new AmforeasBadRequestException("Invalid operation for batch: " + this.op);
+    }
+
+    @Override
+    public String toString () {
+        StringBuilder b = new StringBuilder("BatchOperation [");
+        b.append(" op=");
+        b.append(op);
+        b.append(" resource=");
+        b.append(resource);
+        b.append(" pk=");
+        b.append(pk);
+        b.append(" id=");
+        b.append(id);
+        b.append(" values=");
+        b.append(values);
+        b.append("]");
+        return b.toString();
+    }
+
+}
@@ -0,0 +1,70 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.jdbc;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The outcome of a bulk {@link amforeas.sql.Insert}, or of a bulk upsert. Rows are sent to the database in chunks, so the result
+ * holds the number of rows inserted by every chunk and the exception raised by every row which failed.
+ * When a row fails nothing is committed.
+ */
+public class BatchResult {
+
+    private final List<Integer> chunks = new ArrayList<>();
+    private final Map<Integer, SQLException> failures = new TreeMap<>();
+
+    void addChunk (final int inserted) {
+        this.chunks.add(inserted);
+    }
+
+    void addFailure (final int row, final SQLException ex) {
+        this.failures.put(row, ex);
+    }
+
+    /**
+     * @return the number of rows inserted, or upserted, by each chunk, in the order they were executed.
+     */
+    public List<Integer> getChunks () {
+        return Collections.unmodifiableList(chunks);
+    }
+
+    /**
+     * @return the exception of every failed row keyed by the position of the row in the request.
+     */
+    public Map<Integer, SQLException> getFailures () {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    /**
+     * @return the number of rows inserted by all the chunks.
+     */
+    public int getInserted () {
+        return chunks.stream().mapToInt(Integer::intValue).sum();
+    }
+
+    public boolean isSuccess () {
+        return failures.isEmpty();
+    }
+
+    @Override
+    public String toString () {
+        return "BatchResult{" + "chunks=" + chunks + ", failures=" + failures.keySet() + '}';
+    }
+
+}
@@ -0,0 +1,185 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import javax.sql.DataSource;
+import org.apache.commons.dbcp.ConnectionFactory;
+import org.apache.commons.dbcp.DriverManagerConnectionFactory;
+import org.apache.commons.dbcp.PoolableConnectionFactory;
+import org.apache.commons.dbcp.PoolingDataSource;
+import org.apache.commons.pool.impl.GenericObjectPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import amforeas.config.DatabaseConfiguration;
+import amforeas.sql.dialect.Dialect;
+
+/**
+ * The pool of connections of a database alias. Besides the maximum number of connections it keeps
+ * a minimum of idle connections, closes connections which have been idle or alive for too long,
+ * validates connections with the query given by the {@link amforeas.sql.dialect.Dialect} and
+ * fails with a {@linkplain java.sql.SQLTransientConnectionException} when no connection is
+ * available after the configured wait instead of blocking the request forever.
+ */
+public class ConnectionPool {
+
+    private static final Logger l = LoggerFactory.getLogger(ConnectionPool.class);
+
+    /**
+     * How often the evictor looks for connections to close or validate.
+     */
+    private static final long EVICTION_INTERVAL = 30000L;
+
+    private final String alias;
+    private final long maxWait;
+    private final GenericObjectPool pool;
+    private final DataSource dataSource;
+
+    /**
+     * Creates the pool for the given database.
+     * @param db the {@link amforeas.config.DatabaseConfiguration} with the pool settings
+     * @param dialect the {@link amforeas.sql.dialect.Dialect} which provides the validation query
+     * @param statementCache the {@link amforeas.jdbc.StatementCache} or null to not cache prepared statements
+     */
+    public ConnectionPool(final DatabaseConfiguration db, final Dialect dialect, final StatementCache statementCache) {
+        this.alias = db.getAlias();
+        this.maxWait = db.getMaxWait();
+
+        final GenericObjectPool.Config config = new GenericObjectPool.Config();
+        config.maxActive = db.getMaxConnections();
+        config.maxIdle = db.getMaxConnections();
+        config.minIdle = Math.min(db.getMinIdle(), db.getMaxConnections());
+        config.whenExhaustedAction = GenericObjectPool.WHEN_EXHAUSTED_BLOCK;
+        config.maxWait = db.getMaxWait();
+        config.testOnBorrow = db.isTestOnBorrow();
+        config.testWhileIdle = true;
+        config.numTestsPerEvictionRun = db.getMaxConnections();
+        config.timeBetweenEvictionRunsMillis = EVICTION_INTERVAL;
+        config.minEvictableIdleTimeMillis = db.getIdleTimeout() > 0 ? db.getIdleTimeout() : -1;
+
+        this.pool = new GenericObjectPool(null, config);
+
+        final ConnectionFactory connectionFactory = new DriverManagerConnectionFactory(db.toJdbcURL(), db.getUsername(), db.getPassword());
+        new LifetimeConnectionFactory(connectionFactory, this.pool, statementCache, dialect.validationQuery(), db.isReadOnly(), db.getMaxLifetime());
+
+        this.dataSource = new FailFastDataSource(this.pool);
+
+        l.debug("Registered pool for {} with {} max, {} min idle connections and {}ms max wait", alias, config.maxActive, config.minIdle, config.maxWait);
+    }
+
+    public DataSource getDataSource () {
+        return dataSource;
+    }
+
+    public int getNumActive () {
+        return pool.getNumActive();
+    }
+
+    public int getNumIdle () {
+        return pool.getNumIdle();
+    }
+
+    /**
+     * Closes the idle connections and stops the pool from handing out new ones.
+     */
+    public void close () {
+        try {
+            this.pool.close();
+        } catch (Exception ex) {
+            l.warn("Failed to close the pool of {}: {}", alias, ex.getMessage());
+        }
+    }
+
+    /**
+     * dbcp reports an exhausted pool with a generic message which hides that the request
+     * was waiting for a connection.
+     */
+    private class FailFastDataSource extends PoolingDataSource {
+
+        FailFastDataSource(final GenericObjectPool pool) {
+            super(pool);
+        }
+
+        @Override
+        public Connection getConnection () throws SQLException {
+            try {
+                return super.getConnection();
+            } catch (SQLException ex) {
+                if (ex.getCause() instanceof NoSuchElementException) {
+                    final String msg = String.format("No connection available for %s after waiting %dms", alias, maxWait);
+                    l.warn(msg);
+                    throw new SQLTransientConnectionException(msg, "08001", ex);
+                }
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * Retires connections which have been open for longer than the max lifetime. They are
+     * discarded when borrowed or when the evictor visits them.
+     */
+    private static class LifetimeConnectionFactory extends PoolableConnectionFactory {
+
+        private final long maxLifetime;
+        private final Map<Object, Long> created = Collections.synchronizedMap(new IdentityHashMap<>());
+
+        LifetimeConnectionFactory(ConnectionFactory cf, GenericObjectPool pool, StatementCache cache, String validationQuery, boolean readOnly, long maxLifetime) {
+            super(cf, pool, cache, validationQuery, readOnly, true);
+            this.maxLifetime = maxLifetime;
+        }
+
+        @Override
+        public Object makeObject () throws Exception {
+            final Object conn = super.makeObject();
+            if (this.maxLifetime > 0) {
+                this.created.put(conn, System.currentTimeMillis());
+            }
+            return conn;
+        }
+
+        @Override
+        public void activateObject (Object obj) throws Exception {
+            if (this.isExpired(obj)) {
+                throw new SQLException("Connection exceeded its max lifetime of " + this.maxLifetime + "ms");
+            }
+            super.activateObject(obj);
+        }
+
+        @Override
+        public boolean validateObject (Object obj) {
+            return !this.isExpired(obj) && super.validateObject(obj);
+        }
+
+        @Override
+        public void destroyObject (Object obj) throws Exception {
+            this.created.remove(obj);
+            super.destroyObject(obj);
+        }
+
+        private boolean isExpired (Object obj) {
+            if (this.maxLifetime <= 0) {
+                return false;
+            }
+            final Long since = this.created.get(obj);
+            return since != null && System.currentTimeMillis() - since > this.maxLifetime;
+        }
+    }
+
+}
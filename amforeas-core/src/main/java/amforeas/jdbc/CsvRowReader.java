@@ -0,0 +1,197 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+package amforeas.jdbc;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.commons.lang3.StringUtils;
+import amforeas.exceptions.MalformedRowException;
+
+/**
+ * Reads comma separated values (text/csv) as described by RFC 4180. The first record has the names of the columns.
+ * Fields may be quoted to hold delimiters, line breaks or quotes, which are escaped by doubling them. An empty field
+ * which isn't quoted is a null value. Blank lines are skipped.
+ */
+public class CsvRowReader implements RowReader {
+
+    private static final int EOF = -1;
+    private static final int NONE = -2;
+    private static final char QUOTE = '"';
+    private static final char BOM = '\uFEFF';
+
+    private final Reader in;
+    private final char delimiter;
+    private List<String> header;
+    private boolean broken = false;
+    private int next = NONE;
+    private long line = 1;
+    private long rowLine = 0;
+
+    public CsvRowReader(final InputStream in, final Charset charset) {
+        this(in, charset, ',');
+    }
+
+    public CsvRowReader(final InputStream in, final Charset charset, final char delimiter) {
+        this.in = new BufferedReader(new InputStreamReader(in, charset));
+        this.delimiter = delimiter;
+    }
+
+    @Override
+    public Map<String, String> next () throws IOException {
+        if (broken) {
+            return null;
+        }
+        if (header == null) {
+            header = readHeader();
+            if (header == null) {
+                return null;
+            }
+        }
+
+        List<String> fields;
+        do {
+            fields = readRecord();
+            if (fields == null) {
+                return null;
+            }
+        } while (isBlank(fields));
+
+        if (fields.size() != header.size()) {
+            throw new MalformedRowException(rowLine, "Expected " + header.size() + " fields but found " + fields.size());
+        }
+
+        final Map<String, String> row = new LinkedHashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            row.put(header.get(i), fields.get(i));
+        }
+        return row;
+    }
+
+    @Override
+    public long getLine () {
+        return rowLine;
+    }
+
+    @Override
+    public void close () throws IOException {
+        in.close();
+    }
+
+    private List<String> readHeader () throws IOException {
+        next = read();
+        if (next == BOM) {
+            next = NONE;
+        }
+
+        List<String> names;
+        do {
+            names = readRecord();
+            if (names == null) {
+                return null;
+            }
+        } while (isBlank(names));
+
+        final Set<String> unique = new HashSet<>();
+        for (String name : names) {
+            if (StringUtils.isBlank(name) || !unique.add(name.toLowerCase())) {
+                // without a valid header no row can be read
+                broken = true;
+                throw new MalformedRowException(rowLine, "Invalid column name in the header: " + name);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * @return the fields of the next record, or null at the end of the body.
+     */
+    private List<String> readRecord () throws IOException {
+        int c = read();
+        if (c == EOF) {
+            return null;
+        }
+
+        rowLine = line;
+        final List<String> fields = new ArrayList<>();
+        final StringBuilder b = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (c == QUOTE && !quoted && b.length() == 0) {
+                quoted = true;
+                while (true) {
+                    c = read();
+                    if (c == EOF) {
+                        throw new MalformedRowException(rowLine, "Unterminated quoted field");
+                    } else if (c == QUOTE) {
+                        c = read();
+                        if (c != QUOTE) {
+                            break;
+                        }
+                    } else if (c == '\n') {
+                        line++;
+                    }
+                    b.append((char) c);
+                }
+                continue;
+            }
+
+            if (c == delimiter) {
+                fields.add(valueOf(b, quoted));
+                b.setLength(0);
+                quoted = false;
+            } else if (c == '\r' || c == '\n' || c == EOF) {
+                if (c == '\r') {
+                    next = read();
+                    if (next == '\n') {
+                        next = NONE;
+                    }
+                }
+                if (c != EOF) {
+                    line++;
+                }
+                fields.add(valueOf(b, quoted));
+                return fields;
+            } else {
+                b.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private int read () throws IOException {
+        if (next != NONE) {
+            final int c = next;
+            next = NONE;
+            return c;
+        }
+        return in.read();
+    }
+
+    private static String valueOf (final StringBuilder b, final boolean quoted) {
+        return b.length() == 0 && !quoted ? null : b.toString();
+    }
+
+    private static boolean isBlank (final List<String> fields) {
+        return fields.size() == 1 && fields.get(0) == null;
+    }
+
+}
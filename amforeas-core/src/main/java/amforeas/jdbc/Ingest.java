@@ -0,0 +1,117 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+package amforeas.jdbc;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import amforeas.sql.Table;
+
+/**
+ * A load of the rows given by a {@link amforeas.jdbc.RowReader} into a table with
+ * {@link amforeas.jdbc.JDBCExecutor#ingest(Ingest)}. Rows are inserted in JDBC batches and committed every few
+ * rows, so the rows loaded stay loaded if the load fails later. Rows which can't be parsed or are refused by the
+ * database are rejected with their line and the load goes on. Only the first {@link #MAX_REJECTS} rejected rows
+ * are kept, the rest are only counted.
+ */
+public class Ingest {
+
+    public static final int MAX_REJECTS = 1000;
+
+    private final Table table;
+    private final RowReader reader;
+    private int commitEvery = 0;
+    private long loaded = 0;
+    private long rejected = 0;
+    private final Map<Long, String> rejects = new TreeMap<>();
+    private long nanos = 0;
+
+    public Ingest(final Table table, final RowReader reader) {
+        this.table = table;
+        this.reader = reader;
+    }
+
+    /**
+     * @param commitEvery the number of rows inserted by every transaction, 0 or less to commit every JDBC batch.
+     * @return this ingest.
+     */
+    public Ingest setCommitEvery (final int commitEvery) {
+        this.commitEvery = Math.max(commitEvery, 0);
+        return this;
+    }
+
+    void addLoaded (final int rows) {
+        this.loaded += rows;
+    }
+
+    void reject (final long line, final String message) {
+        this.rejected++;
+        if (this.rejects.size() < MAX_REJECTS) {
+            this.rejects.put(line, message);
+        }
+    }
+
+    void setNanos (final long nanos) {
+        this.nanos = nanos;
+    }
+
+    public Table getTable () {
+        return table;
+    }
+
+    public RowReader getReader () {
+        return reader;
+    }
+
+    public int getCommitEvery () {
+        return commitEvery;
+    }
+
+    /**
+     * @return the number of rows committed.
+     */
+    public long getLoaded () {
+        return loaded;
+    }
+
+    /**
+     * @return the number of rows rejected.
+     */
+    public long getRejected () {
+        return rejected;
+    }
+
+    /**
+     * @return the reason of the first rejected rows keyed by the line where the row starts.
+     */
+    public Map<Long, String> getRejects () {
+        return Collections.unmodifiableMap(rejects);
+    }
+
+    public long getElapsedMillis () {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    /**
+     * @return the rows loaded per second.
+     */
+    public long getRowsPerSecond () {
+        return nanos == 0 ? 0 : loaded * TimeUnit.SECONDS.toNanos(1) / nanos;
+    }
+
+    @Override
+    public String toString () {
+        return "Ingest{" + "table=" + table + ", loaded=" + loaded + ", rejected=" + rejected + '}';
+    }
+
+}
@@ -14,21 +14,21 @@ package amforeas.jdbc;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import javax.sql.DataSource;
-import org.apache.commons.dbcp.ConnectionFactory;
-import org.apache.commons.dbcp.DriverManagerConnectionFactory;
-import org.apache.commons.dbcp.PoolableConnectionFactory;
-import org.apache.commons.dbcp.PoolingDataSource;
 import org.apache.commons.dbutils.QueryRunner;
-import org.apache.commons.pool.impl.GenericObjectPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import amforeas.SingletonFactoryImpl;
 import amforeas.SingletonFactory;
 import amforeas.config.AmforeasConfiguration;
 import amforeas.config.DatabaseConfiguration;
+import amforeas.sql.dialect.DialectFactory;
 
 /**
  * Class in charge of registering a pool of connections for each database 
@@ -39,15 +39,21 @@ public class JDBCConnectionFactory {
     private static final Logger l = LoggerFactory.getLogger(JDBCConnectionFactory.class);
 
     private final AmforeasConfiguration configuration;
-    private final Map<String, GenericObjectPool> connectionPool = new ConcurrentHashMap<String, GenericObjectPool>();
+    private final DialectFactory dialectFactory;
+    private final Map<String, ConnectionPool> connectionPool = new ConcurrentHashMap<String, ConnectionPool>();
+    private final Map<String, QueryRunner> queryRunners = new ConcurrentHashMap<String, QueryRunner>();
+    private final Map<String, StatementCache> statementCaches = new ConcurrentHashMap<String, StatementCache>();
+    private final Map<String, SchemaCatalog> catalogs = new ConcurrentHashMap<String, SchemaCatalog>();
 
     public JDBCConnectionFactory() {
         SingletonFactory factory = new SingletonFactoryImpl();
         this.configuration = factory.getConfiguration();
+        this.dialectFactory = factory.getDialectFactory();
     }
 
     public JDBCConnectionFactory(SingletonFactory factory) {
         this.configuration = factory.getConfiguration();
+        this.dialectFactory = factory.getDialectFactory();
     }
 
     /**
@@ -57,11 +63,17 @@ public class JDBCConnectionFactory {
     public void load () {
         for (DatabaseConfiguration db : configuration.getDatabases()) {
             l.debug("Registering Connection Pool for {}", db.getDatabase());
-            GenericObjectPool pool = new GenericObjectPool(null, db.getMaxConnections());
-            ConnectionFactory connectionFactory = new DriverManagerConnectionFactory(db.toJdbcURL(), db.getUsername(), db.getPassword());
-            PoolableConnectionFactory poolableConnectionFactory = new PoolableConnectionFactory(connectionFactory, pool, null, null, db.isReadOnly(), true);
-            poolableConnectionFactory.hashCode();
+            StatementCache statementCache = null;
+            if (db.getStatementCacheSize() > 0) {
+                l.debug("Caching up to {} prepared statements per connection for {}", db.getStatementCacheSize(), db.getDatabase());
+                statementCache = new StatementCache(db.getAlias(), db.getStatementCacheSize());
+                this.statementCaches.put(db.getDatabase(), statementCache);
+            }
+
+            ConnectionPool pool = new ConnectionPool(db, this.dialectFactory.getDialect(db), statementCache);
             this.connectionPool.put(db.getDatabase(), pool);
+            this.queryRunners.put(db.getDatabase(), new TimedQueryRunner(pool.getDataSource(), db));
+            this.catalogs.put(db.getDatabase(), new SchemaCatalog(pool.getDataSource(), db.getCatalogRefresh()));
         }
     }
 
@@ -78,23 +90,64 @@ public class JDBCConnectionFactory {
     }
 
     /**
-     * Gives access to a {@link java.sql.DataSource} for the given database.
+     * Gives access to the {@link java.sql.DataSource} of the given database.
      * @param dbcfg a registered {@link amforeas.config.DatabaseConfiguration}
      * @return a {@link java.sql.DataSource}
      */
     public DataSource getDataSource (final DatabaseConfiguration dbcfg) {
-        PoolingDataSource dataSource = new PoolingDataSource(this.connectionPool.get(dbcfg.getDatabase()));
-        return dataSource;
+        return this.connectionPool.get(dbcfg.getDatabase()).getDataSource();
     }
 
     /**
-     * Instantiates a new {@linkplain org.apache.commons.dbutils.QueryRunner} for the given database.
+     * Gives access to the {@linkplain org.apache.commons.dbutils.QueryRunner} of the given database.
+     * QueryRunner instances are thread safe so one is shared by every request.
      * @param dbcfg a registered {@link amforeas.config.DatabaseConfiguration}
-     * @return a new {@linkplain org.apache.commons.dbutils.QueryRunner}
+     * @return a {@linkplain org.apache.commons.dbutils.QueryRunner}
      */
     public QueryRunner getQueryRunner (final DatabaseConfiguration dbcfg) {
-        DataSource ds = getDataSource(dbcfg);
-        return new QueryRunner(ds);
+        return this.queryRunners.computeIfAbsent(dbcfg.getDatabase(), db -> new TimedQueryRunner(getDataSource(dbcfg), dbcfg));
+    }
+
+    /**
+     * Gives access to the tables, columns, primary keys and indexes of the given database.
+     * @param dbcfg a registered {@link amforeas.config.DatabaseConfiguration}
+     * @return the {@link amforeas.jdbc.SchemaCatalog} of the database
+     */
+    public SchemaCatalog getSchemaCatalog (final DatabaseConfiguration dbcfg) {
+        return this.catalogs.computeIfAbsent(dbcfg.getDatabase(), db -> new SchemaCatalog(getDataSource(dbcfg), dbcfg.getCatalogRefresh()));
+    }
+
+    /**
+     * Obtains the prepared statements cache of the given database.
+     * @param dbcfg a registered {@link amforeas.config.DatabaseConfiguration}
+     * @return the {@link amforeas.jdbc.StatementCache} or empty if statements aren't cached for this database.
+     */
+    public Optional<StatementCache> getStatementCache (final DatabaseConfiguration dbcfg) {
+        return Optional.ofNullable(this.statementCaches.get(dbcfg.getDatabase()));
+    }
+
+    /**
+     * Generates a map of statistics for every registered database.
+     * @return a List of Maps with the alias and the prepared statements cache figures.
+     */
+    public List<Map<String, Object>> getStatistics () {
+        final List<Map<String, Object>> stats = new ArrayList<>();
+        for (DatabaseConfiguration dbcfg : configuration.getDatabases()) {
+            final Map<String, Object> map = new HashMap<>();
+            map.put("alias", dbcfg.getAlias());
+            final ConnectionPool pool = this.connectionPool.get(dbcfg.getDatabase());
+            if (pool != null) {
+                map.put("connections-active", pool.getNumActive());
+                map.put("connections-idle", pool.getNumIdle());
+            }
+            this.getStatementCache(dbcfg).ifPresent(cache -> {
+                map.put("statement-cache-size", cache.getSize());
+                map.put("statement-cache-hits", cache.getHits());
+                map.put("statement-cache-misses", cache.getMisses());
+            });
+            stats.add(map);
+        }
+        return stats;
     }
 
     /**
@@ -104,7 +157,10 @@ public class JDBCConnectionFactory {
     public void closeConnections () throws SQLException {
         for (DatabaseConfiguration dbcfg : configuration.getDatabases()) {
             l.debug("Shutting down JDBC connection {}", dbcfg.getDatabase());
-            getConnection(dbcfg).close();
+            final ConnectionPool pool = this.connectionPool.get(dbcfg.getDatabase());
+            if (pool != null) {
+                pool.close();
+            }
         }
     }
 }
@@ -12,17 +12,20 @@
 
 package amforeas.jdbc;
 
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.sql.BatchUpdateException;
 import java.sql.CallableStatement;
 import java.sql.Connection;
-import java.sql.Date;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Time;
-import java.sql.Timestamp;
-import java.sql.Types;
+import java.sql.Savepoint;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -35,7 +38,9 @@ import amforeas.SingletonFactory;
 import amforeas.SingletonFactoryImpl;
 import amforeas.cache.SimpleCache;
 import amforeas.config.DatabaseConfiguration;
+import amforeas.enums.Operator;
 import amforeas.exceptions.AmforeasBadRequestException;
+import amforeas.exceptions.MalformedRowException;
 import amforeas.handler.AmforeasResultSetHandler;
 import amforeas.handler.CountResultSetHandler;
 import amforeas.handler.ResultSetMetaDataHandler;
@@ -44,6 +49,7 @@ import amforeas.sql.Delete;
 import amforeas.sql.DynamicFinder;
 import amforeas.sql.Insert;
 import amforeas.sql.Select;
+import amforeas.sql.SelectParam;
 import amforeas.sql.Table;
 import amforeas.sql.Update;
 import amforeas.sql.dialect.Dialect;
@@ -81,9 +87,12 @@ public class JDBCExecutor {
         final Dialect dialect = this.factory.getDialectFactory().getDialect(dbconf);
 
         try {
-            int deleted = run.update(dialect.toStatementString(delete), AmforeasUtils.parseValue(delete.getId()));
+            final Table table = delete.getTable();
+            final Object[] params = convert(dbconf, table, List.of(table.getPrimaryKey()), Collections.singletonList(delete.getId()));
+            int deleted = run.update(dialect.toStatementString(delete), params);
 
-            COUNT_CACHE.remove(delete.getTable().getName());
+            COUNT_CACHE.remove(delete.getTable().toString());
+            this.factory.getResponseCache().invalidate(dbconf.getAlias(), delete.getTable().getName());
 
             l.debug("Deleted {} records.", deleted);
             return deleted;
@@ -112,9 +121,10 @@ public class JDBCExecutor {
             if (insert.getColumns().isEmpty())
                 inserted = run.update(dialect.toStatementString(insert));
             else
-                inserted = run.update(dialect.toStatementString(insert), AmforeasUtils.parseValues(insert.getValues()));
+                inserted = run.update(dialect.toStatementString(insert), convert(dbconf, insert.getTable(), columnsOf(insert, 1), insert.getValues()));
 
-            COUNT_CACHE.remove(insert.getTable().getName());
+            COUNT_CACHE.remove(insert.getTable().toString());
+            this.factory.getResponseCache().invalidate(dbconf.getAlias(), insert.getTable().getName());
 
             l.debug("Inserted {} records.", inserted);
             return inserted;
@@ -125,7 +135,332 @@ public class JDBCExecutor {
     }
 
     /**
-     * Executes the given {@link amforeas.sql.Update} object
+     * Executes the given {@link amforeas.sql.Insert} object and returns the key of the created record, or the whole record.
+     * If the dialect supports it the record is returned by the insert itself, otherwise the key is read from the keys
+     * generated by the database or from the values of the insert, and the record is read by its key in the same
+     * transaction and connection.
+     * @param insert a {@link amforeas.sql.Insert} instance
+     * @param record if true the whole record is returned, otherwise only its primary key
+     * @return a List with a {@link amforeas.rest.xstream.Row} with the created record, or its key. The row has no cells
+     * if the key isn't known.
+     * @throws SQLException from the QueryRunner
+     * @see org.apache.commons.dbutils.QueryRunner
+     */
+    public List<Row> insertReturning (final Insert insert, final boolean record) throws SQLException {
+        l.debug(insert.toString());
+
+        final DatabaseConfiguration dbconf = this.factory.getConfiguration().getDatabaseConfiguration(insert.getTable().getDatabase());
+        final QueryRunner run = this.factory.getJDBCConnectionFactory().getQueryRunner(dbconf);
+        final Dialect dialect = this.factory.getDialectFactory().getDialect(dbconf);
+
+        // converted before taking the connection, a miss takes another one
+        final Object[] params = insert.getColumns().isEmpty() ? new Object[0] : convert(dbconf, insert.getTable(), columnsOf(insert, 1), insert.getValues());
+
+        List<Row> results;
+        try {
+            if (dialect.supportsInsertReturning()) {
+                results = query(run, dialect.toReturningStatementString(insert), new AmforeasResultSetHandler(false), params);
+                if (!record) {
+                    results = List.of(keyOf(insert, results));
+                }
+            } else {
+                results = insertAndSelect(run, dbconf, dialect, insert, params, record);
+            }
+
+            COUNT_CACHE.remove(insert.getTable().toString());
+            this.factory.getResponseCache().invalidate(dbconf.getAlias(), insert.getTable().getName());
+        } catch (SQLException ex) {
+            l.debug(ex.getMessage());
+            throw ex;
+        }
+
+        l.debug("Inserted {} records.", results.size());
+        return results;
+    }
+
+    /**
+     * Inserts the record asking the driver for the generated keys and reads it by its key with the same connection
+     * in a single transaction.
+     */
+    private List<Row> insertAndSelect (final QueryRunner run, final DatabaseConfiguration dbconf, final Dialect dialect, final Insert insert,
+        final Object[] params, final boolean record) throws SQLException {
+        Connection conn = null;
+        try {
+            conn = this.factory.getJDBCConnectionFactory().getConnection(dbconf);
+            conn.setAutoCommit(false);
+
+            final List<Row> results = insertAndSelect(conn, run, dbconf, dialect, insert, params, record);
+
+            conn.commit();
+            return results;
+        } catch (SQLException ex) {
+            rollback(conn);
+            throw ex;
+        } finally {
+            // the pool restores the auto commit when the connection is returned
+            ResultSetCursor.close(conn);
+        }
+    }
+
+    private List<Row> insertAndSelect (final Connection conn, final QueryRunner run, final DatabaseConfiguration dbconf, final Dialect dialect,
+        final Insert insert, final Object[] params, final boolean record) throws SQLException {
+        final String sql = dialect.toStatementString(insert);
+        final AmforeasResultSetHandler res = new AmforeasResultSetHandler(false);
+        final Row key = keyOf(insert, params.length == 0 ? run.insert(conn, sql, res) : run.insert(conn, sql, res, params));
+
+        final String pk = insert.getTable().getPrimaryKey();
+        if (record && key.getCells().get(pk) != null) {
+            final Select select = new Select(insert.getTable()).setParameter(new SelectParam(pk, Operator.EQUALS, key.getCells().get(pk).toString()));
+            final List<Row> rows = run.query(conn, dialect.toStatementString(select), res, parametersOf(select, dbconf, dialect));
+            if (!rows.isEmpty()) {
+                return rows;
+            }
+        }
+        return List.of(key);
+    }
+
+    /**
+     * The primary key of a created record, taken from the keys generated by the database or, when the key
+     * was given by the client, from the values of the insert. Drivers name the generated key columns differently,
+     * a single one is taken as the primary key.
+     * @param insert the executed {@link amforeas.sql.Insert}
+     * @param keys the generated keys or the created record
+     * @return a row with the primary key of the record, or with no cells if it's not known
+     */
+    private static Row keyOf (final Insert insert, final List<Row> keys) {
+        final String pk = insert.getTable().getPrimaryKey();
+        final Map<String, Object> cells = new HashMap<>();
+        if (!keys.isEmpty()) {
+            final Map<String, Object> generated = keys.get(0).getCells();
+            generated.entrySet().stream().filter(e -> e.getKey().equalsIgnoreCase(pk)).findFirst().ifPresent(e -> cells.put(pk, e.getValue()));
+            if (cells.isEmpty() && generated.size() == 1) {
+                cells.put(pk, generated.values().iterator().next());
+            }
+        }
+        if (cells.isEmpty()) {
+            insert.getColumns().entrySet().stream().filter(e -> e.getKey().equalsIgnoreCase(pk) && e.getValue() != null).findFirst()
+                .ifPresent(e -> cells.put(pk, e.getValue()));
+        }
+        return new Row(0, cells);
+    }
+
+    /**
+     * Executes a bulk {@link amforeas.sql.Insert} in chunks of the configured batch size, using a single
+     * connection and transaction. If the dialect supports it, every chunk is inserted with one multi-row
+     * statement, otherwise the rows of the chunk are sent as a JDBC batch. When a multi-row statement fails
+     * the chunk is executed again as a batch to find out which rows failed. If any row fails, the whole
+     * transaction is rolled back.
+     * @param insert a {@link amforeas.sql.Insert} instance with one or more rows
+     * @return a {@link amforeas.jdbc.BatchResult} with the rows inserted by every chunk and the failed rows
+     * @throws SQLException if we fail to obtain a connection or to commit the transaction
+     */
+    public BatchResult insertBatch (final Insert insert) throws SQLException {
+        l.debug(insert.toString());
+
+        final DatabaseConfiguration dbconf = this.factory.getConfiguration().getDatabaseConfiguration(insert.getTable().getDatabase());
+        final Dialect dialect = this.factory.getDialectFactory().getDialect(dbconf);
+        final int batchSize = dbconf.getBatchSize();
+        final int size = insert.getRows().size();
+        final BatchResult result = new BatchResult();
+        // read before taking the connection, a miss takes another one
+        final Map<String, Integer> types = this.factory.getJDBCConnectionFactory().getSchemaCatalog(dbconf).getColumnTypes(insert.getTable().getName());
+
+        Connection conn = null;
+        try {
+            conn = this.factory.getJDBCConnectionFactory().getConnection(dbconf);
+            conn.setAutoCommit(false);
+
+            for (int from = 0; from < size; from += batchSize) {
+                final Insert chunk = insert.subInsert(from, Math.min(from + batchSize, size));
+                result.addChunk(insertChunk(conn, dbconf, dialect, types, chunk, from, result));
+            }
+
+            if (result.isSuccess()) {
+                conn.commit();
+                COUNT_CACHE.remove(insert.getTable().toString());
+                this.factory.getResponseCache().invalidate(dbconf.getAlias(), insert.getTable().getName());
+            } else {
+                conn.rollback();
+            }
+        } catch (SQLException ex) {
+            l.debug(ex.getMessage());
+            rollback(conn);
+            throw ex;
+        } finally {
+            // the pool restores the auto commit when the connection is returned
+            ResultSetCursor.close(conn);
+        }
+
+        l.debug("Inserted {} records in {} chunks with {} failures.", result.getInserted(), result.getChunks().size(), result.getFailures().size());
+        return result;
+    }
+
+    private int insertChunk (final Connection conn, final DatabaseConfiguration dbconf, final Dialect dialect, final Map<String, Integer> types,
+        final Insert chunk, final int offset, final BatchResult result) throws SQLException {
+        if (dialect.supportsMultiRowInsert() && chunk.hasUniformColumns()) {
+            final Savepoint savepoint = conn.setSavepoint();
+            try {
+                // the rows of a statement stay within the parameters the database takes
+                final int size = chunk.getRows().size();
+                final int rowsPerStatement = Math.max(1, dialect.getMaxParameters() / chunk.getRows().get(0).size());
+                int inserted = 0;
+                for (int from = 0; from < size; from += rowsPerStatement) {
+                    inserted += executeMultiRow(conn, dbconf, dialect, types, chunk.subInsert(from, Math.min(from + rowsPerStatement, size)));
+                }
+                conn.releaseSavepoint(savepoint);
+                return inserted;
+            } catch (SQLException ex) {
+                if (QueryContext.isTimeout(ex)) {
+                    throw ex;
+                }
+                l.debug("Multi-row insert of rows {} to {} failed: {}", offset, offset + chunk.getRows().size(), ex.getMessage());
+                conn.rollback(savepoint);
+            }
+        }
+
+        // consecutive rows with the same columns share a statement
+        final List<Map<String, String>> rows = chunk.getRows();
+        int inserted = 0;
+        int from = 0;
+        while (from < rows.size()) {
+            int to = from + 1;
+            while (to < rows.size() && sameColumns(rows.get(from), rows.get(to))) {
+                to++;
+            }
+            inserted += executeBatch(conn, dbconf, dialect, types, chunk.subInsert(from, to), offset + from, result);
+            from = to;
+        }
+        return inserted;
+    }
+
+    private int executeMultiRow (final Connection conn, final DatabaseConfiguration dbconf, final Dialect dialect, final Map<String, Integer> types,
+        final Insert rows) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(dialect.toStatementString(rows))) {
+            QueryContext.apply(stmt, dbconf);
+            TypedValue.bind(stmt, SchemaCatalog.convert(types, columnsOf(rows, rows.getRows().size()), rows.getAllValues()));
+            return stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Executes the rows as a JDBC batch. Drivers either stop at the first failed row or mark every failed
+     * row in the update counts, so the batch is retried without the failed rows until it succeeds.
+     */
+    private int executeBatch (final Connection conn, final DatabaseConfiguration dbconf, final Dialect dialect, final Map<String, Integer> types,
+        final Insert batch, final int offset, final BatchResult result) throws SQLException {
+        final List<Map<String, String>> rows = batch.getRows();
+        List<Integer> pending = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            pending.add(i);
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(dialect.toStatementString(batch.subInsert(0, 1)))) {
+            QueryContext.apply(stmt, dbconf);
+            return executeBatch(conn, stmt, types, batch, pending, offset, result);
+        }
+    }
+
+    private static int executeBatch (final Connection conn, final PreparedStatement stmt, final Map<String, Integer> types, final Insert batch,
+        List<Integer> pending, final int offset, final BatchResult result) throws SQLException {
+        final List<String> columns = columnsOf(batch, 1);
+        while (!pending.isEmpty()) {
+            final List<Integer> bound = new ArrayList<>(pending.size());
+            for (int row : pending) {
+                try {
+                    TypedValue.bind(stmt, SchemaCatalog.convert(types, columns, batch.getValues(row)));
+                    stmt.addBatch();
+                    bound.add(row);
+                } catch (SQLException ex) {
+                    // some drivers check the values as they are bound
+                    stmt.clearParameters();
+                    result.addFailure(offset + row, ex);
+                }
+            }
+            pending = bound;
+            if (pending.isEmpty()) {
+                break;
+            }
+
+            final Savepoint savepoint = conn.setSavepoint();
+            try {
+                final int[] counts = stmt.executeBatch();
+                conn.releaseSavepoint(savepoint);
+                int inserted = 0;
+                for (int count : counts) {
+                    inserted += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+                }
+                return inserted;
+            } catch (BatchUpdateException ex) {
+                if (QueryContext.isTimeout(ex)) {
+                    throw ex;
+                }
+                conn.rollback(savepoint);
+                stmt.clearBatch();
+
+                final int[] counts = ex.getUpdateCounts() == null ? new int[0] : ex.getUpdateCounts();
+                final List<Integer> retry = new ArrayList<>(pending.size());
+                boolean reported = false;
+                int c = 0;
+                for (; c < counts.length && c < pending.size(); c++) {
+                    if (counts[c] == Statement.EXECUTE_FAILED) {
+                        result.addFailure(offset + pending.get(c), ex);
+                        reported = true;
+                    } else {
+                        retry.add(pending.get(c));
+                    }
+                }
+                if (!reported && c < pending.size()) {
+                    result.addFailure(offset + pending.get(c++), ex);
+                    reported = true;
+                }
+                for (; c < pending.size(); c++) {
+                    retry.add(pending.get(c));
+                }
+                if (!reported) {
+                    throw ex;
+                }
+                pending = retry;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * The columns of the values of the given number of rows of an insert, ordered like {@link amforeas.sql.Insert#getAllValues()}.
+     */
+    private static List<String> columnsOf (final Insert insert, final int rows) {
+        final List<String> columns = new ArrayList<>(insert.getColumns().size() * rows);
+        for (int i = 0; i < rows; i++) {
+            columns.addAll(insert.getColumns().keySet());
+        }
+        return columns;
+    }
+
+    /**
+     * Converts the values given by a client to the types of the columns they are compared to or written to.
+     */
+    private Object[] convert (final DatabaseConfiguration dbconf, final Table table, final List<String> columns, final List<String> values) {
+        return this.factory.getJDBCConnectionFactory().getSchemaCatalog(dbconf).convert(table.getName(), columns, values);
+    }
+
+    private static void rollback (final Connection conn) {
+        if (conn == null) {
+            return;
+        }
+        try {
+            conn.rollback();
+        } catch (SQLException ex) {
+            l.warn("Failed to rollback: {}", ex.getMessage());
+        }
+    }
+
+    private static boolean sameColumns (final Map<String, String> a, final Map<String, String> b) {
+        return a.keySet().equals(b.keySet());
+    }
+
+    /**
+     * Executes the given {@link amforeas.sql.Update} object. If the dialect supports it the modified record is returned
+     * by the update itself, otherwise it's read in the same transaction and connection after the update.
      * @param update a {@link amforeas.sql.Update} instance
      * @return a List of {@link amforeas.rest.xstream.Row} with the modified records
      * @throws SQLException from the QueryRunner
@@ -138,12 +473,19 @@ public class JDBCExecutor {
         final QueryRunner run = this.factory.getJDBCConnectionFactory().getQueryRunner(dbconf);
         final Dialect dialect = this.factory.getDialectFactory().getDialect(dbconf);
 
-        List<Row> results = new ArrayList<Row>();
+        final List<String> columns = new ArrayList<>(update.getColumns().keySet());
+        columns.add(update.getTable().getPrimaryKey());
+        // converted before taking the connection, a miss takes another one
+        final Object[] params = convert(dbconf, update.getTable(), columns, update.getParameters());
+
+        List<Row> results;
         try {
-            int ret = run.update(dialect.toStatementString(update), AmforeasUtils.parseValues(update.getParameters()));
-            if (ret != 0) {
-                results = get(update.getSelect(), false);
+            if (dialect.supportsUpdateReturning()) {
+                results = run.query(dialect.toReturningStatementString(update), new AmforeasResultSetHandler(false), params);
+            } else {
+                results = updateAndSelect(run, dbconf, dialect, update, params);
             }
+            this.factory.getResponseCache().invalidate(dbconf.getAlias(), update.getTable().getName());
         } catch (SQLException ex) {
             l.error(ex.getMessage());
             throw ex;
@@ -152,6 +494,479 @@ public class JDBCExecutor {
         return results;
     }
 
+    /**
+     * Updates and reads the record with one connection in a single transaction, so the row read is the one
+     * written by the update and not by a later one.
+     */
+    private List<Row> updateAndSelect (final QueryRunner run, final DatabaseConfiguration dbconf, final Dialect dialect, final Update update,
+        final Object[] params) throws SQLException {
+        final Select select = update.getSelect();
+        final Object[] selectParams = parametersOf(select, dbconf, dialect);
+
+        Connection conn = null;
+        try {
+            conn = this.factory.getJDBCConnectionFactory().getConnection(dbconf);
+            conn.setAutoCommit(false);
+
+            final List<Row> results = updateAndSelect(conn, run, dialect, update, params, selectParams);
+
+            conn.commit();
+            return results;
+        } catch (SQLException ex) {
+            rollback(conn);
+            throw ex;
+        } finally {
+            // the pool restores the auto commit when the connection is returned
+            ResultSetCursor.close(conn);
+        }
+    }
+
+    private static List<Row> updateAndSelect (final Connection conn, final QueryRunner run, final Dialect dialect, final Update update,
+        final Object[] params, final Object[] selectParams) throws SQLException {
+        if (run.update(conn, dialect.toStatementString(update), params) == 0) {
+            return new ArrayList<Row>();
+        }
+        return run.query(conn, dialect.toStatementString(update.getSelect()), new AmforeasResultSetHandler(false), selectParams);
+    }
+
+    /**
+     * Inserts the record of the given {@link amforeas.sql.Insert}, or updates it when a record with the same primary key
+     * already exists, and reads it in the same transaction and connection. If the dialect has no native upsert the record
+     * is updated and inserted only when there was none.
+     * @param insert a {@link amforeas.sql.Insert} instance with a value for the primary key of its table
+     * @return a List with a {@link amforeas.rest.xstream.Row} with the record
+     * @throws SQLException from the QueryRunner
+     * @throws IllegalArgumentException if the insert has no value for the primary key
+     */
+    public List<Row> upsert (final Insert insert) throws SQLException {
+        l.debug(insert.toString());
+
+        final DatabaseConfiguration dbconf = this.factory.getConfiguration().getDatabaseConfiguration(insert.getTable().getDatabase());
+        final QueryRunner run = this.factory.getJDBCConnectionFactory().getQueryRunner(dbconf);
+        final Dialect dialect = this.factory.getDialectFactory().getDialect(dbconf);
+
+        final String pk = insert.getTable().getPrimaryKey();
+        final Select select = new Select(insert.getTable()).setParameter(new SelectParam(pk, Operator.EQUALS, keyValueOf(insert)));
+        // converted before taking the connection, a miss takes another one
+        final Map<String, Integer> types = this.factory.getJDBCConnectionFactory().getSchemaCatalog(dbconf).getColumnTypes(insert.getTable().getName());
+        final Object[] params = SchemaCatalog.convert(types, columnsOf(insert, 1), insert.getValues());
+        final Object[] selectParams = parametersOf(select, dbconf, dialect);
+
+        Connection conn = null;
+        try {
+            conn = this.factory.getJDBCConnectionFactory().getConnection(dbconf);
+            conn.setAutoCommit(false);
+
+            upsertRow(conn, run, dialect, types, insert, params);
+            final List<Row> results = run.query(conn, dialect.toStatementString(select), new AmforeasResultSetHandler(false), selectParams);
+
+            conn.commit();
+            invalidate(dbconf, insert);
+            l.debug("Upserted {} records.", results.size());
+            return results;
+        } catch (SQLException ex) {
+            l.debug(ex.getMessage());
+            rollback(conn);
+            throw ex;
+        } finally {
+            // the pool restores the auto commit when the connection is returned
+            ResultSetCursor.close(conn);
+        }
+    }
+
+    /**
+     * Upserts the rows of a bulk {@link amforeas.sql.Insert} in chunks of the configured batch size, using a single
+     * connection and transaction. With a native upsert, consecutive rows with the same columns are sent as a JDBC
+     * batch of the dialect's statement, otherwise every row is upserted on its own inside a savepoint. If any row
+     * fails, the whole transaction is rolled back.
+     * @param insert a {@link amforeas.sql.Insert} instance with one or more rows, all of them with a value for the primary key
+     * @return a {@link amforeas.jdbc.BatchResult} with the rows upserted by every chunk and the failed rows
+     * @throws SQLException if we fail to obtain a connection or to commit the transaction
+     * @throws IllegalArgumentException if a row has no value for the primary key
+     */
+    public BatchResult upsertBatch (final Insert insert) throws SQLException {
+        l.debug(insert.toString());
+
+        final int size = insert.getRows().size();
+        for (int i = 0; i < size; i++) {
+            keyValueOf(insert.subInsert(i, i + 1));
+        }
+
+        final DatabaseConfiguration dbconf = this.factory.getConfiguration().getDatabaseConfiguration(insert.getTable().getDatabase());
+        final QueryRunner run = this.factory.getJDBCConnectionFactory().getQueryRunner(dbconf);
+        final Dialect dialect = this.factory.getDialectFactory().getDialect(dbconf);
+        final int batchSize = dbconf.getBatchSize();
+        final BatchResult result = new BatchResult();
+        // read before taking the connection, a miss takes another one
+        final Map<String, Integer> types = this.factory.getJDBCConnectionFactory().getSchemaCatalog(dbconf).getColumnTypes(insert.getTable().getName());
+
+        Connection conn = null;
+        try {
+            conn = this.factory.getJDBCConnectionFactory().getConnection(dbconf);
+            conn.setAutoCommit(false);
+
+            for (int from = 0; from < size; from += batchSize) {
+                final Insert chunk = insert.subInsert(from, Math.min(from + batchSize, size));
+                result.addChunk(upsertChunk(conn, run, dbconf, dialect, types, chunk, from, result));
+            }
+
+            if (result.isSuccess()) {
+                conn.commit();
+                invalidate(dbconf, insert);
+            } else {
+                conn.rollback();
+            }
+        } catch (SQLException ex) {
+            l.debug(ex.getMessage());
+            rollback(conn);
+            throw ex;
+        } finally {
+            // the pool restores the auto commit when the connection is returned
+            ResultSetCursor.close(conn);
+        }
+
+        l.debug("Upserted {} records in {} chunks with {} failures.", result.getInserted(), result.getChunks().size(), result.getFailures().size());
+        return result;
+    }
+
+    private int upsertChunk (final Connection conn, final QueryRunner run, final DatabaseConfiguration dbconf, final Dialect dialect,
+        final Map<String, Integer> types, final Insert chunk, final int offset, final BatchResult result) throws SQLException {
+        final List<Map<String, String>> rows = chunk.getRows();
+        final int failures = result.getFailures().size();
+
+        if (dialect.supportsUpsert()) {
+            // consecutive rows with the same columns share a statement
+            int from = 0;
+            while (from < rows.size()) {
+                int to = from + 1;
+                while (to < rows.size() && sameColumns(rows.get(from), rows.get(to))) {
+                    to++;
+                }
+                final Insert batch = chunk.subInsert(from, to);
+                final List<Integer> pending = new ArrayList<>(to - from);
+                for (int i = 0; i < to - from; i++) {
+                    pending.add(i);
+                }
+                try (PreparedStatement stmt = conn.prepareStatement(dialect.toUpsertStatementString(batch))) {
+                    QueryContext.apply(stmt, dbconf);
+                    executeBatch(conn, stmt, types, batch, pending, offset + from, result);
+                }
+                from = to;
+            }
+        } else {
+            for (int i = 0; i < rows.size(); i++) {
+                final Insert row = chunk.subInsert(i, i + 1);
+                final Savepoint savepoint = conn.setSavepoint();
+                try {
+                    upsertRow(conn, run, dialect, types, row, SchemaCatalog.convert(types, columnsOf(row, 1), row.getValues()));
+                    conn.releaseSavepoint(savepoint);
+                } catch (SQLException ex) {
+                    if (QueryContext.isTimeout(ex)) {
+                        throw ex;
+                    }
+                    conn.rollback(savepoint);
+                    result.addFailure(offset + i, ex);
+                }
+            }
+        }
+
+        // drivers count an updated row twice, or not at all when nothing changed, so the rows are counted instead
+        return rows.size() - (result.getFailures().size() - failures);
+    }
+
+    /**
+     * Upserts a single row with the dialect's statement or, without one, with an UPDATE followed by an INSERT when
+     * no record was updated. If the INSERT fails because a concurrent transaction created the record first, it's
+     * updated again.
+     */
+    private static int upsertRow (final Connection conn, final QueryRunner run, final Dialect dialect, final Map<String, Integer> types,
+        final Insert insert, final Object[] params) throws SQLException {
+        if (dialect.supportsUpsert()) {
+            return run.update(conn, dialect.toUpsertStatementString(insert), params);
+        }
+
+        final String pk = insert.getTable().getPrimaryKey();
+        final Update update = new Update(insert.getTable()).setId(keyValueOf(insert));
+        insert.getColumns().entrySet().stream().filter(e -> !e.getKey().equalsIgnoreCase(pk)).forEach(e -> update.addColumn(e.getKey(), e.getValue()));
+        if (update.getColumns().isEmpty()) {
+            update.addColumn(pk, update.getId());
+        }
+        final List<String> columns = new ArrayList<>(update.getColumns().keySet());
+        columns.add(pk);
+        final String sql = dialect.toStatementString(update);
+        final Object[] updateParams = SchemaCatalog.convert(types, columns, update.getParameters());
+
+        final int updated = run.update(conn, sql, updateParams);
+        if (updated != 0) {
+            return updated;
+        }
+
+        final Savepoint savepoint = conn.setSavepoint();
+        try {
+            final int inserted = run.update(conn, dialect.toStatementString(insert), params);
+            conn.releaseSavepoint(savepoint);
+            return inserted;
+        } catch (SQLException ex) {
+            if (ex.getSQLState() == null || !ex.getSQLState().startsWith("23")) {
+                throw ex;
+            }
+            conn.rollback(savepoint);
+            if (run.update(conn, sql, updateParams) == 0) {
+                throw ex;
+            }
+            return 1;
+        }
+    }
+
+    /**
+     * @return the value of the primary key in the first row of the insert.
+     * @throws IllegalArgumentException if the row has no value for the primary key
+     */
+    private static String keyValueOf (final Insert insert) {
+        final Object id = keyOf(insert, List.of()).getCells().get(insert.getTable().getPrimaryKey());
+        if (id == null) {
+            throw new IllegalArgumentException("An upsert needs a value for the primary key " + insert.getTable().getPrimaryKey());
+        }
+        return id.toString();
+    }
+
+    /**
+     * Loads the rows of an {@link amforeas.jdbc.Ingest} as they are read, in JDBC batches of the configured batch size
+     * with a single connection. The rows are committed every {@link amforeas.jdbc.Ingest#getCommitEvery()} rows, or
+     * every batch, so at most a batch of rows is held in memory whatever the size of the body. Rows which can't be
+     * parsed, have a column the table doesn't have or are refused by the database are rejected and the load goes on.
+     * If the body can't be read or a statement runs out of time, the rows not committed yet are rolled back.
+     * @param ingest the table and the reader of the rows
+     * @return the given ingest with the number of rows loaded and the rejected rows
+     * @throws SQLException if we fail to obtain a connection, to commit a transaction or a statement runs out of time
+     * @throws IOException if the body can't be read
+     */
+    public Ingest ingest (final Ingest ingest) throws SQLException, IOException {
+        l.debug(ingest.toString());
+
+        final Table table = ingest.getTable();
+        final DatabaseConfiguration dbconf = this.factory.getConfiguration().getDatabaseConfiguration(table.getDatabase());
+        final Dialect dialect = this.factory.getDialectFactory().getDialect(dbconf);
+        final int batchSize = dbconf.getBatchSize();
+        final int commitEvery = ingest.getCommitEvery() > 0 ? ingest.getCommitEvery() : batchSize;
+        // read before taking the connection, a miss takes another one
+        final Map<String, Integer> types = this.factory.getJDBCConnectionFactory().getSchemaCatalog(dbconf).getColumnTypes(table.getName());
+
+        final RowReader reader = ingest.getReader();
+        final List<Map<String, String>> rows = new ArrayList<>(Math.min(batchSize, commitEvery));
+        final List<Long> lines = new ArrayList<>(Math.min(batchSize, commitEvery));
+        final long start = System.nanoTime();
+        int uncommitted = 0;
+
+        Connection conn = null;
+        try {
+            conn = this.factory.getJDBCConnectionFactory().getConnection(dbconf);
+            conn.setAutoCommit(false);
+
+            while (true) {
+                final Map<String, String> row;
+                try {
+                    row = reader.next();
+                } catch (MalformedRowException ex) {
+                    ingest.reject(ex.getLine(), ex.getMessage());
+                    continue;
+                }
+
+                // rows with other columns need another statement
+                if (!rows.isEmpty() && (row == null || !sameColumns(rows.get(0), row))) {
+                    uncommitted += ingestBatch(conn, dbconf, dialect, types, ingest, rows, lines);
+                }
+                if (row == null) {
+                    break;
+                }
+
+                final Optional<String> unknown = row.keySet().stream().filter(c -> !types.isEmpty() && !types.containsKey(c.toLowerCase())).findFirst();
+                if (unknown.isPresent()) {
+                    ingest.reject(reader.getLine(), "Unknown column " + unknown.get());
+                    continue;
+                }
+
+                rows.add(row);
+                lines.add(reader.getLine());
+                if (rows.size() >= batchSize || uncommitted + rows.size() >= commitEvery) {
+                    uncommitted += ingestBatch(conn, dbconf, dialect, types, ingest, rows, lines);
+                }
+                if (uncommitted >= commitEvery) {
+                    conn.commit();
+                    ingest.addLoaded(uncommitted);
+                    uncommitted = 0;
+                }
+            }
+
+            conn.commit();
+            ingest.addLoaded(uncommitted);
+        } catch (SQLException | IOException ex) {
+            l.debug(ex.getMessage());
+            rollback(conn);
+            throw ex;
+        } finally {
+            // the pool restores the auto commit when the connection is returned
+            ResultSetCursor.close(conn);
+            ingest.setNanos(System.nanoTime() - start);
+            if (ingest.getLoaded() > 0) {
+                invalidate(dbconf, new Insert(table));
+            }
+        }
+
+        l.debug("Loaded {} rows and rejected {} in {} ms.", ingest.getLoaded(), ingest.getRejected(), ingest.getElapsedMillis());
+        return ingest;
+    }
+
+    /**
+     * Inserts the rows as a JDBC batch, rejects the ones which fail and clears them.
+     * @return the number of rows inserted
+     */
+    private int ingestBatch (final Connection conn, final DatabaseConfiguration dbconf, final Dialect dialect, final Map<String, Integer> types,
+        final Ingest ingest, final List<Map<String, String>> rows, final List<Long> lines) throws SQLException {
+        final BatchResult result = new BatchResult();
+        executeBatch(conn, dbconf, dialect, types, new Insert(ingest.getTable()).setRows(rows), 0, result);
+        for (Map.Entry<Integer, SQLException> failure : result.getFailures().entrySet()) {
+            ingest.reject(lines.get(failure.getKey()), failure.getValue().getMessage());
+        }
+
+        final int inserted = rows.size() - result.getFailures().size();
+        rows.clear();
+        lines.clear();
+        return inserted;
+    }
+
+    /**
+     * Executes the statements of a {@link amforeas.jdbc.Batch} in order with a single connection and transaction.
+     * Inserts and updates read the written record, with the dialect's returning statements if it has them. When a
+     * statement fails the transaction is rolled back and the rest aren't executed, unless the batch continues on
+     * errors, then every statement runs inside a savepoint and only the failed ones are undone.
+     * @param batch a {@link amforeas.jdbc.Batch} with the statements to execute
+     * @return the given batch with the results and failures of its statements
+     * @throws SQLException if we fail to obtain a connection, to commit the transaction or a statement runs out of time
+     */
+    public Batch execute (final Batch batch) throws SQLException {
+        l.debug(batch.toString());
+
+        final DatabaseConfiguration dbconf = this.factory.getConfiguration().getDatabaseConfiguration(batch.getDatabase());
+        final QueryRunner run = this.factory.getJDBCConnectionFactory().getQueryRunner(dbconf);
+        final Dialect dialect = this.factory.getDialectFactory().getDialect(dbconf);
+
+        // converted before taking the connection, a miss takes another one
+        final List<Object[]> params = new ArrayList<>(batch.size());
+        for (Object statement : batch.getStatements()) {
+            params.add(parametersOf(statement, dbconf, dialect));
+        }
+
+        Connection conn = null;
+        try {
+            conn = this.factory.getJDBCConnectionFactory().getConnection(dbconf);
+            conn.setAutoCommit(false);
+
+            for (int i = 0; i < batch.size(); i++) {
+                final Savepoint savepoint = batch.isContinueOnError() ? conn.setSavepoint() : null;
+                try {
+                    batch.setResult(i, execute(conn, run, dbconf, dialect, batch.getStatements().get(i), params.get(i)));
+                    if (savepoint != null) {
+                        conn.releaseSavepoint(savepoint);
+                    }
+                } catch (SQLException ex) {
+                    if (QueryContext.isTimeout(ex)) {
+                        throw ex;
+                    }
+                    l.debug("Statement {} of the batch failed: {}", i, ex.getMessage());
+                    batch.addFailure(i, ex);
+                    if (savepoint == null) {
+                        break;
+                    }
+                    conn.rollback(savepoint);
+                }
+            }
+
+            if (batch.isSuccess() || batch.isContinueOnError()) {
+                conn.commit();
+                batch.setCommitted(true);
+                for (Object statement : batch.getStatements()) {
+                    invalidate(dbconf, statement);
+                }
+            } else {
+                conn.rollback();
+            }
+        } catch (SQLException ex) {
+            l.debug(ex.getMessage());
+            rollback(conn);
+            throw ex;
+        } finally {
+            // the pool restores the auto commit when the connection is returned
+            ResultSetCursor.close(conn);
+        }
+
+        l.debug("Executed {} statements with {} failures.", batch.getResults().size(), batch.getFailures().size());
+        return batch;
+    }
+
+    private List<Row> execute (final Connection conn, final QueryRunner run, final DatabaseConfiguration dbconf, final Dialect dialect,
+        final Object statement, final Object[] params) throws SQLException {
+        if (statement instanceof Insert) {
+            final Insert insert = (Insert) statement;
+            if (dialect.supportsInsertReturning()) {
+                return run.query(conn, dialect.toReturningStatementString(insert), new AmforeasResultSetHandler(false), params);
+            }
+            return insertAndSelect(conn, run, dbconf, dialect, insert, params, true);
+        } else if (statement instanceof Update) {
+            final Update update = (Update) statement;
+            if (dialect.supportsUpdateReturning()) {
+                return run.query(conn, dialect.toReturningStatementString(update), new AmforeasResultSetHandler(false), params);
+            }
+            return updateAndSelect(conn, run, dialect, update, params, parametersOf(update.getSelect(), dbconf, dialect));
+        } else if (statement instanceof Delete) {
+            final Delete delete = (Delete) statement;
+            final List<Row> results = new ArrayList<Row>();
+            if (run.update(conn, dialect.toStatementString(delete), params) != 0) {
+                final Map<String, Object> cells = new HashMap<>();
+                cells.put(delete.getTable().getPrimaryKey(), delete.getId());
+                results.add(new Row(0, cells));
+            }
+            return results;
+        }
+        final Select select = (Select) statement;
+        return run.query(conn, dialect.toStatementString(select), new AmforeasResultSetHandler(true), params);
+    }
+
+    private Object[] parametersOf (final Object statement, final DatabaseConfiguration dbconf, final Dialect dialect) {
+        if (statement instanceof Insert) {
+            final Insert insert = (Insert) statement;
+            return insert.getColumns().isEmpty() ? new Object[0] : convert(dbconf, insert.getTable(), columnsOf(insert, 1), insert.getValues());
+        } else if (statement instanceof Update) {
+            final Update update = (Update) statement;
+            final List<String> columns = new ArrayList<>(update.getColumns().keySet());
+            columns.add(update.getTable().getPrimaryKey());
+            return convert(dbconf, update.getTable(), columns, update.getParameters());
+        } else if (statement instanceof Delete) {
+            final Table table = ((Delete) statement).getTable();
+            return convert(dbconf, table, List.of(table.getPrimaryKey()), Collections.singletonList(((Delete) statement).getId()));
+        }
+        return parametersOf((Select) statement, dbconf, dialect);
+    }
+
+    /**
+     * Forgets the counts and the responses cached for the table written by the statement.
+     */
+    private void invalidate (final DatabaseConfiguration dbconf, final Object statement) {
+        final Table table;
+        if (statement instanceof Insert) {
+            table = ((Insert) statement).getTable();
+            COUNT_CACHE.remove(table.toString());
+        } else if (statement instanceof Delete) {
+            table = ((Delete) statement).getTable();
+            COUNT_CACHE.remove(table.toString());
+        } else if (statement instanceof Update) {
+            table = ((Update) statement).getTable();
+        } else {
+            return;
+        }
+        this.factory.getResponseCache().invalidate(dbconf.getAlias(), table.getName());
+    }
+
     /**
      * Executes the given {@link amforeas.sql.Select} object and returns all or one record depending on the value
      * of the allRecords variable
@@ -172,28 +987,42 @@ public class JDBCExecutor {
 
         final ResultSetHandler<List<Row>> res = new AmforeasResultSetHandler(allRecords);
 
-        if (select.isAllRecords()) {
-            try {
-                response = run.query(dialect.toStatementString(select), res);
-            } catch (SQLException ex) {
-                l.debug(ex.getMessage());
-                throw ex;
-            }
-        } else {
-            try {
-                response = run.query(
-                    dialect.toStatementString(select),
-                    res,
-                    AmforeasUtils.parseValues(List.of(select.getParameter().getValues())));
-            } catch (SQLException ex) {
-                l.debug(ex.getMessage());
-                throw ex;
-            }
+        try {
+            final Select query = seek(select, dbconf, dialect, run);
+            response = query(run, dialect.toStatementString(query), res, parametersOf(query, dbconf, dialect));
+        } catch (SQLException ex) {
+            l.debug(ex.getMessage());
+            throw ex;
         }
 
         return response;
     }
 
+    /**
+     * Reads the records with the given primary keys with an IN condition. Lists longer than the
+     * {@link amforeas.sql.dialect.Dialect#getMaxInListSize()} are read in chunks, one statement per chunk.
+     * @param select a {@link amforeas.sql.Select} with the table and columns to read, its parameter is replaced.
+     * @param ids the values of the primary key of the records, duplicates are read once.
+     * @return a List of {@link amforeas.rest.xstream.Row} with the records found, in no particular order.
+     * @throws SQLException from the QueryRunner
+     */
+    public List<Row> getMany (final Select select, final List<String> ids) throws SQLException {
+        final DatabaseConfiguration dbconf = this.factory.getConfiguration().getDatabaseConfiguration(select.getTable().getDatabase());
+        final Dialect dialect = this.factory.getDialectFactory().getDialect(dbconf);
+        final List<String> keys = new ArrayList<>(new LinkedHashSet<>(ids));
+        final int chunk = dialect.getMaxInListSize();
+
+        final List<Row> results = new ArrayList<>();
+        for (int from = 0; from < keys.size(); from += chunk) {
+            final String[] values = keys.subList(from, Math.min(from + chunk, keys.size())).toArray(new String[0]);
+            select.setParameter(new SelectParam(select.getTable().getPrimaryKey(), Operator.IN, values));
+            results.addAll(get(select, true));
+        }
+
+        l.debug("Read {} of {} records.", results.size(), keys.size());
+        return results;
+    }
+
     /**
      * Executes the given {@link org.amforeas.jdbc.DynamicFinder} object.
      * @param database database name or schema where to execute the {@link org.amforeas.jdbc.DynamicFinder}
@@ -217,7 +1046,7 @@ public class JDBCExecutor {
         final QueryRunner run = this.factory.getJDBCConnectionFactory().getQueryRunner(dbconf);
         final ResultSetHandler<List<Row>> res = new AmforeasResultSetHandler(true);
         try {
-            List<Row> results = run.query(query, res, params);
+            List<Row> results = run.query(query, res, convert(dbconf, df, params));
             l.debug("Received {} results.", results.size());
             return results;
         } catch (SQLException ex) {
@@ -226,6 +1055,148 @@ public class JDBCExecutor {
         }
     }
 
+    /**
+     * Executes the given {@link amforeas.sql.Select} object and returns an open {@link amforeas.jdbc.ResultSetCursor}
+     * so the rows can be written to the client as they are fetched instead of being loaded in memory.
+     * @param select a {@link amforeas.sql.Select} instance
+     * @return an open {@link amforeas.jdbc.ResultSetCursor} which must be closed by the caller.
+     * @throws SQLException if we fail to execute the statement
+     * @see amforeas.sql.dialect.Dialect#getFetchSize()
+     */
+    public ResultSetCursor stream (final Select select) throws SQLException {
+        l.debug(select.toString());
+
+        final DatabaseConfiguration dbconf = this.factory.getConfiguration().getDatabaseConfiguration(select.getTable().getDatabase());
+        final Dialect dialect = this.factory.getDialectFactory().getDialect(dbconf);
+
+        final Select query = seek(select, dbconf, dialect, this.factory.getJDBCConnectionFactory().getQueryRunner(dbconf));
+        return stream(dbconf, dialect, dialect.toStatementString(query), parametersOf(query, dbconf, dialect));
+    }
+
+    /**
+     * Statements without parameters skip the parameters metadata lookup of the QueryRunner.
+     */
+    private static <T> T query (final QueryRunner run, final String sql, final ResultSetHandler<T> res, final Object[] params) throws SQLException {
+        return params.length == 0 ? run.query(sql, res) : run.query(sql, res, params);
+    }
+
+    /**
+     * The values of the select parameter followed by the values of the keyset condition, which compares the order
+     * column and ends with the primary key.
+     */
+    private Object[] parametersOf (final Select select, final DatabaseConfiguration dbconf, final Dialect dialect) {
+        final List<String> values = new ArrayList<>();
+        final List<String> columns = new ArrayList<>();
+        if (!select.isAllRecords()) {
+            values.addAll(Arrays.asList(select.getParameter().getValues()));
+            columns.addAll(Collections.nCopies(values.size(), select.getParameter().getColumnName()));
+        }
+
+        final List<String> keyset = dialect.keysetParameters(select);
+        if (!keyset.isEmpty()) {
+            final String pk = select.getTable().getPrimaryKey();
+            final String column = select.getOrderParam() == null ? pk : select.getOrderParam().getColumn();
+            values.addAll(keyset);
+            columns.addAll(Collections.nCopies(keyset.size() - 1, column));
+            columns.add(pk);
+        }
+
+        if (values.isEmpty()) {
+            return new Object[0];
+        }
+        return convert(dbconf, select.getTable(), columns, values);
+    }
+
+    /**
+     * Offset pages get slower the further they are because the database reads and discards every previous row.
+     * Once the offset reaches the keyset threshold of the database, look for the order and primary key values
+     * of the row before the page, reading only those two columns, and continue with a keyset.
+     * @return a copy of the select which seeks to the page with a {@link amforeas.jdbc.KeysetCursor} or the same select.
+     */
+    private Select seek (final Select select, final DatabaseConfiguration dbconf, final Dialect dialect, final QueryRunner run) throws SQLException {
+        final LimitParam limit = select.getLimitParam();
+        if (limit == null || limit.isKeyset() || dbconf.getKeysetThreshold() <= 0 || limit.getStart() < dbconf.getKeysetThreshold()) {
+            return select;
+        }
+
+        final String pk = select.getTable().getPrimaryKey();
+        final Select boundary = new Select(select.getTable()).setParameter(select.getParameter()).setOrderParam(select.getOrderParam());
+        boundary.addColumn(pk);
+        if (select.getOrderParam() != null && !select.getOrderParam().getColumn().equalsIgnoreCase(pk)) {
+            boundary.addColumn(select.getOrderParam().getColumn());
+        }
+
+        final List<Row> rows = query(run, dialect.toStatementString(boundary, limit.getStart() - 1), new AmforeasResultSetHandler(false),
+            parametersOf(boundary, dbconf, dialect));
+        final KeysetCursor cursor = rows.isEmpty() ? null : KeysetCursor.of(rows.get(0).getCells(), select.getOrderParam(), pk);
+        if (cursor == null) {
+            return select;
+        }
+
+        l.debug("Offset {} reached the keyset threshold, continue after {}", limit.getStart(), cursor);
+        return new Select(select.getTable())
+            .setParameter(select.getParameter())
+            .setOrderParam(select.getOrderParam())
+            .setLimitParam(new LimitParam(limit.getLimit(), limit.getStart(), cursor))
+            .setColumns(select.getColumns());
+    }
+
+    /**
+     * Executes the given {@link org.amforeas.jdbc.DynamicFinder} object and returns an open {@link amforeas.jdbc.ResultSetCursor}.
+     * @param database database name or schema where to execute the {@link org.amforeas.jdbc.DynamicFinder}
+     * @param df an instance of {@link org.amforeas.jdbc.DynamicFinder}
+     * @param limit an instance of {@link amforeas.jdbc.LimitParam}
+     * @param order an instance of {@link amforeas.jdbc.OrderParam}
+     * @param params a vararg of Object instances used as parameters for the statement.
+     * @return an open {@link amforeas.jdbc.ResultSetCursor} which must be closed by the caller.
+     * @throws SQLException if we fail to execute the statement
+     */
+    public ResultSetCursor stream (final String database, final DynamicFinder df, final LimitParam limit, final OrderParam order, Object... params) throws SQLException {
+        l.debug(df.getSql());
+        l.debug(AmforeasUtils.varargToString(params));
+
+        final DatabaseConfiguration dbconf = this.factory.getConfiguration().getDatabaseConfiguration(database);
+        final Dialect dialect = this.factory.getDialectFactory().getDialect(dbconf);
+
+        return stream(dbconf, dialect, dialect.toStatementString(df, limit, order), convert(dbconf, df, params));
+    }
+
+    /**
+     * The values of a {@link amforeas.sql.DynamicFinder} given as strings are converted to the types of their columns.
+     */
+    private Object[] convert (final DatabaseConfiguration dbconf, final DynamicFinder df, final Object... params) {
+        final List<String> values = new ArrayList<>(params.length);
+        for (Object param : params) {
+            if (param != null && !(param instanceof String)) {
+                return params;
+            }
+            values.add((String) param);
+        }
+        return this.factory.getJDBCConnectionFactory().getSchemaCatalog(dbconf).convert(df.getTable(), df.getColumns(), values);
+    }
+
+    private ResultSetCursor stream (final DatabaseConfiguration dbconf, final Dialect dialect, final String query, Object... params) throws SQLException {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            conn = this.factory.getJDBCConnectionFactory().getConnection(dbconf);
+            // PostgreSQL ignores the fetch size and reads every row in auto commit mode, the pool restores it when the cursor
+            // returns the connection
+            conn.setAutoCommit(false);
+            stmt = conn.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            QueryContext.apply(stmt, dbconf);
+            stmt.setFetchSize(dialect.getFetchSize());
+            TypedValue.bind(stmt, params);
+            rs = stmt.executeQuery();
+            return new ResultSetCursor(conn, stmt, rs);
+        } catch (SQLException ex) {
+            l.debug(ex.getMessage());
+            ResultSetCursor.close(rs, stmt, conn);
+            throw ex;
+        }
+    }
+
     /**
      * Executes a given {@link amforeas.sql.Select} object and returns the metadata associated to the results.
      * @param select a {@link amforeas.sql.Select} instance which should only retrieve one result.
@@ -281,6 +1252,7 @@ public class JDBCExecutor {
 
             l.debug("Create callable statement for {}", call);
             cs = conn.prepareCall(call);
+            QueryContext.apply(cs, dbconf);
 
             l.debug("Add parameters to callable statement");
             final List<StoredProcedureParam> outParams = addParameters(cs, params);
@@ -306,6 +1278,8 @@ public class JDBCExecutor {
             l.debug(ex.getMessage());
             throw ex;
         } finally {
+            // we don't know which tables the procedure wrote to, even if it failed
+            this.factory.getResponseCache().invalidate(dbconf.getAlias());
             try {
                 if (cs != null && !cs.isClosed())
                     cs.close();
@@ -368,7 +1342,7 @@ public class JDBCExecutor {
     public Integer count (final Table table) {
         l.debug("Obtaining count for table {}", table.getName());
 
-        Optional<Integer> hit = COUNT_CACHE.get(table.getName());
+        Optional<Integer> hit = COUNT_CACHE.get(table.toString());
         if (hit.isPresent()) {
             return hit.get();
         }
@@ -386,7 +1360,7 @@ public class JDBCExecutor {
         }
 
         // We want to invalidate the cache so we don't keep failing for this query
-        COUNT_CACHE.put(table.getName(), count);
+        COUNT_CACHE.put(table.toString(), count);
 
         return count;
     }
@@ -412,35 +1386,7 @@ public class JDBCExecutor {
                 outParams.add(p);
             } else {
                 l.debug("Adding IN parameter " + p.toString());
-                switch (sqlType) {
-                    case Types.BIGINT:
-                    case Types.INTEGER:
-                    case Types.TINYINT:
-                        // case Types.NUMERIC:
-                        cs.setInt(i++, Integer.valueOf(p.getValue()));
-                        break;
-                    case Types.DATE:
-                        cs.setDate(i++, (Date) AmforeasUtils.parseValue(p.getValue()));
-                        break;
-                    case Types.TIME:
-                        cs.setTime(i++, (Time) AmforeasUtils.parseValue(p.getValue()));
-                        break;
-                    case Types.TIMESTAMP:
-                        cs.setTimestamp(i++, (Timestamp) AmforeasUtils.parseValue(p.getValue()));
-                        break;
-                    case Types.DECIMAL:
-                        cs.setBigDecimal(i++, (BigDecimal) AmforeasUtils.parseValue(p.getValue()));
-                        break;
-                    case Types.DOUBLE:
-                        cs.setDouble(i++, Double.valueOf(p.getValue()));
-                        break;
-                    case Types.FLOAT:
-                        cs.setLong(i++, Long.valueOf(p.getValue()));
-                        break;
-                    default:
-                        cs.setString(i++, p.getValue());
-                        break;
-                }
+                TypedValue.of(p.getValue(), sqlType).bind(cs, i++);
             }
         }
         return outParams;
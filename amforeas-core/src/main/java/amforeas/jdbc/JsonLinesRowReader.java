@@ -0,0 +1,77 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+package amforeas.jdbc;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.Map;
+import org.apache.commons.lang3.StringUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import amforeas.exceptions.MalformedRowException;
+
+/**
+ * Reads newline delimited JSON (application/x-ndjson), an object per line like {"name":"foo", "age":40}. Blank
+ * lines are skipped.
+ */
+public class JsonLinesRowReader implements RowReader {
+
+    private static final ObjectReader READER = new ObjectMapper().readerFor(new TypeReference<Map<String, String>>() {});
+
+    private final BufferedReader in;
+    private long line = 0;
+    private long rowLine = 0;
+
+    public JsonLinesRowReader(final InputStream in, final Charset charset) {
+        this.in = new BufferedReader(new InputStreamReader(in, charset));
+    }
+
+    @Override
+    public Map<String, String> next () throws IOException {
+        String text;
+        while ((text = in.readLine()) != null) {
+            line++;
+            if (StringUtils.isBlank(text)) {
+                continue;
+            }
+
+            rowLine = line;
+            final Map<String, String> row;
+            try {
+                row = READER.readValue(text);
+            } catch (JsonProcessingException ex) {
+                throw new MalformedRowException(rowLine, ex.getOriginalMessage());
+            }
+            if (row == null || row.isEmpty()) {
+                throw new MalformedRowException(rowLine, "A row needs at least one column");
+            }
+            return row;
+        }
+        return null;
+    }
+
+    @Override
+    public long getLine () {
+        return rowLine;
+    }
+
+    @Override
+    public void close () throws IOException {
+        in.close();
+    }
+
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.jdbc;
+
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.apache.commons.lang3.StringUtils;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The position of the last row of a page when paging with a keyset (seek) instead of an offset. It holds the value of the
+ * order column and of the primary key of the row, so the next page starts right after it. The value is null when the
+ * row has none, then the page continues among the rows without a value. Clients get it as an opaque token which is given
+ * back with the <i>after</i> parameter.
+ */
+public class KeysetCursor {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final String value;
+    private final String key;
+
+    public KeysetCursor(final String value, final String key) {
+        if (key == null)
+            throw new IllegalArgumentException("Invalid cursor values");
+        this.value = value;
+        this.key = key;
+    }
+
+    /**
+     * Generates the cursor which points to the given row.
+     * @param cells the cells of the last row of a page
+     * @param order the {@link amforeas.jdbc.OrderParam} of the page
+     * @param pk the name of the primary key column
+     * @return a cursor or null if the row doesn't have a value for the primary key
+     */
+    public static KeysetCursor of (final Map<String, Object> cells, final OrderParam order, final String pk) {
+        if (cells == null || StringUtils.isBlank(pk))
+            return null;
+        final Object key = cells.get(pk.toLowerCase());
+        final Object value = order == null ? key : cells.get(order.getColumn().toLowerCase());
+        if (key == null)
+            return null;
+        return new KeysetCursor(value == null ? null : value.toString(), key.toString());
+    }
+
+    /**
+     * Reads a token generated with {@link #encode()}.
+     * @param token the opaque token
+     * @return a {@link amforeas.jdbc.KeysetCursor}
+     * @throws IllegalArgumentException if the token is not valid
+     */
+    public static KeysetCursor decode (final String token) {
+        List<String> values;
+        try {
+            values = mapper.readValue(Base64.getUrlDecoder().decode(token), new TypeReference<List<String>>() {});
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid cursor " + token);
+        }
+        if (values == null || values.size() != 2)
+            throw new IllegalArgumentException("Invalid cursor " + token);
+        return new KeysetCursor(values.get(0), values.get(1));
+    }
+
+    /**
+     * @return an URL safe token with the values of the cursor.
+     */
+    public String encode () {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(mapper.writeValueAsBytes(Arrays.asList(value, key)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return the value of the order column of the row, null if it has none.
+     */
+    public String getValue () {
+        return value;
+    }
+
+    /**
+     * @return the value of the primary key of the row.
+     */
+    public String getKey () {
+        return key;
+    }
+
+    @Override
+    public int hashCode () {
+        return Objects.hash(value, key);
+    }
+
+    @Override
+    public boolean equals (Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof KeysetCursor)) {
+            return false;
+        }
+        final KeysetCursor other = (KeysetCursor) obj;
+        return Objects.equals(value, other.value) && key.equals(other.key);
+    }
+
+    @Override
+    public String toString () {
+        return "KeysetCursor{" + "value=" + value + ", key=" + key + '}';
+    }
+
+}
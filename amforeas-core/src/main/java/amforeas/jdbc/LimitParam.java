@@ -20,11 +20,14 @@ import org.apache.commons.lang3.StringUtils;
  * their correct form in SQL. If no limit parameter is given, the default is 25
  * the configuration. The default value for the offset or start is 0.
  * The limit value has a maximum of 1000.
+ * When a {@link amforeas.jdbc.KeysetCursor} is given with the <i>after</i> parameter, the page starts
+ * right after the row the cursor points to and the offset is ignored.
  */
 public class LimitParam {
 
     private final Integer limit;
     private final Integer start;
+    private final KeysetCursor cursor;
 
     private static final Integer default_limit = Integer.valueOf(25);
     private static final Integer max_limit = Integer.valueOf(1000);
@@ -32,16 +35,25 @@ public class LimitParam {
     public LimitParam() {
         this.limit = default_limit;
         this.start = 0;
+        this.cursor = null;
     }
 
     public LimitParam(Integer limit) {
         this.limit = getMaxLimit(limit);
         this.start = 0;
+        this.cursor = null;
     }
 
     public LimitParam(Integer limit, Integer start) {
         this.limit = getMaxLimit(limit);
         this.start = start;
+        this.cursor = null;
+    }
+
+    public LimitParam(Integer limit, Integer start, KeysetCursor cursor) {
+        this.limit = getMaxLimit(limit);
+        this.start = start;
+        this.cursor = cursor;
     }
 
     public Integer getLimit () {
@@ -52,6 +64,17 @@ public class LimitParam {
         return start;
     }
 
+    public KeysetCursor getCursor () {
+        return cursor;
+    }
+
+    /**
+     * @return true if the page is to be read with a keyset instead of an offset.
+     */
+    public boolean isKeyset () {
+        return cursor != null;
+    }
+
     private Integer getMaxLimit (Integer limit) {
         if (limit >= max_limit) {
             limit = max_limit;
@@ -60,6 +83,10 @@ public class LimitParam {
     }
 
     public static LimitParam valueOf (final MultivaluedMap<String, String> pathParams, final Integer pageSize) {
+        if (StringUtils.isNotBlank(pathParams.getFirst("after"))) {
+            return new LimitParam(pageSize, 0, KeysetCursor.decode(pathParams.getFirst("after")));
+        }
+
         if (StringUtils.isNumeric(pathParams.getFirst("page"))) {
             Integer page = Integer.valueOf(pathParams.getFirst("page"));
             return new LimitParam(pageSize, (page - 1) * pageSize);
@@ -104,6 +131,10 @@ public class LimitParam {
         b.append(limit);
         b.append(", start: ");
         b.append(start);
+        if (cursor != null) {
+            b.append(", after: ");
+            b.append(cursor.encode());
+        }
         b.append("}}");
         return b.toString();
     }
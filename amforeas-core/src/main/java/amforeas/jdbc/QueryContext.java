@@ -0,0 +1,115 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.jdbc;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.Optional;
+import org.apache.commons.lang3.StringUtils;
+import amforeas.config.DatabaseConfiguration;
+
+/**
+ * The query timeout of a request. While the request runs its context is attached to the thread, so every
+ * statement prepared by the {@link amforeas.jdbc.JDBCExecutor} gets the query timeout of the request.
+ * Statements prepared on a thread without a context get the query timeout of their alias.
+ */
+public class QueryContext {
+
+    private static final ThreadLocal<QueryContext> CURRENT = new ThreadLocal<>();
+
+    /**
+     * SQL state PostgreSQL and DB2 give to a statement the driver cancelled when it ran out of time.
+     */
+    private static final String QUERY_CANCELED = "57014";
+
+    /**
+     * SQL state class of the timeouts of the drivers which don't throw a {@link java.sql.SQLTimeoutException}.
+     */
+    private static final String TIMEOUT = "HYT";
+
+    private volatile Integer timeout;
+
+    /**
+     * @return the context of the request running on this thread or empty if there is none.
+     */
+    public static Optional<QueryContext> current () {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * Attaches this context to the calling thread until {@link #detach()} is called.
+     */
+    public void attach () {
+        CURRENT.set(this);
+    }
+
+    /**
+     * Removes this context from the calling thread.
+     */
+    public void detach () {
+        CURRENT.remove();
+    }
+
+    /**
+     * @param timeout seconds the statements of the request may run, 0 lets them run forever.
+     */
+    public void setTimeout (final Integer timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * @return the seconds the statements of the request may run or null to use the timeout of the alias.
+     */
+    public Integer getTimeout () {
+        return timeout;
+    }
+
+    /**
+     * Sets the query timeout of the current request, if there is one, or of the alias on the statement.
+     * @param stmt a statement about to be executed
+     * @param dbconf the {@link amforeas.config.DatabaseConfiguration} the statement belongs to
+     * @throws SQLException if the driver fails to set the timeout
+     */
+    public static void apply (final Statement stmt, final DatabaseConfiguration dbconf) throws SQLException {
+        final QueryContext context = CURRENT.get();
+        final Integer timeout = context == null ? null : context.timeout;
+        // statements are pooled, so the timeout of a previous request may still be set
+        stmt.setQueryTimeout(timeout == null ? dbconf.getQueryTimeout() : timeout);
+    }
+
+    /**
+     * Pools and the QueryRunner wrap the exceptions of the driver, so the whole chain is checked.
+     * @param ex a SQLException thrown by a statement
+     * @return true if the statement ran out of time.
+     */
+    public static boolean isTimeout (final SQLException ex) {
+        Throwable current = ex;
+        while (current != null) {
+            if (current instanceof SQLTimeoutException) {
+                return true;
+            }
+            if (current instanceof SQLException) {
+                final SQLException sql = (SQLException) current;
+                if (QUERY_CANCELED.equals(sql.getSQLState()) || StringUtils.startsWith(sql.getSQLState(), TIMEOUT)) {
+                    return true;
+                }
+                current = sql.getCause() != null ? sql.getCause() : sql.getNextException();
+            } else {
+                current = current.getCause();
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,118 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import amforeas.handler.ColumnPlan;
+
+/**
+ * Keeps a {@linkplain java.sql.ResultSet} open, together with its statement and connection, so
+ * rows can be read one at a time while they are written to the client. The first row is
+ * fetched eagerly so callers can tell if the query returned something before committing to
+ * a response. Always close the cursor so the connection goes back to the pool.
+ */
+public class ResultSetCursor implements AutoCloseable {
+
+    private static final Logger l = LoggerFactory.getLogger(ResultSetCursor.class);
+
+    private final Connection connection;
+    private final PreparedStatement statement;
+    private final ResultSet resultSet;
+
+    private ColumnPlan plan;
+
+    private boolean fetched;
+    private boolean available;
+    private boolean closed = false;
+
+    ResultSetCursor(final Connection connection, final PreparedStatement statement, final ResultSet resultSet) throws SQLException {
+        this.connection = connection;
+        this.statement = statement;
+        this.resultSet = resultSet;
+        this.available = resultSet.next();
+        this.fetched = true;
+    }
+
+    /**
+     * Only meaningful before the first call to {@link #next()}.
+     * @return true if the query didn't return any row.
+     */
+    public boolean isEmpty () {
+        return this.fetched && !this.available;
+    }
+
+    /**
+     * Moves the cursor to the next row.
+     * @return true if there is a row to read.
+     * @throws SQLException if the driver fails to fetch the next row
+     */
+    public boolean next () throws SQLException {
+        if (this.closed) {
+            return false;
+        }
+
+        if (this.fetched) {
+            this.fetched = false;
+            return this.available;
+        }
+
+        this.available = this.resultSet.next();
+        return this.available;
+    }
+
+    /**
+     * Maps the current row.
+     * @return a Map with the column names as keys and the values.
+     * @throws SQLException if we fail to read a value
+     * @see amforeas.handler.ColumnPlan
+     */
+    public Map<String, Object> row () throws SQLException {
+        if (this.plan == null) {
+            this.plan = ColumnPlan.of(this.resultSet.getMetaData());
+        }
+        return this.plan.map(this.resultSet);
+    }
+
+    /**
+     * Closes the result set, the statement and returns the connection to the pool.
+     */
+    @Override
+    public void close () {
+        if (this.closed) {
+            return;
+        }
+
+        this.closed = true;
+        close(this.resultSet, this.statement, this.connection);
+    }
+
+    static void close (final AutoCloseable... resources) {
+        for (AutoCloseable resource : resources) {
+            if (resource == null) {
+                continue;
+            }
+            try {
+                resource.close();
+            } catch (Exception ex) {
+                l.debug(ex.getMessage());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,36 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+package amforeas.jdbc;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+import amforeas.exceptions.MalformedRowException;
+
+/**
+ * Reads the rows of a request body one at a time, so a body of any size is loaded without holding it in memory.
+ */
+public interface RowReader extends Closeable {
+
+    /**
+     * @return the columns and values of the next row, or null when there are no more rows.
+     * @throws MalformedRowException if the row can't be parsed, the next call reads the following row.
+     * @throws IOException if the body can't be read.
+     */
+    public Map<String, String> next () throws IOException;
+
+    /**
+     * @return the line of the body where the last row read starts, the first one is 1.
+     */
+    public long getLine ();
+
+}
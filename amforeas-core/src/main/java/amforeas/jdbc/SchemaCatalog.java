@@ -0,0 +1,350 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.jdbc;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import javax.sql.DataSource;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import amforeas.AmforeasUtils;
+import amforeas.cache.SimpleCache;
+import amforeas.rest.xstream.Row;
+
+/**
+ * The tables of a database with their columns, primary keys and indexes, read from the {@link java.sql.DatabaseMetaData}
+ * the first time they are needed and kept in memory until they are refreshed. The list of tables and every table are
+ * read on their own, so a table is read once no matter how many there are.
+ * <p>
+ * The metadata is used to answer the meta requests, to find the primary key of a table when the client doesn't
+ * give one and to convert the values given by the clients to the type of their column with a {@link amforeas.jdbc.TypedValue}.
+ */
+public class SchemaCatalog {
+
+    private static final Logger l = LoggerFactory.getLogger(SchemaCatalog.class);
+
+    private static final String[] TABLE_TYPES = {"TABLE"};
+
+    private final DataSource ds;
+    private final long refresh;
+    private final LongSupplier ticker;
+    private final SimpleCache<String, TableMetadata> tables;
+    private volatile Tables listing;
+
+    /**
+     * @param ds the data source of the database
+     * @param refresh seconds the metadata is kept before it's read again, 0 keeps it until {@link #refresh()} is called
+     */
+    public SchemaCatalog(final DataSource ds, final int refresh) {
+        this(ds, refresh, System::nanoTime);
+    }
+
+    /**
+     * @param ds the data source of the database
+     * @param refresh seconds the metadata is kept before it's read again, 0 keeps it until {@link #refresh()} is called
+     * @param ticker the time source in nanoseconds
+     */
+    public SchemaCatalog(final DataSource ds, final int refresh, final LongSupplier ticker) {
+        this.ds = ds;
+        this.refresh = TimeUnit.SECONDS.toNanos(Math.max(refresh, 0));
+        this.ticker = ticker;
+        this.tables = new SimpleCache<>((int) TimeUnit.SECONDS.toMillis(Math.max(refresh, 0)));
+    }
+
+    /**
+     * @return the tables of the database
+     * @throws SQLException if the tables can't be read
+     */
+    public Tables getTables () throws SQLException {
+        final Tables current = this.listing;
+        if (current != null && (this.refresh == 0 || this.ticker.getAsLong() - current.loaded < this.refresh)) {
+            return current;
+        }
+
+        final Tables loaded = loadTables();
+        this.listing = loaded;
+        return loaded;
+    }
+
+    /**
+     * @param table the name of a table or view in any case
+     * @return the metadata of the table, or empty if the database doesn't have it or it can't be read.
+     */
+    public Optional<TableMetadata> getTable (final String table) {
+        if (StringUtils.isBlank(table)) {
+            return Optional.empty();
+        }
+
+        final String key = table.toLowerCase();
+        final Optional<TableMetadata> hit = this.tables.get(key);
+        if (hit.isPresent()) {
+            return hit;
+        }
+
+        final TableMetadata metadata = loadTable(table);
+        // unknown tables are looked up again, they may be created later
+        if (metadata != null) {
+            this.tables.put(key, metadata);
+        }
+        return Optional.ofNullable(metadata);
+    }
+
+    /**
+     * @param table the name of the table or view
+     * @return the column of the primary key of the table, or empty if it's unknown or has more than one column.
+     */
+    public Optional<String> getPrimaryKey (final String table) {
+        return this.getTable(table).flatMap(TableMetadata::getPrimaryKey);
+    }
+
+    /**
+     * @param table the name of the table or view
+     * @return the types of the columns of the table by their lower case name, or an empty map if the table is unknown.
+     */
+    public Map<String, Integer> getColumnTypes (final String table) {
+        return this.getTable(table).map(TableMetadata::getColumnTypes).orElse(Collections.emptyMap());
+    }
+
+    /**
+     * @param table the name of the table or view
+     * @param columns the columns of the parameters of a statement, in order. A null column has no type.
+     * @param values the values of the parameters
+     * @return the values converted to the types of their columns
+     */
+    public Object[] convert (final String table, final List<String> columns, final List<String> values) {
+        return convert(this.getColumnTypes(table), columns, values);
+    }
+
+    /**
+     * @param types the types of the columns of a table given by {@link #getColumnTypes(String)}
+     * @param columns the columns of the parameters of a statement, in order. A null column has no type.
+     * @param values the values of the parameters
+     * @return the values converted to the types of their columns
+     */
+    public static Object[] convert (final Map<String, Integer> types, final List<String> columns, final List<String> values) {
+        final Object[] params = new Object[values.size()];
+        for (int i = 0; i < params.length; i++) {
+            final String column = i < columns.size() ? columns.get(i) : null;
+            params[i] = TypedValue.of(values.get(i), column == null ? null : types.get(column.toLowerCase()));
+        }
+        return params;
+    }
+
+    /**
+     * Forgets every table, so they are read again the next time they are needed.
+     */
+    public void refresh () {
+        l.debug("Refreshing the schema catalog");
+        this.listing = null;
+        this.tables.clear();
+    }
+
+    /**
+     * Forgets the given table, so it's read again the next time it's needed.
+     * @param table the name of the table or view
+     */
+    public void refresh (final String table) {
+        if (StringUtils.isNotBlank(table)) {
+            this.tables.remove(table.toLowerCase());
+        }
+    }
+
+    private Tables loadTables () throws SQLException {
+        l.debug("Reading the list of tables");
+        final List<Row> rows = new ArrayList<>();
+        try (Connection conn = this.ds.getConnection(); ResultSet rs = conn.getMetaData().getTables(conn.getCatalog(), null, "%", TABLE_TYPES)) {
+            int rowId = 0;
+            while (rs.next()) {
+                final Map<String, Object> map = new LinkedHashMap<>();
+                map.put("table_schem", rs.getString("TABLE_SCHEM"));
+                map.put("table_name", rs.getString("TABLE_NAME"));
+                map.put("table_type", rs.getString("TABLE_TYPE"));
+                map.put("remarks", rs.getString("REMARKS"));
+                rows.add(new Row(rowId++, map));
+            }
+        }
+        return new Tables(rows, this.ticker.getAsLong());
+    }
+
+    private TableMetadata loadTable (final String table) {
+        try (Connection conn = this.ds.getConnection()) {
+            final DatabaseMetaData metadata = conn.getMetaData();
+            final String catalog = conn.getCatalog();
+            final List<String> patterns = patternsOf(table, metadata);
+            for (String schema : schemasOf(conn, metadata)) {
+                for (String pattern : patterns) {
+                    final TableMetadata loaded = loadTable(metadata, catalog, schema, pattern);
+                    if (loaded != null) {
+                        l.debug("Read the metadata of {}", loaded);
+                        return loaded;
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            l.debug("Failed to read the metadata of {}: {}", table, e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * The pattern may match tables with the same name in more than one schema when no schema is given, only the first
+     * one is read.
+     */
+    private static TableMetadata loadTable (final DatabaseMetaData metadata, final String catalog, final String schemaPattern, final String pattern)
+        throws SQLException {
+        String schema = null;
+        String name = null;
+        final List<TableMetadata.Column> columns = new ArrayList<>();
+        try (ResultSet rs = metadata.getColumns(catalog, schemaPattern, pattern, null)) {
+            while (rs.next()) {
+                if (name == null) {
+                    schema = rs.getString("TABLE_SCHEM");
+                    name = rs.getString("TABLE_NAME");
+                } else if (!name.equals(rs.getString("TABLE_NAME")) || !Objects.equals(schema, rs.getString("TABLE_SCHEM"))) {
+                    continue;
+                }
+                columns.add(new TableMetadata.Column(rs.getString("COLUMN_NAME"), rs.getInt("DATA_TYPE"), rs.getString("TYPE_NAME"),
+                    rs.getInt("COLUMN_SIZE"), rs.getInt("DECIMAL_DIGITS"), rs.getInt("NULLABLE") != DatabaseMetaData.columnNoNulls));
+            }
+        }
+
+        if (name == null) {
+            return null;
+        }
+
+        return new TableMetadata(schema, name, columns, loadPrimaryKey(metadata, catalog, schema, name), loadIndexes(metadata, catalog, schema, name));
+    }
+
+    /**
+     * Views have no primary key and some drivers fail to read it, so it's left empty if it can't be read.
+     */
+    private static List<String> loadPrimaryKey (final DatabaseMetaData metadata, final String catalog, final String schema, final String name) {
+        final Map<Short, String> columns = new TreeMap<>();
+        try (ResultSet rs = metadata.getPrimaryKeys(catalog, schema, name)) {
+            while (rs.next()) {
+                columns.put(rs.getShort("KEY_SEQ"), rs.getString("COLUMN_NAME"));
+            }
+        } catch (SQLException e) {
+            l.debug("Failed to read the primary key of {}: {}", name, e.getMessage());
+        }
+        return new ArrayList<>(columns.values());
+    }
+
+    private static List<TableMetadata.Index> loadIndexes (final DatabaseMetaData metadata, final String catalog, final String schema, final String name) {
+        final Map<String, Boolean> unique = new LinkedHashMap<>();
+        final Map<String, Map<Short, String>> columns = new LinkedHashMap<>();
+        // approximate, so the database isn't asked to analyze the table
+        try (ResultSet rs = metadata.getIndexInfo(catalog, schema, name, false, true)) {
+            while (rs.next()) {
+                final String index = rs.getString("INDEX_NAME");
+                final String column = rs.getString("COLUMN_NAME");
+                if (index == null || column == null || rs.getShort("TYPE") == DatabaseMetaData.tableIndexStatistic) {
+                    continue;
+                }
+                unique.put(index, !rs.getBoolean("NON_UNIQUE"));
+                columns.computeIfAbsent(index, i -> new TreeMap<>()).put(rs.getShort("ORDINAL_POSITION"), column);
+            }
+        } catch (SQLException e) {
+            l.debug("Failed to read the indexes of {}: {}", name, e.getMessage());
+        }
+
+        final List<TableMetadata.Index> indexes = new ArrayList<>(unique.size());
+        unique.forEach( (index, isUnique) -> indexes.add(new TableMetadata.Index(index, isUnique, new ArrayList<>(columns.get(index).values()))));
+        return indexes;
+    }
+
+    /**
+     * The tables are looked up in the schema of the connection first, so a table with the same name in another schema
+     * doesn't hide it. Then in every schema, for the tables of other schemas and for the databases without schemas or
+     * whose drivers don't tell the current one.
+     */
+    private static List<String> schemasOf (final Connection conn, final DatabaseMetaData metadata) throws SQLException {
+        String schema = null;
+        try {
+            schema = conn.getSchema();
+        } catch (SQLException | AbstractMethodError e) {
+            l.debug("Failed to read the schema of the connection: {}", e.toString());
+        }
+        return StringUtils.isBlank(schema) ? Collections.singletonList(null) : Arrays.asList(escape(schema, metadata), null);
+    }
+
+    /**
+     * Unquoted names are stored in upper or lower case depending on the database, so try the name as given first.
+     */
+    private static List<String> patternsOf (final String table, final DatabaseMetaData metadata) throws SQLException {
+        final String pattern = escape(table, metadata);
+        final List<String> patterns = new ArrayList<>(2);
+        patterns.add(pattern);
+        final String stored = metadata.storesUpperCaseIdentifiers() ? pattern.toUpperCase() : pattern.toLowerCase();
+        if (!stored.equals(pattern)) {
+            patterns.add(stored);
+        }
+        return patterns;
+    }
+
+    /**
+     * The names are patterns, so the wildcards in them are escaped.
+     */
+    private static String escape (final String name, final DatabaseMetaData metadata) throws SQLException {
+        final String escape = metadata.getSearchStringEscape();
+        return escape == null ? name : name.replace("_", escape + "_").replace("%", escape + "%");
+    }
+
+    /**
+     * The list of tables of the database.
+     */
+    public static class Tables {
+
+        private final List<Row> rows;
+        private final String tag;
+        private final long loaded;
+
+        private Tables(final List<Row> rows, final long loaded) {
+            this.rows = Collections.unmodifiableList(rows);
+            final StringBuilder b = new StringBuilder();
+            rows.forEach(row -> b.append(row.getCells()).append('\n'));
+            this.tag = AmforeasUtils.getMD5Base64(b.toString());
+            this.loaded = loaded;
+        }
+
+        /**
+         * @return a row for every table with its schema, name, type and remarks
+         */
+        public List<Row> getRows () {
+            return rows;
+        }
+
+        /**
+         * @return a digest of the list which changes when any table is added, removed or renamed
+         */
+        public String getTag () {
+            return tag;
+        }
+
+    }
+
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.jdbc;
+
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.commons.pool.KeyedObjectPool;
+import org.apache.commons.pool.KeyedObjectPoolFactory;
+import org.apache.commons.pool.impl.GenericKeyedObjectPool;
+
+/**
+ * Creates the PreparedStatement pool used by every pooled connection of a database alias. Statements are
+ * keyed by their SQL text, so a request re-uses the statement prepared by a previous request on the
+ * same connection. The size is a per connection limit; once it's reached the oldest idle statements
+ * are closed. Hits and misses are counted for all the connections of the alias.
+ */
+public class StatementCache implements KeyedObjectPoolFactory {
+
+    private final String alias;
+    private final int size;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public StatementCache(final String alias, final int size) {
+        this.alias = alias;
+        this.size = size;
+    }
+
+    @Override
+    public KeyedObjectPool createPool () {
+        final GenericKeyedObjectPool.Config config = new GenericKeyedObjectPool.Config();
+        config.maxActive = -1;
+        config.maxIdle = 1;
+        config.maxTotal = this.size;
+        config.whenExhaustedAction = GenericKeyedObjectPool.WHEN_EXHAUSTED_GROW;
+        return new CountingPool(config);
+    }
+
+    public String getAlias () {
+        return alias;
+    }
+
+    public int getSize () {
+        return size;
+    }
+
+    public long getHits () {
+        return hits.sum();
+    }
+
+    public long getMisses () {
+        return misses.sum();
+    }
+
+    /**
+     * A connection is only used by one thread at a time, so checking the idle statements
+     * before borrowing is enough to know if the statement was already prepared.
+     */
+    private class CountingPool extends GenericKeyedObjectPool {
+
+        CountingPool(final GenericKeyedObjectPool.Config config) {
+            super(null, config);
+        }
+
+        @Override
+        public Object borrowObject (final Object key) throws Exception {
+            if (this.getNumIdle(key) > 0) {
+                hits.increment();
+            } else {
+                misses.increment();
+            }
+            return super.borrowObject(key);
+        }
+    }
+
+}
@@ -0,0 +1,243 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.jdbc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import amforeas.AmforeasUtils;
+import amforeas.rest.xstream.Row;
+
+/**
+ * The columns, primary key and indexes of a table or view as they are described by the {@link java.sql.DatabaseMetaData}.
+ * The names of the columns are kept in lower case, like the ones of the rows read with the {@link amforeas.handler.ColumnPlan}.
+ * Instances are immutable and kept by the {@link amforeas.jdbc.SchemaCatalog}.
+ */
+public class TableMetadata {
+
+    private final String schema;
+    private final String name;
+    private final List<Column> columns;
+    private final List<String> primaryKey;
+    private final List<Index> indexes;
+    private final Map<String, Integer> types;
+    private final String tag;
+
+    /**
+     * @param schema the schema of the table as it's stored by the database, may be null
+     * @param name the name of the table as it's stored by the database
+     * @param columns the columns in the order of the table
+     * @param primaryKey the columns of the primary key in the order of the key, empty if the table has none
+     * @param indexes the indexes of the table
+     */
+    public TableMetadata(final String schema, final String name, final List<Column> columns, final List<String> primaryKey, final List<Index> indexes) {
+        this.schema = schema;
+        this.name = name;
+        this.columns = Collections.unmodifiableList(new ArrayList<>(columns));
+        this.primaryKey = Collections.unmodifiableList(primaryKey.stream().map(String::toLowerCase).collect(Collectors.toList()));
+        this.indexes = Collections.unmodifiableList(new ArrayList<>(indexes));
+
+        final Map<String, Integer> map = new HashMap<>();
+        columns.forEach(column -> map.put(column.getName(), column.getType()));
+        this.types = Collections.unmodifiableMap(map);
+        this.tag = AmforeasUtils.getMD5Base64(this.toString() + this.columns + this.primaryKey + this.indexes);
+    }
+
+    public String getSchema () {
+        return schema;
+    }
+
+    public String getName () {
+        return name;
+    }
+
+    public List<Column> getColumns () {
+        return columns;
+    }
+
+    /**
+     * @return the types of the columns from {@link java.sql.Types} by their lower case name
+     */
+    public Map<String, Integer> getColumnTypes () {
+        return types;
+    }
+
+    /**
+     * @param column the name of a column in any case
+     * @return true if the table has the column
+     */
+    public boolean hasColumn (final String column) {
+        return column != null && this.types.containsKey(column.toLowerCase());
+    }
+
+    /**
+     * @return the columns of the primary key in the order of the key, empty if the table has none
+     */
+    public List<String> getPrimaryKeyColumns () {
+        return primaryKey;
+    }
+
+    /**
+     * @return the column of the primary key, or empty if the table has none or it has more than one column
+     */
+    public Optional<String> getPrimaryKey () {
+        return this.primaryKey.size() == 1 ? Optional.of(this.primaryKey.get(0)) : Optional.empty();
+    }
+
+    public List<Index> getIndexes () {
+        return indexes;
+    }
+
+    /**
+     * @return a digest of the metadata which changes when any of it does
+     */
+    public String getTag () {
+        return tag;
+    }
+
+    /**
+     * @return a row for every column with its type, size, whether it's part of the primary key and the indexes it's in.
+     */
+    public List<Row> toRows () {
+        final List<Row> rows = new ArrayList<>(this.columns.size());
+        int rowId = 0;
+        for (Column column : this.columns) {
+            final Map<String, Object> map = new LinkedHashMap<>();
+            map.put("tableName", name);
+            map.put("columnName", column.getName());
+            map.put("columnLabel", column.getName());
+            map.put("columnType", column.getTypeName());
+            map.put("columnSize", String.valueOf(column.getSize()));
+            map.put("precision", String.valueOf(column.getSize()));
+            map.put("scale", String.valueOf(column.getScale()));
+            map.put("nullable", column.isNullable());
+            map.put("primaryKey", this.primaryKey.contains(column.getName()));
+            final String in = this.indexes.stream().filter(index -> index.getColumns().contains(column.getName())).map(Index::getName).collect(Collectors.joining(","));
+            if (!in.isEmpty()) {
+                map.put("indexes", in);
+            }
+            rows.add(new Row(rowId++, map));
+        }
+        return rows;
+    }
+
+    @Override
+    public String toString () {
+        return schema == null ? name : schema + "." + name;
+    }
+
+    /**
+     * A column of a table.
+     */
+    public static class Column {
+
+        private final String name;
+        private final int type;
+        private final String typeName;
+        private final int size;
+        private final int scale;
+        private final boolean nullable;
+
+        /**
+         * @param name the name of the column, it's kept in lower case
+         * @param type the type from {@link java.sql.Types}
+         * @param typeName the name the database gives to the type
+         * @param size the size or precision of the column
+         * @param scale the digits after the decimal point
+         * @param nullable false if the column doesn't allow nulls
+         */
+        public Column(final String name, final int type, final String typeName, final int size, final int scale, final boolean nullable) {
+            this.name = name.toLowerCase();
+            this.type = type;
+            this.typeName = typeName;
+            this.size = size;
+            this.scale = scale;
+            this.nullable = nullable;
+        }
+
+        public String getName () {
+            return name;
+        }
+
+        public int getType () {
+            return type;
+        }
+
+        public String getTypeName () {
+            return typeName;
+        }
+
+        public int getSize () {
+            return size;
+        }
+
+        public int getScale () {
+            return scale;
+        }
+
+        public boolean isNullable () {
+            return nullable;
+        }
+
+        @Override
+        public String toString () {
+            return name + " " + typeName + "(" + size + "," + scale + ")" + (nullable ? "" : " NOT NULL");
+        }
+
+    }
+
+    /**
+     * An index of a table.
+     */
+    public static class Index {
+
+        private final String name;
+        private final boolean unique;
+        private final List<String> columns;
+
+        /**
+         * @param name the name of the index
+         * @param unique true if the index doesn't allow duplicated values
+         * @param columns the columns of the index in order, they are kept in lower case
+         */
+        public Index(final String name, final boolean unique, final List<String> columns) {
+            this.name = name;
+            this.unique = unique;
+            this.columns = Collections.unmodifiableList(columns.stream().map(String::toLowerCase).collect(Collectors.toList()));
+        }
+
+        public String getName () {
+            return name;
+        }
+
+        public boolean isUnique () {
+            return unique;
+        }
+
+        public List<String> getColumns () {
+            return columns;
+        }
+
+        @Override
+        public String toString () {
+            return (unique ? "UNIQUE " : "") + name + columns;
+        }
+
+    }
+
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.jdbc;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import org.apache.commons.dbutils.QueryRunner;
+import amforeas.config.DatabaseConfiguration;
+
+/**
+ * A {@linkplain org.apache.commons.dbutils.QueryRunner} which gives its statements to the {@link amforeas.jdbc.QueryContext}
+ * of the request, so they get its query timeout. Parameters converted to the type of their column
+ * with a {@link amforeas.jdbc.TypedValue} are bound with their own setter.
+ */
+public class TimedQueryRunner extends QueryRunner {
+
+    private final DatabaseConfiguration dbconf;
+
+    public TimedQueryRunner(final DataSource ds, final DatabaseConfiguration dbconf) {
+        super(ds);
+        this.dbconf = dbconf;
+    }
+
+    @Override
+    protected PreparedStatement prepareStatement (final Connection conn, final String sql) throws SQLException {
+        return apply(super.prepareStatement(conn, sql));
+    }
+
+    @Override
+    protected PreparedStatement prepareStatement (final Connection conn, final String sql, final int returnedKeys) throws SQLException {
+        return apply(super.prepareStatement(conn, sql, returnedKeys));
+    }
+
+    @Override
+    protected CallableStatement prepareCall (final Connection conn, final String sql) throws SQLException {
+        return apply(super.prepareCall(conn, sql));
+    }
+
+    /**
+     * The types of the parameters are already known, so the statement isn't asked for its parameters metadata.
+     */
+    @Override
+    public void fillStatement (final PreparedStatement stmt, final Object... params) throws SQLException {
+        if (params != null && params.length > 0 && params[0] instanceof TypedValue) {
+            TypedValue.bind(stmt, params);
+        } else {
+            super.fillStatement(stmt, params);
+        }
+    }
+
+    private <T extends Statement> T apply (final T stmt) throws SQLException {
+        try {
+            QueryContext.apply(stmt, this.dbconf);
+            return stmt;
+        } catch (SQLException ex) {
+            ResultSetCursor.close(stmt);
+            throw ex;
+        }
+    }
+
+}
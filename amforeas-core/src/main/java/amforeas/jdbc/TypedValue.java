@@ -0,0 +1,210 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.jdbc;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import org.joda.time.DateTime;
+import org.joda.time.format.DateTimeFormatter;
+import org.joda.time.format.ISODateTimeFormat;
+import amforeas.AmforeasUtils;
+
+/**
+ * A value given by a client converted to the {@link java.sql.Types} of its column, so it's bound with the setter of
+ * that type instead of guessing the type from the format of the value. Values of unknown columns and values which don't
+ * have the format of the type of their column are still converted with {@link amforeas.AmforeasUtils#parseValue(String)},
+ * so the database rejects them like it did before.
+ */
+public class TypedValue {
+
+    private static final DateTimeFormatter DATE_TIME = ISODateTimeFormat.dateTimeParser();
+    private static final DateTimeFormatter TIME = ISODateTimeFormat.timeParser();
+
+    private final Object value;
+    private final Integer type;
+
+    private TypedValue(final Object value, final Integer type) {
+        this.value = value;
+        this.type = type;
+    }
+
+    /**
+     * @param text the value given by the client, may be null
+     * @param type the {@link java.sql.Types} of the column or null if it's unknown
+     * @return the converted value
+     */
+    public static TypedValue of (final String text, final Integer type) {
+        return new TypedValue(type == null ? AmforeasUtils.parseValue(text) : convert(text, type), type);
+    }
+
+    /**
+     * @param text the value given by the client, may be null
+     * @param type the {@link java.sql.Types} of the column
+     * @return the value as the java class JDBC maps to the type, or the value given by {@link amforeas.AmforeasUtils#parseValue(String)}
+     * if it doesn't have the format of the type.
+     */
+    public static Object convert (final String text, final int type) {
+        if (text == null) {
+            return null;
+        }
+
+        switch (type) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+                return AmforeasUtils.isInteger(text) ? AmforeasUtils.toInteger(text) : AmforeasUtils.parseValue(text);
+            case Types.BIGINT:
+                return AmforeasUtils.isInteger(text) ? toLong(AmforeasUtils.toInteger(text)) : AmforeasUtils.parseValue(text);
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                return AmforeasUtils.isDecimal(text) ? new BigDecimal(text) : AmforeasUtils.parseValue(text);
+            case Types.REAL:
+                return AmforeasUtils.isDecimal(text) ? Float.valueOf(text) : AmforeasUtils.parseValue(text);
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return AmforeasUtils.isDecimal(text) ? Double.valueOf(text) : AmforeasUtils.parseValue(text);
+            case Types.BIT:
+            case Types.BOOLEAN:
+                return toBoolean(text);
+            case Types.DATE:
+                return toDate(text);
+            case Types.TIME:
+            case Types.TIME_WITH_TIMEZONE:
+                return toTime(text);
+            case Types.TIMESTAMP:
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+                return toTimestamp(text);
+            default:
+                return text;
+        }
+    }
+
+    /**
+     * Binds the value with the setter of its class.
+     * @param stmt the statement
+     * @param index the index of the parameter, starting at 1
+     * @throws SQLException if the driver rejects the value
+     */
+    public void bind (final PreparedStatement stmt, final int index) throws SQLException {
+        if (value == null) {
+            stmt.setNull(index, type == null ? Types.VARCHAR : type);
+        } else if (value instanceof String) {
+            stmt.setString(index, (String) value);
+        } else if (value instanceof Integer) {
+            stmt.setInt(index, (Integer) value);
+        } else if (value instanceof Long) {
+            stmt.setLong(index, (Long) value);
+        } else if (value instanceof BigDecimal) {
+            stmt.setBigDecimal(index, (BigDecimal) value);
+        } else if (value instanceof Double) {
+            stmt.setDouble(index, (Double) value);
+        } else if (value instanceof Float) {
+            stmt.setFloat(index, (Float) value);
+        } else if (value instanceof Boolean) {
+            stmt.setBoolean(index, (Boolean) value);
+        } else if (value instanceof Timestamp) {
+            stmt.setTimestamp(index, (Timestamp) value);
+        } else if (value instanceof Date) {
+            stmt.setDate(index, (Date) value);
+        } else if (value instanceof Time) {
+            stmt.setTime(index, (Time) value);
+        } else {
+            stmt.setObject(index, value);
+        }
+    }
+
+    /**
+     * Binds the given parameters, the ones which are a {@link amforeas.jdbc.TypedValue} with their setter.
+     * @param stmt the statement
+     * @param params the parameters of the statement
+     * @throws SQLException if the driver rejects a value
+     */
+    public static void bind (final PreparedStatement stmt, final Object... params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            if (params[i] instanceof TypedValue) {
+                ((TypedValue) params[i]).bind(stmt, i + 1);
+            } else if (params[i] == null) {
+                stmt.setNull(i + 1, Types.VARCHAR);
+            } else {
+                stmt.setObject(i + 1, params[i]);
+            }
+        }
+    }
+
+    public Object getValue () {
+        return value;
+    }
+
+    public Integer getType () {
+        return type;
+    }
+
+    private static Number toLong (final Number number) {
+        return number instanceof Integer ? Long.valueOf(number.longValue()) : number;
+    }
+
+    private static Object toBoolean (final String text) {
+        if ("true".equalsIgnoreCase(text) || "1".equals(text)) {
+            return Boolean.TRUE;
+        }
+        if ("false".equalsIgnoreCase(text) || "0".equals(text)) {
+            return Boolean.FALSE;
+        }
+        return AmforeasUtils.parseValue(text);
+    }
+
+    private static Object toDate (final String text) {
+        final DateTime date = toDateTime(text);
+        return date == null ? AmforeasUtils.parseValue(text) : new Date(date.getMillis());
+    }
+
+    private static Object toTime (final String text) {
+        DateTime time = AmforeasUtils.parseDateTime(TIME, text);
+        if (time == null) {
+            time = AmforeasUtils.isTime(text);
+        }
+        // like Time.valueOf the date is the epoch
+        return time == null ? AmforeasUtils.parseValue(text) : new Time(time.withDate(1970, 1, 1).getMillis());
+    }
+
+    private static Object toTimestamp (final String text) {
+        final DateTime date = toDateTime(text);
+        return date == null ? AmforeasUtils.parseValue(text) : new Timestamp(date.getMillis());
+    }
+
+    /**
+     * A date with an optional time and offset. The ISO parser takes any number of digits as a year, so only dates
+     * in the yyyy-MM-dd format are given to it. The JDBC escape format yyyy-mm-dd hh:mm:ss separates the date and
+     * the time with a space instead of a T.
+     */
+    private static DateTime toDateTime (final String text) {
+        if (text.length() < 10 || text.charAt(4) != '-') {
+            return AmforeasUtils.isDate(text);
+        }
+        if (text.length() > 10 && text.charAt(10) == ' ') {
+            return AmforeasUtils.parseDateTime(DATE_TIME, text.substring(0, 10) + 'T' + text.substring(11));
+        }
+        return AmforeasUtils.parseDateTime(DATE_TIME, text);
+    }
+
+    @Override
+    public String toString () {
+        return String.valueOf(value);
+    }
+
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.rest.xstream;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes comma separated values (text/csv) as described by RFC 4180. The first line has the names of the columns of
+ * the first row. Fields with delimiters, line breaks or quotes are quoted. A null value is an empty field and an empty
+ * string a quoted one, so {@link amforeas.jdbc.CsvRowReader} reads them back.
+ */
+public class CsvRowWriter implements RowWriter {
+
+    private static final char QUOTE = '"';
+    private static final String LINE_BREAK = "\r\n";
+
+    private final Writer out;
+    private final char delimiter;
+    private List<String> header;
+
+    public CsvRowWriter(final OutputStream out, final Charset charset) {
+        this(out, charset, ',');
+    }
+
+    public CsvRowWriter(final OutputStream out, final Charset charset, final char delimiter) {
+        this.out = new BufferedWriter(new OutputStreamWriter(out, charset));
+        this.delimiter = delimiter;
+    }
+
+    @Override
+    public void write (final Map<String, Object> cells) throws IOException {
+        if (header == null) {
+            header = new ArrayList<>(cells.keySet());
+            for (int i = 0; i < header.size(); i++) {
+                writeField(i, header.get(i));
+            }
+            out.write(LINE_BREAK);
+        }
+
+        for (int i = 0; i < header.size(); i++) {
+            writeField(i, cells.get(header.get(i)));
+        }
+        out.write(LINE_BREAK);
+    }
+
+    @Override
+    public void flush () throws IOException {
+        out.flush();
+    }
+
+    private void writeField (final int column, final Object value) throws IOException {
+        if (column > 0) {
+            out.write(delimiter);
+        }
+        if (value == null) {
+            return;
+        }
+
+        final String text = value instanceof BigDecimal ? ((BigDecimal) value).toPlainString() : value.toString();
+        if (!text.isEmpty() && !needsQuotes(text)) {
+            out.write(text);
+            return;
+        }
+
+        out.write(QUOTE);
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if (c == QUOTE) {
+                out.write(QUOTE);
+            }
+            out.write(c);
+        }
+        out.write(QUOTE);
+    }
+
+    private boolean needsQuotes (final String text) {
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if (c == delimiter || c == QUOTE || c == '\r' || c == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
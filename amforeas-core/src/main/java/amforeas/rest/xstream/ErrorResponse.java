@@ -132,4 +132,8 @@ public class ErrorResponse implements AmforeasResponse {
     public void setStatus (Response.Status status) {
         this.status = status;
     }
+
+    public void setMessage (String message) {
+        this.message = message;
+    }
 }
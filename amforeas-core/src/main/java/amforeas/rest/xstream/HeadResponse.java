@@ -12,6 +12,7 @@
 package amforeas.rest.xstream;
 
 import java.util.List;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 import javax.xml.bind.annotation.XmlAccessType;
@@ -32,6 +33,10 @@ public class HeadResponse implements AmforeasResponse {
     private List<Row> rows;
     private String resource;
 
+    @XmlTransient
+    @JsonIgnore
+    private transient EntityTag tag;
+
     public HeadResponse() {
         this.status = Response.Status.OK;
     }
@@ -52,7 +57,7 @@ public class HeadResponse implements AmforeasResponse {
     @XmlTransient
     @JsonIgnore
     public Response getResponse () {
-        return Response.status(this.status).entity(this).build();
+        return Response.status(this.status).entity(this).tag(this.tag).build();
     }
 
     @Override
@@ -89,4 +94,17 @@ public class HeadResponse implements AmforeasResponse {
     public void setSuccess (boolean success) {
         this.success = success;
     }
+
+    @XmlTransient
+    @JsonIgnore
+    public EntityTag getTag () {
+        return tag;
+    }
+
+    /**
+     * @param tag the ETag of the response, so clients can send it back with If-None-Match
+     */
+    public void setTag (EntityTag tag) {
+        this.tag = tag;
+    }
 }
@@ -0,0 +1,59 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.rest.xstream;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.util.Map;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Writes newline delimited JSON (application/x-ndjson), the cells of a row as an object per line.
+ */
+public class JsonLinesRowWriter implements RowWriter {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    // the body is flushed once every row is written, not after each one
+    private static final ObjectWriter WRITER = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    private final JsonGenerator g;
+
+    public JsonLinesRowWriter(final OutputStream out, final Charset charset) {
+        try {
+            this.g = mapper.getFactory().createGenerator(new BufferedWriter(new OutputStreamWriter(out, charset)));
+        } catch (IOException ex) {
+            // the generator doesn't write anything until a value is written
+            throw new IllegalStateException(ex);
+        }
+        this.g.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.g.setRootValueSeparator(null);
+    }
+
+    @Override
+    public void write (final Map<String, Object> cells) throws IOException {
+        WRITER.writeValue(g, cells);
+        g.writeRaw('\n');
+    }
+
+    @Override
+    public void flush () throws IOException {
+        g.flush();
+    }
+
+}
@@ -14,6 +14,8 @@ package amforeas.rest.xstream;
 
 import java.util.List;
 import java.util.Objects;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import amforeas.jdbc.KeysetCursor;
 import amforeas.jdbc.LimitParam;
 
 public class Pagination {
@@ -23,6 +25,13 @@ public class Pagination {
     private Integer pages;
     private Integer total;
 
+    /**
+     * Token of the {@link amforeas.jdbc.KeysetCursor} which points to the last row of a full page.
+     * Given back with the <i>after</i> parameter it reads the next page with a keyset.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String next;
+
     public Pagination() {
         super();
     }
@@ -53,7 +62,8 @@ public class Pagination {
         }
 
         Integer pageSize = limitParam.getLimit();
-        int currentPage = (limitParam.getStart() + pageSize) / pageSize;
+        // a page requested with a cursor doesn't know how many rows are before it
+        Integer currentPage = limitParam.isKeyset() && limitParam.getStart() == 0 ? null : (limitParam.getStart() + pageSize) / pageSize;
 
         if (total < 0) {
             // We failed to obtain total
@@ -101,9 +111,31 @@ public class Pagination {
         return this;
     }
 
+    public String getNext () {
+        return next;
+    }
+
+    public Pagination setNext (String next) {
+        this.next = next;
+        return this;
+    }
+
+    /**
+     * Sets the next cursor if the page is full.
+     * @param cursor a {@link amforeas.jdbc.KeysetCursor} which points to the last row of the page, or null
+     * @param limitParam the {@link amforeas.jdbc.LimitParam} of the page
+     * @return this pagination
+     */
+    public Pagination setNext (KeysetCursor cursor, LimitParam limitParam) {
+        if (cursor != null && this.size != null && this.size >= limitParam.getLimit()) {
+            this.next = cursor.encode();
+        }
+        return this;
+    }
+
     @Override
     public String toString () {
-        return "Pagination [page=" + page + ", size=" + size + ", pages=" + pages + ", total=" + total + "]";
+        return "Pagination [page=" + page + ", size=" + size + ", pages=" + pages + ", total=" + total + ", next=" + next + "]";
     }
 
     @Override
@@ -0,0 +1,66 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.rest.xstream;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+import javax.ws.rs.core.MediaType;
+import amforeas.AmforeasWS;
+
+/**
+ * Writes rows to a response body as a line each, without the envelope of a {@link amforeas.rest.xstream.SuccessResponse},
+ * so clients can process them as they arrive.
+ */
+public interface RowWriter extends Flushable {
+
+    MediaType CSV = MediaType.valueOf(AmforeasWS.TEXT_CSV);
+    MediaType NDJSON = MediaType.valueOf(AmforeasWS.APPLICATION_NDJSON);
+
+    /**
+     * Writes the cells of a row in the order of the first row written.
+     * @param cells the columns and values of the row
+     * @throws IOException if the body can't be written
+     */
+    public void write (Map<String, Object> cells) throws IOException;
+
+    /**
+     * @param type text/csv or application/x-ndjson, with an optional charset. Defaults to UTF-8
+     * @param out the response body, it's never closed by the writer
+     * @return a writer of the rows in the given media type, or empty if the media type has no rows writer
+     */
+    public static Optional<RowWriter> of (MediaType type, OutputStream out) {
+        if (!supports(type)) {
+            return Optional.empty();
+        }
+
+        final Charset charset = Charset.forName(type.getParameters().getOrDefault(MediaType.CHARSET_PARAMETER, StandardCharsets.UTF_8.name()));
+        if (type.isCompatible(CSV)) {
+            return Optional.of(new CsvRowWriter(out, charset));
+        }
+        return Optional.of(new JsonLinesRowWriter(out, charset));
+    }
+
+    /**
+     * @param type a media type, may be null
+     * @return true if the rows can be written in the given media type
+     */
+    public static boolean supports (MediaType type) {
+        return type != null && !type.isWildcardType() && !type.isWildcardSubtype() && (type.isCompatible(CSV) || type.isCompatible(NDJSON));
+    }
+
+}
@@ -0,0 +1,164 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.rest.xstream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.SQLException;
+import java.util.Map;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import amforeas.jdbc.KeysetCursor;
+import amforeas.jdbc.LimitParam;
+import amforeas.jdbc.OrderParam;
+import amforeas.jdbc.ResultSetCursor;
+
+/**
+ * A successful read which writes the rows to the client while they are fetched from the database.
+ * The document has the same layout as a JSON {@link amforeas.rest.xstream.SuccessResponse}, but
+ * the pagination is written at the end because the number of rows is only known once the
+ * {@link amforeas.jdbc.ResultSetCursor} is exhausted. Rows asked as CSV or newline delimited JSON are written
+ * with {@link #write(RowWriter)}, without the pagination.
+ */
+public class StreamingResponse implements AmforeasResponse, StreamingOutput {
+
+    private static final Logger l = LoggerFactory.getLogger(StreamingResponse.class);
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final String resource;
+    private final ResultSetCursor cursor;
+    private final LimitParam limit;
+    private final Integer total;
+    private final OrderParam order;
+    private final String pk;
+
+    /**
+     * Instantiates a new streaming response for the given resource.
+     * @param resource the name of the resource being accessed
+     * @param cursor an open {@link amforeas.jdbc.ResultSetCursor}. It is closed once the response is written.
+     * @param limit the {@link amforeas.jdbc.LimitParam} used to generate the pagination
+     * @param total the total number of rows in the resource
+     */
+    public StreamingResponse(String resource, ResultSetCursor cursor, LimitParam limit, Integer total) {
+        this(resource, cursor, limit, total, null, null);
+    }
+
+    /**
+     * Instantiates a new streaming response which gives the cursor of the next page in the pagination.
+     * @param resource the name of the resource being accessed
+     * @param cursor an open {@link amforeas.jdbc.ResultSetCursor}. It is closed once the response is written.
+     * @param limit the {@link amforeas.jdbc.LimitParam} used to generate the pagination
+     * @param total the total number of rows in the resource
+     * @param order the {@link amforeas.jdbc.OrderParam} of the rows
+     * @param pk the primary key of the resource
+     */
+    public StreamingResponse(String resource, ResultSetCursor cursor, LimitParam limit, Integer total, OrderParam order, String pk) {
+        this.resource = resource;
+        this.cursor = cursor;
+        this.limit = limit;
+        this.total = total;
+        this.order = order;
+        this.pk = pk;
+    }
+
+    @Override
+    public void write (OutputStream output) throws IOException {
+        this.write(output, mapper);
+    }
+
+    /**
+     * Writes the document with the generator of the given mapper, so it can be encoded in any of the formats of
+     * Jackson, like CBOR or Smile.
+     * @param output the response body
+     * @param mapper an {@link com.fasterxml.jackson.databind.ObjectMapper} of the media type the client asked for
+     * @throws IOException if the rows can't be read or written
+     */
+    public void write (OutputStream output, ObjectMapper mapper) throws IOException {
+        int rowId = 0;
+        try (JsonGenerator g = mapper.getFactory().createGenerator(output)) {
+            g.writeStartObject();
+            g.writeBooleanField("success", true);
+            g.writeStringField("status", Status.OK.name());
+            g.writeStringField("resource", this.resource);
+            g.writeArrayFieldStart("rows");
+            Map<String, Object> last = null;
+            while (this.cursor.next()) {
+                last = this.cursor.row();
+                g.writeStartObject();
+                g.writeNumberField("roi", rowId++);
+                g.writeObjectField("cells", last);
+                g.writeEndObject();
+            }
+            g.writeEndArray();
+            g.writeObjectField("pagination", Pagination.of(this.limit, rowId, this.total).setNext(KeysetCursor.of(last, this.order, this.pk), this.limit));
+            g.writeEndObject();
+        } catch (SQLException ex) {
+            l.error("Failed to stream rows from {}: {}", this.resource, ex.getMessage());
+            throw new IOException(ex);
+        } finally {
+            this.cursor.close();
+            l.debug("Streamed {} rows from {}", rowId, this.resource);
+        }
+    }
+
+    /**
+     * Writes the rows without the document around them, a line each.
+     * @param writer the {@link amforeas.rest.xstream.RowWriter} of the media type the client asked for
+     * @throws IOException if the rows can't be read or written
+     */
+    public void write (RowWriter writer) throws IOException {
+        int rowId = 0;
+        try {
+            while (this.cursor.next()) {
+                writer.write(this.cursor.row());
+                rowId++;
+            }
+            writer.flush();
+        } catch (SQLException ex) {
+            l.error("Failed to stream rows from {}: {}", this.resource, ex.getMessage());
+            throw new IOException(ex);
+        } finally {
+            this.cursor.close();
+            l.debug("Streamed {} rows from {}", rowId, this.resource);
+        }
+    }
+
+    /**
+     * The media type is negotiated, a JSON document unless the rows are asked as a line each.
+     */
+    @Override
+    public Response getResponse () {
+        return Response.status(Status.OK).entity(this).build();
+    }
+
+    @Override
+    public String getResource () {
+        return this.resource;
+    }
+
+    @Override
+    public Status getStatus () {
+        return Status.OK;
+    }
+
+    @Override
+    public boolean isSuccess () {
+        return true;
+    }
+
+}
@@ -12,7 +12,9 @@
 
 package amforeas.rest.xstream;
 
+import java.net.URI;
 import java.util.List;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 import javax.xml.bind.annotation.XmlAccessType;
@@ -20,6 +22,7 @@ import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlRootElement;
 import javax.xml.bind.annotation.XmlTransient;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 /**
  * Represent that an operation has succeeded. 
@@ -34,6 +37,20 @@ public class SuccessResponse implements AmforeasResponse {
     private String resource;
     private Pagination pagination;
 
+    /**
+     * The keys of the records which weren't found by a read of many keys.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<String> missing;
+
+    @XmlTransient
+    @JsonIgnore
+    private transient EntityTag tag;
+
+    @XmlTransient
+    @JsonIgnore
+    private transient URI location;
+
     public SuccessResponse() {
         this.status = Response.Status.OK;
     }
@@ -79,7 +96,7 @@ public class SuccessResponse implements AmforeasResponse {
     @XmlTransient
     @JsonIgnore
     public Response getResponse () {
-        return Response.status(this.status).entity(this).build();
+        return Response.status(this.status).entity(this).tag(this.tag).location(this.location).build();
     }
 
     @Override
@@ -125,4 +142,37 @@ public class SuccessResponse implements AmforeasResponse {
         this.pagination = pagination;
     }
 
+    public List<String> getMissing () {
+        return missing;
+    }
+
+    public void setMissing (List<String> missing) {
+        this.missing = missing;
+    }
+
+    @XmlTransient
+    @JsonIgnore
+    public EntityTag getTag () {
+        return tag;
+    }
+
+    /**
+     * @param tag the ETag of the response, so clients can send it back with If-None-Match
+     */
+    public void setTag (EntityTag tag) {
+        this.tag = tag;
+    }
+
+    @XmlTransient
+    @JsonIgnore
+    public URI getLocation () {
+        return location;
+    }
+
+    /**
+     * @param location the URI of a created record, relative to the base URI of the application
+     */
+    public void setLocation (URI location) {
+        this.location = location;
+    }
 }
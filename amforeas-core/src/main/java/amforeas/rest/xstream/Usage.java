@@ -11,99 +11,93 @@
  */
 package amforeas.rest.xstream;
 
-import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import javax.ws.rs.core.Response;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import org.joda.time.DateTime;
 import org.joda.time.Period;
 import org.joda.time.format.PeriodFormat;
+import amforeas.LatencyHistogram;
 
 /**
- * A singleton which holds usage data for the current running instance.
+ * A singleton which holds usage data for the current running instance. Requests are counted with
+ * {@link java.util.concurrent.atomic.LongAdder} and their latencies recorded in a {@link amforeas.LatencyHistogram}
+ * per operation and per operation, alias and resource, so neither the request threads nor the
+ * statistics readers block each other.
  * @author Alejandro Ayuso 
  */
 public class Usage {
 
     /**
-     * Indicates when the server was started.
-     */
-    private DateTime start;
-
-    /**
-     * Total number of requests processed by Amforeas.
-     */
-    private BigInteger total = BigInteger.ZERO;
-
-    /**
-     * Total number of successful requests.
+     * Limits the number of alias and resource histograms. Once reached, new resources are recorded under {@link #ANY}.
      */
-    private BigInteger success = BigInteger.ZERO;
+    private static final int MAX_SERIES = 1000;
 
-    /**
-     * Total number of failed requests.
-     */
-    private BigInteger fail = BigInteger.ZERO;
+    private static final String ANY = "*";
 
-    /**
-     * Total number of read requests.
-     */
-    private BigInteger read = BigInteger.ZERO;
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final String[] PERCENTILE_LABELS = {"p50-ms", "p90-ms", "p99-ms", "p999-ms"};
 
     /**
-     * Total number of read all requests.
+     * The operations Amforeas counts.
      */
-    private BigInteger readAll = BigInteger.ZERO;
+    public enum Operation {
+        READ("reads"), READALL("readalls"), CREATE("inserts"), UPDATE("updates"), DELETE("deletes"), DYNAMIC("dynamics"), QUERY("queries"), BATCH("batches"), INGEST("ingests");
 
-    /**
-     * Total number of create requests.
-     */
-    private BigInteger create = BigInteger.ZERO;
+        private final String label;
 
-    /**
-     * Total number of update requests.
-     */
-    private BigInteger update = BigInteger.ZERO;
+        Operation(final String label) {
+            this.label = label;
+        }
 
-    /**
-     * Total number of delete requests.
-     */
-    private BigInteger delete = BigInteger.ZERO;
+        public String getLabel () {
+            return label;
+        }
+    }
 
     /**
-     * Value with the time it took the last read operation to complete.
+     * Indicates when the server was started.
      */
-    private Long readTime = Long.valueOf(0L);
+    private final DateTime start;
 
     /**
-     * Value with the time it took the last create operation to complete.
+     * Total number of requests processed by Amforeas.
      */
-    private Long createTime = Long.valueOf(0L);
+    private final LongAdder total = new LongAdder();
 
     /**
-     * Value with the time it took the last update operation to complete.
+     * Total number of successful requests.
      */
-    private Long updateTime = Long.valueOf(0L);
+    private final LongAdder success = new LongAdder();
 
     /**
-     * Value with the time it took the last delete operation to complete.
+     * Total number of failed requests.
      */
-    private Long deleteTime = Long.valueOf(0L);
+    private final LongAdder fail = new LongAdder();
 
     /**
-     * Total number of requests made with a dynamic finder.
+     * Number of requests and latencies of each operation.
      */
-    private BigInteger dynamic = BigInteger.ZERO;
+    private final Map<Operation, LongAdder> counters = new EnumMap<>(Operation.class);
+    private final Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
 
     /**
-     * Total number of requests to functions or stored procedures.
+     * Latencies of each operation by alias and resource.
      */
-    private BigInteger query = BigInteger.ZERO;
+    private final Map<Series, LatencyHistogram> series = new ConcurrentHashMap<>();
 
     private Usage() {
         this.start = new DateTime();
+        for (Operation op : Operation.values()) {
+            this.counters.put(op, new LongAdder());
+            this.latencies.put(op, new LatencyHistogram());
+        }
     }
 
     public static Usage getInstance () {
@@ -127,113 +121,113 @@ public class Usage {
         return PeriodFormat.getDefault().print(period);
     }
 
-    private synchronized void addGeneral (final Integer success) {
-        this.total = this.total.add(BigInteger.ONE);
-        if (success == Response.Status.CREATED.getStatusCode() || success == Response.Status.OK.getStatusCode()) {
-            this.success = this.success.add(BigInteger.ONE);
+    /**
+     * Counts a request and records its latency.
+     * @param op the {@link amforeas.rest.xstream.Usage.Operation}
+     * @param alias the database alias or null
+     * @param resource the resource or null
+     * @param nanos the time it took the request to complete in nanoseconds
+     * @param status the HTTP status of the response
+     */
+    public void add (final Operation op, final String alias, final String resource, final long nanos, final Integer status) {
+        this.total.increment();
+        if (status != null && status < 400) {
+            this.success.increment();
         } else {
-            this.fail = this.fail.add(BigInteger.ONE);
+            this.fail.increment();
         }
-    }
 
-    public synchronized void addRead (final Long time, final Integer success) {
-        this.readTime = time;
-        this.read = this.read.add(BigInteger.ONE);
-        addGeneral(success);
+        final long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        this.counters.get(op).increment();
+        this.latencies.get(op).record(micros);
+        this.getSeries(op, alias, resource).record(micros);
     }
 
-    public synchronized void addReadAll (final Long time, final Integer success) {
-        this.readTime = time;
-        this.read = this.readAll.add(BigInteger.ONE);
-        addGeneral(success);
+    public void addRead (final String alias, final String resource, final long nanos, final Integer status) {
+        add(Operation.READ, alias, resource, nanos, status);
     }
 
-    public synchronized void addCreate (final Long time, final Integer success) {
-        this.createTime = time;
-        this.create = this.create.add(BigInteger.ONE);
-        addGeneral(success);
+    public void addReadAll (final String alias, final String resource, final long nanos, final Integer status) {
+        add(Operation.READALL, alias, resource, nanos, status);
     }
 
-    public synchronized void addUpdate (final Long time, final Integer success) {
-        this.updateTime = time;
-        this.update = this.update.add(BigInteger.ONE);
-        addGeneral(success);
+    public void addCreate (final String alias, final String resource, final long nanos, final Integer status) {
+        add(Operation.CREATE, alias, resource, nanos, status);
     }
 
-    public synchronized void addDelete (final Long time, final Integer success) {
-        this.deleteTime = time;
-        this.delete = this.delete.add(BigInteger.ONE);
-        addGeneral(success);
+    public void addUpdate (final String alias, final String resource, final long nanos, final Integer status) {
+        add(Operation.UPDATE, alias, resource, nanos, status);
     }
 
-    public synchronized void addDynamic (final Long time, final Integer success) {
-        this.dynamic = this.dynamic.add(BigInteger.ONE);
-        addGeneral(success);
+    public void addDelete (final String alias, final String resource, final long nanos, final Integer status) {
+        add(Operation.DELETE, alias, resource, nanos, status);
     }
 
-    public synchronized void addQuery (final Long time, final Integer success) {
-        this.query = this.query.add(BigInteger.ONE);
-        addGeneral(success);
+    public void addDynamic (final String alias, final String resource, final long nanos, final Integer status) {
+        add(Operation.DYNAMIC, alias, resource, nanos, status);
     }
 
-    public BigInteger getCreate () {
-        return create;
+    public void addQuery (final String alias, final String resource, final long nanos, final Integer status) {
+        add(Operation.QUERY, alias, resource, nanos, status);
     }
 
-    public Long getCreateTime () {
-        return createTime;
+    public void addBatch (final String alias, final String resource, final long nanos, final Integer status) {
+        add(Operation.BATCH, alias, resource, nanos, status);
     }
 
-    public BigInteger getDelete () {
-        return delete;
+    public void addIngest (final String alias, final String resource, final long nanos, final Integer status) {
+        add(Operation.INGEST, alias, resource, nanos, status);
     }
 
-    public Long getDeleteTime () {
-        return deleteTime;
-    }
-
-    public BigInteger getDynamic () {
-        return dynamic;
-    }
-
-    public BigInteger getFail () {
-        return fail;
-    }
-
-    public BigInteger getQuery () {
-        return query;
+    private LatencyHistogram getSeries (final Operation op, final String alias, final String resource) {
+        final Series key = new Series(op, alias, resource);
+        final LatencyHistogram histogram = this.series.get(key);
+        if (histogram != null) {
+            return histogram;
+        }
+        if (this.series.size() >= MAX_SERIES) {
+            return this.series.computeIfAbsent(new Series(op, ANY, ANY), k -> new LatencyHistogram());
+        }
+        return this.series.computeIfAbsent(key, k -> new LatencyHistogram());
     }
 
-    public BigInteger getRead () {
-        return read;
+    public long getCount (final Operation op) {
+        return counters.get(op).sum();
     }
 
-    public BigInteger getReadAll () {
-        return readAll;
+    /**
+     * @param op the {@link amforeas.rest.xstream.Usage.Operation}
+     * @return the latencies of all the requests of the operation.
+     */
+    public LatencyHistogram.Snapshot getLatency (final Operation op) {
+        return latencies.get(op).snapshot();
     }
 
-    public Long getReadTime () {
-        return readTime;
+    /**
+     * @param op the {@link amforeas.rest.xstream.Usage.Operation}
+     * @param alias the database alias
+     * @param resource the resource
+     * @return the latencies of the operation on the given resource.
+     */
+    public LatencyHistogram.Snapshot getLatency (final Operation op, final String alias, final String resource) {
+        final LatencyHistogram histogram = series.get(new Series(op, alias, resource));
+        return histogram == null ? new LatencyHistogram().snapshot() : histogram.snapshot();
     }
 
     public DateTime getStart () {
         return start;
     }
 
-    public BigInteger getSuccess () {
-        return success;
-    }
-
-    public BigInteger getTotal () {
-        return total;
+    public long getSuccess () {
+        return success.sum();
     }
 
-    public BigInteger getUpdate () {
-        return update;
+    public long getFail () {
+        return fail.sum();
     }
 
-    public Long getUpdateTime () {
-        return updateTime;
+    public long getTotal () {
+        return total.sum();
     }
 
     /**
@@ -245,33 +239,101 @@ public class Usage {
         Map<String, Object> map = new HashMap<>();
 
         map.put("uptime", getUptime());
-        map.put("succeeded", getSuccess().toString());
-        map.put("failed", getFail().toString());
-        map.put("total", getTotal().toString());
+        map.put("succeeded", String.valueOf(getSuccess()));
+        map.put("failed", String.valueOf(getFail()));
+        map.put("total", String.valueOf(getTotal()));
 
-        map.put("reads", getRead().toString());
-        map.put("readalls", getReadAll().toString());
-        map.put("inserts", getCreate().toString());
-        map.put("updates", getUpdate().toString());
-        map.put("deletes", getDelete().toString());
+        for (Operation op : Operation.values()) {
+            map.put(op.getLabel(), String.valueOf(getCount(op)));
+        }
 
-        map.put("read-time", getReadTime().toString());
-        map.put("create-time", getCreateTime().toString());
-        map.put("update-time", getUpdateTime().toString());
-        map.put("delete-time", getDeleteTime().toString());
+        return map;
+    }
 
+    /**
+     * Generates the cells with the count, mean, max and percentiles in milliseconds of a histogram.
+     */
+    private Map<String, Object> generateCells (final Operation op, final String alias, final String resource, final LatencyHistogram.Snapshot snapshot) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("operation", op.getLabel());
+        map.put("alias", alias);
+        map.put("resource", resource);
+        map.put("count", snapshot.getCount());
+        map.put("mean-ms", toMillis(snapshot.getMean()));
+        map.put("max-ms", toMillis(snapshot.getMax()));
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            map.put(PERCENTILE_LABELS[i], toMillis(snapshot.getPercentile(PERCENTILES[i])));
+        }
         return map;
     }
 
+    private static double toMillis (final double micros) {
+        return Math.round(micros) / 1000.0;
+    }
+
     /**
      * Generates a {@link amforeas.rest.xstream.SuccessResponse} with the current values of the singleton.
      * @return a {@link amforeas.rest.xstream.SuccessResponse} response.
      */
     public AmforeasResponse getUsageData () {
+        return getUsageData(List.of());
+    }
+
+    /**
+     * Generates a {@link amforeas.rest.xstream.SuccessResponse} with the current values of the singleton
+     * followed by a row for each of the given databases statistics and a row with the latencies of each
+     * operation, first for all the requests and then by alias and resource.
+     * @param databases - a list of cells with the statistics of each database alias
+     * @return a {@link amforeas.rest.xstream.SuccessResponse} response.
+     */
+    public AmforeasResponse getUsageData (final List<Map<String, Object>> databases) {
         Map<String, Object> cells = generateCells();
         List<Row> rows = new ArrayList<Row>();
         rows.add(new Row(1, cells));
+        for (Map<String, Object> database : databases) {
+            rows.add(new Row(rows.size() + 1, database));
+        }
+        for (Operation op : Operation.values()) {
+            final LatencyHistogram.Snapshot snapshot = getLatency(op);
+            if (snapshot.getCount() > 0) {
+                rows.add(new Row(rows.size() + 1, generateCells(op, ANY, ANY, snapshot)));
+            }
+        }
+        for (Map.Entry<Series, LatencyHistogram> entry : series.entrySet()) {
+            final Series key = entry.getKey();
+            rows.add(new Row(rows.size() + 1, generateCells(key.op, key.alias, key.resource, entry.getValue().snapshot())));
+        }
         AmforeasResponse res = new SuccessResponse("stats", rows);
         return res;
     }
+
+    private static final class Series {
+
+        private final Operation op;
+        private final String alias;
+        private final String resource;
+
+        Series(final Operation op, final String alias, final String resource) {
+            this.op = op;
+            this.alias = alias;
+            this.resource = resource;
+        }
+
+        @Override
+        public int hashCode () {
+            return Objects.hash(op, alias, resource);
+        }
+
+        @Override
+        public boolean equals (Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Series)) {
+                return false;
+            }
+            final Series other = (Series) obj;
+            return op == other.op && Objects.equals(alias, other.alias) && Objects.equals(resource, other.resource);
+        }
+    }
 }
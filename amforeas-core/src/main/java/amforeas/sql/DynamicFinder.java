@@ -375,6 +375,34 @@ public class DynamicFinder {
         return table;
     }
 
+    /**
+     * @return the column of every parameter of the statement, in the order they appear.
+     */
+    public List<String> getColumns() {
+        List<String> columns = new ArrayList<String>(4);
+        if (this.secondOperator == Operator.BETWEEN && this.firstOperator != Operator.BETWEEN) {
+            // the statement starts with the between
+            addColumn(columns, this.secondColumn, this.secondOperator);
+            addColumn(columns, this.firstColumn, this.firstOperator);
+        } else {
+            addColumn(columns, this.firstColumn, this.firstOperator);
+            if (this.secondColumn != null) {
+                addColumn(columns, this.secondColumn, this.secondOperator);
+            }
+        }
+        return columns;
+    }
+
+    private static void addColumn(List<String> columns, String column, Operator operator) {
+        if (operator.isUnary()) {
+            return;
+        }
+        columns.add(column);
+        if (operator == Operator.BETWEEN) {
+            columns.add(column);
+        }
+    }
+
     public boolean findAll() {
         return this.command.equalsIgnoreCase(FINDALLBY);
     }
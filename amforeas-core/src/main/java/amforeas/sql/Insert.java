@@ -26,7 +26,8 @@ import java.util.Map;
 import org.apache.commons.lang3.StringUtils;
 
 /**
- * Represents a SQL INSERT statement.
+ * Represents a SQL INSERT statement. An insert holds one or more rows; the columns of the
+ * statement are the ones of the first row.
  * @author Alejandro Ayuso 
  */
 public class Insert {
@@ -41,8 +42,14 @@ public class Insert {
      */
 	private Map<String, String> columns = new LinkedHashMap<String, String>();
 
+    /**
+     * Every row to be inserted. The first one is always the columns map.
+     */
+    private List<Map<String, String>> rows = new ArrayList<Map<String, String>>();
+
     public Insert(Table table) {
         this.table = table;
+        this.rows.add(this.columns);
     }
     
 	public Insert addColumn(String columnName, String value) {
@@ -61,15 +68,89 @@ public class Insert {
 
     public Insert setColumns(Map<String, String> columns) {
         this.columns = columns;
+        this.rows.set(0, columns);
+        return this;
+    }
+
+    /**
+     * Replaces the rows to be inserted.
+     * @param rows a non empty list of rows. The first one defines the columns of the statement.
+     * @return this insert.
+     */
+    public Insert setRows(List<Map<String, String>> rows) {
+        if (rows == null || rows.isEmpty())
+            throw new IllegalArgumentException("An insert needs at least one row");
+        this.rows = new ArrayList<Map<String, String>>(rows);
+        this.columns = this.rows.get(0);
         return this;
     }
+
+    public List<Map<String, String>> getRows() {
+        return rows;
+    }
+
+    /**
+     * @return true if this insert holds more than one row.
+     */
+    public boolean isBatch() {
+        return this.rows.size() > 1;
+    }
+
+    /**
+     * @return true if every row has the same columns as the first one.
+     */
+    public boolean hasUniformColumns() {
+        for (Map<String, String> row : this.rows) {
+            if (!row.keySet().equals(this.columns.keySet()))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Generates a new insert with a range of the rows of this one.
+     * @param from index of the first row, inclusive.
+     * @param to index of the last row, exclusive.
+     * @return a new {@link amforeas.sql.Insert} on the same table.
+     */
+    public Insert subInsert(int from, int to) {
+        return new Insert(this.table).setRows(this.rows.subList(from, to));
+    }
     
+    /**
+     * @return the values of the first row.
+     */
     public List<String> getValues(){
         return new ArrayList<String>(this.columns.values());
     }
 
+    /**
+     * @return the values of every row, ordered by the columns of the first row.
+     */
+    public List<String> getAllValues() {
+        List<String> values = new ArrayList<String>(this.rows.size() * this.columns.size());
+        for (int i = 0; i < this.rows.size(); i++) {
+            values.addAll(getValues(i));
+        }
+        return values;
+    }
+
+    /**
+     * @param row the index of the row.
+     * @return the values of the given row, ordered by the columns of the first row.
+     */
+    public List<String> getValues(int row) {
+        List<String> values = new ArrayList<String>(this.columns.size());
+        for (String column : this.columns.keySet()) {
+            values.add(this.rows.get(row).get(column));
+        }
+        return values;
+    }
+
     @Override
     public String toString() {
+        if (isBatch())
+            return "Insert{" + "table=" + table + ", columns=" + columns.keySet() + ", rows=" + rows.size() + '}';
         return "Insert{" + "table=" + table + ", columns=" + columns + '}';
     }
 }
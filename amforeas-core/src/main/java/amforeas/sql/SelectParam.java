@@ -104,6 +104,10 @@ public class SelectParam {
     public String sql () {
         StringBuilder b = new StringBuilder(columnName).append(" ").append(operator.sql());
 
+        if (operator.equals(Operator.IN)) {
+            return b.append(" (").append(StringUtils.removeEnd(StringUtils.repeat("?,", values.length), ",")).append(")").toString();
+        }
+
         if (operator.isBinary()) {
             b.append(" ?");
         }
@@ -24,6 +24,10 @@ public class DerbyDialect extends SQLDialect {
 
     @Override
     public String toStatementString (final Select select) {
+        if (isKeyset(select)) {
+            return toKeysetStatementString(select);
+        }
+
         final StringBuilder b = new StringBuilder("SELECT ");
         if (select.getLimitParam() == null) {
             return super.toStatementString(select);
@@ -61,4 +65,27 @@ public class DerbyDialect extends SQLDialect {
         return "SELECT * FROM SYS.SYSTABLES WHERE tabletype = 'T'";
     }
 
+    @Override
+    public String validationQuery () {
+        return "VALUES 1";
+    }
+
+    @Override
+    protected boolean supportsRowValueComparison () {
+        return false;
+    }
+
+    /**
+     * Derby can't order the numbered rows, so the rows are skipped with an offset.
+     */
+    @Override
+    public String toStatementString (final Select select, final int offset) {
+        return toOffsetStatementString(select, offset);
+    }
+
+    @Override
+    protected void appendOffset (final StringBuilder b, final int offset) {
+        b.append(" OFFSET ").append(offset).append(" ROWS FETCH FIRST 1 ROWS ONLY");
+    }
+
 }
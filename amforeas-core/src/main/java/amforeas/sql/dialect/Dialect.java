@@ -11,6 +11,7 @@
  */
 package amforeas.sql.dialect;
 
+import java.util.List;
 import amforeas.jdbc.LimitParam;
 import amforeas.jdbc.OrderParam;
 import amforeas.sql.Delete;
@@ -32,6 +33,28 @@ public interface Dialect {
      */
     public String toStatementString (final Insert insert); // C
 
+    /**
+     * If the RDBMS accepts many rows in the VALUES clause of an INSERT, a batch
+     * {@link amforeas.sql.Insert} is converted to a single multi-row statement.
+     * @return true if multi-row inserts are supported.
+     */
+    public boolean supportsMultiRowInsert ();
+
+    /**
+     * If the RDBMS can return the rows created by an INSERT, the inserted row is read with the statement
+     * given by {@link #toReturningStatementString(Insert)} instead of asking the driver for the generated keys.
+     * @return true if the insert can return the created rows.
+     */
+    public boolean supportsInsertReturning ();
+
+    /**
+     * Generate a SQL statement for a {@link amforeas.sql.Insert} instance which returns the created rows.
+     * @param insert a {@link amforeas.sql.Insert} instance with a single row.
+     * @return a SQL statement which inserts the row and returns it.
+     * @throws UnsupportedOperationException if the dialect doesn't support it.
+     */
+    public String toReturningStatementString (final Insert insert);
+
     /**
      * Generate the appropriate SQL statement for a {@link amforeas.sql.Select} instance.
      * @param select a {@link amforeas.sql.Select} instance.
@@ -39,6 +62,24 @@ public interface Dialect {
      */
     public String toStatementString (final Select select); // R
 
+    /**
+     * The values to bind to the keyset condition generated for a {@link amforeas.sql.Select} which
+     * has a {@link amforeas.jdbc.KeysetCursor}. They go after the values of the select parameter.
+     * @param select a {@link amforeas.sql.Select} instance.
+     * @return the values of the keyset condition or an empty list if the select doesn't page with a keyset.
+     */
+    public List<String> keysetParameters (final Select select);
+
+    /**
+     * Generate a SQL statement which reads the single row at the given offset of a {@link amforeas.sql.Select},
+     * ordered like its keyset pages by the order column and then by the primary key. The limit of the select is
+     * ignored.
+     * @param select a {@link amforeas.sql.Select} instance.
+     * @param offset the number of rows before the row, from 0.
+     * @return a SQL statement which returns one row at most.
+     */
+    public String toStatementString (final Select select, final int offset);
+
     /**
      * Generate the appropriate SQL statement for a {@link amforeas.sql.Update} instance.
      * @param update a {@link amforeas.sql.Update} instance.
@@ -46,6 +87,39 @@ public interface Dialect {
      */
     public String toStatementString (final Update update); // U
 
+    /**
+     * If the RDBMS can return the rows modified by an UPDATE, the updated row is read with the statement
+     * given by {@link #toReturningStatementString(Update)} instead of running a SELECT after the update.
+     * @return true if the update can return the modified rows.
+     */
+    public boolean supportsUpdateReturning ();
+
+    /**
+     * Generate a SQL statement for a {@link amforeas.sql.Update} instance which returns the modified rows.
+     * @param update a {@link amforeas.sql.Update} instance.
+     * @return a SQL statement which updates the rows and returns them.
+     * @throws UnsupportedOperationException if the dialect doesn't support it.
+     */
+    public String toReturningStatementString (final Update update);
+
+    /**
+     * If the RDBMS can insert a row or update it when its primary key already exists in a single statement,
+     * upserts use the statement given by {@link #toUpsertStatementString(Insert)}. Otherwise they run an UPDATE
+     * and an INSERT in the same transaction.
+     * @return true if the dialect has a native upsert.
+     */
+    public boolean supportsUpsert ();
+
+    /**
+     * Generate a SQL statement which inserts the first row of a {@link amforeas.sql.Insert} instance or updates
+     * every other column of the row with the same primary key. The statement takes the values of the row once,
+     * in the order of its columns.
+     * @param insert a {@link amforeas.sql.Insert} instance which includes the primary key of its table.
+     * @return a SQL statement which inserts or updates the row.
+     * @throws UnsupportedOperationException if the dialect doesn't support it.
+     */
+    public String toUpsertStatementString (final Insert insert);
+
     /**
      * Generate the appropriate SQL statement for a {@link amforeas.sql.Delete} instance.
      * @param delete a {@link amforeas.sql.Delete} instance.
@@ -73,4 +147,29 @@ public interface Dialect {
      * @return a statement used to query your RDBMS for the number of rows in a table
      */
     public String rowCountStatement (final Table table);
+
+    /**
+     * The number of rows the driver should fetch from the database on each round trip when
+     * a {@link java.sql.ResultSet} is streamed to the client.
+     * @return a fetch size hint for forward-only, read-only statements.
+     */
+    public int getFetchSize ();
+
+    /**
+     * The most values given to a single IN condition. Longer lists of values are split in many statements.
+     * @return the number of parameters of an IN condition.
+     */
+    public int getMaxInListSize ();
+
+    /**
+     * The most parameters bound to a single statement. Multi-row inserts with more values are split in many statements.
+     * @return the number of parameters of a statement.
+     */
+    public int getMaxParameters ();
+
+    /**
+     * Return a cheap SQL statement used to validate that a pooled connection is still usable.
+     * @return a statement which returns one row.
+     */
+    public String validationQuery ();
 }
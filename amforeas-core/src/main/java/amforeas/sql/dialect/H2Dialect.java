@@ -17,6 +17,7 @@ import amforeas.sql.Delete;
 import amforeas.sql.DynamicFinder;
 import amforeas.sql.Insert;
 import amforeas.sql.Select;
+import amforeas.sql.Table;
 import amforeas.sql.Update;
 
 import org.apache.commons.lang3.StringUtils;
@@ -46,6 +47,10 @@ public class H2Dialect extends SQLDialect {
             b.append(") VALUES (");
             b.append(StringUtils.removeEnd(StringUtils.repeat("?,", insert.getColumns().size()), ","));
             b.append(")");
+            if (insert.isBatch()) {
+                String args = StringUtils.removeEnd(StringUtils.repeat("?,", insert.getColumns().size()), ",");
+                b.append(StringUtils.repeat(",(" + args + ")", insert.getRows().size() - 1));
+            }
         }
         l.debug(b.toString());
         return b.toString();
@@ -74,6 +79,28 @@ public class H2Dialect extends SQLDialect {
         return b.toString();
     }
 
+    @Override
+    public boolean supportsUpsert () {
+        return true;
+    }
+
+    /**
+     * H2 merges a single row by its key columns with MERGE INTO ... KEY.
+     */
+    @Override
+    public String toUpsertStatementString (Insert insert) {
+        final String pk = upsertKey(insert);
+        final StringBuilder b = new StringBuilder("MERGE INTO ");
+        b.append(insert.getTable().getDatabase()).append(".");
+        b.append(insert.getTable().getName());
+        b.append(" (").append(StringUtils.join(insert.getColumns().keySet(), ","));
+        b.append(") KEY (").append(pk).append(") VALUES (");
+        b.append(StringUtils.removeEnd(StringUtils.repeat("?,", insert.getColumns().size()), ","));
+        b.append(")");
+        l.debug(b.toString());
+        return b.toString();
+    }
+
     @Override
     public String toStatementString (Delete delete) {
         final StringBuilder b = new StringBuilder("DELETE FROM ");
@@ -88,6 +115,10 @@ public class H2Dialect extends SQLDialect {
 
     @Override
     public String toStatementString (Select select) {
+        if (isKeyset(select)) {
+            return toKeysetStatementString(select);
+        }
+
         final StringBuilder b = new StringBuilder("SELECT ");
         if (select.isAllColumns()) {
             b.append("*");
@@ -136,5 +167,22 @@ public class H2Dialect extends SQLDialect {
         return "SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES  WHERE table_type = 'TABLE'";
     }
 
-}
+    @Override
+    protected String keysetTable (final Table table) {
+        return table.getName();
+    }
 
+    @Override
+    public String toStatementString (final Select select, final int offset) {
+        return toOffsetStatementString(select, offset);
+    }
+
+    /**
+     * NULL is lower than any value, first in ascending order and last in descending.
+     */
+    @Override
+    protected boolean sortsNullsFirst (final boolean descending) {
+        return !descending;
+    }
+
+}
@@ -13,7 +13,9 @@ package amforeas.sql.dialect;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import amforeas.sql.Insert;
 import amforeas.sql.Select;
+import amforeas.sql.Table;
 
 /**
  * Dialect for HSQLDB, Hypersonic or whatever is called today.
@@ -24,6 +26,10 @@ public class HSQLDialect extends SQLDialect {
 
     @Override
     public String toStatementString (Select select) {
+        if (isKeyset(select)) {
+            return toKeysetStatementString(select);
+        }
+
         final StringBuilder b = new StringBuilder("SELECT ");
         if (select.isAllColumns()) {
             b.append("*");
@@ -44,9 +50,53 @@ public class HSQLDialect extends SQLDialect {
         return b.toString();
     }
 
+    @Override
+    public boolean supportsUpsert () {
+        return true;
+    }
+
+    @Override
+    public String toUpsertStatementString (final Insert insert) {
+        final String source = valuesSource(insert);
+        final String sql = toMergeStatementString(insert, insert.getTable().getName(), source);
+        l.debug(sql);
+        return sql;
+    }
+
     @Override
     public String listOfTablesStatement () {
         return "SELECT * FROM INFORMATION_SCHEMA.SYSTEM_TABLES WHERE table_type = 'TABLE'";
     }
 
+    @Override
+    public String validationQuery () {
+        return "SELECT 1 FROM INFORMATION_SCHEMA.SYSTEM_USERS";
+    }
+
+    @Override
+    protected String keysetTable (final Table table) {
+        return table.getName();
+    }
+
+    /**
+     * HSQLDB can't resolve the type of the parameters of a row value comparison.
+     */
+    @Override
+    protected boolean supportsRowValueComparison () {
+        return false;
+    }
+
+    @Override
+    public String toStatementString (final Select select, final int offset) {
+        return toOffsetStatementString(select, offset);
+    }
+
+    /**
+     * HSQLDB puts NULL first in both directions.
+     */
+    @Override
+    protected boolean sortsNullsFirst (final boolean descending) {
+        return true;
+    }
+
 }
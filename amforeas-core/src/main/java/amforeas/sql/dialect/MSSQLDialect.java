@@ -17,6 +17,10 @@
  */
 package amforeas.sql.dialect;
 
+import org.apache.commons.lang3.StringUtils;
+import amforeas.sql.Insert;
+import amforeas.sql.Update;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,5 +36,103 @@ public class MSSQLDialect extends SQLDialect {
     public String listOfTablesStatement() {
         return "select * from information_schema.tables where Table_Type = 'BASE TABLE'";
     }
+
+    /**
+     * SQL Server takes at most 1000 rows and 2100 parameters per statement, so batch inserts
+     * are always executed as JDBC batches.
+     */
+    @Override
+    public boolean supportsMultiRowInsert() {
+        return false;
+    }
     
+
+    @Override
+    public boolean supportsInsertReturning() {
+        return true;
+    }
+
+    /**
+     * The inserted rows are returned by an OUTPUT clause, which goes before the VALUES clause.
+     */
+    @Override
+    public String toReturningStatementString(final Insert insert) {
+        if (insert.getColumns().isEmpty())
+            throw new IllegalArgumentException("An insert query can't be empty");
+
+        String cols = StringUtils.join(insert.getColumns().keySet(), ",");
+        String args = StringUtils.removeEnd(StringUtils.repeat("?,", insert.getColumns().size()), ",");
+        String sql = String.format("INSERT INTO %s (%s) OUTPUT INSERTED.* VALUES (%s)", insert.getTable().getName(), cols, args);
+
+        l.debug(sql);
+        return sql;
+    }
+
+    @Override
+    public boolean supportsUpdateReturning() {
+        return true;
+    }
+
+    /**
+     * The updated rows are returned by an OUTPUT clause, which goes before the WHERE clause.
+     */
+    @Override
+    public String toReturningStatementString(final Update update) {
+        if (update.getColumns().isEmpty())
+            throw new IllegalArgumentException("An update query can't be empty");
+
+        String vals = StringUtils.join(update.getColumns().keySet(), "=?,") + "=?";
+        String args = update.getTable().getPrimaryKey() + "=?";
+        String sql = String.format("UPDATE %s SET %s OUTPUT INSERTED.* WHERE %s", update.getTable().getName(), vals, args);
+
+        l.debug(sql);
+        return sql;
+    }
+
+    @Override
+    public boolean supportsUpsert() {
+        return true;
+    }
+
+    /**
+     * SQL Server requires a MERGE statement to be terminated by a semicolon.
+     */
+    @Override
+    public String toUpsertStatementString(final Insert insert) {
+        final String sql = toMergeStatementString(insert, insert.getTable().getName(), valuesSource(insert)) + ";";
+        l.debug(sql);
+        return sql;
+    }
+
+    /**
+     * SQL Server takes at most 2100 parameters per statement.
+     */
+    @Override
+    public int getMaxInListSize() {
+        return 2000;
+    }
+
+    @Override
+    public int getMaxParameters() {
+        return 2100;
+    }
+
+    @Override
+    protected boolean supportsRowValueComparison() {
+        return false;
+    }
+
+    @Override
+    protected void appendFetchFirst(final StringBuilder b, final Integer limit) {
+        b.append(" OFFSET 0 ROWS FETCH NEXT ").append(limit).append(" ROWS ONLY");
+    }
+
+    /**
+     * NULL is lower than any value, first in ascending order and last in descending.
+     */
+    @Override
+    protected boolean sortsNullsFirst(final boolean descending) {
+        return !descending;
+    }
+
 }
@@ -11,6 +11,10 @@
  */
 package amforeas.sql.dialect;
 
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.lang3.StringUtils;
+import amforeas.sql.Insert;
 import amforeas.sql.Select;
 
 import org.slf4j.Logger;
@@ -28,8 +32,29 @@ public class MySQLDialect extends SQLDialect {
         return "SHOW TABLES";
     }
 
+    /**
+     * MySQL Connector/J only streams rows one by one when the fetch size is Integer.MIN_VALUE,
+     * otherwise it reads the whole result in memory.
+     */
+    @Override
+    public int getFetchSize () {
+        return Integer.MIN_VALUE;
+    }
+
+    /**
+     * MySQL takes at most 65535 placeholders per prepared statement.
+     */
+    @Override
+    public int getMaxParameters () {
+        return 65535;
+    }
+
     @Override
     public String toStatementString (Select select) {
+        if (isKeyset(select)) {
+            return toKeysetStatementString(select);
+        }
+
         final StringBuilder b = new StringBuilder("SELECT ");
         if (select.isAllColumns()) {
             b.append("t.*");
@@ -51,4 +76,46 @@ public class MySQLDialect extends SQLDialect {
         return b.toString();
     }
 
+    @Override
+    public boolean supportsUpsert () {
+        return true;
+    }
+
+    /**
+     * MySQL has no MERGE. A row whose primary key, or any other unique key, already exists is updated instead.
+     */
+    @Override
+    public String toUpsertStatementString (final Insert insert) {
+        final String pk = upsertKey(insert);
+        final List<String> sets = new ArrayList<>();
+        for (String column : insert.getColumns().keySet()) {
+            if (!column.equalsIgnoreCase(pk))
+                sets.add(column + " = VALUES(" + column + ")");
+        }
+        if (sets.isEmpty())
+            sets.add(pk + " = " + pk);
+
+        final String sql = toStatementString(insert.subInsert(0, 1)) + " ON DUPLICATE KEY UPDATE " + StringUtils.join(sets, ", ");
+        l.debug(sql);
+        return sql;
+    }
+
+    @Override
+    protected void appendFetchFirst (final StringBuilder b, final Integer limit) {
+        b.append(" LIMIT ").append(limit);
+    }
+
+    @Override
+    public String toStatementString (final Select select, final int offset) {
+        return toOffsetStatementString(select, offset);
+    }
+
+    /**
+     * NULL is lower than any value, first in ascending order and last in descending.
+     */
+    @Override
+    protected boolean sortsNullsFirst (final boolean descending) {
+        return !descending;
+    }
+
 }
@@ -11,6 +11,8 @@
  */
 package amforeas.sql.dialect;
 
+import java.util.ArrayList;
+import java.util.List;
 import amforeas.jdbc.LimitParam;
 import amforeas.jdbc.OrderParam;
 import amforeas.sql.Delete;
@@ -36,6 +38,24 @@ public class OracleDialect extends SQLDialect {
         return "SELECT TABLE_NAME FROM ALL_ALL_TABLES";
     }
 
+    /**
+     * The Oracle driver defaults to 10 rows per round trip which is too small for big scans.
+     */
+    @Override
+    public int getFetchSize () {
+        return 250;
+    }
+
+    @Override
+    public String validationQuery () {
+        return "SELECT 1 FROM DUAL";
+    }
+
+    @Override
+    public boolean supportsMultiRowInsert () {
+        return false;
+    }
+
     @Override
     public String toStatementString (Insert insert) {
         if (insert.getColumns().isEmpty())
@@ -78,6 +98,27 @@ public class OracleDialect extends SQLDialect {
         return b.toString();
     }
 
+    @Override
+    public boolean supportsUpsert () {
+        return true;
+    }
+
+    /**
+     * The values of the row are selected from DUAL, aliased after the columns.
+     */
+    @Override
+    public String toUpsertStatementString (Insert insert) {
+        final List<String> values = new ArrayList<>();
+        for (String column : insert.getColumns().keySet()) {
+            values.add("? " + column);
+        }
+        final String source = "(SELECT " + StringUtils.join(values, ", ") + " FROM DUAL) s";
+        final String table = insert.getTable().getDatabase() + "." + insert.getTable().getName();
+        final String sql = toMergeStatementString(insert, table, source);
+        l.debug(sql);
+        return sql;
+    }
+
     @Override
     public String toStatementString (Delete delete) {
         final StringBuilder b = new StringBuilder("DELETE FROM ");
@@ -118,4 +159,10 @@ public class OracleDialect extends SQLDialect {
     public String rowCountStatement (final Table table) {
         return "SELECT COUNT(*) AS total FROM " + table.getDatabase() + "." + table.getName();
     }
+
+    @Override
+    protected boolean supportsRowValueComparison () {
+        return false;
+    }
+
 }
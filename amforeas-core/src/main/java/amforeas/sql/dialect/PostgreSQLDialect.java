@@ -17,6 +17,12 @@
  */
 package amforeas.sql.dialect;
 
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.lang3.StringUtils;
+import amforeas.sql.Insert;
+import amforeas.sql.Update;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,5 +38,71 @@ public class PostgreSQLDialect extends SQLDialect {
     public String listOfTablesStatement() {
         return "SELECT * FROM information_schema.tables WHERE table_schema = 'public'";
     }
+
+    /**
+     * The PostgreSQL driver reads the whole result in memory unless a fetch size is given, and it's
+     * only honoured when auto commit is off, so streamed statements run in a transaction.
+     */
+    @Override
+    public int getFetchSize() {
+        return 250;
+    }
+
+    /**
+     * PostgreSQL takes at most 65535 parameters per statement.
+     */
+    @Override
+    public int getMaxParameters() {
+        return 65535;
+    }
+
+    @Override
+    public boolean supportsInsertReturning() {
+        return true;
+    }
+
+    @Override
+    public String toReturningStatementString(final Insert insert) {
+        final String sql = toStatementString(insert) + " RETURNING *";
+        l.debug(sql);
+        return sql;
+    }
+
+    @Override
+    public boolean supportsUpdateReturning() {
+        return true;
+    }
+
+    @Override
+    public String toReturningStatementString(final Update update) {
+        final String sql = toStatementString(update) + " RETURNING *";
+        l.debug(sql);
+        return sql;
+    }
+
+    @Override
+    public boolean supportsUpsert() {
+        return true;
+    }
+
+    @Override
+    public String toUpsertStatementString(final Insert insert) {
+        final String pk = upsertKey(insert);
+        final List<String> sets = new ArrayList<>();
+        for (String column : insert.getColumns().keySet()) {
+            if (!column.equalsIgnoreCase(pk))
+                sets.add(column + " = EXCLUDED." + column);
+        }
+
+        final StringBuilder b = new StringBuilder(toStatementString(insert.subInsert(0, 1)));
+        b.append(" ON CONFLICT (").append(pk).append(")");
+        if (sets.isEmpty()) {
+            b.append(" DO NOTHING");
+        } else {
+            b.append(" DO UPDATE SET ").append(StringUtils.join(sets, ", "));
+        }
+        l.debug(b.toString());
+        return b.toString();
+    }
     
 }
@@ -12,6 +12,9 @@
 
 package amforeas.sql.dialect;
 
+import java.util.ArrayList;
+import java.util.List;
+import amforeas.jdbc.KeysetCursor;
 import amforeas.jdbc.LimitParam;
 import amforeas.jdbc.OrderParam;
 import amforeas.sql.Delete;
@@ -44,13 +47,35 @@ public class SQLDialect implements Dialect {
         String cols = StringUtils.join(insert.getColumns().keySet(), ",");
         String args = StringUtils.removeEnd(StringUtils.repeat("?,", insert.getColumns().size()), ",");
         String sql = String.format(INSERT_FORMAT, insert.getTable().getName(), cols, args);
+        if (insert.isBatch() && supportsMultiRowInsert()) {
+            sql = sql + StringUtils.repeat(",(" + args + ")", insert.getRows().size() - 1);
+        }
 
         l.debug(sql);
         return sql;
     }
 
+    @Override
+    public boolean supportsMultiRowInsert () {
+        return true;
+    }
+
+    @Override
+    public boolean supportsInsertReturning () {
+        return false;
+    }
+
+    @Override
+    public String toReturningStatementString (final Insert insert) {
+        throw new UnsupportedOperationException("Operation not supported");
+    }
+
     @Override
     public String toStatementString (final Select select) {
+        if (isKeyset(select)) {
+            return toKeysetStatementString(select);
+        }
+
         final StringBuilder b = new StringBuilder("SELECT ");
 
         if (select.getLimitParam() == null) {
@@ -95,6 +120,192 @@ public class SQLDialect implements Dialect {
         return b.toString();
     }
 
+    @Override
+    public List<String> keysetParameters (final Select select) {
+        if (!isKeyset(select)) {
+            return List.of();
+        }
+        final KeysetCursor cursor = select.getLimitParam().getCursor();
+        if (isOrderedByPrimaryKey(select) || cursor.getValue() == null) {
+            return List.of(cursor.getKey());
+        }
+        if (supportsRowValueComparison()) {
+            return List.of(cursor.getValue(), cursor.getKey());
+        }
+        return List.of(cursor.getValue(), cursor.getValue(), cursor.getKey());
+    }
+
+    /**
+     * Generates a statement which seeks to the row after the cursor instead of numbering and discarding
+     * the previous rows, so every page costs the same. The primary key breaks ties in the order column.
+     * The rows without a value in the order column are compared by their primary key, before or after
+     * the rest as the database sorts them.
+     * @param select a {@link amforeas.sql.Select} with a {@link amforeas.jdbc.KeysetCursor}
+     * @return a SQL statement like SELECT t.* FROM table t WHERE (t.col, t.pk) &gt; (?, ?) ORDER BY t.col, t.pk FETCH FIRST n ROWS ONLY
+     */
+    protected String toKeysetStatementString (final Select select) {
+        final String pk = select.getTable().getPrimaryKey();
+        final String column = select.getOrderParam() == null ? pk : select.getOrderParam().getColumn();
+        final boolean descending = select.getOrderParam() != null && OrderParam.DESC.equalsIgnoreCase(select.getOrderParam().getDirection());
+        final String op = descending ? " < " : " > ";
+
+        final StringBuilder b = new StringBuilder("SELECT ");
+        if (select.isAllColumns()) {
+            b.append("t.*");
+        } else {
+            appendColumns(b, select, "t");
+        }
+        b.append(" FROM ").append(keysetTable(select.getTable())).append(" t");
+        if (select.isAllRecords()) {
+            b.append(" WHERE ");
+        } else {
+            appendWhereClause(b, select).append(" AND ");
+        }
+
+        if (isOrderedByPrimaryKey(select)) {
+            b.append("t.").append(pk).append(op).append("?");
+        } else if (select.getLimitParam().getCursor().getValue() == null) {
+            // the cursor is among the rows without a value
+            if (sortsNullsFirst(descending)) {
+                b.append("(t.").append(column).append(" IS NOT NULL OR t.").append(pk).append(op).append("?)");
+            } else {
+                b.append("(t.").append(column).append(" IS NULL AND t.").append(pk).append(op).append("?)");
+            }
+        } else {
+            // the rows without a value come after the cursor
+            final boolean nulls = !sortsNullsFirst(descending);
+            if (supportsRowValueComparison()) {
+                b.append(nulls ? "(" : "").append("(t.").append(column).append(", t.").append(pk).append(")").append(op).append("(?, ?)");
+            } else {
+                b.append("(t.").append(column).append(op).append("? OR (t.").append(column).append(" = ? AND t.").append(pk).append(op).append("?)");
+            }
+            if (nulls) {
+                b.append(" OR t.").append(column).append(" IS NULL");
+            }
+            if (nulls || !supportsRowValueComparison()) {
+                b.append(")");
+            }
+        }
+        b.append(" ORDER BY ");
+        appendKeysetOrder(b, select);
+        appendFetchFirst(b, select.getLimitParam().getLimit());
+
+        l.debug(b.toString());
+        return b.toString();
+    }
+
+    @Override
+    public String toStatementString (final Select select, final int offset) {
+        final StringBuilder b = new StringBuilder("SELECT * FROM ( SELECT ROW_NUMBER() OVER ( ORDER BY ");
+        appendKeysetOrder(b, select);
+        b.append(" ) AS ROW_NUM, ");
+        if (select.isAllColumns()) {
+            b.append("t.*");
+        } else {
+            appendColumns(b, select, "t");
+        }
+        b.append(" FROM ").append(keysetTable(select.getTable())).append(" t");
+        if (!select.isAllRecords()) {
+            appendWhereClause(b, select);
+        }
+        b.append(" ) r WHERE ROW_NUM = ").append(offset + 1);
+
+        l.debug(b.toString());
+        return b.toString();
+    }
+
+    /**
+     * Generates the statement of {@link #toStatementString(Select, int)} for the databases which skip rows with
+     * an offset instead of numbering them.
+     * @param select a {@link amforeas.sql.Select} instance.
+     * @param offset the number of rows before the row, from 0.
+     * @return a SQL statement like SELECT t.* FROM table t ORDER BY t.col, t.pk LIMIT 1 OFFSET n
+     */
+    protected String toOffsetStatementString (final Select select, final int offset) {
+        final StringBuilder b = new StringBuilder("SELECT ");
+        if (select.isAllColumns()) {
+            b.append("t.*");
+        } else {
+            appendColumns(b, select, "t");
+        }
+        b.append(" FROM ").append(keysetTable(select.getTable())).append(" t");
+        if (!select.isAllRecords()) {
+            appendWhereClause(b, select);
+        }
+        b.append(" ORDER BY ");
+        appendKeysetOrder(b, select);
+        appendOffset(b, offset);
+
+        l.debug(b.toString());
+        return b.toString();
+    }
+
+    /**
+     * Appends the clause which skips the given rows and reads the next one.
+     * @param b the statement
+     * @param offset the number of rows to skip
+     */
+    protected void appendOffset (final StringBuilder b, final int offset) {
+        b.append(" LIMIT 1 OFFSET ").append(offset);
+    }
+
+    /**
+     * Appends the order of a keyset, the order column followed by the primary key in the same direction.
+     */
+    private void appendKeysetOrder (final StringBuilder b, final Select select) {
+        final String pk = select.getTable().getPrimaryKey();
+        final String direction = select.getOrderParam() == null ? OrderParam.ASC : select.getOrderParam().getDirection();
+        if (!isOrderedByPrimaryKey(select)) {
+            b.append("t.").append(select.getOrderParam().getColumn()).append(" ").append(direction).append(", ");
+        }
+        b.append("t.").append(pk).append(" ").append(direction);
+    }
+
+    /**
+     * Where the database puts the rows without a value when it orders by a column, unless the statement says
+     * otherwise. By default NULL is greater than any value, last in ascending order and first in descending.
+     * @param descending true if the rows are in descending order
+     * @return true if the rows with a NULL come before the rest
+     */
+    protected boolean sortsNullsFirst (final boolean descending) {
+        return descending;
+    }
+
+    /**
+     * Row value comparisons like (a, b) &gt; (?, ?) are the easiest keyset condition for the database to
+     * optimize. Dialects which don't support it use the equivalent (a &gt; ? OR (a = ? AND b &gt; ?)).
+     * @return true if the RDBMS supports row value comparisons.
+     */
+    protected boolean supportsRowValueComparison () {
+        return true;
+    }
+
+    /**
+     * The name of the table used in a keyset statement.
+     * @param table the {@link amforeas.sql.Table} being queried
+     * @return the name of the table with the database or schema.
+     */
+    protected String keysetTable (final Table table) {
+        return table.toString();
+    }
+
+    /**
+     * Appends the clause which limits the number of rows of a keyset statement.
+     * @param b the statement
+     * @param limit the number of rows
+     */
+    protected void appendFetchFirst (final StringBuilder b, final Integer limit) {
+        b.append(" FETCH FIRST ").append(limit).append(" ROWS ONLY");
+    }
+
+    protected boolean isKeyset (final Select select) {
+        return select.getLimitParam() != null && select.getLimitParam().isKeyset();
+    }
+
+    private boolean isOrderedByPrimaryKey (final Select select) {
+        return select.getOrderParam() == null || select.getOrderParam().getColumn().equalsIgnoreCase(select.getTable().getPrimaryKey());
+    }
+
     @Override
     public String toStatementString (final Update update) {
         if (update.getColumns().isEmpty())
@@ -108,6 +319,81 @@ public class SQLDialect implements Dialect {
         return sql;
     }
 
+    @Override
+    public boolean supportsUpdateReturning () {
+        return false;
+    }
+
+    @Override
+    public String toReturningStatementString (final Update update) {
+        throw new UnsupportedOperationException("Operation not supported");
+    }
+
+    @Override
+    public boolean supportsUpsert () {
+        return false;
+    }
+
+    @Override
+    public String toUpsertStatementString (final Insert insert) {
+        throw new UnsupportedOperationException("Operation not supported");
+    }
+
+    /**
+     * Generates a standard MERGE statement for the first row of an insert.
+     * @param insert the insert to merge.
+     * @param table the name of the target table, as it goes in the statement.
+     * @param source the source of the merge, aliased as s, which returns the values of the row in the order of the
+     *        columns of the insert.
+     * @return a MERGE statement.
+     */
+    protected String toMergeStatementString (final Insert insert, final String table, final String source) {
+        final String pk = upsertKey(insert);
+        final List<String> columns = new ArrayList<>(insert.getColumns().keySet());
+
+        final StringBuilder b = new StringBuilder("MERGE INTO ");
+        b.append(table).append(" t USING ").append(source);
+        b.append(" ON (t.").append(pk).append(" = s.").append(pk).append(")");
+
+        final List<String> sets = new ArrayList<>();
+        for (String column : columns) {
+            if (!column.equalsIgnoreCase(pk))
+                sets.add("t." + column + " = s." + column);
+        }
+        if (!sets.isEmpty())
+            b.append(" WHEN MATCHED THEN UPDATE SET ").append(StringUtils.join(sets, ", "));
+
+        b.append(" WHEN NOT MATCHED THEN INSERT (").append(StringUtils.join(columns, ", "));
+        b.append(") VALUES (s.").append(StringUtils.join(columns, ", s.")).append(")");
+        return b.toString();
+    }
+
+    /**
+     * @param insert the insert to merge.
+     * @return a row constructor with a parameter for each column of the insert, aliased as s.
+     */
+    protected String valuesSource (final Insert insert) {
+        final String args = StringUtils.removeEnd(StringUtils.repeat("?, ", insert.getColumns().size()), ", ");
+        return "(VALUES (" + args + ")) AS s (" + StringUtils.join(insert.getColumns().keySet(), ", ") + ")";
+    }
+
+    /**
+     * @param insert the insert to upsert.
+     * @return the name of the primary key column as given in the insert.
+     * @throws IllegalArgumentException if the insert is empty or doesn't include the primary key.
+     */
+    protected String upsertKey (final Insert insert) {
+        if (insert.getColumns().isEmpty())
+            throw new IllegalArgumentException("An insert query can't be empty");
+
+        final String pk = insert.getTable().getPrimaryKey();
+        for (String column : insert.getColumns().keySet()) {
+            if (column.equalsIgnoreCase(pk))
+                return column;
+        }
+        throw new IllegalArgumentException("An upsert needs a value for the primary key " + pk);
+    }
+
     @Override
     public String toStatementString (final Delete delete) {
         String args = delete.getTable().getPrimaryKey() + "=?";
@@ -134,6 +420,32 @@ public class SQLDialect implements Dialect {
         return b.toString();
     }
 
+    @Override
+    public int getFetchSize () {
+        return 100;
+    }
+
+    /**
+     * Oracle takes at most 1000 values in an IN list, which is a safe limit for the other databases.
+     */
+    @Override
+    public int getMaxInListSize () {
+        return 1000;
+    }
+
+    /**
+     * Older PostgreSQL drivers send the number of parameters as a signed short, which is a safe limit for the other databases.
+     */
+    @Override
+    public int getMaxParameters () {
+        return Short.MAX_VALUE;
+    }
+
+    @Override
+    public String validationQuery () {
+        return "SELECT 1";
+    }
+
     @Override
     public String listOfTablesStatement () {
         throw new UnsupportedOperationException("Operation not supported");
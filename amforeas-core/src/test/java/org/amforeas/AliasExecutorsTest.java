@@ -0,0 +1,242 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.amforeas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.TimeoutHandler;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.amforeas.config.AmforeasConfigurationStub;
+import amforeas.AliasExecutors;
+import amforeas.SingletonFactory;
+import amforeas.config.AmforeasConfiguration;
+import amforeas.jdbc.QueryContext;
+
+@ExtendWith(MockitoExtension.class)
+@Tag("offline-tests")
+public class AliasExecutorsTest {
+
+    @Mock
+    SingletonFactory factory;
+
+    protected AliasExecutors executors;
+
+    @BeforeEach
+    public void setUpEach () {
+        AmforeasConfiguration conf = new AmforeasConfigurationStub();
+        conf.loadProperties();
+        conf.load();
+        when(factory.getConfiguration()).thenReturn(conf);
+        executors = new AliasExecutors(factory);
+    }
+
+    @AfterEach
+    public void tearDownEach () {
+        executors.shutdown();
+    }
+
+    @Test
+    public void testSubmit () {
+        final AsyncResponse async = mock(AsyncResponse.class);
+        final Response ok = Response.ok().build();
+        final AtomicReference<String> thread = new AtomicReference<>();
+
+        executors.submit("alias1", async, () -> {
+            thread.set(Thread.currentThread().getName());
+            return ok;
+        });
+
+        verify(async, timeout(1000)).resume(ok);
+        assertTrue(thread.get().startsWith("amforeas-alias1-"));
+    }
+
+    @Test
+    public void testSubmit_queryContext () {
+        final AsyncResponse async = mock(AsyncResponse.class);
+        final Response ok = Response.ok().build();
+        final AtomicReference<QueryContext> context = new AtomicReference<>();
+
+        executors.submit("alias1", async, () -> {
+            context.set(QueryContext.current().orElse(null));
+            return ok;
+        });
+
+        verify(async, timeout(1000)).resume(ok);
+        assertTrue(context.get() != null);
+    }
+
+    @Test
+    public void testSubmit_queued () throws InterruptedException {
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AsyncResponse first = mock(AsyncResponse.class);
+        final AsyncResponse second = mock(AsyncResponse.class);
+        final Response ok = Response.ok().build();
+
+        // alias2 has a single thread and room for one request
+        executors.submit("alias2", first, () -> block(running, release, ok));
+        assertTrue(running.await(1, TimeUnit.SECONDS));
+
+        executors.submit("alias2", second, () -> ok);
+        verify(second, never()).resume(ok);
+
+        release.countDown();
+        verify(first, timeout(1000)).resume(ok);
+        verify(second, timeout(1000)).resume(ok);
+    }
+
+    @Test
+    public void testSubmit_failure () {
+        final AsyncResponse async = mock(AsyncResponse.class);
+
+        executors.submit("alias1", async, () -> {
+            throw new IllegalStateException("failed");
+        });
+
+        verify(async, timeout(1000)).resume(any(IllegalStateException.class));
+    }
+
+    @Test
+    public void testSubmit_unknownAlias () {
+        final AsyncResponse async = mock(AsyncResponse.class);
+        final Response error = Response.status(Response.Status.BAD_REQUEST).build();
+        final AtomicReference<String> thread = new AtomicReference<>();
+
+        executors.submit("invalid", async, () -> {
+            thread.set(Thread.currentThread().getName());
+            return error;
+        });
+
+        verify(async).resume(error);
+        assertEquals(Thread.currentThread().getName(), thread.get());
+    }
+
+    @Test
+    public void testSubmit_abort () throws InterruptedException {
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AsyncResponse first = mock(AsyncResponse.class);
+        final AsyncResponse second = mock(AsyncResponse.class);
+        final Response ok = Response.ok().build();
+
+        // alias4 has a single thread and no queue
+        executors.submit("alias4", first, () -> block(running, release, ok));
+        assertTrue(running.await(1, TimeUnit.SECONDS));
+
+        executors.submit("alias4", second, () -> ok);
+
+        final ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(second).resume(captor.capture());
+        assertEquals(Response.Status.SERVICE_UNAVAILABLE.getStatusCode(), ((Response) captor.getValue()).getStatus());
+        assertEquals("10", ((Response) captor.getValue()).getHeaderString(HttpHeaders.RETRY_AFTER));
+
+        final List<Map<String, Object>> stats = executors.addStatistics(List.of(new HashMap<>(Map.of("alias", "alias4"))));
+        assertEquals(1L, stats.get(0).get("executor-rejected"));
+        assertEquals(1, stats.get(0).get("executor-active"));
+
+        release.countDown();
+        verify(first, timeout(1000)).resume(ok);
+    }
+
+    @Test
+    public void testSubmit_queueTimeout () throws InterruptedException {
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AsyncResponse first = mock(AsyncResponse.class);
+        final AsyncResponse second = mock(AsyncResponse.class);
+        final Response ok = Response.ok().build();
+
+        // alias2 has a single thread and room for one request which waits up to 2 seconds
+        executors.submit("alias2", first, () -> block(running, release, ok));
+        assertTrue(running.await(1, TimeUnit.SECONDS));
+
+        executors.submit("alias2", second, () -> ok);
+        verify(second).setTimeout(2000, TimeUnit.MILLISECONDS);
+
+        final ArgumentCaptor<TimeoutHandler> handler = ArgumentCaptor.forClass(TimeoutHandler.class);
+        verify(second).setTimeoutHandler(handler.capture());
+        handler.getValue().handleTimeout(second);
+
+        final ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(second).resume(captor.capture());
+        assertEquals(Response.Status.SERVICE_UNAVAILABLE.getStatusCode(), ((Response) captor.getValue()).getStatus());
+        assertEquals("2", ((Response) captor.getValue()).getHeaderString(HttpHeaders.RETRY_AFTER));
+
+        final List<Map<String, Object>> stats = executors.addStatistics(List.of(new HashMap<>(Map.of("alias", "alias2"))));
+        assertEquals(1L, stats.get(0).get("executor-timed-out"));
+        assertEquals(0, stats.get(0).get("executor-queued"));
+        assertEquals(1, stats.get(0).get("executor-threads"));
+
+        release.countDown();
+        verify(first, timeout(1000)).resume(ok);
+        verify(first, timeout(1000)).setTimeout(0, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void testSubmit_callerRuns () throws InterruptedException {
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AsyncResponse first = mock(AsyncResponse.class);
+        final AsyncResponse second = mock(AsyncResponse.class);
+        final Response ok = Response.ok().build();
+        final AtomicReference<String> thread = new AtomicReference<>();
+
+        // alias3 has a single thread and no queue
+        executors.submit("alias3", first, () -> block(running, release, ok));
+        assertTrue(running.await(1, TimeUnit.SECONDS));
+
+        executors.submit("alias3", second, () -> {
+            thread.set(Thread.currentThread().getName());
+            return ok;
+        });
+
+        verify(second).resume(ok);
+        assertEquals(Thread.currentThread().getName(), thread.get());
+
+        release.countDown();
+        verify(first, timeout(1000)).resume(ok);
+    }
+
+    protected static Response block (final CountDownLatch running, final CountDownLatch release, final Response response) {
+        running.countDown();
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return response;
+    }
+
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.amforeas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.core.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.amforeas.config.AmforeasConfigurationStub;
+import amforeas.AliasExecutors;
+import amforeas.config.AmforeasConfiguration;
+
+/**
+ * Runs the tests of {@link amforeas.AliasExecutors} with a thread per request, as with virtual threads. Platform
+ * threads take their place because the tests run on JVMs without virtual threads.
+ */
+@Tag("offline-tests")
+public class AliasExecutorsThreadPerTaskTest extends AliasExecutorsTest {
+
+    private final AtomicInteger started = new AtomicInteger();
+
+    @BeforeEach
+    @Override
+    public void setUpEach () {
+        AmforeasConfiguration conf = new AmforeasConfigurationStub();
+        conf.loadProperties();
+        conf.load();
+        when(factory.getConfiguration()).thenReturn(conf);
+        executors = new AliasExecutors(factory, r -> {
+            started.incrementAndGet();
+            return new Thread(r);
+        });
+    }
+
+    @Test
+    public void testSubmit_threadPerTask () throws InterruptedException {
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AsyncResponse first = mock(AsyncResponse.class);
+        final AsyncResponse second = mock(AsyncResponse.class);
+        final AsyncResponse third = mock(AsyncResponse.class);
+        final Response ok = Response.ok().build();
+
+        // alias2 has a single permit and room for one request
+        executors.submit("alias2", first, () -> block(running, release, ok));
+        assertTrue(running.await(1, TimeUnit.SECONDS));
+        executors.submit("alias2", second, () -> ok);
+
+        final List<Map<String, Object>> stats = executors.addStatistics(List.of(new HashMap<>(Map.of("alias", "alias2"))));
+        assertEquals(1, stats.get(0).get("executor-active"));
+        assertEquals(1, stats.get(0).get("executor-queued"));
+        assertEquals(2, started.get());
+
+        release.countDown();
+        verify(first, timeout(1000)).resume(ok);
+        verify(second, timeout(1000)).resume(ok);
+
+        // every request gets a new thread
+        executors.submit("alias2", third, () -> ok);
+        verify(third, timeout(1000)).resume(ok);
+        assertEquals(3, started.get());
+    }
+
+}
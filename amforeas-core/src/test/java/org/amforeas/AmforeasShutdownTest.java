@@ -0,0 +1,44 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ * 
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.amforeas;
+
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import amforeas.AmforeasShutdown;
+import amforeas.SingletonFactory;
+import amforeas.jdbc.JDBCExecutor;
+
+@Tag("offline-tests")
+public class AmforeasShutdownTest {
+
+    @Test
+    public void testRun () {
+        final SingletonFactory factory = mock(SingletonFactory.class);
+        final JDBCExecutor executor = mock(JDBCExecutor.class);
+        when(factory.getJDBCExecutor()).thenReturn(executor);
+        doThrow(new IllegalStateException("Shutdown in progress")).when(factory).shutdownAliasExecutors();
+
+        new AmforeasShutdown(factory).run();
+
+        // the executors aren't created to stop them, and the connections are closed anyway
+        verify(factory, never()).getAliasExecutors();
+        verify(executor).shutdown();
+    }
+
+}
@@ -13,11 +13,17 @@
 package org.amforeas;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.sql.SQLException;
 import javax.ws.rs.core.MultivaluedHashMap;
 import javax.ws.rs.core.MultivaluedMap;
@@ -32,8 +38,14 @@ import amforeas.RestController;
 import amforeas.SingletonFactory;
 import amforeas.acl.ACLRule;
 import amforeas.config.AmforeasConfiguration;
+import amforeas.config.DatabaseConfiguration;
+import amforeas.enums.JDBCDriver;
+import amforeas.jdbc.CsvRowReader;
+import amforeas.jdbc.JsonLinesRowReader;
 import amforeas.jdbc.LimitParam;
 import amforeas.jdbc.OrderParam;
+import amforeas.jdbc.QueryContext;
+import amforeas.jdbc.RowReader;
 import amforeas.rest.xstream.SuccessResponse;
 
 @ExtendWith(MockitoExtension.class)
@@ -132,6 +144,106 @@ public class DefaultRestServiceTest {
         assertEquals(service.get("alias1", "foo", "id", "1", queryParams).getStatus(), 400);
     }
 
+    @Test
+    public void test_get_queryTimeout () {
+        when(controller.getResource(anyString(), anyString(), anyString(), any(LimitParam.class), any(OrderParam.class), isNull())).thenReturn(new SuccessResponse());
+        when(configuration.getResourceRules(anyString(), anyString())).thenReturn(ACLRule.of("alias1", "all"));
+
+        DatabaseConfiguration dbconf = DatabaseConfiguration.instanceOf("alias1", JDBCDriver.H2_MEM, "sa", "", "test_db", null, null, 1, false);
+        dbconf.setQueryTimeout(30);
+        dbconf.setQueryTimeout("bar", 0);
+        when(configuration.getDatabaseConfigurationForAlias("alias1")).thenReturn(dbconf);
+
+        MultivaluedMap<String, String> queryParams = new MultivaluedHashMap<>();
+        DefaultRestService service = new DefaultRestService(factory);
+        QueryContext context = new QueryContext();
+        context.attach();
+        try {
+            service.get("alias1", "foo", "id", "1", queryParams);
+            assertEquals(30, context.getTimeout());
+
+            queryParams.putSingle("timeout", "5");
+            service.get("alias1", "foo", "id", "1", queryParams);
+            assertEquals(5, context.getTimeout());
+
+            // the hint can't go over the timeout of the resource
+            queryParams.putSingle("timeout", "60");
+            service.get("alias1", "foo", "id", "1", queryParams);
+            assertEquals(30, context.getTimeout());
+
+            queryParams.putSingle("timeout", "60");
+            service.get("alias1", "bar", "id", "1", queryParams);
+            assertEquals(60, context.getTimeout());
+
+            queryParams.putSingle("timeout", "foo");
+            service.get("alias1", "foo", "id", "1", queryParams);
+            assertEquals(30, context.getTimeout());
+        } finally {
+            context.detach();
+        }
+    }
+
+    @Test
+    public void test_batch_acl () {
+        when(controller.executeBatch(anyList(), anyBoolean())).thenReturn(new SuccessResponse());
+        when(configuration.getResourceRules("alias1", "foo")).thenReturn(ACLRule.of("alias1", "foo", "all"));
+        when(configuration.getResourceRules("alias1", "bar")).thenReturn(ACLRule.of("alias1", "bar", "read"));
+
+        MultivaluedMap<String, String> queryParams = new MultivaluedHashMap<>();
+
+        DefaultRestService service = new DefaultRestService(factory);
+        assertEquals(200, service.batch("alias1", "[{\"op\":\"insert\", \"resource\":\"foo\"}, {\"op\":\"get\", \"resource\":\"bar\", \"id\":\"1\"}]", queryParams).getStatus());
+        // every operation is checked
+        assertEquals(405, service.batch("alias1", "[{\"op\":\"insert\", \"resource\":\"foo\"}, {\"op\":\"delete\", \"resource\":\"bar\", \"id\":\"1\"}]", queryParams).getStatus());
+        assertEquals(400, service.batch("alias1", "[{\"op\":\"merge\", \"resource\":\"foo\"}]", queryParams).getStatus());
+        assertEquals(400, service.batch("alias1", "[{\"op\":\"insert\"}]", queryParams).getStatus());
+        assertEquals(400, service.batch("alias1", "[]", queryParams).getStatus());
+        assertEquals(400, service.batch("alias1", "{\"op\":\"insert\"}", queryParams).getStatus());
+        verify(controller, times(1)).executeBatch(anyList(), eq(false));
+    }
+
+    @Test
+    public void test_upsert_acl () {
+        when(controller.upsertResource(anyString(), anyString(), anyString())).thenReturn(new SuccessResponse());
+        when(configuration.getResourceRules("alias1", "foo")).thenReturn(ACLRule.of("alias1", "foo", "all"));
+        when(configuration.getResourceRules("alias1", "bar")).thenReturn(ACLRule.of("alias1", "bar", "read"));
+
+        DefaultRestService service = new DefaultRestService(factory);
+        assertEquals(200, service.upsert("alias1", "foo", "id", "{\"id\":\"1\"}", true).getStatus());
+        assertEquals(405, service.upsert("alias1", "bar", "id", "{\"id\":\"1\"}", true).getStatus());
+        // the client has to ask for it
+        assertEquals(400, service.upsert("alias1", "foo", "id", "{\"id\":\"1\"}", false).getStatus());
+        verify(controller, times(1)).upsertResource("foo", "id", "{\"id\":\"1\"}");
+
+        assertTrue(DefaultRestService.isMergeResolution("return=representation, resolution = merge"));
+        assertFalse(DefaultRestService.isMergeResolution("return=representation"));
+        assertFalse(DefaultRestService.isMergeResolution(null));
+    }
+
+    @Test
+    public void test_ingest () {
+        when(controller.ingestResource(anyString(), any(RowReader.class), anyInt())).thenReturn(new SuccessResponse());
+        when(configuration.getResourceRules("alias1", "foo")).thenReturn(ACLRule.of("alias1", "foo", "all"));
+        when(configuration.getResourceRules("alias1", "bar")).thenReturn(ACLRule.of("alias1", "bar", "read"));
+
+        DefaultRestService service = new DefaultRestService(factory);
+        InputStream body = new ByteArrayInputStream(new byte[0]);
+        MultivaluedMap<String, String> params = new MultivaluedHashMap<>();
+        assertEquals(200, service.ingest("alias1", "foo", "text/csv; charset=ISO-8859-1", body, params).getStatus());
+        verify(controller).ingestResource(eq("foo"), any(CsvRowReader.class), eq(0));
+
+        params.putSingle("commitEvery", "1000");
+        assertEquals(200, service.ingest("alias1", "foo", "application/x-ndjson", body, params).getStatus());
+        verify(controller).ingestResource(eq("foo"), any(JsonLinesRowReader.class), eq(1000));
+
+        assertEquals(405, service.ingest("alias1", "bar", "text/csv", body, params).getStatus());
+        assertEquals(415, service.ingest("alias1", "foo", "application/json", body, params).getStatus());
+        assertEquals(400, service.ingest("alias1", "foo", "text/csv; charset=nope", body, params).getStatus());
+        params.putSingle("commitEvery", "many");
+        assertEquals(400, service.ingest("alias1", "foo", "text/csv", body, params).getStatus());
+        verify(controller, times(2)).ingestResource(anyString(), any(RowReader.class), anyInt());
+    }
+
     // @Test
     // public void test_get_sql_errors () throws SQLException {
     // AmforeasConfiguration confM = mock(AmforeasConfiguration.class);
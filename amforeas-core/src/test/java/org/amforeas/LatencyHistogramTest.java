@@ -0,0 +1,60 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ * 
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.amforeas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import amforeas.LatencyHistogram;
+
+@Tag("offline-tests")
+public class LatencyHistogramTest {
+
+    @Test
+    public void testPercentiles () {
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, h.snapshot().getPercentile(99));
+
+        for (int i = 1; i <= 1000; i++) {
+            h.record(i);
+        }
+        h.record(1000000);
+
+        var s = h.snapshot();
+        assertEquals(1001, s.getCount());
+        assertEquals(1000000, s.getMax());
+        assertBetween(500, s.getPercentile(50));
+        assertBetween(900, s.getPercentile(90));
+        assertBetween(990, s.getPercentile(99));
+        assertBetween(1000, s.getPercentile(99.9));
+        assertEquals(1000000, s.getPercentile(100));
+        assertEquals((500500 + 1000000) / 1001.0, s.getMean(), 0.001);
+    }
+
+    @Test
+    public void testSmallValues () {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(-5);
+        h.record(3);
+        h.record(3);
+        assertEquals(0, h.snapshot().getPercentile(10));
+        assertEquals(3, h.snapshot().getPercentile(50));
+        assertEquals(3, h.snapshot().getMax());
+    }
+
+    private void assertBetween (long expected, long actual) {
+        assertTrue(actual >= expected && actual <= expected + expected / 16, expected + " ~ " + actual);
+    }
+
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.amforeas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.ws.rs.core.MediaType;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import amforeas.jdbc.CsvRowReader;
+import amforeas.jdbc.RowReader;
+import amforeas.rest.xstream.CsvRowWriter;
+import amforeas.rest.xstream.JsonLinesRowWriter;
+import amforeas.rest.xstream.RowWriter;
+
+/**
+ * Tests for {@link amforeas.rest.xstream.CsvRowWriter} and {@link amforeas.rest.xstream.JsonLinesRowWriter}
+ */
+@Tag("offline-tests")
+public class RowWriterTest {
+
+    @Test
+    public void testCsv () throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final RowWriter writer = RowWriter.of(MediaType.valueOf("text/csv"), out).get();
+        writer.write(row(1, "Ibiza, FR", new BigDecimal("1E+3")));
+        writer.write(row(2, "Tipo \"SW\"\n", null));
+        writer.write(row(3, "", 10.5));
+        writer.flush();
+
+        final String csv = out.toString(StandardCharsets.UTF_8);
+        assertEquals("cid,model,price\r\n1,\"Ibiza, FR\",1000\r\n2,\"Tipo \"\"SW\"\"\n\",\r\n3,\"\",10.5\r\n", csv);
+
+        // read back with the same nulls and empty strings
+        try (RowReader reader = new CsvRowReader(new ByteArrayInputStream(out.toByteArray()), StandardCharsets.UTF_8)) {
+            assertEquals("Ibiza, FR", reader.next().get("model"));
+            final Map<String, String> second = reader.next();
+            assertEquals("Tipo \"SW\"\n", second.get("model"));
+            assertNull(second.get("price"));
+            assertEquals("", reader.next().get("model"));
+        }
+    }
+
+    @Test
+    public void testCsv_columns () throws IOException {
+        // the columns of the first row are the header, the rest are written in the same order
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final RowWriter writer = new CsvRowWriter(out, StandardCharsets.ISO_8859_1, ';');
+        final Map<String, Object> other = new LinkedHashMap<>();
+        other.put("price", 2);
+        other.put("cid", "ñ");
+        writer.write(row(1, "Leon", 1));
+        writer.write(other);
+        writer.flush();
+        assertEquals("cid;model;price\r\n1;Leon;1\r\nñ;;2\r\n", out.toString(StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    public void testJsonLines () throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final RowWriter writer = new JsonLinesRowWriter(out, StandardCharsets.UTF_8);
+        writer.write(row(1, "Ibiza\nFR", new BigDecimal("10.50")));
+        writer.write(row(2, null, null));
+        writer.flush();
+        assertEquals("{\"cid\":1,\"model\":\"Ibiza\\nFR\",\"price\":10.50}\n{\"cid\":2,\"model\":null,\"price\":null}\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testSupports () {
+        assertTrue(RowWriter.supports(MediaType.valueOf("text/csv; charset=UTF-8")));
+        assertTrue(RowWriter.supports(MediaType.valueOf("application/x-ndjson")));
+        assertFalse(RowWriter.supports(MediaType.APPLICATION_JSON_TYPE));
+        assertFalse(RowWriter.supports(MediaType.WILDCARD_TYPE));
+        assertFalse(RowWriter.supports(null));
+        assertTrue(RowWriter.of(MediaType.valueOf("text/*"), new ByteArrayOutputStream()).isEmpty());
+    }
+
+    private static Map<String, Object> row (final Object cid, final Object model, final Object price) {
+        final Map<String, Object> row = new LinkedHashMap<>();
+        row.put("cid", cid);
+        row.put("model", model);
+        row.put("price", price);
+        return row;
+    }
+
+}
@@ -0,0 +1,78 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ * 
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.amforeas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import amforeas.rest.xstream.SuccessResponse;
+import amforeas.rest.xstream.Usage;
+import amforeas.rest.xstream.Usage.Operation;
+
+@Tag("offline-tests")
+public class UsageTest {
+
+    private final Usage u = Usage.getInstance();
+
+    @Test
+    public void testConcurrentRequests () throws Exception {
+        final long total = u.getTotal();
+        final long failed = u.getFail();
+        final long deletes = u.getCount(Operation.DELETE);
+        final long before = u.getLatency(Operation.DELETE, "usage_test", "users").getCount();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(64);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int t = 0; t < 64; t++) {
+                tasks.add(() -> {
+                    for (int i = 1; i <= 1000; i++) {
+                        u.addDelete("usage_test", "users", TimeUnit.MILLISECONDS.toNanos(i % 100), i % 10 == 0 ? 500 : 200);
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> f : executor.invokeAll(tasks)) {
+                f.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(64000, u.getTotal() - total);
+        assertEquals(6400, u.getFail() - failed);
+        assertEquals(64000, u.getCount(Operation.DELETE) - deletes);
+
+        var latency = u.getLatency(Operation.DELETE, "usage_test", "users");
+        assertEquals(64000, latency.getCount() - before);
+        assertEquals(99000, latency.getMax());
+        assertTrue(latency.getPercentile(50) >= 49000 && latency.getPercentile(50) <= 52000);
+    }
+
+    @Test
+    public void testUsageData () {
+        u.addQuery("usage_test", "get_year_sales", TimeUnit.MILLISECONDS.toNanos(5), 200);
+        var r = (SuccessResponse) u.getUsageData();
+        assertTrue(r.getRows().stream().anyMatch(row -> "usage_test".equals(row.getCells().get("alias"))
+            && "queries".equals(row.getCells().get("operation")) && row.getCells().containsKey("p999-ms")));
+    }
+
+}
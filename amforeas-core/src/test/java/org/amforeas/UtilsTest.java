@@ -107,6 +107,34 @@ public class UtilsTest {
         assertTrue(AmforeasUtils.parseValue("2011-12-11T12:35:45.200+01:00") instanceof java.sql.Timestamp);
         assertTrue(AmforeasUtils.parseValue("2011-01-19") instanceof java.sql.Date);
         assertTrue(AmforeasUtils.parseValue("12:35:45.200+01:00") instanceof java.sql.Time);
+        assertEquals(-5, AmforeasUtils.parseValue("-5"));
+        assertEquals(12345678901L, AmforeasUtils.parseValue("12345678901"));
+        assertEquals(new BigDecimal("12345678901234567890"), AmforeasUtils.parseValue("12345678901234567890"));
+        assertEquals("10:15:30", AmforeasUtils.parseValue("10:15:30"));
+        assertEquals("1.0.0", AmforeasUtils.parseValue("1.0.0"));
+        assertNull(AmforeasUtils.parseValue(null));
+    }
+
+    @Test
+    public void testIsNumber () {
+        assertTrue(AmforeasUtils.isInteger("42"));
+        assertTrue(AmforeasUtils.isInteger("-42"));
+        assertFalse(AmforeasUtils.isInteger("4.2"));
+        assertFalse(AmforeasUtils.isInteger(" 42"));
+        assertFalse(AmforeasUtils.isInteger(""));
+        assertFalse(AmforeasUtils.isInteger(null));
+
+        assertTrue(AmforeasUtils.isDecimal("4.2"));
+        assertTrue(AmforeasUtils.isDecimal("-.5"));
+        assertTrue(AmforeasUtils.isDecimal("1e10"));
+        assertFalse(AmforeasUtils.isDecimal("1e"));
+        assertFalse(AmforeasUtils.isDecimal("."));
+        assertFalse(AmforeasUtils.isDecimal("NaN"));
+        assertFalse(AmforeasUtils.isDecimal(null));
+
+        assertEquals(2147483647, AmforeasUtils.toInteger("2147483647"));
+        assertEquals(2147483648L, AmforeasUtils.toInteger("2147483648"));
+        assertEquals(-2147483648, AmforeasUtils.toInteger("-2147483648"));
     }
 
     @Test
@@ -0,0 +1,155 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ * 
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.amforeas.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import amforeas.cache.BoundedCache;
+
+@Tag("offline-tests")
+public class BoundedCacheTest {
+
+    @Test
+    public void testMaximumSize () {
+        BoundedCache<Integer, Integer> c = new BoundedCache<>(10, 0);
+        for (int i = 0; i < 100; i++) {
+            c.put(i, i);
+        }
+        assertEquals(10, c.size());
+        assertEquals(10, c.getWeight());
+        assertEquals(90, c.getEvictions());
+        assertTrue(c.get(99).isPresent());
+        assertTrue(c.get(0).isEmpty());
+    }
+
+    @Test
+    public void testMaximumWeight () {
+        BoundedCache<String, String> c = new BoundedCache<>(10, 0, (k, v) -> v.length());
+        c.put("a", "12345");
+        c.put("b", "12345");
+        assertEquals(10, c.getWeight());
+
+        c.put("c", "123");
+        assertTrue(c.get("a").isEmpty());
+        assertEquals(8, c.getWeight());
+
+        assertEquals("123", c.put("c", "1"));
+        assertEquals(6, c.getWeight());
+
+        assertThrows(IllegalArgumentException.class, () -> new BoundedCache<String, String>(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new BoundedCache<String, String>(10, 0, (k, v) -> -1).put("d", "d"));
+    }
+
+    @Test
+    public void testScanResistance () {
+        BoundedCache<Integer, Integer> c = new BoundedCache<>(100, 0);
+        for (int i = 0; i < 10; i++) {
+            c.put(i, i);
+            c.get(i);
+        }
+        c.cleanUp();
+
+        // a scan of entries read once doesn't flush the ones which were read again
+        for (int i = 1000; i < 2000; i++) {
+            c.put(i, i);
+        }
+        for (int i = 0; i < 10; i++) {
+            assertTrue(c.get(i).isPresent());
+        }
+        assertEquals(100, c.size());
+    }
+
+    @Test
+    public void testExpiration () {
+        final AtomicLong now = new AtomicLong();
+        BoundedCache<String, Integer> c = new BoundedCache<>(100, 1000, (k, v) -> 1, now::get);
+        c.put("a", 1);
+        c.put("b", 2);
+        assertTrue(c.get("a").isPresent());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        c.put("c", 3);
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(600));
+        assertTrue(c.get("a").isEmpty());
+        assertTrue(c.get("c").isPresent());
+
+        // expired entries are removed without being read
+        c.cleanUp();
+        assertEquals(1, c.size());
+        assertEquals(1, c.getWeight());
+        assertEquals(2, c.getExpirations());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        c.cleanUp();
+        assertEquals(0, c.size());
+    }
+
+    @Test
+    public void testStatistics () {
+        BoundedCache<String, Integer> c = new BoundedCache<>(100, 0);
+        c.put("a", 1);
+        c.get("a");
+        c.get("a");
+        c.get("b");
+        assertEquals(2, c.getHits());
+        assertEquals(1, c.getMisses());
+        assertEquals(1, c.remove("a"));
+        assertNull(c.remove("a"));
+        assertEquals(0, c.getWeight());
+    }
+
+    @Test
+    public void testConcurrency () throws Exception {
+        final BoundedCache<Integer, Integer> c = new BoundedCache<>(50, 0);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                final int seed = t;
+                tasks.add(() -> {
+                    for (int i = 0; i < 10000; i++) {
+                        int key = (i * 31 + seed) % 200;
+                        if (i % 4 == 0) {
+                            c.put(key, key);
+                        } else {
+                            c.get(key).ifPresent(v -> assertEquals(key, v));
+                        }
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> f : executor.invokeAll(tasks)) {
+                f.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        c.cleanUp();
+        assertTrue(c.size() <= 50);
+        assertEquals(c.size(), c.getWeight());
+    }
+
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.amforeas.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.ws.rs.core.MediaType;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import amforeas.cache.ResponseCache;
+
+@Tag("offline-tests")
+public class ResponseCacheTest {
+
+    private final AtomicLong time = new AtomicLong();
+    private final ResponseCache cache = new ResponseCache(1024, time::get);
+
+    private static final byte[] BODY = "{\"success\":true}".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void testKeyOf () {
+        assertEquals("alias1/users?\n\n", ResponseCache.keyOf("alias1/users", null, null, null));
+        assertEquals("alias1/users?offset=10\napplication/json\nuid", ResponseCache.keyOf("alias1/users", "offset=10", "application/json", "uid"));
+        assertNotEquals(ResponseCache.keyOf("alias1/users", null, "application/json", null), ResponseCache.keyOf("alias1/users", null, "application/xml", null));
+        assertNotEquals(ResponseCache.keyOf("alias1/users/1", null, null, null), ResponseCache.keyOf("alias1/users/1", null, null, "uid"));
+    }
+
+    @Test
+    public void testGet () {
+        final String key = ResponseCache.keyOf("alias1/users", null, null, null);
+        final long version = cache.version("alias1", "users");
+        assertTrue(cache.get("alias1", key, version).isEmpty());
+
+        final ResponseCache.Entry entry = cache.put(key, version, 60, BODY, MediaType.APPLICATION_JSON_TYPE);
+        assertEquals("c2PoX+nt7m8FOksxlYjAhg==", entry.getTag().getValue());
+        assertFalse(entry.getTag().isWeak());
+
+        final ResponseCache.Entry hit = cache.get("alias1", key, version).get();
+        assertArrayEquals(BODY, hit.getBody());
+        assertEquals(MediaType.APPLICATION_JSON_TYPE, hit.getType());
+        assertEquals(entry.getTag(), hit.getTag());
+    }
+
+    @Test
+    public void testInvalidate () {
+        final String key = ResponseCache.keyOf("alias1/users", null, null, null);
+        final long version = cache.version("alias1", "users");
+        cache.put(key, version, 60, BODY, MediaType.APPLICATION_JSON_TYPE);
+
+        // other tables and aliases don't change the version
+        cache.invalidate("alias1", "movies");
+        cache.invalidate("alias2", "users");
+        cache.invalidate("alias2");
+        assertEquals(version, cache.version("alias1", "users"));
+        assertTrue(cache.get("alias1", key, cache.version("alias1", "users")).isPresent());
+
+        cache.invalidate("ALIAS1", "Users");
+        assertNotEquals(version, cache.version("alias1", "users"));
+        assertTrue(cache.get("alias1", key, cache.version("alias1", "users")).isEmpty());
+
+        final long next = cache.version("alias1", "users");
+        cache.put(key, next, 60, BODY, MediaType.APPLICATION_JSON_TYPE);
+        cache.invalidate("alias1");
+        assertNotEquals(next, cache.version("alias1", "users"));
+        assertTrue(cache.get("alias1", key, cache.version("alias1", "users")).isEmpty());
+    }
+
+    @Test
+    public void testExpiration () {
+        final String key = ResponseCache.keyOf("alias1/users", null, null, null);
+        final long version = cache.version("alias1", "users");
+        cache.put(key, version, 60, BODY, MediaType.APPLICATION_JSON_TYPE);
+
+        time.addAndGet(TimeUnit.SECONDS.toNanos(59));
+        assertTrue(cache.get("alias1", key, version).isPresent());
+
+        time.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertTrue(cache.get("alias1", key, version).isEmpty());
+    }
+
+    @Test
+    public void testAddStatistics () {
+        final String key = ResponseCache.keyOf("alias1/users", null, null, null);
+        cache.get("alias1", key, 0);
+        cache.put(key, 0, 60, BODY, MediaType.APPLICATION_JSON_TYPE);
+        cache.get("alias1", key, 0);
+        cache.get("ALIAS1", key, 0);
+
+        final List<Map<String, Object>> stats = cache.addStatistics(List.of(new HashMap<>(Map.of("alias", "alias1")), new HashMap<>(Map.of("alias", "alias2"))));
+        assertEquals(2L, stats.get(0).get("cache-hits"));
+        assertEquals(1L, stats.get(0).get("cache-misses"));
+        assertEquals(0L, stats.get(1).get("cache-hits"));
+        assertEquals(0L, stats.get(1).get("cache-misses"));
+    }
+
+}
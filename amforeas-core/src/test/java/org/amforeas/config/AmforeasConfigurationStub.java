@@ -35,9 +35,30 @@ public class AmforeasConfigurationStub extends AmforeasConfiguration {
         javaProperties.setProperty("amforeas.alias2.jdbc.database", "test_db2");
         javaProperties.setProperty("amforeas.alias2.acl.allow", "none");
         javaProperties.setProperty("amforeas.alias2.acl.rules.cars.allow", "insert, delete");
+        javaProperties.setProperty("amforeas.alias2.executor.threads", "1");
+        javaProperties.setProperty("amforeas.alias2.executor.queue.size", "1");
+        javaProperties.setProperty("amforeas.alias2.executor.queue.timeout", "2000");
 
         javaProperties.setProperty("amforeas.alias3.jdbc.driver", "H2_MEM");
         javaProperties.setProperty("amforeas.alias3.jdbc.database", "test_db");
+        javaProperties.setProperty("amforeas.alias3.jdbc.statement.cache.size", "0");
+        javaProperties.setProperty("amforeas.alias3.jdbc.min.idle", "2");
+        javaProperties.setProperty("amforeas.alias3.jdbc.max.wait", "500");
+        javaProperties.setProperty("amforeas.alias3.jdbc.test.on.borrow", "true");
+        javaProperties.setProperty("amforeas.alias3.jdbc.max.lifetime", "60000");
+        javaProperties.setProperty("amforeas.alias3.jdbc.idle.timeout", "0");
+        javaProperties.setProperty("amforeas.alias3.jdbc.keyset.threshold", "1000");
+        javaProperties.setProperty("amforeas.alias3.jdbc.query.timeout", "30");
+        javaProperties.setProperty("amforeas.alias3.jdbc.query.timeout.movies", "120");
+        javaProperties.setProperty("amforeas.alias3.jdbc.max.connections", "1");
+        javaProperties.setProperty("amforeas.alias3.cache.ttl", "60");
+        javaProperties.setProperty("amforeas.alias3.cache.ttl.movies", "0");
+        javaProperties.setProperty("amforeas.alias3.cache.ttl.cats", "invalid");
+        javaProperties.setProperty("amforeas.alias3.digest.max.size", "65536");
+        javaProperties.setProperty("amforeas.alias3.digest.max.size.movies", "0");
+        javaProperties.setProperty("amforeas.alias3.catalog.refresh", "0");
+        javaProperties.setProperty("amforeas.alias3.executor.queue.size", "0");
+        javaProperties.setProperty("amforeas.alias3.executor.rejection", "caller_runs");
         javaProperties.setProperty("amforeas.alias3.acl.allow", "meta, read, update");
         javaProperties.setProperty("amforeas.alias3.acl.rules.users.allow", "none");
         javaProperties.setProperty("amforeas.alias3.acl.rules.movies.allow", "insert, delete");
@@ -46,6 +67,8 @@ public class AmforeasConfigurationStub extends AmforeasConfiguration {
         javaProperties.setProperty("amforeas.alias4.jdbc.driver", "MSSQL_JTDS");
         javaProperties.setProperty("amforeas.alias4.jdbc.database", "test_db2");
         javaProperties.setProperty("amforeas.alias4.acl.allow", "meta, exec");
+        javaProperties.setProperty("amforeas.alias4.jdbc.max.connections", "1");
+        javaProperties.setProperty("amforeas.alias4.executor.queue.size", "0");
 
         this.properties.load(javaProperties);
     }
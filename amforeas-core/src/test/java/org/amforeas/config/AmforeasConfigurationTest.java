@@ -13,8 +13,10 @@
 package org.amforeas.config;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
@@ -25,6 +27,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import amforeas.SingletonFactory;
 import amforeas.acl.ACLRule;
 import amforeas.config.AmforeasConfiguration;
+import amforeas.config.DatabaseConfiguration;
+import amforeas.enums.RejectionPolicy;
 
 @ExtendWith(MockitoExtension.class)
 @Tag("offline-tests")
@@ -60,6 +64,103 @@ class AmforeasConfigurationTest {
         assertThrows(IllegalArgumentException.class, () -> conf.getDatabaseConfigurationForAlias("invalid"));
     }
 
+    @Test
+    void test_getStatementCacheSize () {
+        assertEquals(50, conf.getDatabaseConfigurationForAlias("alias1").getStatementCacheSize());
+        assertEquals(0, conf.getDatabaseConfigurationForAlias("alias3").getStatementCacheSize());
+    }
+
+    @Test
+    void test_getKeysetThreshold () {
+        assertEquals(0, conf.getDatabaseConfigurationForAlias("alias1").getKeysetThreshold());
+        assertEquals(1000, conf.getDatabaseConfigurationForAlias("alias3").getKeysetThreshold());
+    }
+
+    @Test
+    void test_getCatalogRefresh () {
+        assertEquals(1800, conf.getDatabaseConfigurationForAlias("alias1").getCatalogRefresh());
+        assertEquals(0, conf.getDatabaseConfigurationForAlias("alias3").getCatalogRefresh());
+    }
+
+    @Test
+    void test_getQueryTimeouts () {
+        DatabaseConfiguration alias1 = conf.getDatabaseConfigurationForAlias("alias1");
+        assertEquals(0, alias1.getQueryTimeout());
+        assertEquals(0, alias1.getQueryTimeout("movies"));
+
+        DatabaseConfiguration alias3 = conf.getDatabaseConfigurationForAlias("alias3");
+        assertEquals(30, alias3.getQueryTimeout());
+        assertEquals(30, alias3.getQueryTimeout("users"));
+        assertEquals(30, alias3.getQueryTimeout(null));
+        assertEquals(120, alias3.getQueryTimeout("movies"));
+        assertEquals(120, alias3.getQueryTimeout("MOVIES"));
+    }
+
+    @Test
+    void test_getCacheTtls () {
+        assertEquals(33554432, conf.getServerCacheSize());
+
+        DatabaseConfiguration alias1 = conf.getDatabaseConfigurationForAlias("alias1");
+        assertEquals(0, alias1.getCacheTtl());
+        assertEquals(0, alias1.getCacheTtl("movies"));
+
+        DatabaseConfiguration alias3 = conf.getDatabaseConfigurationForAlias("alias3");
+        assertEquals(60, alias3.getCacheTtl());
+        assertEquals(60, alias3.getCacheTtl("users"));
+        assertEquals(60, alias3.getCacheTtl("cats"));
+        assertEquals(0, alias3.getCacheTtl("movies"));
+        assertEquals(0, alias3.getCacheTtl("MOVIES"));
+    }
+
+    @Test
+    void test_getDigestMaxSizes () {
+        DatabaseConfiguration alias1 = conf.getDatabaseConfigurationForAlias("alias1");
+        assertEquals(DatabaseConfiguration.DEFAULT_DIGEST_MAX_SIZE, alias1.getDigestMaxSize());
+        assertEquals(DatabaseConfiguration.DEFAULT_DIGEST_MAX_SIZE, alias1.getDigestMaxSize("movies"));
+
+        DatabaseConfiguration alias3 = conf.getDatabaseConfigurationForAlias("alias3");
+        assertEquals(65536, alias3.getDigestMaxSize());
+        assertEquals(65536, alias3.getDigestMaxSize("users"));
+        assertEquals(0, alias3.getDigestMaxSize("movies"));
+        assertEquals(0, alias3.getDigestMaxSize("MOVIES"));
+    }
+
+    @Test
+    void test_getExecutorSettings () {
+        DatabaseConfiguration alias1 = conf.getDatabaseConfigurationForAlias("alias1");
+        assertEquals(25, alias1.getExecutorThreads());
+        assertEquals(100, alias1.getExecutorQueueSize());
+        assertEquals(10000, alias1.getExecutorQueueTimeout());
+        assertEquals(RejectionPolicy.ABORT, alias1.getExecutorRejection());
+
+        DatabaseConfiguration alias2 = conf.getDatabaseConfigurationForAlias("alias2");
+        assertEquals(1, alias2.getExecutorThreads());
+        assertEquals(1, alias2.getExecutorQueueSize());
+        assertEquals(2000, alias2.getExecutorQueueTimeout());
+
+        DatabaseConfiguration alias3 = conf.getDatabaseConfigurationForAlias("alias3");
+        assertEquals(1, alias3.getMaxConnections());
+        assertEquals(0, alias3.getExecutorQueueSize());
+        assertEquals(RejectionPolicy.CALLER_RUNS, alias3.getExecutorRejection());
+    }
+
+    @Test
+    void test_getPoolSettings () {
+        DatabaseConfiguration alias1 = conf.getDatabaseConfigurationForAlias("alias1");
+        assertEquals(0, alias1.getMinIdle());
+        assertEquals(10000, alias1.getMaxWait());
+        assertFalse(alias1.isTestOnBorrow());
+        assertEquals(1800000, alias1.getMaxLifetime());
+        assertEquals(600000, alias1.getIdleTimeout());
+
+        DatabaseConfiguration alias3 = conf.getDatabaseConfigurationForAlias("alias3");
+        assertEquals(2, alias3.getMinIdle());
+        assertEquals(500, alias3.getMaxWait());
+        assertTrue(alias3.isTestOnBorrow());
+        assertEquals(60000, alias3.getMaxLifetime());
+        assertEquals(0, alias3.getIdleTimeout());
+    }
+
     @Test
     void test_getters () {
         assertEquals(8080, conf.getServerPort());
@@ -67,6 +168,7 @@ class AmforeasConfigurationTest {
         assertEquals("0.0.0.0", conf.getServerHost());
         assertEquals(5, conf.getServerThreadsMin());
         assertEquals(10, conf.getServerThreadsMax());
+        assertFalse(conf.isServerThreadsVirtual());
         assertNull(conf.getSecurePort());
         assertNull(conf.getJKSFile());
         assertNull(conf.getJKSFilePassword());
@@ -0,0 +1,89 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.amforeas.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import amforeas.handler.ColumnPlan;
+
+@ExtendWith(MockitoExtension.class)
+@Tag("offline-tests")
+public class ColumnPlanTest {
+
+    @Mock
+    ResultSetMetaData meta;
+
+    @Mock
+    ResultSet rs;
+
+    @Test
+    public void testMap () throws SQLException {
+        when(meta.getColumnCount()).thenReturn(4);
+        when(meta.getColumnName(1)).thenReturn("ID");
+        when(meta.getColumnType(1)).thenReturn(Types.INTEGER);
+        when(meta.getColumnName(2)).thenReturn("Picture");
+        when(meta.getColumnType(2)).thenReturn(Types.BLOB);
+        when(meta.getColumnName(3)).thenReturn("credit");
+        when(meta.getColumnType(3)).thenReturn(Types.DECIMAL);
+        when(meta.getColumnName(4)).thenReturn("AGE");
+        when(meta.getColumnType(4)).thenReturn(Types.SMALLINT);
+
+        when(rs.getInt(1)).thenReturn(7);
+        when(rs.getBigDecimal(3)).thenReturn(new BigDecimal("32.50"));
+        when(rs.getInt(4)).thenReturn(0);
+        when(rs.wasNull()).thenReturn(false, true);
+
+        final ColumnPlan plan = ColumnPlan.of(meta);
+        assertEquals(3, plan.size());
+
+        final Map<String, Object> row = plan.map(rs);
+        assertEquals(3, row.size());
+        assertEquals(7, row.get("id"));
+        assertEquals(new BigDecimal("32.50"), row.get("credit"));
+        assertNull(row.get("age"));
+        assertFalse(row.containsKey("picture"));
+        // in the order of the result set
+        assertEquals(List.of("id", "credit", "age"), List.copyOf(row.keySet()));
+
+        verify(rs, never()).getObject(1);
+        verify(rs, never()).getBlob(2);
+    }
+
+    @Test
+    public void testMap_bigint () throws SQLException {
+        when(meta.getColumnCount()).thenReturn(1);
+        when(meta.getColumnName(1)).thenReturn("ID");
+        when(meta.getColumnType(1)).thenReturn(Types.BIGINT);
+        when(rs.getLong(1)).thenReturn(Integer.MAX_VALUE + 1L);
+
+        assertEquals(2147483648L, ColumnPlan.of(meta).map(rs).get("id"));
+        verify(rs, never()).getInt(1);
+    }
+
+}
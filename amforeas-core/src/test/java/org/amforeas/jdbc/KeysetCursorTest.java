@@ -0,0 +1,59 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ * 
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.amforeas.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.util.Map;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import amforeas.jdbc.KeysetCursor;
+import amforeas.jdbc.OrderParam;
+
+/**
+ * Tests for {@link amforeas.jdbc.KeysetCursor}
+ */
+@Tag("offline-tests")
+public class KeysetCursorTest {
+
+    @Test
+    public void testEncode () {
+        final KeysetCursor cursor = new KeysetCursor("foo bar/+", "10");
+        final String token = cursor.encode();
+        assertEquals(cursor, KeysetCursor.decode(token));
+        assertEquals(token, KeysetCursor.decode(token).encode());
+
+        final KeysetCursor empty = new KeysetCursor(null, "10");
+        assertEquals(empty, KeysetCursor.decode(empty.encode()));
+    }
+
+    @Test
+    public void testDecode_invalid () {
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("foo"));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("!!!"));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(new KeysetCursor("foo", "1").encode().substring(2)));
+    }
+
+    @Test
+    public void testOf () {
+        final Map<String, Object> cells = Map.of("id", 10, "name", "foo");
+        assertEquals(new KeysetCursor("10", "10"), KeysetCursor.of(cells, null, "id"));
+        assertEquals(new KeysetCursor("foo", "10"), KeysetCursor.of(cells, new OrderParam("NAME", "DESC"), "ID"));
+        assertEquals(new KeysetCursor(null, "10"), KeysetCursor.of(cells, new OrderParam("age", "ASC"), "id"));
+        assertNull(KeysetCursor.of(cells, null, "tableId"));
+        assertNull(KeysetCursor.of(cells, null, null));
+    }
+
+}
@@ -15,10 +15,13 @@ package org.amforeas.jdbc;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import javax.ws.rs.core.MultivaluedHashMap;
 import javax.ws.rs.core.MultivaluedMap;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import amforeas.jdbc.KeysetCursor;
 import amforeas.jdbc.LimitParam;
 
 /**
@@ -109,4 +112,22 @@ public class LimitParamTest {
         assertEquals(LimitParam.valueOf(params, 100).getStart(), 300);
     }
 
+    @Test
+    public void testAfter () {
+        MultivaluedMap<String, String> params = new MultivaluedHashMap<>();
+        params.add("page", "4");
+        assertFalse(LimitParam.valueOf(params, 25).isKeyset());
+
+        final KeysetCursor cursor = new KeysetCursor("foo", "10");
+        params.add("after", cursor.encode());
+        final LimitParam lp = LimitParam.valueOf(params, 25);
+        assertTrue(lp.isKeyset());
+        assertEquals(cursor, lp.getCursor());
+        assertEquals(lp.getLimit(), 25);
+        assertEquals(lp.getStart(), 0);
+
+        params.putSingle("after", "foo");
+        assertThrows(IllegalArgumentException.class, () -> LimitParam.valueOf(params, 25));
+    }
+
 }
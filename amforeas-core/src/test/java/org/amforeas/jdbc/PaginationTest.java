@@ -16,6 +16,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import amforeas.jdbc.KeysetCursor;
 import amforeas.jdbc.LimitParam;
 import amforeas.rest.xstream.Pagination;
 
@@ -122,4 +123,19 @@ public class PaginationTest {
         assertEquals(p.getPages(), 2);
     }
 
+    @Test
+    public void test_next () {
+        final KeysetCursor cursor = new KeysetCursor("foo", "10");
+        LimitParam limit = new LimitParam(25, 0);
+
+        assertEquals(cursor.encode(), Pagination.of(limit, 25, 100).setNext(cursor, limit).getNext());
+        assertNull(Pagination.of(limit, 24, 100).setNext(cursor, limit).getNext());
+        assertNull(Pagination.of(limit, 25, 100).setNext(null, limit).getNext());
+
+        limit = new LimitParam(25, 0, cursor);
+        Pagination p = Pagination.of(limit, 25, 100);
+        assertNull(p.getPage());
+        assertEquals(p.getPages(), 4);
+    }
+
 }
@@ -0,0 +1,99 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ * 
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.amforeas.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import amforeas.config.DatabaseConfiguration;
+import amforeas.enums.JDBCDriver;
+import amforeas.jdbc.QueryContext;
+
+/**
+ * Tests for {@link amforeas.jdbc.QueryContext}
+ */
+@Tag("offline-tests")
+public class QueryContextTest {
+
+    private DatabaseConfiguration dbconf;
+    private QueryContext context;
+
+    @BeforeEach
+    public void setUpEach () {
+        dbconf = DatabaseConfiguration.instanceOf("alias1", JDBCDriver.H2_MEM, "sa", "", "test_db", null, null, 1, false);
+        dbconf.setQueryTimeout(30);
+        context = new QueryContext();
+    }
+
+    @AfterEach
+    public void tearDownEach () {
+        context.detach();
+    }
+
+    @Test
+    public void testApply_withoutContext () throws SQLException {
+        final PreparedStatement stmt = mock(PreparedStatement.class);
+        QueryContext.apply(stmt, dbconf);
+        verify(stmt).setQueryTimeout(30);
+        assertTrue(QueryContext.current().isEmpty());
+    }
+
+    @Test
+    public void testApply () throws SQLException {
+        context.attach();
+        final PreparedStatement alias = mock(PreparedStatement.class);
+        QueryContext.apply(alias, dbconf);
+        verify(alias).setQueryTimeout(30);
+
+        context.setTimeout(5);
+        final PreparedStatement request = mock(PreparedStatement.class);
+        QueryContext.apply(request, dbconf);
+        verify(request).setQueryTimeout(5);
+    }
+
+    @Test
+    public void testDetach () throws SQLException {
+        context.setTimeout(5);
+        context.attach();
+        context.detach();
+
+        assertTrue(QueryContext.current().isEmpty());
+        final PreparedStatement stmt = mock(PreparedStatement.class);
+        QueryContext.apply(stmt, dbconf);
+        verify(stmt).setQueryTimeout(30);
+    }
+
+    @Test
+    public void testIsTimeout () {
+        assertTrue(QueryContext.isTimeout(new SQLTimeoutException("timeout")));
+        assertTrue(QueryContext.isTimeout(new SQLException("cancelled", "57014")));
+        assertTrue(QueryContext.isTimeout(new SQLException("timeout", "HYT00")));
+
+        final SQLException wrapped = new SQLException("wrapped");
+        wrapped.setNextException(new SQLTimeoutException("timeout"));
+        assertTrue(QueryContext.isTimeout(wrapped));
+        assertTrue(QueryContext.isTimeout(new SQLException("wrapped", new SQLTimeoutException("timeout"))));
+
+        assertFalse(QueryContext.isTimeout(new SQLException("syntax error", "42000")));
+        assertFalse(QueryContext.isTimeout(new SQLException("unknown")));
+    }
+
+}
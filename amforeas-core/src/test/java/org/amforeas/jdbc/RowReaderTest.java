@@ -0,0 +1,104 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.amforeas.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import amforeas.exceptions.MalformedRowException;
+import amforeas.jdbc.CsvRowReader;
+import amforeas.jdbc.JsonLinesRowReader;
+import amforeas.jdbc.RowReader;
+
+/**
+ * Tests for {@link amforeas.jdbc.CsvRowReader} and {@link amforeas.jdbc.JsonLinesRowReader}
+ */
+@Tag("offline-tests")
+public class RowReaderTest {
+
+    @Test
+    public void testCsv () throws IOException {
+        final String csv = "\uFEFFcid,maker,model\r\n1,Seat,\"Ibiza, FR\"\r\n\r\n2,,\"\"\n3,Fiat,\"Tipo\nSW \"\"Cross\"\"\"\r4,Kia,Ceed";
+        try (RowReader reader = csv(csv, StandardCharsets.UTF_8)) {
+            assertEquals(Map.of("cid", "1", "maker", "Seat", "model", "Ibiza, FR"), reader.next());
+            assertEquals(2, reader.getLine());
+
+            // an empty field is null unless it's quoted
+            final Map<String, String> empty = new HashMap<>();
+            empty.put("cid", "2");
+            empty.put("maker", null);
+            empty.put("model", "");
+            assertEquals(empty, reader.next());
+            assertEquals(4, reader.getLine());
+
+            assertEquals("Tipo\nSW \"Cross\"", reader.next().get("model"));
+            assertEquals(5, reader.getLine());
+            assertEquals("Ceed", reader.next().get("model"));
+            assertEquals(7, reader.getLine());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    public void testCsv_malformed () throws IOException {
+        try (RowReader reader = csv("cid;maker\n1;Seat;Ibiza\n2;Fiat\n3;\"Kia\n", StandardCharsets.ISO_8859_1, ';')) {
+            final MalformedRowException ex = assertThrows(MalformedRowException.class, reader::next);
+            assertEquals(2, ex.getLine());
+            // the next rows can still be read
+            assertEquals(Map.of("cid", "2", "maker", "Fiat"), reader.next());
+            assertEquals(4, assertThrows(MalformedRowException.class, reader::next).getLine());
+            assertNull(reader.next());
+        }
+
+        try (RowReader reader = csv("cid,,maker\n1,2,3\n", StandardCharsets.UTF_8)) {
+            assertThrows(MalformedRowException.class, reader::next);
+            assertNull(reader.next());
+        }
+
+        try (RowReader reader = csv("cid,CID\n1,2\n", StandardCharsets.UTF_8)) {
+            assertThrows(MalformedRowException.class, reader::next);
+        }
+    }
+
+    @Test
+    public void testJsonLines () throws IOException {
+        final String json = "{\"cid\":1,\"maker\":\"Seat\"}\n\n{\"cid\":\"2\",\"maker\":null}\r\n[1]\n{}\n{\"cid\":3";
+        try (RowReader reader = new JsonLinesRowReader(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8)) {
+            assertEquals(Map.of("cid", "1", "maker", "Seat"), reader.next());
+            assertEquals(1, reader.getLine());
+            assertNull(reader.next().get("maker"));
+            assertEquals(3, reader.getLine());
+            assertEquals(4, assertThrows(MalformedRowException.class, reader::next).getLine());
+            assertEquals(5, assertThrows(MalformedRowException.class, reader::next).getLine());
+            assertEquals(6, assertThrows(MalformedRowException.class, reader::next).getLine());
+            assertNull(reader.next());
+        }
+    }
+
+    private static RowReader csv (final String body, final Charset charset) {
+        return csv(body, charset, ',');
+    }
+
+    private static RowReader csv (final String body, final Charset charset, final char delimiter) {
+        return new CsvRowReader(new ByteArrayInputStream(body.getBytes(charset)), charset, delimiter);
+    }
+
+}
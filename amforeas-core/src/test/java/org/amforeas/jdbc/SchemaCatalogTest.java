@@ -0,0 +1,218 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.amforeas.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+import org.joda.time.DateTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import amforeas.jdbc.SchemaCatalog;
+import amforeas.jdbc.TableMetadata;
+import amforeas.jdbc.TypedValue;
+import amforeas.rest.xstream.Row;
+
+/**
+ * Tests for {@link amforeas.jdbc.SchemaCatalog}
+ */
+@Tag("offline-tests")
+public class SchemaCatalogTest {
+
+    private DataSource ds;
+    private Connection conn;
+    private DatabaseMetaData metadata;
+    private final AtomicLong now = new AtomicLong();
+
+    @BeforeEach
+    public void setUp () throws SQLException {
+        ds = mock(DataSource.class);
+        metadata = mock(DatabaseMetaData.class);
+        conn = mock(Connection.class);
+        when(ds.getConnection()).thenReturn(conn);
+        when(conn.getMetaData()).thenReturn(metadata);
+        when(metadata.getSearchStringEscape()).thenReturn("\\");
+        when(metadata.storesUpperCaseIdentifiers()).thenReturn(true);
+    }
+
+    @Test
+    public void testGetTable () throws Exception {
+        final ResultSet empty = mock(ResultSet.class);
+        when(metadata.getColumns(null, null, "maker\\_stats", null)).thenReturn(empty);
+        mockTable();
+
+        final SchemaCatalog catalog = new SchemaCatalog(ds, 60);
+        final TableMetadata table = catalog.getTable("maker_stats").get();
+        assertEquals("PUBLIC.MAKER_STATS", table.toString());
+        assertEquals(Map.of("id", Types.BIGINT, "last_update", Types.TIMESTAMP), table.getColumnTypes());
+        assertFalse(table.getColumns().get(0).isNullable());
+        assertTrue(table.hasColumn("LAST_UPDATE"));
+        assertEquals("id", table.getPrimaryKey().get());
+        assertEquals(1, table.getIndexes().size());
+        assertEquals(List.of("last_update", "id"), table.getIndexes().get(0).getColumns());
+        assertTrue(table.getIndexes().get(0).isUnique());
+
+        final List<Row> rows = table.toRows();
+        assertEquals(2, rows.size());
+        assertEquals(Boolean.TRUE, rows.get(0).getCells().get("primaryKey"));
+        assertEquals("BIGINT", rows.get(0).getCells().get("columnType"));
+        assertEquals("IDX_UPDATE", rows.get(1).getCells().get("indexes"));
+
+        // the table is read once
+        assertSame(table, catalog.getTable("MAKER_STATS").get());
+        assertEquals("id", catalog.getPrimaryKey("Maker_Stats").get());
+        verify(ds).getConnection();
+    }
+
+    @Test
+    public void testGetTable_schema () throws Exception {
+        final ResultSet empty = mock(ResultSet.class);
+        when(conn.getSchema()).thenReturn("APP_1");
+        when(metadata.getColumns(null, "APP\\_1", "maker\\_stats", null)).thenReturn(empty);
+        mockTable("APP\\_1", "APP_1");
+
+        // the table in the schema of the connection, not the first one with its name
+        final SchemaCatalog catalog = new SchemaCatalog(ds, 60);
+        assertEquals("APP_1.MAKER_STATS", catalog.getTable("maker_stats").get().toString());
+        verify(metadata, never()).getColumns(isNull(), isNull(), anyString(), isNull());
+    }
+
+    @Test
+    public void testGetTable_otherSchema () throws Exception {
+        final ResultSet empty = mock(ResultSet.class);
+        when(conn.getSchema()).thenReturn("APP");
+        when(metadata.getColumns(isNull(), eq("APP"), anyString(), isNull())).thenReturn(empty);
+        when(metadata.getColumns(null, null, "maker\\_stats", null)).thenReturn(empty);
+        mockTable();
+
+        final SchemaCatalog catalog = new SchemaCatalog(ds, 60);
+        assertEquals("PUBLIC.MAKER_STATS", catalog.getTable("maker_stats").get().toString());
+    }
+
+    @Test
+    public void testConvert () throws Exception {
+        mockTable();
+
+        final SchemaCatalog catalog = new SchemaCatalog(ds, 60);
+        final Object[] params = catalog.convert("MAKER_STATS", List.of("id", "last_update", "other"), List.of("1", "2011-01-19", "2"));
+        assertEquals(1L, ((TypedValue) params[0]).getValue());
+        assertEquals(new Timestamp(new DateTime(2011, 1, 19, 0, 0).getMillis()), ((TypedValue) params[1]).getValue());
+        assertEquals(2, ((TypedValue) params[2]).getValue());
+    }
+
+    @Test
+    public void testGetTable_unknown () throws Exception {
+        final ResultSet empty = mock(ResultSet.class);
+        when(metadata.getColumns(isNull(), isNull(), anyString(), isNull())).thenReturn(empty);
+
+        final SchemaCatalog catalog = new SchemaCatalog(ds, 60);
+        assertTrue(catalog.getTable("nope").isEmpty());
+        assertTrue(catalog.getColumnTypes("nope").isEmpty());
+        assertTrue(catalog.getTable(" ").isEmpty());
+
+        // unknown tables are looked up again
+        verify(ds, times(2)).getConnection();
+    }
+
+    @Test
+    public void testGetTables () throws Exception {
+        final ResultSet tables = mock(ResultSet.class);
+        when(metadata.getTables(isNull(), isNull(), eq("%"), any())).thenReturn(tables);
+        when(tables.next()).thenReturn(true, true, false, true, true, true, false);
+        when(tables.getString("TABLE_NAME")).thenReturn("CAR", "USERS", "CAR", "USERS", "MAKER");
+
+        final SchemaCatalog catalog = new SchemaCatalog(ds, 60, now::get);
+        final SchemaCatalog.Tables first = catalog.getTables();
+        assertEquals(2, first.getRows().size());
+        assertEquals("USERS", first.getRows().get(1).getCells().get("table_name"));
+        assertSame(first, catalog.getTables());
+
+        // the list is read again once it's older than the refresh
+        now.set(TimeUnit.SECONDS.toNanos(61));
+        final SchemaCatalog.Tables second = catalog.getTables();
+        assertEquals(3, second.getRows().size());
+        assertNotEquals(first.getTag(), second.getTag());
+    }
+
+    @Test
+    public void testRefresh () throws Exception {
+        final ResultSet tables = mock(ResultSet.class);
+        when(metadata.getTables(isNull(), isNull(), eq("%"), any())).thenReturn(tables);
+
+        final SchemaCatalog catalog = new SchemaCatalog(ds, 0, now::get);
+        final SchemaCatalog.Tables first = catalog.getTables();
+        now.set(TimeUnit.DAYS.toNanos(1));
+        assertSame(first, catalog.getTables());
+
+        catalog.refresh();
+        assertEquals(first.getTag(), catalog.getTables().getTag());
+        verify(metadata, times(2)).getTables(isNull(), isNull(), eq("%"), any());
+    }
+
+    private void mockTable () throws SQLException {
+        mockTable(null, "PUBLIC");
+    }
+
+    private void mockTable (final String schemaPattern, final String schema) throws SQLException {
+        final ResultSet columns = mock(ResultSet.class);
+        when(metadata.getColumns(null, schemaPattern, "MAKER\\_STATS", null)).thenReturn(columns);
+        when(columns.next()).thenReturn(true, true, true, false);
+        // a table with the same name in another schema is ignored
+        when(columns.getString("TABLE_SCHEM")).thenReturn(schema, schema, "OTHER");
+        when(columns.getString("TABLE_NAME")).thenReturn("MAKER_STATS");
+        when(columns.getString("COLUMN_NAME")).thenReturn("ID", "LAST_UPDATE");
+        when(columns.getString("TYPE_NAME")).thenReturn("BIGINT", "TIMESTAMP");
+        when(columns.getInt("DATA_TYPE")).thenReturn(Types.BIGINT, Types.TIMESTAMP);
+        when(columns.getInt("NULLABLE")).thenReturn(DatabaseMetaData.columnNoNulls, DatabaseMetaData.columnNullable);
+
+        final ResultSet pk = mock(ResultSet.class);
+        when(metadata.getPrimaryKeys(null, schema, "MAKER_STATS")).thenReturn(pk);
+        when(pk.next()).thenReturn(true, false);
+        when(pk.getShort("KEY_SEQ")).thenReturn((short) 1);
+        when(pk.getString("COLUMN_NAME")).thenReturn("ID");
+
+        final ResultSet indexes = mock(ResultSet.class);
+        when(metadata.getIndexInfo(isNull(), eq(schema), eq("MAKER_STATS"), anyBoolean(), anyBoolean())).thenReturn(indexes);
+        when(indexes.next()).thenReturn(true, true, true, false);
+        when(indexes.getString("INDEX_NAME")).thenReturn("IDX_UPDATE", "IDX_UPDATE", null);
+        when(indexes.getString("COLUMN_NAME")).thenReturn("ID", "LAST_UPDATE", null);
+        when(indexes.getShort("ORDINAL_POSITION")).thenReturn((short) 2, (short) 1);
+        when(indexes.getShort("TYPE")).thenReturn(DatabaseMetaData.tableIndexOther);
+        when(indexes.getBoolean("NON_UNIQUE")).thenReturn(false);
+    }
+
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.amforeas.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import org.joda.time.DateTime;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import amforeas.jdbc.TypedValue;
+
+/**
+ * Tests for {@link amforeas.jdbc.TypedValue}
+ */
+@Tag("offline-tests")
+public class TypedValueTest {
+
+    @Test
+    public void testConvert_numbers () {
+        assertEquals(42, TypedValue.convert("42", Types.INTEGER));
+        assertEquals(-42, TypedValue.convert("-42", Types.SMALLINT));
+        assertEquals(42L, TypedValue.convert("42", Types.BIGINT));
+        assertEquals(9007199254740993L, TypedValue.convert("9007199254740993", Types.BIGINT));
+        assertEquals(new BigDecimal("12345678901234567890"), TypedValue.convert("12345678901234567890", Types.BIGINT));
+        assertEquals(new BigDecimal("12.50"), TypedValue.convert("12.50", Types.DECIMAL));
+        assertEquals(new BigDecimal("10"), TypedValue.convert("10", Types.NUMERIC));
+        assertEquals(1.5d, TypedValue.convert("1.5", Types.DOUBLE));
+        assertEquals(1.5f, TypedValue.convert("1.5", Types.REAL));
+
+        // values in the wrong format are still guessed, so the database rejects them
+        assertEquals("foo", TypedValue.convert("foo", Types.INTEGER));
+        assertEquals(new BigDecimal("1.5"), TypedValue.convert("1.5", Types.INTEGER));
+    }
+
+    @Test
+    public void testConvert_text () {
+        assertEquals("0042", TypedValue.convert("0042", Types.VARCHAR));
+        assertEquals("2011-01-19", TypedValue.convert("2011-01-19", Types.CHAR));
+        assertEquals("true", TypedValue.convert("true", Types.LONGVARCHAR));
+        assertNull(TypedValue.convert(null, Types.VARCHAR));
+    }
+
+    @Test
+    public void testConvert_booleans () {
+        assertEquals(Boolean.TRUE, TypedValue.convert("true", Types.BOOLEAN));
+        assertEquals(Boolean.FALSE, TypedValue.convert("0", Types.BIT));
+        assertEquals("yes", TypedValue.convert("yes", Types.BOOLEAN));
+    }
+
+    @Test
+    public void testConvert_temporals () {
+        final long date = new DateTime(2011, 1, 19, 0, 0).getMillis();
+        assertEquals(new Date(date), TypedValue.convert("2011-01-19", Types.DATE));
+        assertEquals(new Date(date), TypedValue.convert("20110119", Types.DATE));
+
+        final long timestamp = new DateTime(2011, 1, 19, 10, 15, 30).getMillis();
+        assertEquals(new Timestamp(timestamp), TypedValue.convert("2011-01-19T10:15:30", Types.TIMESTAMP));
+        assertEquals(new Timestamp(timestamp), TypedValue.convert("2011-01-19 10:15:30", Types.TIMESTAMP));
+        assertEquals(new Timestamp(date), TypedValue.convert("2011-01-19", Types.TIMESTAMP));
+        assertEquals(new Timestamp(new DateTime("2011-12-11T12:35:45.200+01:00").getMillis()),
+            TypedValue.convert("2011-12-11T12:35:45.200+01:00", Types.TIMESTAMP));
+
+        assertEquals(Time.valueOf("10:15:30"), TypedValue.convert("10:15:30", Types.TIME));
+
+        // not a valid month
+        assertEquals(20111901, TypedValue.convert("20111901", Types.DATE));
+    }
+
+    @Test
+    public void testBind () throws Exception {
+        final PreparedStatement stmt = mock(PreparedStatement.class);
+        TypedValue.bind(stmt, TypedValue.of("42", Types.BIGINT), TypedValue.of(null, Types.DATE), TypedValue.of("0042", Types.VARCHAR),
+            TypedValue.of("12.50", Types.DECIMAL), TypedValue.of(null, null), TypedValue.of("2011-01-19", null));
+
+        verify(stmt).setLong(1, 42L);
+        verify(stmt).setNull(2, Types.DATE);
+        verify(stmt).setString(3, "0042");
+        verify(stmt).setBigDecimal(4, new BigDecimal("12.50"));
+        verify(stmt).setNull(5, Types.VARCHAR);
+        verify(stmt).setDate(6, new Date(new DateTime(2011, 1, 19, 0, 0).getMillis()));
+    }
+
+}
@@ -70,6 +70,9 @@ public class SelectParamTest {
 
         p.setOperator(Operator.ILIKE);
         assertEquals("id ILIKE ?", p.sql());
+
+        p = new SelectParam("id", Operator.IN, "1", "2", "3");
+        assertEquals("id IN (?,?,?)", p.sql());
     }
 
 }
@@ -11,11 +11,15 @@
  */
 package org.amforeas.sql.dialect;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import amforeas.enums.Operator;
+import amforeas.jdbc.KeysetCursor;
 import amforeas.jdbc.LimitParam;
 import amforeas.jdbc.OrderParam;
+import amforeas.sql.Insert;
 import amforeas.sql.Select;
 import amforeas.sql.SelectParam;
 import amforeas.sql.dialect.HSQLDialect;
@@ -93,4 +97,42 @@ public class HSQLDialectTest extends SQLDialectTest {
     @Test
     @Override
     public void testSelect_columns () {}
+
+    @Test
+    @Override
+    public void testSelect_keyset () {
+        final LimitParam after = new LimitParam(25, 0, new KeysetCursor("foo", "10"));
+
+        doTest("SELECT t.* FROM a_table t WHERE (t.name > ? OR (t.name = ? AND t.tableId > ?)) ORDER BY t.name ASC, t.tableId ASC FETCH FIRST 25 ROWS ONLY",
+            new Select(table).setLimitParam(after).setOrderParam(new OrderParam("name", "ASC")));
+    }
+
+    @Test
+    @Override
+    public void testSelect_keysetNull () {
+        final LimitParam after = new LimitParam(25, 0, new KeysetCursor(null, "10"));
+
+        doTest("SELECT t.* FROM a_table t WHERE (t.name IS NOT NULL OR t.tableId < ?) ORDER BY t.name DESC, t.tableId DESC FETCH FIRST 25 ROWS ONLY",
+            new Select(table).setLimitParam(after).setOrderParam(new OrderParam("name", "DESC")));
+
+        doTest("SELECT t.* FROM a_table t WHERE (t.name IS NOT NULL OR t.tableId > ?) ORDER BY t.name ASC, t.tableId ASC FETCH FIRST 25 ROWS ONLY",
+            new Select(table).setLimitParam(after).setOrderParam(new OrderParam("name", "ASC")));
+    }
+
+    @Test
+    @Override
+    public void testSelect_offset () {
+        assertEquals("SELECT t.* FROM a_table t WHERE t.age = ? ORDER BY t.name DESC, t.tableId DESC LIMIT 1 OFFSET 29",
+            d.toStatementString(new Select(table).setParameter(new SelectParam("age", Operator.EQUALS, "1")).setOrderParam(new OrderParam("name", "DESC")), 29));
+    }
+
+    @Test
+    @Override
+    public void testUpsert () {
+        assertTrue(d.supportsUpsert());
+        assertEquals("MERGE INTO a_table t USING (VALUES (?, ?, ?)) AS s (tableId, name, age) ON (t.tableId = s.tableId) WHEN MATCHED THEN UPDATE SET t.name = s.name, t.age = s.age WHEN NOT MATCHED THEN INSERT (tableId, name, age) VALUES (s.tableId, s.name, s.age)",
+            d.toUpsertStatementString(new Insert(table).addColumn("tableId", "1").addColumn("name", "foo bar").addColumn("age", "50")));
+        assertEquals("MERGE INTO a_table t USING (VALUES (?)) AS s (tableId) ON (t.tableId = s.tableId) WHEN NOT MATCHED THEN INSERT (tableId) VALUES (s.tableId)",
+            d.toUpsertStatementString(new Insert(table).addColumn("tableId", "1")));
+    }
 }
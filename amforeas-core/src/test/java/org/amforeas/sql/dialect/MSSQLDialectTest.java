@@ -11,8 +11,16 @@
  */
 package org.amforeas.sql.dialect;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import amforeas.jdbc.KeysetCursor;
+import amforeas.jdbc.LimitParam;
+import amforeas.jdbc.OrderParam;
+import amforeas.sql.Insert;
+import amforeas.sql.Select;
+import amforeas.sql.Update;
 import amforeas.sql.dialect.MSSQLDialect;
 
 @Tag("dialect-tests")
@@ -61,4 +69,49 @@ public class MSSQLDialectTest extends SQLDialectTest {
     @Test
     @Override
     public void testSelect_columns () {}
+
+    @Test
+    @Override
+    public void testSelect_keyset () {
+        final LimitParam after = new LimitParam(25, 0, new KeysetCursor("foo", "10"));
+
+        doTest("SELECT t.* FROM demo1.a_table t WHERE t.tableId > ? ORDER BY t.tableId ASC OFFSET 0 ROWS FETCH NEXT 25 ROWS ONLY",
+            new Select(table).setLimitParam(after));
+    }
+
+    @Test
+    @Override
+    public void testSelect_keysetNull () {
+        final LimitParam after = new LimitParam(25, 0, new KeysetCursor(null, "10"));
+
+        doTest("SELECT t.* FROM demo1.a_table t WHERE (t.name IS NULL AND t.tableId < ?) ORDER BY t.name DESC, t.tableId DESC OFFSET 0 ROWS FETCH NEXT 25 ROWS ONLY",
+            new Select(table).setLimitParam(after).setOrderParam(new OrderParam("name", "DESC")));
+
+        doTest("SELECT t.* FROM demo1.a_table t WHERE (t.name IS NOT NULL OR t.tableId > ?) ORDER BY t.name ASC, t.tableId ASC OFFSET 0 ROWS FETCH NEXT 25 ROWS ONLY",
+            new Select(table).setLimitParam(after).setOrderParam(new OrderParam("name", "ASC")));
+    }
+
+    @Test
+    @Override
+    public void testInsert_returning () {
+        assertTrue(d.supportsInsertReturning());
+        assertEquals("INSERT INTO a_table (name,age) OUTPUT INSERTED.* VALUES (?,?)",
+            d.toReturningStatementString(new Insert(table).addColumn("name", "foo bar").addColumn("age", "50")));
+    }
+
+    @Test
+    @Override
+    public void testUpdate_returning () {
+        assertTrue(d.supportsUpdateReturning());
+        assertEquals("UPDATE a_table SET name=?,age=? OUTPUT INSERTED.* WHERE tableId=?",
+            d.toReturningStatementString(new Update(table).setId("1").addColumn("name", "foo bar").addColumn("age", "50")));
+    }
+
+    @Test
+    @Override
+    public void testUpsert () {
+        assertTrue(d.supportsUpsert());
+        assertEquals("MERGE INTO a_table t USING (VALUES (?, ?, ?)) AS s (tableId, name, age) ON (t.tableId = s.tableId) WHEN MATCHED THEN UPDATE SET t.name = s.name, t.age = s.age WHEN NOT MATCHED THEN INSERT (tableId, name, age) VALUES (s.tableId, s.name, s.age);",
+            d.toUpsertStatementString(new Insert(table).addColumn("tableId", "1").addColumn("name", "foo bar").addColumn("age", "50")));
+    }
 }
@@ -11,11 +11,15 @@
  */
 package org.amforeas.sql.dialect;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import amforeas.enums.Operator;
+import amforeas.jdbc.KeysetCursor;
 import amforeas.jdbc.LimitParam;
 import amforeas.jdbc.OrderParam;
+import amforeas.sql.Insert;
 import amforeas.sql.Select;
 import amforeas.sql.SelectParam;
 import amforeas.sql.dialect.MySQLDialect;
@@ -135,4 +139,45 @@ public class MySQLDialectTest extends SQLDialectTest {
 
         doTest(sql, sel);
     }
+
+    @Test
+    @Override
+    public void testSelect_keyset () {
+        final LimitParam after = new LimitParam(25, 0, new KeysetCursor("foo", "10"));
+
+        doTest("SELECT t.* FROM demo1.a_table t WHERE t.tableId > ? ORDER BY t.tableId ASC LIMIT 25",
+            new Select(table).setLimitParam(after));
+
+        doTest("SELECT t.* FROM demo1.a_table t WHERE ((t.name, t.tableId) < (?, ?) OR t.name IS NULL) ORDER BY t.name DESC, t.tableId DESC LIMIT 25",
+            new Select(table).setLimitParam(after).setOrderParam(new OrderParam("name", "DESC")));
+    }
+
+    @Test
+    @Override
+    public void testSelect_keysetNull () {
+        final LimitParam after = new LimitParam(25, 0, new KeysetCursor(null, "10"));
+
+        doTest("SELECT t.* FROM demo1.a_table t WHERE (t.name IS NULL AND t.tableId < ?) ORDER BY t.name DESC, t.tableId DESC LIMIT 25",
+            new Select(table).setLimitParam(after).setOrderParam(new OrderParam("name", "DESC")));
+
+        doTest("SELECT t.* FROM demo1.a_table t WHERE (t.name IS NOT NULL OR t.tableId > ?) ORDER BY t.name ASC, t.tableId ASC LIMIT 25",
+            new Select(table).setLimitParam(after).setOrderParam(new OrderParam("name", "ASC")));
+    }
+
+    @Test
+    @Override
+    public void testSelect_offset () {
+        assertEquals("SELECT t.tableId,t.name FROM demo1.a_table t ORDER BY t.name DESC, t.tableId DESC LIMIT 1 OFFSET 29",
+            d.toStatementString(new Select(table).addColumn("tableId").addColumn("name").setOrderParam(new OrderParam("name", "DESC")), 29));
+    }
+
+    @Test
+    @Override
+    public void testUpsert () {
+        assertTrue(d.supportsUpsert());
+        assertEquals("INSERT INTO a_table (tableId,name,age) VALUES (?,?,?) ON DUPLICATE KEY UPDATE name = VALUES(name), age = VALUES(age)",
+            d.toUpsertStatementString(new Insert(table).addColumn("tableId", "1").addColumn("name", "foo bar").addColumn("age", "50")));
+        assertEquals("INSERT INTO a_table (tableId) VALUES (?) ON DUPLICATE KEY UPDATE tableId = tableId",
+            d.toUpsertStatementString(new Insert(table).addColumn("tableId", "1")));
+    }
 }
@@ -12,8 +12,12 @@
 package org.amforeas.sql.dialect;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import amforeas.jdbc.KeysetCursor;
 import amforeas.jdbc.LimitParam;
 import amforeas.jdbc.OrderParam;
 import amforeas.sql.Delete;
@@ -71,6 +75,8 @@ public class OracleDialectTest extends SQLDialectTest {
     public void testInsert () {
         doTest("INSERT INTO demo1.a_table (name,age) VALUES (?,?)",
             new Insert(table).addColumn("name", "foo bar").addColumn("age", "50"));
+        doTest("INSERT INTO demo1.a_table (name) VALUES (?)",
+            new Insert(table).setRows(List.of(Map.of("name", "foo"), Map.of("name", "bar"))));
     }
 
     @Test
@@ -116,4 +122,24 @@ public class OracleDialectTest extends SQLDialectTest {
     @Test
     @Override
     public void testSelect_columns () {}
+
+    @Test
+    @Override
+    public void testSelect_keyset () {
+        final LimitParam after = new LimitParam(25, 0, new KeysetCursor("foo", "10"));
+
+        doTest("SELECT t.* FROM demo1.a_table t WHERE (t.name > ? OR (t.name = ? AND t.tableId > ?) OR t.name IS NULL) ORDER BY t.name ASC, t.tableId ASC FETCH FIRST 25 ROWS ONLY",
+            new Select(table).setLimitParam(after).setOrderParam(new OrderParam("name", "ASC")));
+
+        assertEquals(List.of("foo", "foo", "10"),
+            d.keysetParameters(new Select(table).setLimitParam(after).setOrderParam(new OrderParam("name", "ASC"))));
+    }
+
+    @Test
+    @Override
+    public void testUpsert () {
+        assertTrue(d.supportsUpsert());
+        assertEquals("MERGE INTO demo1.a_table t USING (SELECT ? tableId, ? name, ? age FROM DUAL) s ON (t.tableId = s.tableId) WHEN MATCHED THEN UPDATE SET t.name = s.name, t.age = s.age WHEN NOT MATCHED THEN INSERT (tableId, name, age) VALUES (s.tableId, s.name, s.age)",
+            d.toUpsertStatementString(new Insert(table).addColumn("tableId", "1").addColumn("name", "foo bar").addColumn("age", "50")));
+    }
 }
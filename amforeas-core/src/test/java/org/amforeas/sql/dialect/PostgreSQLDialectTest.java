@@ -11,8 +11,13 @@
  */
 package org.amforeas.sql.dialect;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import amforeas.sql.Insert;
+import amforeas.sql.Update;
 import amforeas.sql.dialect.PostgreSQLDialect;
 
 @Tag("dialect-tests")
@@ -62,5 +67,40 @@ public class PostgreSQLDialectTest extends SQLDialectTest {
     @Override
     public void testSelect_columns () {}
 
+    @Test
+    @Override
+    public void testInsert_returning () {
+        assertTrue(d.supportsInsertReturning());
+        assertEquals("INSERT INTO a_table (name,age) VALUES (?,?) RETURNING *",
+            d.toReturningStatementString(new Insert(table).addColumn("name", "foo bar").addColumn("age", "50")));
+    }
+
+    @Test
+    @Override
+    public void testUpdate_returning () {
+        assertTrue(d.supportsUpdateReturning());
+        assertEquals("UPDATE a_table SET name=?,age=? WHERE tableId=? RETURNING *",
+            d.toReturningStatementString(new Update(table).setId("1").addColumn("name", "foo bar").addColumn("age", "50")));
+    }
+
+    @Test
+    public void testFetchSize () {
+        assertEquals(250, d.getFetchSize());
+    }
+
+    @Test
+    public void testMaxParameters () {
+        assertEquals(65535, d.getMaxParameters());
+    }
 
+    @Test
+    @Override
+    public void testUpsert () {
+        assertTrue(d.supportsUpsert());
+        assertEquals("INSERT INTO a_table (tableId,name,age) VALUES (?,?,?) ON CONFLICT (tableId) DO UPDATE SET name = EXCLUDED.name, age = EXCLUDED.age",
+            d.toUpsertStatementString(new Insert(table).addColumn("tableId", "1").addColumn("name", "foo bar").addColumn("age", "50")));
+        assertEquals("INSERT INTO a_table (tableId) VALUES (?) ON CONFLICT (tableId) DO NOTHING",
+            d.toUpsertStatementString(new Insert(table).addColumn("tableId", "1")));
+        assertThrows(IllegalArgumentException.class, () -> d.toUpsertStatementString(new Insert(table).addColumn("name", "foo bar")));
+    }
 }
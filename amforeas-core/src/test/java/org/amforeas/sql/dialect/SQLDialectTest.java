@@ -13,10 +13,14 @@
 package org.amforeas.sql.dialect;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import amforeas.enums.Operator;
+import amforeas.jdbc.KeysetCursor;
 import amforeas.jdbc.LimitParam;
 import amforeas.jdbc.OrderParam;
 import amforeas.sql.Delete;
@@ -141,6 +145,9 @@ public class SQLDialectTest {
         assertThrows(IllegalArgumentException.class, () -> doTest("", new Insert(table)));
         doTest("INSERT INTO a_table (name) VALUES (?)", new Insert(table).addColumn("name", "foo bar"));
         doTest("INSERT INTO a_table (name,age) VALUES (?,?)", new Insert(table).addColumn("name", "foo bar").addColumn("age", "50"));
+
+        List<Map<String, String>> rows = List.of(Map.of("name", "foo"), Map.of("name", "bar"), Map.of("name", "baz"));
+        doTest("INSERT INTO a_table (name) VALUES (?),(?),(?)", new Insert(table).setRows(rows));
     }
 
     @Test
@@ -155,6 +162,24 @@ public class SQLDialectTest {
         doTest(sql, new Update(table).setId("1").addColumn("name", "foo bar").addColumn("age", "50").addColumn("sex", "male"));
     }
 
+    @Test
+    public void testInsert_returning () {
+        assertFalse(d.supportsInsertReturning());
+        assertThrows(UnsupportedOperationException.class, () -> d.toReturningStatementString(new Insert(table).addColumn("name", "foo bar")));
+    }
+
+    @Test
+    public void testUpdate_returning () {
+        assertFalse(d.supportsUpdateReturning());
+        assertThrows(UnsupportedOperationException.class, () -> d.toReturningStatementString(new Update(table).setId("1").addColumn("name", "foo bar")));
+    }
+
+    @Test
+    public void testUpsert () {
+        assertFalse(d.supportsUpsert());
+        assertThrows(UnsupportedOperationException.class, () -> d.toUpsertStatementString(new Insert(table).addColumn("tableId", "1").addColumn("name", "foo bar")));
+    }
+
     @Test
     public void test_rowCountStatement () {
         String sql = "SELECT COUNT(*) AS total FROM a_table";
@@ -180,6 +205,50 @@ public class SQLDialectTest {
         doTest(sql, sel);
     }
 
+    @Test
+    public void testSelect_keyset () {
+        final LimitParam after = new LimitParam(25, 0, new KeysetCursor("foo", "10"));
+
+        doTest("SELECT t.* FROM demo1.a_table t WHERE t.tableId > ? ORDER BY t.tableId ASC FETCH FIRST 25 ROWS ONLY",
+            new Select(table).setLimitParam(after));
+
+        doTest("SELECT t.* FROM demo1.a_table t WHERE (t.name, t.tableId) < (?, ?) ORDER BY t.name DESC, t.tableId DESC FETCH FIRST 25 ROWS ONLY",
+            new Select(table).setLimitParam(after).setOrderParam(new OrderParam("name", "DESC")));
+
+        doTest("SELECT t.age FROM demo1.a_table t WHERE t.age = ? AND ((t.name, t.tableId) > (?, ?) OR t.name IS NULL) ORDER BY t.name ASC, t.tableId ASC FETCH FIRST 25 ROWS ONLY",
+            new Select(table).addColumn("age").setParameter(new SelectParam("age", Operator.EQUALS, "1"))
+                .setLimitParam(after).setOrderParam(new OrderParam("name", "ASC")));
+    }
+
+    @Test
+    public void test_keysetParameters () {
+        final LimitParam after = new LimitParam(25, 0, new KeysetCursor("foo", "10"));
+        assertEquals(List.of(), d.keysetParameters(new Select(table)));
+        assertEquals(List.of("10"), d.keysetParameters(new Select(table).setLimitParam(after)));
+        assertEquals(List.of("10"),
+            d.keysetParameters(new Select(table).setLimitParam(new LimitParam(25, 0, new KeysetCursor(null, "10"))).setOrderParam(new OrderParam("name", "ASC"))));
+    }
+
+    @Test
+    public void testSelect_keysetNull () {
+        final LimitParam after = new LimitParam(25, 0, new KeysetCursor(null, "10"));
+
+        doTest("SELECT t.* FROM demo1.a_table t WHERE (t.name IS NOT NULL OR t.tableId < ?) ORDER BY t.name DESC, t.tableId DESC FETCH FIRST 25 ROWS ONLY",
+            new Select(table).setLimitParam(after).setOrderParam(new OrderParam("name", "DESC")));
+
+        doTest("SELECT t.* FROM demo1.a_table t WHERE (t.name IS NULL AND t.tableId > ?) ORDER BY t.name ASC, t.tableId ASC FETCH FIRST 25 ROWS ONLY",
+            new Select(table).setLimitParam(after).setOrderParam(new OrderParam("name", "ASC")));
+    }
+
+    @Test
+    public void testSelect_offset () {
+        assertEquals("SELECT * FROM ( SELECT ROW_NUMBER() OVER ( ORDER BY t.name DESC, t.tableId DESC ) AS ROW_NUM, t.tableId,t.name FROM demo1.a_table t ) r WHERE ROW_NUM = 30",
+            d.toStatementString(new Select(table).addColumn("tableId").addColumn("name").setOrderParam(new OrderParam("name", "DESC")), 29));
+
+        assertEquals("SELECT * FROM ( SELECT ROW_NUMBER() OVER ( ORDER BY t.tableId ASC ) AS ROW_NUM, t.* FROM demo1.a_table t WHERE t.age = ? ) r WHERE ROW_NUM = 1",
+            d.toStatementString(new Select(table).setParameter(new SelectParam("age", Operator.EQUALS, "1")).setLimitParam(l), 0));
+    }
+
     public void doTest (String expected, Object obj) {
         if (obj instanceof Select) {
             assertEquals(expected, d.toStatementString((Select) obj));
@@ -16,13 +16,15 @@ import amforeas.config.AmforeasConfiguration;
 
 public class DemoSingletonFactory extends SingletonFactoryImpl {
 
-    public synchronized AmforeasConfiguration getConfiguration () {
-        if (configuration == null) {
-            configuration = new DemoConfiguration();
-            configuration.loadProperties();
-            configuration.load();
+    public AmforeasConfiguration getConfiguration () {
+        synchronized (SingletonFactoryImpl.class) {
+            if (configuration == null) {
+                configuration = new DemoConfiguration();
+                configuration.loadProperties();
+                configuration.load();
+            }
+            return configuration;
         }
-        return configuration;
     }
 
 }
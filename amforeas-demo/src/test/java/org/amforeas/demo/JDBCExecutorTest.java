@@ -14,12 +14,25 @@ package org.amforeas.demo;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -29,13 +42,24 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 import amforeas.SingletonFactory;
 import amforeas.SingletonFactoryImpl;
+import amforeas.config.DatabaseConfiguration;
 import amforeas.demo.Demo;
 import amforeas.demo.DemoSingletonFactory;
 import amforeas.enums.Operator;
 import amforeas.exceptions.AmforeasBadRequestException;
 import amforeas.exceptions.StartupException;
+import amforeas.handler.AmforeasResultSetHandler;
+import amforeas.jdbc.Batch;
+import amforeas.jdbc.BatchResult;
+import amforeas.jdbc.ConnectionPool;
+import amforeas.jdbc.CsvRowReader;
+import amforeas.jdbc.Ingest;
 import amforeas.jdbc.JDBCExecutor;
+import amforeas.jdbc.JsonLinesRowReader;
+import amforeas.jdbc.KeysetCursor;
+import amforeas.jdbc.LimitParam;
 import amforeas.jdbc.OrderParam;
+import amforeas.jdbc.ResultSetCursor;
 import amforeas.jdbc.StoredProcedureParam;
 import amforeas.rest.xstream.Row;
 import amforeas.sql.Delete;
@@ -44,6 +68,9 @@ import amforeas.sql.Select;
 import amforeas.sql.SelectParam;
 import amforeas.sql.Table;
 import amforeas.sql.Update;
+import amforeas.sql.dialect.Dialect;
+import amforeas.sql.dialect.DialectFactory;
+import amforeas.sql.dialect.HSQLDialect;
 
 /**
  * Tests of {@link amforeas.jdbc.executor}
@@ -73,6 +100,46 @@ public class JDBCExecutorTest {
         factory.resetConfiguration();
     }
 
+    @Test
+    public void testStatementCache () throws SQLException {
+        SingletonFactory factory = new DemoSingletonFactory();
+        var dbcfg = factory.getConfiguration().getDatabaseConfiguration("my_demo_db");
+        var cache = factory.getJDBCConnectionFactory().getStatementCache(dbcfg).orElseThrow();
+        assertEquals(50, cache.getSize());
+
+        Select select = new Select(new Table("my_demo_db", "maker")).setParameter(new SelectParam("name", "FIAT"));
+        executor.get(select, false);
+        final long hits = cache.getHits();
+        final long misses = cache.getMisses();
+
+        executor.get(select, false);
+        assertEquals(hits + 1, cache.getHits());
+        assertEquals(misses, cache.getMisses());
+
+        var stats = factory.getJDBCConnectionFactory().getStatistics();
+        assertEquals(1, stats.size());
+        assertEquals("demo1", stats.get(0).get("alias"));
+        assertEquals(hits + 1, stats.get(0).get("statement-cache-hits"));
+    }
+
+    @Test
+    public void testConnectionPool () throws SQLException {
+        SingletonFactory factory = new DemoSingletonFactory();
+        var demo = factory.getConfiguration().getDatabaseConfiguration("my_demo_db");
+        var dbcfg = DatabaseConfiguration.instanceOf("pool", demo.getDriver(), demo.getUsername(), demo.getPassword(), demo.getDatabase(), demo.getHost(), demo.getPort(), 1, false);
+        dbcfg.setMaxWait(100);
+
+        ConnectionPool pool = new ConnectionPool(dbcfg, factory.getDialectFactory().getDialect(dbcfg), null);
+        try (Connection conn = pool.getDataSource().getConnection()) {
+            assertTrue(conn.isValid(1));
+            assertEquals(1, pool.getNumActive());
+            assertThrows(SQLTransientConnectionException.class, () -> pool.getDataSource().getConnection());
+        } finally {
+            pool.close();
+        }
+        assertEquals(0, pool.getNumActive());
+    }
+
     @Test
     public void testGet () throws SQLException {
         Table t = new Table("my_demo_db", "users");
@@ -140,6 +207,22 @@ public class JDBCExecutorTest {
         assertEquals(5, rs.size());
     }
 
+    @Test
+    public void testGetMany () throws SQLException {
+        Table t = new Table("my_demo_db", "users");
+        List<Row> rs = executor.getMany(new Select(t), List.of("1", "2", "2", "1999"));
+        assertEquals(2, rs.size());
+
+        // more keys than the IN list takes are read in chunks
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            ids.add(String.valueOf(i));
+        }
+        rs = executor.getMany(new Select(t).addColumn("name"), ids);
+        assertEquals(6, rs.size());
+        assertTrue(rs.get(0).getCells().containsKey("name"));
+    }
+
     @Test
     public void testAll () throws SQLException {
         Table t = new Table("my_demo_db", "users");
@@ -170,6 +253,117 @@ public class JDBCExecutorTest {
         }
     }
 
+    @Test
+    public void testInsertBatch () throws SQLException {
+        SingletonFactory factory = new DemoSingletonFactory();
+        var dbcfg = factory.getConfiguration().getDatabaseConfiguration("my_demo_db");
+        Table t = new Table("my_demo_db", "pictures");
+        int before = executor.get(new Select(t), true).size();
+
+        List<Map<String, String>> rows = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            rows.add(Map.of("car_id", String.valueOf(i), "picture", "picture_" + i + ".jpg"));
+        }
+
+        dbcfg.setBatchSize(2);
+        try {
+            BatchResult result = executor.insertBatch(new Insert(t).setRows(rows));
+            assertTrue(result.isSuccess());
+            assertEquals(List.of(2, 2, 1), result.getChunks());
+            assertEquals(5, result.getInserted());
+            assertEquals(before + 5, executor.get(new Select(t), true).size());
+
+            // the second row fails so nothing is inserted
+            Table users = new Table("my_demo_db", "users");
+            before = executor.get(new Select(users), true).size();
+            List<Map<String, String>> invalid = new ArrayList<>();
+            for (String name : Arrays.asList("batch_1", null, "batch_3")) {
+                Map<String, String> user = new LinkedHashMap<>();
+                user.put("name", name);
+                user.put("age", "30");
+                invalid.add(user);
+            }
+            result = executor.insertBatch(new Insert(users).setRows(invalid));
+            assertFalse(result.isSuccess());
+            assertEquals(Set.of(1), result.getFailures().keySet());
+            assertEquals(before, executor.get(new Select(users), true).size());
+        } finally {
+            dbcfg.setBatchSize(500);
+        }
+    }
+
+    @Test
+    public void testInsertBatch_maxParameters () throws SQLException {
+        final List<Integer> statements = new ArrayList<>();
+        final JDBCExecutor limited = new JDBCExecutor(new DemoSingletonFactory() {
+            @Override
+            public DialectFactory getDialectFactory () {
+                return new DialectFactory() {
+                    @Override
+                    public Dialect getDialect (final DatabaseConfiguration dbconf) {
+                        return new HSQLDialect() {
+                            @Override
+                            public int getMaxParameters () {
+                                return 5;
+                            }
+
+                            @Override
+                            public String toStatementString (final Insert insert) {
+                                statements.add(insert.getRows().size());
+                                return super.toStatementString(insert);
+                            }
+                        };
+                    }
+                };
+            }
+        });
+        Table t = new Table("my_demo_db", "pictures");
+        int before = executor.get(new Select(t), true).size();
+
+        List<Map<String, String>> rows = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            rows.add(Map.of("car_id", String.valueOf(i), "picture", "limited_" + i + ".jpg"));
+        }
+
+        // two columns and five parameters are two rows per statement
+        BatchResult result = limited.insertBatch(new Insert(t).setRows(rows));
+        assertTrue(result.isSuccess());
+        assertEquals(List.of(5), result.getChunks());
+        assertEquals(List.of(2, 2, 1), statements);
+        assertEquals(before + 5, executor.get(new Select(t), true).size());
+    }
+
+    @Test
+    public void testSeek () throws SQLException {
+        SingletonFactory factory = new DemoSingletonFactory();
+        var dbcfg = factory.getConfiguration().getDatabaseConfiguration("my_demo_db");
+        Table t = new Table("my_demo_db", "maker");
+        Select offset = new Select(t).setLimitParam(new LimitParam(10, 30)).setOrderParam(new OrderParam("name", "DESC"));
+        List<Row> expected = executor.get(offset, true);
+        assertEquals(10, expected.size());
+        List<Object> ids = ids(expected);
+
+        // past the threshold the page is read after the boundary row
+        dbcfg.setKeysetThreshold(20);
+        try {
+            assertEquals(ids, ids(executor.get(offset, true)));
+        } finally {
+            dbcfg.setKeysetThreshold(0);
+        }
+
+        Row last = expected.get(expected.size() - 1);
+        Select after = new Select(t).setOrderParam(new OrderParam("name", "DESC"))
+            .setLimitParam(new LimitParam(10, 0, KeysetCursor.of(last.getCells(), new OrderParam("name", "DESC"), "id")));
+        Select page5 = new Select(t).setLimitParam(new LimitParam(10, 40)).setOrderParam(new OrderParam("name", "DESC"));
+        assertEquals(ids(executor.get(page5, true)), ids(executor.get(after, true)));
+    }
+
+    private List<Object> ids (List<Row> rows) {
+        List<Object> ids = new ArrayList<>();
+        rows.forEach(row -> ids.add(row.getCells().get("id")));
+        return ids;
+    }
+
     @Test
     public void testInsert () throws SQLException {
         Table t = new Table("my_demo_db", "users");
@@ -204,6 +398,69 @@ public class JDBCExecutorTest {
         }
     }
 
+    @Test
+    public void testInsertReturning () throws SQLException {
+        Table t = new Table("my_demo_db", "users");
+        Map<String, String> params = UserMock.getRandomInstance().toMap();
+
+        // the key generated by the database
+        List<Row> rows = executor.insertReturning(new Insert(t).setColumns(params), false);
+        assertEquals(1, rows.size());
+        Object id = rows.get(0).getCells().get("id");
+        assertNotNull(id);
+        assertEquals(1, rows.get(0).getCells().size());
+
+        // the whole record
+        rows = executor.insertReturning(new Insert(t).setColumns(params), true);
+        assertEquals(1, rows.size());
+        assertEquals(params.get("name"), rows.get(0).getCells().get("name"));
+        Object other = rows.get(0).getCells().get("id");
+        assertNotEquals(id, other);
+
+        // the key given by the client
+        Table cars = new Table("my_demo_db", "car", "cid");
+        rows = executor.insertReturning(new Insert(cars).addColumn("cid", "900").addColumn("maker", "Fiat"), true);
+        assertEquals("Fiat", rows.get(0).getCells().get("maker"));
+        assertEquals(900, rows.get(0).getCells().get("cid"));
+
+        executor.delete(new Delete(cars).setId("900"));
+        executor.delete(new Delete(t).setId(id.toString()));
+        executor.delete(new Delete(t).setId(other.toString()));
+    }
+
+    @Test
+    public void testTypedParameters () throws SQLException {
+        SingletonFactory factory = new DemoSingletonFactory();
+        var dbcfg = factory.getConfiguration().getDatabaseConfiguration("my_demo_db");
+        Map<String, Integer> types = factory.getJDBCConnectionFactory().getSchemaCatalog(dbcfg).getColumnTypes("users");
+        assertEquals(Types.INTEGER, types.get("id"));
+        assertEquals(Types.VARCHAR, types.get("name"));
+        assertEquals(Types.DATE, types.get("birthday"));
+        assertEquals(Types.TIMESTAMP, types.get("lastupdate"));
+        assertEquals(Types.DECIMAL, types.get("credit"));
+        assertTrue(factory.getJDBCConnectionFactory().getSchemaCatalog(dbcfg).getColumnTypes("nonexistent").isEmpty());
+
+        // a number in a text column is kept as it is
+        Table t = new Table("my_demo_db", "users");
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("name", "0042");
+        params.put("age", "30");
+        params.put("birthday", "2000-02-29");
+        params.put("lastupdate", "2020-05-01 10:15:30");
+        params.put("credit", "12.50");
+        assertEquals(1, executor.insert(new Insert(t).setColumns(params)));
+
+        List<Row> rows = executor.get(new Select(t).setParameter(new SelectParam("name", Operator.EQUALS, "0042")), true);
+        assertEquals(1, rows.size());
+        assertEquals("0042", rows.get(0).getCells().get("name"));
+        assertEquals("12.50", rows.get(0).getCells().get("credit").toString());
+
+        rows = executor.get(new Select(t).setParameter(new SelectParam("birthday", Operator.BETWEEN, "2000-02-28", "2000-03-01")), true);
+        assertEquals(1, rows.size());
+
+        executor.delete(new Delete(t).setId(rows.get(0).getCells().get("id").toString()));
+    }
+
     @Test
     public void testUpdate () throws SQLException {
         Table t = new Table("my_demo_db", "users");
@@ -240,6 +497,164 @@ public class JDBCExecutorTest {
         assertEquals(0, (int) row.getCells().get("id"));
         assertEquals(null, row.getCells().get("age"));
         assertTrue(row.getCells().containsKey("age"));
+
+        // nothing is read when no record is updated
+        assertTrue(executor.update(new Update(t).setId("999").addColumn("age", "1")).isEmpty());
+    }
+
+    @Test
+    public void testBatch () throws SQLException {
+        Table cars = new Table("my_demo_db", "car", "cid");
+        Table users = new Table("my_demo_db", "users");
+
+        Batch batch = new Batch("my_demo_db", false)
+            .add(new Insert(cars).addColumn("cid", "910").addColumn("maker", "Seat"))
+            .add(new Update(cars).setId("910").addColumn("model", "Ibiza"))
+            .add(new Select(cars).setParameter(new SelectParam("cid", "910")))
+            .add(new Delete(cars).setId("910"))
+            .add(new Delete(cars).setId("910"));
+        executor.execute(batch);
+        assertTrue(batch.isCommitted());
+        assertEquals("Seat", batch.getResults().get(0).get(0).getCells().get("maker"));
+        assertEquals("Ibiza", batch.getResults().get(1).get(0).getCells().get("model"));
+        assertEquals(1, batch.getResults().get(2).size());
+        assertEquals(1, batch.getResults().get(3).size());
+        assertTrue(batch.getResults().get(4).isEmpty());
+
+        // a failure rolls back the whole batch
+        batch = new Batch("my_demo_db", false)
+            .add(new Insert(cars).addColumn("cid", "911").addColumn("maker", "Seat"))
+            .add(new Insert(users).addColumn("age", "20"))
+            .add(new Update(cars).setId("911").addColumn("model", "Leon"));
+        executor.execute(batch);
+        assertFalse(batch.isCommitted());
+        assertEquals(Set.of(1), batch.getFailures().keySet());
+        assertEquals(1, batch.getResults().size());
+        assertTrue(executor.get(new Select(cars).setParameter(new SelectParam("cid", "911")), true).isEmpty());
+
+        // or only the failed statement
+        batch = new Batch("my_demo_db", true)
+            .add(new Insert(cars).addColumn("cid", "912").addColumn("maker", "Seat"))
+            .add(new Insert(users).addColumn("age", "20"))
+            .add(new Update(cars).setId("912").addColumn("model", "Leon"));
+        executor.execute(batch);
+        assertTrue(batch.isCommitted());
+        assertEquals(Set.of(1), batch.getFailures().keySet());
+        assertEquals(Set.of(0, 2), batch.getResults().keySet());
+        assertEquals("Leon", executor.get(new Select(cars).setParameter(new SelectParam("cid", "912")), false).get(0).getCells().get("model"));
+
+        executor.delete(new Delete(cars).setId("912"));
+    }
+
+    @Test
+    public void testUpsert () throws SQLException {
+        doTestUpsert(executor, 930);
+
+        // dialects without a native upsert update and insert in a transaction
+        final JDBCExecutor fallback = new JDBCExecutor(new DemoSingletonFactory() {
+            @Override
+            public DialectFactory getDialectFactory () {
+                return new DialectFactory() {
+                    @Override
+                    public Dialect getDialect (final DatabaseConfiguration dbconf) {
+                        return new HSQLDialect() {
+                            @Override
+                            public boolean supportsUpsert () {
+                                return false;
+                            }
+                        };
+                    }
+                };
+            }
+        });
+        doTestUpsert(fallback, 940);
+    }
+
+    private void doTestUpsert (final JDBCExecutor executor, final int cid) throws SQLException {
+        Table cars = new Table("my_demo_db", "car", "cid");
+        Table users = new Table("my_demo_db", "users");
+        String id = Integer.toString(cid);
+        String other = Integer.toString(cid + 1);
+
+        List<Row> rows = executor.upsert(new Insert(cars).addColumn("cid", id).addColumn("maker", "Seat").addColumn("model", "Ibiza"));
+        assertEquals(1, rows.size());
+        assertEquals("Ibiza", rows.get(0).getCells().get("model"));
+
+        // the columns not given keep their values
+        rows = executor.upsert(new Insert(cars).addColumn("cid", id).addColumn("model", "Leon"));
+        assertEquals("Seat", rows.get(0).getCells().get("maker"));
+        assertEquals("Leon", rows.get(0).getCells().get("model"));
+
+        rows = executor.upsert(new Insert(cars).addColumn("cid", id));
+        assertEquals("Leon", rows.get(0).getCells().get("model"));
+
+        assertThrows(IllegalArgumentException.class, () -> executor.upsert(new Insert(cars).addColumn("maker", "Seat")));
+
+        Map<String, String> update = new LinkedHashMap<>();
+        update.put("cid", id);
+        update.put("year", "2010");
+        Map<String, String> insert = new LinkedHashMap<>();
+        insert.put("cid", other);
+        insert.put("maker", "Fiat");
+        BatchResult result = executor.upsertBatch(new Insert(cars).setRows(List.of(update, insert)));
+        assertTrue(result.isSuccess());
+        assertEquals(2, result.getInserted());
+        assertEquals(2010, executor.get(new Select(cars).setParameter(new SelectParam("cid", id)), false).get(0).getCells().get("year"));
+        assertEquals("Fiat", executor.get(new Select(cars).setParameter(new SelectParam("cid", other)), false).get(0).getCells().get("maker"));
+
+        // a failed row rolls back every row
+        Map<String, String> named = new LinkedHashMap<>();
+        named.put("id", id);
+        named.put("name", "foo");
+        Map<String, String> unnamed = new LinkedHashMap<>();
+        unnamed.put("id", other);
+        unnamed.put("age", "20");
+        result = executor.upsertBatch(new Insert(users).setRows(List.of(named, unnamed)));
+        assertFalse(result.isSuccess());
+        assertEquals(Set.of(1), result.getFailures().keySet());
+        assertTrue(executor.get(new Select(users).setParameter(new SelectParam("id", id)), false).isEmpty());
+
+        executor.delete(new Delete(cars).setId(id));
+        executor.delete(new Delete(cars).setId(other));
+    }
+
+    @Test
+    public void testIngest () throws SQLException, IOException {
+        SingletonFactory factory = new DemoSingletonFactory();
+        var dbcfg = factory.getConfiguration().getDatabaseConfiguration("my_demo_db");
+        Table cars = new Table("my_demo_db", "car", "cid");
+        int before = executor.get(new Select(cars), true).size();
+
+        StringBuilder csv = new StringBuilder("cid,maker,model,year\n");
+        csv.append("960,Seat,\"Ibiza, FR\",2010\n");
+        csv.append("961,Seat,Leon\n");
+        csv.append("962,Seat,Arona,notayear\n");
+        csv.append("963,Fiat,\"Tipo\nSW\",2015\n");
+        csv.append("964,Fiat,Panda,2012\n");
+        csv.append("960,Fiat,Punto,2012\n");
+
+        dbcfg.setBatchSize(2);
+        try {
+            Ingest ingest = new Ingest(cars, new CsvRowReader(new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8));
+            ingest.setCommitEvery(3);
+            executor.ingest(ingest);
+            assertEquals(3, ingest.getLoaded());
+            assertEquals(3, ingest.getRejected());
+            assertEquals(Set.of(3L, 4L, 8L), ingest.getRejects().keySet());
+            assertEquals("Tipo\nSW", executor.get(new Select(cars).setParameter(new SelectParam("cid", "963")), false).get(0).getCells().get("model"));
+            assertEquals(before + 3, executor.get(new Select(cars), true).size());
+
+            String json = "{\"cid\":\"965\",\"maker\":\"Kia\"}\n\n{\"cid\":\"966\",\"colour\":\"red\"}\n{\"cid\":\n";
+            ingest = executor.ingest(new Ingest(cars, new JsonLinesRowReader(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8)));
+            assertEquals(1, ingest.getLoaded());
+            assertEquals(Set.of(3L, 4L), ingest.getRejects().keySet());
+            assertEquals("Unknown column colour", ingest.getRejects().get(3L));
+        } finally {
+            dbcfg.setBatchSize(500);
+            for (String id : Arrays.asList("960", "963", "964", "965")) {
+                executor.delete(new Delete(cars).setId(id));
+            }
+        }
     }
 
     public List<UserMock> getTestValues () {
@@ -285,6 +700,38 @@ public class JDBCExecutorTest {
         assertEquals("12", rows.get(0).getCells().get("out_total"));
     }
 
+    @Test
+    public void testStream () throws SQLException {
+        SingletonFactory factory = new DemoSingletonFactory();
+        var dbcfg = factory.getConfiguration().getDatabaseConfiguration("my_demo_db");
+
+        int count = 0;
+        try (ResultSetCursor cursor = executor.stream(new Select(new Table("my_demo_db", "maker")))) {
+            while (cursor.next()) {
+                assertNotNull(cursor.row().get("id"));
+                count++;
+            }
+        }
+        assertEquals(62, count);
+
+        // the cursor turns off the auto commit and the pool turns it on again
+        try (Connection conn = factory.getJDBCConnectionFactory().getConnection(dbcfg)) {
+            assertTrue(conn.getAutoCommit());
+        }
+    }
+
+    @Test
+    public void testReadBigint () throws SQLException {
+        SingletonFactory factory = new DemoSingletonFactory();
+        var dbcfg = factory.getConfiguration().getDatabaseConfiguration("my_demo_db");
+        var run = factory.getJDBCConnectionFactory().getQueryRunner(dbcfg);
+
+        // BIGINT values are read whole, not cut to an int
+        List<Row> rows = run.query("SELECT CAST(? AS BIGINT) AS n, CAST(NULL AS BIGINT) AS m FROM (VALUES(0))", new AmforeasResultSetHandler(true), 3000000000L);
+        assertEquals(3000000000L, rows.get(0).getCells().get("n"));
+        assertNull(rows.get(0).getCells().get("m"));
+    }
+
     @Test
     public void testGetMetaData () throws AmforeasBadRequestException, SQLException {
         Table t = new Table("my_demo_db", "users");
@@ -297,6 +744,40 @@ public class JDBCExecutorTest {
 
     }
 
+    @Test
+    public void testSchemaCatalog () throws SQLException {
+        SingletonFactory factory = new DemoSingletonFactory();
+        var dbcfg = factory.getConfiguration().getDatabaseConfiguration("my_demo_db");
+        var catalog = factory.getJDBCConnectionFactory().getSchemaCatalog(dbcfg);
+        // other tests recreate the database, which renames its system indexes
+        catalog.refresh();
+
+        assertEquals(10, catalog.getTables().getRows().size());
+        assertEquals(catalog.getTables().getTag(), catalog.getTables().getTag());
+
+        assertEquals("id", catalog.getPrimaryKey("users").get());
+        assertEquals("cid", catalog.getPrimaryKey("CAR").get());
+
+        // composite keys and views have no single primary key
+        assertTrue(catalog.getPrimaryKey("composite_t").isEmpty());
+        assertEquals(List.of("id_1", "id_2"), catalog.getTable("composite_t").get().getPrimaryKeyColumns());
+        assertTrue(catalog.getPrimaryKey("maker_stats_2010").isEmpty());
+        assertEquals(3, catalog.getTable("maker_stats_2010").get().getColumns().size());
+
+        var users = catalog.getTable("users").get();
+        assertEquals(7, users.getColumns().size());
+        assertTrue(users.hasColumn("NAME"));
+        assertFalse(users.hasColumn("nonexistent"));
+        assertTrue(users.getIndexes().stream().anyMatch(index -> index.isUnique() && index.getColumns().equals(List.of("id"))));
+        assertTrue(catalog.getTable("nonexistent").isEmpty());
+
+        // the same metadata is read again after a refresh
+        final String tag = users.getTag();
+        assertSame(users, catalog.getTable("USERS").get());
+        catalog.refresh("users");
+        assertEquals(tag, catalog.getTable("users").get().getTag());
+    }
+
     @Test
     public void testCount () {
         Table t = new Table("my_demo_db", "car");
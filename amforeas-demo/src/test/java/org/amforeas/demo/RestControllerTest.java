@@ -16,11 +16,15 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import javax.ws.rs.core.Response;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
@@ -28,6 +32,7 @@ import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import amforeas.AmforeasUtils;
 import amforeas.RestController;
 import amforeas.SingletonFactory;
@@ -35,12 +40,16 @@ import amforeas.demo.Demo;
 import amforeas.demo.DemoSingletonFactory;
 import amforeas.exceptions.AmforeasBadRequestException;
 import amforeas.exceptions.StartupException;
+import amforeas.jdbc.BatchOperation;
+import amforeas.jdbc.KeysetCursor;
 import amforeas.jdbc.LimitParam;
 import amforeas.jdbc.OrderParam;
+import amforeas.rest.xstream.AmforeasResponse;
 import amforeas.rest.xstream.ErrorResponse;
 import amforeas.rest.xstream.HeadResponse;
 import amforeas.rest.xstream.Pagination;
 import amforeas.rest.xstream.Row;
+import amforeas.rest.xstream.StreamingResponse;
 import amforeas.rest.xstream.SuccessResponse;
 
 /**
@@ -97,6 +106,8 @@ public class RestControllerTest {
     public void testGetDatabaseMetadata () {
         SuccessResponse r = (SuccessResponse) controller.getDatabaseMetadata();
         testSuccessResponse(r, Response.Status.OK, 10);
+        assertTrue(r.getTag().isWeak());
+        assertEquals(r.getTag(), r.getResponse().getEntityTag());
     }
 
     @Test
@@ -111,6 +122,11 @@ public class RestControllerTest {
         assertTrue(r.isSuccess());
         assertEquals(3, r.getRows().size());
 
+        r = (HeadResponse) controller.getResourceMetadata("car");
+        assertNotNull(r.getTag());
+        assertEquals(Boolean.TRUE, r.getRows().get(0).getCells().get("primaryKey"));
+        assertEquals("cid", r.getRows().get(0).getCells().get("columnName"));
+
         ErrorResponse err = (ErrorResponse) controller.getResourceMetadata(null);
         testErrorResponse(err, Response.Status.BAD_REQUEST, null, null);
 
@@ -188,6 +204,30 @@ public class RestControllerTest {
 
     }
 
+    @Test
+    public void testReadManyResources () {
+        var r = (SuccessResponse) controller.getResources("users", "id", List.of("3", "1999", "0", "3"), null);
+        testSuccessResponse(r, Response.Status.OK, 2);
+        assertEquals(3, r.getRows().get(0).getCells().get("id"));
+        assertEquals(0, r.getRows().get(1).getCells().get("id"));
+        assertEquals(List.of("1999"), r.getMissing());
+
+        // the primary key is always read
+        r = (SuccessResponse) controller.getResources("users", "id", List.of("1", "2"), "name");
+        testSuccessResponse(r, Response.Status.OK, 2);
+        assertEquals(Set.of("id", "name"), r.getRows().get(0).getCells().keySet());
+        assertTrue(r.getMissing().isEmpty());
+
+        r = (SuccessResponse) controller.getResources("car", "cid", List.of("1"), null);
+        testSuccessResponse(r, Response.Status.OK, 1);
+
+        var err = (ErrorResponse) controller.getResources("users", "id", List.of(), null);
+        testErrorResponse(err, Response.Status.BAD_REQUEST, null, null);
+
+        err = (ErrorResponse) controller.getResources("users", "id", List.of("not an integer"), null);
+        testErrorResponse(err, Response.Status.BAD_REQUEST, "22018", -3438);
+    }
+
     @Test
     public void testReadAllResources () {
         limit = new LimitParam();
@@ -221,6 +261,40 @@ public class RestControllerTest {
         testPagination(r, Pagination.of(new LimitParam(1000), 744, 744));
     }
 
+    @Test
+    public void testReadAllResources_keyset () {
+        for (OrderParam o : Arrays.asList(new OrderParam("id"), new OrderParam("name", "DESC"))) {
+            var ids = new HashSet<Object>();
+            var r = (SuccessResponse) controller.getAllResources("maker", limit, o, null);
+            while (r.getPagination().getNext() != null) {
+                r.getRows().forEach(row -> ids.add(row.getCells().get("id")));
+                var after = new LimitParam(25, 0, KeysetCursor.decode(r.getPagination().getNext()));
+                r = (SuccessResponse) controller.getAllResources("maker", after, o, null);
+                assertNull(r.getPagination().getPage());
+            }
+            r.getRows().forEach(row -> ids.add(row.getCells().get("id")));
+            assertEquals(62, ids.size());
+        }
+
+        // the FIAT has no fuel
+        var cars = ((SuccessResponse) controller.getAllResources("car", limit, new OrderParam("cid"), null)).getRows().size();
+        for (OrderParam o : Arrays.asList(new OrderParam("fuel", "ASC"), new OrderParam("fuel", "DESC"))) {
+            var ids = new HashSet<Object>();
+            var r = (SuccessResponse) controller.getAllResources("car", new LimitParam(1, 0), o, null);
+            while (r.getPagination().getNext() != null) {
+                r.getRows().forEach(row -> ids.add(row.getCells().get("cid")));
+                var after = new LimitParam(1, 0, KeysetCursor.decode(r.getPagination().getNext()));
+                r = (SuccessResponse) controller.getAllResources("car", after, o, null);
+            }
+            r.getRows().forEach(row -> ids.add(row.getCells().get("cid")));
+            assertEquals(cars, ids.size());
+        }
+
+        var after = new LimitParam(25, 0, new KeysetCursor("1", "1"));
+        var err = (ErrorResponse) controller.findByDynamicFinder("users", "findAllByAgeGreaterThan", Arrays.asList("1"), after, order);
+        testErrorResponse(err, Response.Status.BAD_REQUEST, null, null);
+    }
+
     @Test
     public void testFindByDynamicFinder () {
         testDynamicFinder("users", "findAllByAgeBetween", "18", "99");
@@ -282,9 +356,21 @@ public class RestControllerTest {
         var newMock = UserMock.getRandomInstance();
         var r = (SuccessResponse) controller.insertResource("users", "id", newMock.toJSON());
         testSuccessResponse(r, Response.Status.CREATED, 1);
+        var id = r.getRows().get(0).getCells().get("id");
+        assertEquals(1, r.getRows().get(0).getCells().size());
+        assertEquals("demo1/users/" + id, r.getLocation().toString());
+        assertEquals(r.getLocation(), r.getResponse().getLocation());
 
         r = (SuccessResponse) controller.getResource("users", "name", newMock.name, limit, order, null);
         testSuccessResponse(r, Response.Status.OK, 1);
+        assertEquals(id, r.getRows().get(0).getCells().get("id"));
+
+        // the whole record is returned when it's asked for
+        newMock = UserMock.getRandomInstance();
+        r = (SuccessResponse) controller.insertResource("users", "id", newMock.toJSON(), true);
+        testSuccessResponse(r, Response.Status.CREATED, 1);
+        assertEquals(newMock.name, r.getRows().get(0).getCells().get("name"));
+        assertEquals("demo1/users/" + r.getRows().get(0).getCells().get("id"), r.getLocation().toString());
 
         newMock = UserMock.getRandomInstance();
         r = (SuccessResponse) controller.insertResource("users", "id", newMock.toMap());
@@ -340,6 +426,40 @@ public class RestControllerTest {
         testSuccessResponse(r, Response.Status.OK, 1);
     }
 
+    @Test
+    public void testCreateResources () {
+        var r = (SuccessResponse) controller.insertResources("pictures", List.of(Map.of("car_id", "1", "picture", "a.jpg"), Map.of("car_id", "1", "picture", "b.jpg")));
+        testSuccessResponse(r, Response.Status.CREATED, 1);
+        assertEquals(2, r.getRows().get(0).getCells().get("inserted"));
+
+        r = (SuccessResponse) controller.insertResource("pictures", "id", "[{\"car_id\":20, \"picture\":\"c.jpg\"}, {\"picture\":\"d.jpg\", \"car_id\":20}, {\"car_id\":20}]");
+        testSuccessResponse(r, Response.Status.CREATED, 1);
+        assertEquals(3, r.getRows().get(0).getCells().get("inserted"));
+
+        r = (SuccessResponse) controller.findResources("pictures", "car_id", "20", limit, order, null);
+        testSuccessResponse(r, Response.Status.OK, 3);
+
+        // name can't be null, nothing is inserted
+        r = (SuccessResponse) controller.insertResource("users", "id", "[{\"name\":\"bulk_1\"}, {\"name\":null}, {\"name\":\"bulk_3\"}]");
+        assertEquals(Response.Status.BAD_REQUEST, r.getStatus());
+        assertFalse(r.isSuccess());
+        assertEquals(1, r.getRows().size());
+        assertEquals(1, r.getRows().get(0).getRoi());
+        assertEquals("23502", r.getRows().get(0).getCells().get("sqlState"));
+
+        var err = (ErrorResponse) controller.getResource("users", "name", "bulk_1", limit, order, null);
+        testErrorResponse(err, Response.Status.NOT_FOUND, null, null);
+
+        err = (ErrorResponse) controller.insertResource("users", "id", "[]");
+        testErrorResponse(err, Response.Status.BAD_REQUEST, null, null);
+
+        err = (ErrorResponse) controller.insertResource("users", "id", "[{\"name\":}]");
+        testErrorResponse(err, Response.Status.BAD_REQUEST, null, null);
+
+        err = (ErrorResponse) controller.insertResources("", List.of(Map.of("name", "foo")));
+        testErrorResponse(err, Response.Status.BAD_REQUEST, null, null);
+    }
+
     @Test
     public void testUpdateResource () {
         var r = (SuccessResponse) controller.updateResource("users", "id", "0", "{\"age\":\"90\"}");
@@ -398,6 +518,83 @@ public class RestControllerTest {
         testErrorResponse(err, Response.Status.BAD_REQUEST, null, null);
     }
 
+    @Test
+    public void testUpsertResource () {
+        var r = (SuccessResponse) controller.upsertResource("car", "cid", "{\"cid\":\"950\", \"maker\":\"Seat\"}");
+        testSuccessResponse(r, Response.Status.OK, 1);
+        assertEquals("Seat", r.getRows().get(0).getCells().get("maker"));
+
+        r = (SuccessResponse) controller.upsertResource("car", "cid", "{\"cid\":\"950\", \"model\":\"Ibiza\"}");
+        testSuccessResponse(r, Response.Status.OK, 1);
+        assertEquals("Seat", r.getRows().get(0).getCells().get("maker"));
+        assertEquals("Ibiza", r.getRows().get(0).getCells().get("model"));
+
+        r = (SuccessResponse) controller.upsertResource("car", "cid", "[{\"cid\":\"950\", \"year\":\"2012\"}, {\"cid\":\"951\", \"maker\":\"Fiat\"}]");
+        testSuccessResponse(r, Response.Status.OK, 1);
+        assertEquals(2, r.getRows().get(0).getCells().get("upserted"));
+
+        // a failed record rolls back the others
+        r = (SuccessResponse) controller.upsertResource("car", "cid", "[{\"cid\":\"952\"}, {\"cid\":\"953\", \"year\":\"not an integer\"}]");
+        assertFalse(r.isSuccess());
+        assertEquals(Response.Status.BAD_REQUEST, r.getStatus());
+        assertEquals(1, r.getRows().get(0).getRoi());
+        r = (SuccessResponse) controller.getResources("car", "cid", List.of("950", "951", "952"), null);
+        assertEquals(List.of("952"), r.getMissing());
+
+        var err = (ErrorResponse) controller.upsertResource("car", "cid", "{\"maker\":\"Seat\"}");
+        testErrorResponse(err, Response.Status.BAD_REQUEST, null, null);
+        err = (ErrorResponse) controller.upsertResource("car", "cid", "[{\"cid\":\"954\"}, {\"maker\":\"Seat\"}]");
+        testErrorResponse(err, Response.Status.BAD_REQUEST, null, null);
+
+        controller.deleteResource("car", "cid", "950");
+        controller.deleteResource("car", "cid", "951");
+    }
+
+    @Test
+    public void testBatch () {
+        var ops = List.of(
+            new BatchOperation("insert", "car", null, Map.of("cid", "920", "maker", "Seat")),
+            new BatchOperation("update", "car", "920", Map.of("model", "Ibiza")),
+            new BatchOperation("get", "car", "920", null),
+            new BatchOperation("delete", "car", "920", null),
+            new BatchOperation("GET", "car", "920", null));
+        var r = (SuccessResponse) controller.executeBatch(ops, false);
+        testSuccessResponse(r, Response.Status.OK, 5);
+        assertEquals(201, r.getRows().get(0).getCells().get("status"));
+        assertEquals("insert", r.getRows().get(0).getCells().get("op"));
+        assertEquals(200, r.getRows().get(1).getCells().get("status"));
+        assertEquals(200, r.getRows().get(3).getCells().get("status"));
+        assertEquals(404, r.getRows().get(4).getCells().get("status"));
+
+        // a failed operation rolls back the batch
+        ops = List.of(
+            new BatchOperation("insert", "car", null, Map.of("cid", "921", "maker", "Seat")),
+            new BatchOperation("update", "users", "0", Map.of("age", "not an integer")));
+        var err = (ErrorResponse) controller.executeBatch(ops, false);
+        testErrorResponse(err, Response.Status.BAD_REQUEST, "22018", -3438);
+        assertTrue(err.getMessage().startsWith("Operation 1"));
+        assertEquals("users", err.getResource());
+        r = (SuccessResponse) controller.getResources("car", "cid", List.of("921"), null);
+        assertEquals(List.of("921"), r.getMissing());
+
+        // unless it continues on errors
+        r = (SuccessResponse) controller.executeBatch(ops, true);
+        testSuccessResponse(r, Response.Status.OK, 2);
+        assertEquals(201, r.getRows().get(0).getCells().get("status"));
+        assertEquals(400, r.getRows().get(1).getCells().get("status"));
+        assertEquals("22018", r.getRows().get(1).getCells().get("sqlState"));
+        r = (SuccessResponse) controller.deleteResource("car", "cid", "921");
+        testSuccessResponse(r, Response.Status.OK, 1);
+
+        // invalid operations aren't executed
+        err = (ErrorResponse) controller.executeBatch(List.of(new BatchOperation("merge", "car", "1", null)), false);
+        testErrorResponse(err, Response.Status.BAD_REQUEST, null, null);
+        err = (ErrorResponse) controller.executeBatch(List.of(new BatchOperation("delete", "car", null, null)), false);
+        testErrorResponse(err, Response.Status.BAD_REQUEST, null, null);
+        err = (ErrorResponse) controller.executeBatch(List.of(new BatchOperation("update", "car", "1", null)), false);
+        testErrorResponse(err, Response.Status.BAD_REQUEST, null, null);
+    }
+
     @Test
     public void testFindResources () {
         var r = (SuccessResponse) controller.findResources("comments", "car_id", "0", limit, order, null);
@@ -428,6 +625,34 @@ public class RestControllerTest {
         testErrorResponse(err, Response.Status.BAD_REQUEST, null, null);
     }
 
+    @Test
+    public void testStreamResources () throws IOException {
+        limit = new LimitParam();
+        order = new OrderParam();
+        var r = readStream(controller.streamAllResources("maker", limit, order, null));
+        testSuccessResponse(r, Response.Status.OK, 25);
+        testPagination(r, Pagination.of(limit, 25, 62));
+
+        r = readStream(controller.streamAllResources("empty", limit, order, null));
+        testSuccessResponse(r, Response.Status.OK, 0);
+
+        var err = (ErrorResponse) controller.streamAllResources("no_exists", limit, order, null);
+        testErrorResponse(err, Response.Status.BAD_REQUEST, "42501", Integer.valueOf(-5501));
+
+        r = readStream(controller.streamResources("comments", "car_id", "0", limit, order, null));
+        testSuccessResponse(r, Response.Status.OK, 2);
+        testPagination(r, Pagination.of(limit, 2, 4));
+
+        err = (ErrorResponse) controller.streamResources("comments", "car_id", "1", limit, order, null);
+        testErrorResponse(err, Response.Status.NOT_FOUND, null, null);
+
+        r = readStream(controller.streamByDynamicFinder("maker_stats_2010", "findAllByMakerLikeAndMonthLessThanEquals", Arrays.asList("A%", "4"), new LimitParam(1000), new OrderParam("month")));
+        testSuccessResponse(r, Response.Status.OK, 24);
+
+        err = (ErrorResponse) controller.streamByDynamicFinder("users", "findAllByCreditLessThan", Arrays.asList("0"), limit, order);
+        testErrorResponse(err, Response.Status.NOT_FOUND, null, null);
+    }
+
     @Test
     public void testSimpleFunction () throws AmforeasBadRequestException {
         var r = (SuccessResponse) controller.executeStoredProcedure("simpleStoredProcedure", "[]");
@@ -493,6 +718,13 @@ public class RestControllerTest {
         testSuccessResponse(r, Response.Status.OK, expectedResults);
     }
 
+    private SuccessResponse readStream (AmforeasResponse response) throws IOException {
+        assertTrue(response instanceof StreamingResponse);
+        var out = new ByteArrayOutputStream();
+        ((StreamingResponse) response).write(out);
+        return new ObjectMapper().readValue(out.toByteArray(), SuccessResponse.class);
+    }
+
     private String getId (final SuccessResponse response, final String id) {
         for (Row row : response.getRows()) {
             for (String k : row.getCells().keySet()) {
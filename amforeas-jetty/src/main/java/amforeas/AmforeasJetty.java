@@ -14,6 +14,7 @@ package amforeas;
 
 import java.io.File;
 import java.net.URL;
+import java.util.Optional;
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.ServerConnector;
@@ -21,6 +22,7 @@ import org.eclipse.jetty.servlet.ServletContextHandler;
 import org.eclipse.jetty.servlet.ServletHolder;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
 import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
 import org.glassfish.jersey.servlet.ServletContainer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,20 +46,42 @@ public class AmforeasJetty {
     }
 
     protected void startServer (final AmforeasConfiguration conf) throws Exception {
-        final QueuedThreadPool threadPool = new QueuedThreadPool();
-        threadPool.setMinThreads(conf.getServerThreadsMin());
-        threadPool.setMaxThreads(conf.getServerThreadsMax());
+        final Server server = createServer(conf);
 
-        final Server server = new Server(threadPool);
+        server.start();
+        server.setStopAtShutdown(true);
+        server.join();
+    }
+
+    /**
+     * Creates the server with its connectors and the Jersey servlet without starting it.
+     * @param conf the {@link amforeas.config.AmforeasConfiguration}
+     * @return a {@linkplain org.eclipse.jetty.server.Server}
+     */
+    public Server createServer (final AmforeasConfiguration conf) {
+        final Server server = new Server(createThreadPool(conf));
 
         setupJerseyServlet(conf, server);
         setupHTTPConnection(conf, server);
         setupHTTPSConnection(conf, server);
 
+        return server;
+    }
+
+    private ThreadPool createThreadPool (final AmforeasConfiguration conf) {
+        if (conf.isServerThreadsVirtual()) {
+            final Optional<VirtualThreadPool> virtual = VirtualThreadPool.create("amforeas-http-");
+            if (virtual.isPresent()) {
+                l.info("Handling requests on virtual threads");
+                return virtual.get();
+            }
+            l.warn("Virtual threads are not supported by Java {}, using up to {} platform threads", Runtime.version(), conf.getServerThreadsMax());
+        }
 
-        server.start();
-        server.setStopAtShutdown(true);
-        server.join();
+        final QueuedThreadPool threadPool = new QueuedThreadPool();
+        threadPool.setMinThreads(conf.getServerThreadsMin());
+        threadPool.setMaxThreads(conf.getServerThreadsMax());
+        return threadPool;
     }
 
     private void setupJerseyServlet (final AmforeasConfiguration conf, final Server server) {
@@ -66,6 +90,8 @@ public class AmforeasJetty {
 
         ServletHolder jerseyServlet = context.addServlet(ServletContainer.class, conf.getServerRoot());
         jerseyServlet.setInitOrder(0);
+        // requests are suspended while they run on the executor of their alias
+        jerseyServlet.setAsyncSupported(true);
         jerseyServlet.setInitParameter("jersey.config.server.provider.packages", "amforeas.rest, amforeas.filter");
 
         server.setHandler(context);
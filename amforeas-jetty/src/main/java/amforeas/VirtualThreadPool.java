@@ -0,0 +1,113 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.thread.ThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A Jetty {@link org.eclipse.jetty.util.thread.ThreadPool} which runs every job on a new virtual thread, so
+ * requests which block on the database don't take a platform thread. The threads come from
+ * {@link amforeas.VirtualThreads} and {@link #create(String)} is empty on JVMs without them.
+ */
+public class VirtualThreadPool extends AbstractLifeCycle implements ThreadPool {
+
+    private static final Logger l = LoggerFactory.getLogger(VirtualThreadPool.class);
+
+    private final ExecutorService executor;
+    private final AtomicInteger running = new AtomicInteger();
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    private VirtualThreadPool(final ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Creates the pool if the JVM supports virtual threads.
+     * @param prefix the prefix of the name of the threads
+     * @return a {@link amforeas.VirtualThreadPool} or empty if virtual threads are not available
+     */
+    public static Optional<VirtualThreadPool> create (final String prefix) {
+        return VirtualThreads.factory(prefix).flatMap(factory -> {
+            try {
+                final Object executor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, factory);
+                return Optional.of(new VirtualThreadPool((ExecutorService) executor));
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                l.debug("Virtual threads are not available: {}", e.toString());
+                return Optional.empty();
+            }
+        });
+    }
+
+    @Override
+    public void execute (final Runnable job) {
+        running.incrementAndGet();
+        try {
+            executor.execute( () -> {
+                try {
+                    job.run();
+                } finally {
+                    running.decrementAndGet();
+                }
+            });
+        } catch (RuntimeException e) {
+            running.decrementAndGet();
+            throw e;
+        }
+    }
+
+    @Override
+    public void join () throws InterruptedException {
+        stopped.await();
+    }
+
+    /**
+     * @return the number of jobs running, each one on its own thread.
+     */
+    @Override
+    public int getThreads () {
+        return running.get();
+    }
+
+    /**
+     * @return always 0, threads are created for every job and never wait for one.
+     */
+    @Override
+    public int getIdleThreads () {
+        return 0;
+    }
+
+    @Override
+    public boolean isLowOnThreads () {
+        return false;
+    }
+
+    @Override
+    protected void doStop () throws Exception {
+        executor.shutdown();
+        if (!executor.awaitTermination(getStopTimeout(), TimeUnit.MILLISECONDS)) {
+            executor.shutdownNow();
+        }
+        stopped.countDown();
+    }
+
+}
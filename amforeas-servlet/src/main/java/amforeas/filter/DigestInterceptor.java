@@ -0,0 +1,105 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.filter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Optional;
+import javax.annotation.Priority;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import amforeas.SingletonFactory;
+import amforeas.SingletonFactoryImpl;
+import amforeas.config.DatabaseConfiguration;
+
+/**
+ * Adds the Content-MD5 and a strong ETag of the bytes sent to the client. The bytes are digested while they are
+ * serialized and held back until the body is complete, up to the digest max size of the resource. Bigger bodies and
+ * streamed rows are sent as they are written, without a digest.
+ */
+@Provider
+@Priority(Priorities.HEADER_DECORATOR)
+public class DigestInterceptor implements ContainerRequestFilter, WriterInterceptor {
+
+    public static final String CONTENT_MD5 = "Content-MD5";
+
+    private static final String MAX_SIZE = DigestInterceptor.class.getName();
+
+    private final SingletonFactory factory;
+
+    public DigestInterceptor() {
+        this(new SingletonFactoryImpl());
+    }
+
+    public DigestInterceptor(SingletonFactory factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public void filter (ContainerRequestContext req) throws IOException {
+        final MultivaluedMap<String, String> params = req.getUriInfo().getPathParameters();
+        final String alias = params.getFirst("alias");
+        if (alias != null) {
+            req.setProperty(MAX_SIZE, this.getDigestMaxSize(alias, params.getFirst("resource")));
+        }
+    }
+
+    @Override
+    public void aroundWriteTo (WriterInterceptorContext context) throws IOException {
+        final Object property = context.getProperty(MAX_SIZE);
+        final int maximumSize = property == null ? DatabaseConfiguration.DEFAULT_DIGEST_MAX_SIZE : (Integer) property;
+
+        if (maximumSize <= 0 || StreamingOutput.class.isAssignableFrom(context.getType())) {
+            context.proceed();
+            return;
+        }
+
+        final OutputStream output = context.getOutputStream();
+        final DigestOutputStream digest = new DigestOutputStream(output, maximumSize);
+        context.setOutputStream(digest);
+        try {
+            context.proceed();
+        } finally {
+            context.setOutputStream(output);
+        }
+
+        final Optional<String> md5 = digest.getDigest();
+        if (md5.isPresent()) {
+            // nothing was written to the client yet, so the headers can still be changed
+            final MultivaluedMap<String, Object> headers = context.getHeaders();
+            headers.putSingle(CONTENT_MD5, md5.get());
+            if (!headers.containsKey(HttpHeaders.ETAG)) {
+                headers.putSingle(HttpHeaders.ETAG, new EntityTag(md5.get()));
+            }
+        }
+        digest.release();
+    }
+
+    private int getDigestMaxSize (String alias, String resource) {
+        try {
+            return this.factory.getConfiguration().getDatabaseConfigurationForAlias(alias).getDigestMaxSize(resource);
+        } catch (IllegalArgumentException e) {
+            // the resource answers requests to unknown aliases
+            return DatabaseConfiguration.DEFAULT_DIGEST_MAX_SIZE;
+        }
+    }
+
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.filter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Holds back the first bytes of a body while it computes their MD5, so the digest can be sent in a header before the
+ * body. Once the body grows past the maximum size the held bytes are written and the rest goes straight to the client,
+ * without a digest.
+ */
+public class DigestOutputStream extends OutputStream {
+
+    private final OutputStream output;
+    private final MessageDigest digest;
+    private final int maximumSize;
+
+    /* null once the body went past the maximum size */
+    private ByteArrayOutputStream buffer;
+    private String result;
+
+    /**
+     * @param output the stream of the client
+     * @param maximumSize the maximum number of bytes which are held back
+     */
+    public DigestOutputStream(final OutputStream output, final int maximumSize) {
+        this.output = output;
+        this.maximumSize = maximumSize;
+        this.buffer = new ByteArrayOutputStream(Math.min(maximumSize, 8192));
+        try {
+            this.digest = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            // every JVM has MD5
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void write (final int b) throws IOException {
+        this.write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write (final byte[] b, final int off, final int len) throws IOException {
+        if (this.buffer != null) {
+            if (this.buffer.size() + len <= this.maximumSize) {
+                this.buffer.write(b, off, len);
+                this.digest.update(b, off, len);
+                return;
+            }
+            this.buffer.writeTo(this.output);
+            this.buffer = null;
+        }
+        this.output.write(b, off, len);
+    }
+
+    /**
+     * Flushing the held bytes would send the headers before the digest, so only bodies which went past the maximum
+     * size are flushed.
+     */
+    @Override
+    public void flush () throws IOException {
+        if (this.buffer == null) {
+            this.output.flush();
+        }
+    }
+
+    /**
+     * The stream of the client is closed by the container.
+     */
+    @Override
+    public void close () throws IOException {
+        this.flush();
+    }
+
+    /**
+     * @return the Base64 encoded MD5 of the body, as described by rfc1864, or empty if the body went past the maximum size.
+     */
+    public Optional<String> getDigest () {
+        if (this.result == null && this.buffer != null) {
+            this.result = Base64.getEncoder().encodeToString(this.digest.digest());
+        }
+        return Optional.ofNullable(this.result);
+    }
+
+    /**
+     * Writes the held bytes to the client. The headers have to be set before this is called.
+     * @throws IOException if the client went away
+     */
+    public void release () throws IOException {
+        if (this.buffer != null) {
+            this.buffer.writeTo(this.output);
+            this.buffer = null;
+        }
+    }
+
+}
@@ -0,0 +1,53 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+package amforeas.filter;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipException;
+import javax.annotation.Priority;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.ReaderInterceptor;
+import javax.ws.rs.ext.ReaderInterceptorContext;
+
+/**
+ * Inflates the request bodies sent with Content-Encoding: gzip while they are read, so compressed bulk loads are
+ * never held in memory.
+ */
+@Provider
+@Priority(Priorities.ENTITY_CODER)
+public class GzipReaderInterceptor implements ReaderInterceptor {
+
+    @Override
+    public Object aroundReadFrom (ReaderInterceptorContext context) throws IOException {
+        final List<String> encodings = context.getHeaders().get(HttpHeaders.CONTENT_ENCODING);
+        if (encodings != null && encodings.stream().anyMatch(GzipReaderInterceptor::isGzip)) {
+            context.getHeaders().remove(HttpHeaders.CONTENT_ENCODING);
+            try {
+                context.setInputStream(new GZIPInputStream(context.getInputStream()));
+            } catch (ZipException | EOFException ex) {
+                throw new BadRequestException("The body isn't gzip encoded: " + ex.getMessage());
+            }
+        }
+        return context.proceed();
+    }
+
+    private static boolean isGzip (String encoding) {
+        return "gzip".equalsIgnoreCase(encoding.trim()) || "x-gzip".equalsIgnoreCase(encoding.trim());
+    }
+
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.filter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.Optional;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import amforeas.AmforeasWS;
+import amforeas.rest.xstream.AmforeasResponse;
+import amforeas.rest.xstream.StreamingResponse;
+
+/**
+ * Writes the responses in the binary formats of Jackson, CBOR (application/cbor), Smile (application/x-jackson-smile)
+ * and MessagePack (application/msgpack), with the same model as the JSON ones. Numbers are written as binary values
+ * instead of text, so pages with many of them are smaller and quicker to encode and decode. Streamed rows are written
+ * as they are fetched like the JSON ones.
+ */
+@Provider
+@Produces({AmforeasWS.APPLICATION_CBOR, AmforeasWS.APPLICATION_SMILE, AmforeasWS.APPLICATION_MSGPACK})
+public class JacksonBinaryWriter implements MessageBodyWriter<AmforeasResponse> {
+
+    private static final Map<MediaType, ObjectMapper> MAPPERS = Map.of(
+        MediaType.valueOf(AmforeasWS.APPLICATION_CBOR), mapperOf(new CBORFactory()),
+        MediaType.valueOf(AmforeasWS.APPLICATION_SMILE), mapperOf(new SmileFactory()),
+        MediaType.valueOf(AmforeasWS.APPLICATION_MSGPACK), mapperOf(new MessagePackFactory()));
+
+    @Override
+    public boolean isWriteable (Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return AmforeasResponse.class.isAssignableFrom(type) && mapperOf(mediaType).isPresent();
+    }
+
+    @Override
+    public void writeTo (AmforeasResponse entity, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+        MultivaluedMap<String, Object> headers, OutputStream out) throws IOException {
+        final ObjectMapper mapper = mapperOf(mediaType).orElseThrow();
+        if (entity instanceof StreamingResponse) {
+            ((StreamingResponse) entity).write(out, mapper);
+        } else {
+            mapper.writeValue(out, entity);
+        }
+    }
+
+    private static ObjectMapper mapperOf (JsonFactory factory) {
+        // the container closes the response body
+        factory.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return new ObjectMapper(factory);
+    }
+
+    /**
+     * @param mediaType a media type, may be null
+     * @return the mapper of the given binary media type, or empty if it isn't one of them
+     */
+    public static Optional<ObjectMapper> mapperOf (MediaType mediaType) {
+        if (mediaType == null || mediaType.isWildcardType() || mediaType.isWildcardSubtype()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(MAPPERS.get(new MediaType(mediaType.getType(), mediaType.getSubtype())));
+    }
+
+}
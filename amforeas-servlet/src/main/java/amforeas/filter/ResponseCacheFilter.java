@@ -0,0 +1,171 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.filter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Optional;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import amforeas.SingletonFactory;
+import amforeas.SingletonFactoryImpl;
+import amforeas.cache.ResponseCache;
+
+/**
+ * Answers the reads of the resources with a cache TTL from the {@link amforeas.cache.ResponseCache}, before they
+ * reach the executor of their alias. The responses are cached as they are written, with a strong ETag of their
+ * bytes, and requests with a matching If-None-Match are answered with 304 Not Modified. Responses are cached by
+ * path, query, Accept and Primary-Key headers.
+ * Streamed responses are never cached.
+ */
+@Provider
+public class ResponseCacheFilter implements ContainerRequestFilter, ContainerResponseFilter, WriterInterceptor {
+
+    private static final Logger l = LoggerFactory.getLogger(ResponseCacheFilter.class);
+
+    private static final String PENDING = ResponseCacheFilter.class.getName();
+
+    private static final String PRIMARY_KEY = "Primary-Key";
+
+    /**
+     * The request headers which change the response besides the path and the query.
+     */
+    private static final String VARY = HttpHeaders.ACCEPT + ", " + PRIMARY_KEY;
+
+    private final SingletonFactory factory;
+
+    public ResponseCacheFilter() {
+        this(new SingletonFactoryImpl());
+    }
+
+    public ResponseCacheFilter(SingletonFactory factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public void filter (ContainerRequestContext req) throws IOException {
+        if (!HttpMethod.GET.equals(req.getMethod())) {
+            return;
+        }
+
+        final MultivaluedMap<String, String> params = req.getUriInfo().getPathParameters();
+        final String alias = params.getFirst("alias");
+        final String resource = params.getFirst("resource");
+        if (alias == null || resource == null) {
+            return;
+        }
+
+        final int ttl = this.getCacheTtl(alias, resource);
+        if (ttl <= 0) {
+            return;
+        }
+
+        final ResponseCache cache = this.factory.getResponseCache();
+        final String key = ResponseCache.keyOf(req.getUriInfo().getPath(), req.getUriInfo().getRequestUri().getRawQuery(), req.getHeaderString(HttpHeaders.ACCEPT),
+            req.getHeaderString(PRIMARY_KEY));
+        // the version is taken before the rows are read, so a write while they are read makes them stale
+        final long version = cache.version(alias, resource);
+        final Optional<ResponseCache.Entry> hit = cache.get(alias, key, version);
+
+        if (hit.isPresent()) {
+            l.debug("Cache hit for {}", key);
+            req.abortWith(this.toResponse(req, hit.get()));
+        } else {
+            req.setProperty(PENDING, new Pending(key, version, ttl));
+        }
+    }
+
+    @Override
+    public void filter (ContainerRequestContext req, ContainerResponseContext res) throws IOException {
+        if (req.getProperty(PENDING) == null) {
+            return;
+        }
+
+        if (res.getStatus() != Response.Status.OK.getStatusCode() || res.getEntity() instanceof StreamingOutput) {
+            req.removeProperty(PENDING);
+            return;
+        }
+
+        res.getHeaders().add(HttpHeaders.VARY, VARY);
+    }
+
+    @Override
+    public void aroundWriteTo (WriterInterceptorContext context) throws IOException {
+        final Pending pending = (Pending) context.getProperty(PENDING);
+        if (pending == null) {
+            context.proceed();
+            return;
+        }
+
+        final OutputStream output = context.getOutputStream();
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        context.setOutputStream(buffer);
+        try {
+            context.proceed();
+        } finally {
+            context.setOutputStream(output);
+        }
+
+        final ResponseCache.Entry entry = this.factory.getResponseCache().put(pending.key, pending.version, pending.ttl, buffer.toByteArray(), context.getMediaType());
+        // nothing was written to the client yet, so the headers can still be changed
+        context.getHeaders().putSingle(HttpHeaders.ETAG, entry.getTag());
+        output.write(entry.getBody());
+    }
+
+    private Response toResponse (ContainerRequestContext req, ResponseCache.Entry entry) {
+        final ResponseBuilder notModified = req.getRequest().evaluatePreconditions(entry.getTag());
+        final ResponseBuilder builder = notModified != null ? notModified : Response.ok(entry.getBody(), entry.getType());
+        return builder.tag(entry.getTag()).header(HttpHeaders.VARY, VARY).build();
+    }
+
+    private int getCacheTtl (String alias, String resource) {
+        try {
+            return this.factory.getConfiguration().getDatabaseConfigurationForAlias(alias).getCacheTtl(resource);
+        } catch (IllegalArgumentException e) {
+            // the resource answers requests to unknown aliases
+            return 0;
+        }
+    }
+
+    /**
+     * A response which is cached once it's written.
+     */
+    private static class Pending {
+
+        private final String key;
+        private final long version;
+        private final int ttl;
+
+        private Pending(String key, long version, int ttl) {
+            this.key = key;
+            this.version = version;
+            this.ttl = ttl;
+        }
+
+    }
+
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.filter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.ws.rs.Produces;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+import amforeas.AmforeasWS;
+import amforeas.rest.xstream.AmforeasResponse;
+import amforeas.rest.xstream.ErrorResponse;
+import amforeas.rest.xstream.Row;
+import amforeas.rest.xstream.RowWriter;
+import amforeas.rest.xstream.StreamingResponse;
+import amforeas.rest.xstream.SuccessResponse;
+
+/**
+ * Writes the rows of a read as CSV (text/csv) or newline delimited JSON (application/x-ndjson), a line each with
+ * the columns in the order of the ResultSet, when the client asks for them. An error is written as a single row.
+ * Streamed rows are written as they are fetched, and as a JSON document when XML was negotiated.
+ */
+@Provider
+@Produces({AmforeasWS.TEXT_CSV, AmforeasWS.APPLICATION_NDJSON})
+public class RowLinesWriter implements MessageBodyWriter<AmforeasResponse>, ContainerResponseFilter {
+
+    @Override
+    public void filter (ContainerRequestContext req, ContainerResponseContext res) throws IOException {
+        // there is no XML writer of streamed rows
+        if (res.getEntity() instanceof StreamingResponse && (res.getMediaType() == null || isXml(res.getMediaType()))) {
+            res.getHeaders().putSingle(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_TYPE);
+        }
+    }
+
+    @Override
+    public boolean isWriteable (Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return (SuccessResponse.class.isAssignableFrom(type) || StreamingResponse.class.isAssignableFrom(type) || ErrorResponse.class.isAssignableFrom(type))
+            && RowWriter.supports(mediaType);
+    }
+
+    @Override
+    public void writeTo (AmforeasResponse entity, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+        MultivaluedMap<String, Object> headers, OutputStream out) throws IOException {
+        final RowWriter writer = RowWriter.of(mediaType, out).orElseThrow();
+        if (entity instanceof StreamingResponse) {
+            ((StreamingResponse) entity).write(writer);
+            return;
+        }
+
+        if (entity instanceof SuccessResponse) {
+            final List<Row> rows = ((SuccessResponse) entity).getRows();
+            for (Row row : rows == null ? List.<Row> of() : rows) {
+                writer.write(row.getCells());
+            }
+        } else {
+            final ErrorResponse error = (ErrorResponse) entity;
+            final Map<String, Object> cells = new LinkedHashMap<>();
+            cells.put("resource", error.getResource());
+            cells.put("status", error.getStatus().name());
+            cells.put("message", error.getMessage());
+            cells.put("sqlState", error.getSqlState());
+            cells.put("sqlCode", error.getSqlCode());
+            writer.write(cells);
+        }
+        writer.flush();
+    }
+
+    private static boolean isXml (MediaType mediaType) {
+        return (mediaType.isCompatible(MediaType.APPLICATION_XML_TYPE) || mediaType.isCompatible(MediaType.TEXT_XML_TYPE));
+    }
+
+}
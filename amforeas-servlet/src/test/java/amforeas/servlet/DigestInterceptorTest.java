@@ -0,0 +1,171 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.servlet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.UriInfo;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import amforeas.SingletonFactory;
+import amforeas.config.AmforeasConfiguration;
+import amforeas.config.DatabaseConfiguration;
+import amforeas.enums.JDBCDriver;
+import amforeas.filter.DigestInterceptor;
+import amforeas.filter.DigestOutputStream;
+import amforeas.rest.xstream.SuccessResponse;
+
+@ExtendWith(MockitoExtension.class)
+@Tag("offline-tests")
+public class DigestInterceptorTest {
+
+    private static final byte[] BODY = "{\"success\":true}".getBytes(StandardCharsets.UTF_8);
+
+    @Mock
+    SingletonFactory factory;
+
+    @Test
+    public void testDigestOutputStream () throws Exception {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final DigestOutputStream digest = new DigestOutputStream(output, 64);
+        digest.write(BODY, 0, 10);
+        digest.write(BODY[10]);
+        digest.write(BODY, 11, BODY.length - 11);
+        digest.flush();
+        digest.close();
+
+        // nothing reaches the client until the digest is known
+        assertEquals(0, output.size());
+        assertEquals("c2PoX+nt7m8FOksxlYjAhg==", digest.getDigest().get());
+        assertEquals("c2PoX+nt7m8FOksxlYjAhg==", digest.getDigest().get());
+
+        digest.release();
+        assertArrayEquals(BODY, output.toByteArray());
+    }
+
+    @Test
+    public void testDigestOutputStream_tooBig () throws Exception {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final DigestOutputStream digest = new DigestOutputStream(output, 10);
+        digest.write(BODY, 0, 8);
+        assertEquals(0, output.size());
+
+        digest.write(BODY, 8, BODY.length - 8);
+        assertArrayEquals(BODY, output.toByteArray());
+        assertTrue(digest.getDigest().isEmpty());
+
+        digest.release();
+        assertArrayEquals(BODY, output.toByteArray());
+    }
+
+    @Test
+    public void testFilter () throws Exception {
+        final AmforeasConfiguration conf = mock(AmforeasConfiguration.class);
+        final DatabaseConfiguration dbconf = DatabaseConfiguration.instanceOf("alias1", JDBCDriver.H2_MEM, null, null, "test_db", null, null, 1, false);
+        dbconf.setDigestMaxSize("reports", 0);
+        when(factory.getConfiguration()).thenReturn(conf);
+        when(conf.getDatabaseConfigurationForAlias("alias1")).thenReturn(dbconf);
+
+        final MultivaluedMap<String, String> params = new MultivaluedHashMap<>();
+        params.putSingle("alias", "alias1");
+        params.putSingle("resource", "reports");
+        final UriInfo uriInfo = mock(UriInfo.class);
+        when(uriInfo.getPathParameters()).thenReturn(params);
+        final ContainerRequestContext req = mock(ContainerRequestContext.class);
+        when(req.getUriInfo()).thenReturn(uriInfo);
+
+        new DigestInterceptor(factory).filter(req);
+
+        // the responses of the resource are never digested
+        verify(req).setProperty(anyString(), eq(0));
+    }
+
+    @Test
+    public void testAroundWriteTo () throws Exception {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+        final WriterInterceptorContext context = writerContext(SuccessResponse.class, null, output, headers);
+
+        new DigestInterceptor(factory).aroundWriteTo(context);
+
+        assertArrayEquals(BODY, output.toByteArray());
+        assertEquals("c2PoX+nt7m8FOksxlYjAhg==", headers.getFirst(DigestInterceptor.CONTENT_MD5));
+        assertEquals(new EntityTag("c2PoX+nt7m8FOksxlYjAhg=="), headers.getFirst(HttpHeaders.ETAG));
+    }
+
+    @Test
+    public void testAroundWriteTo_tooBig () throws Exception {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+        final WriterInterceptorContext context = writerContext(SuccessResponse.class, 10, output, headers);
+
+        new DigestInterceptor(factory).aroundWriteTo(context);
+
+        assertArrayEquals(BODY, output.toByteArray());
+        assertFalse(headers.containsKey(DigestInterceptor.CONTENT_MD5));
+        assertFalse(headers.containsKey(HttpHeaders.ETAG));
+    }
+
+    @Test
+    public void testAroundWriteTo_streaming () throws Exception {
+        final WriterInterceptorContext context = mock(WriterInterceptorContext.class);
+        when(context.getProperty(anyString())).thenReturn(null);
+        doAnswer(invocation -> StreamingOutput.class).when(context).getType();
+
+        new DigestInterceptor(factory).aroundWriteTo(context);
+
+        verify(context).proceed();
+    }
+
+    private static WriterInterceptorContext writerContext (Class<?> type, Integer maximumSize, OutputStream output, MultivaluedMap<String, Object> headers)
+        throws Exception {
+        final WriterInterceptorContext context = mock(WriterInterceptorContext.class);
+        final OutputStream[] current = {output};
+        when(context.getProperty(anyString())).thenReturn(maximumSize);
+        doAnswer(invocation -> type).when(context).getType();
+        when(context.getOutputStream()).thenAnswer(invocation -> current[0]);
+        doAnswer(invocation -> current[0] = invocation.getArgument(0)).when(context).setOutputStream(any());
+        doAnswer(invocation -> {
+            current[0].write(BODY);
+            current[0].flush();
+            return null;
+        }).when(context).proceed();
+        if (maximumSize == null || maximumSize >= BODY.length) {
+            when(context.getHeaders()).thenReturn(headers);
+        }
+        return context;
+    }
+
+}
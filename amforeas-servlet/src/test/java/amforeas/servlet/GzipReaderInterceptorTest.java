@@ -0,0 +1,88 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.servlet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.ReaderInterceptorContext;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import amforeas.filter.GzipReaderInterceptor;
+
+@Tag("offline-tests")
+public class GzipReaderInterceptorTest {
+
+    private static final String BODY = "maker,model\nSeat,Ibiza\n";
+
+    private final GzipReaderInterceptor interceptor = new GzipReaderInterceptor();
+
+    @Test
+    public void testGzip () throws Exception {
+        final ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+            out.write(BODY.getBytes(StandardCharsets.UTF_8));
+        }
+        final ReaderInterceptorContext context = context(gzip.toByteArray(), "gzip");
+
+        interceptor.aroundReadFrom(context);
+        final ArgumentCaptor<InputStream> in = ArgumentCaptor.forClass(InputStream.class);
+        verify(context).setInputStream(in.capture());
+        verify(context).proceed();
+        assertEquals(BODY, new String(in.getValue().readAllBytes(), StandardCharsets.UTF_8));
+        // the entity providers get the inflated body
+        assertFalse(context.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    public void testIdentity () throws Exception {
+        final ReaderInterceptorContext context = context(BODY.getBytes(StandardCharsets.UTF_8), null);
+        interceptor.aroundReadFrom(context);
+        verify(context, never()).setInputStream(any());
+        verify(context).proceed();
+    }
+
+    @Test
+    public void testNotGzip () throws Exception {
+        final ReaderInterceptorContext context = context(BODY.getBytes(StandardCharsets.UTF_8), "x-gzip");
+        assertThrows(BadRequestException.class, () -> interceptor.aroundReadFrom(context));
+        verify(context, never()).proceed();
+    }
+
+    private static ReaderInterceptorContext context (final byte[] body, final String encoding) {
+        final ReaderInterceptorContext context = mock(ReaderInterceptorContext.class);
+        final MultivaluedMap<String, String> headers = new MultivaluedHashMap<>();
+        if (encoding != null) {
+            headers.add(HttpHeaders.CONTENT_ENCODING, encoding);
+        }
+        when(context.getHeaders()).thenReturn(headers);
+        when(context.getInputStream()).thenReturn(new ByteArrayInputStream(body));
+        return context;
+    }
+
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package amforeas.servlet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.io.ByteArrayOutputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.Response;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import amforeas.filter.JacksonBinaryWriter;
+import amforeas.jdbc.LimitParam;
+import amforeas.jdbc.ResultSetCursor;
+import amforeas.rest.xstream.AmforeasResponse;
+import amforeas.rest.xstream.ErrorResponse;
+import amforeas.rest.xstream.Row;
+import amforeas.rest.xstream.StreamingResponse;
+import amforeas.rest.xstream.SuccessResponse;
+
+@Tag("offline-tests")
+public class JacksonBinaryWriterTest {
+
+    private static final MediaType CBOR = MediaType.valueOf("application/cbor");
+    private static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+    private static final MediaType MSGPACK = MediaType.valueOf("application/msgpack");
+
+    private final JacksonBinaryWriter writer = new JacksonBinaryWriter();
+    private final ObjectMapper json = new ObjectMapper();
+
+    @Test
+    public void testIsWriteable () {
+        assertTrue(writer.isWriteable(SuccessResponse.class, null, null, CBOR));
+        assertTrue(writer.isWriteable(StreamingResponse.class, null, null, SMILE));
+        assertTrue(writer.isWriteable(ErrorResponse.class, null, null, MediaType.valueOf("application/msgpack;q=0.9")));
+        assertFalse(writer.isWriteable(SuccessResponse.class, null, null, MediaType.APPLICATION_JSON_TYPE));
+        assertFalse(writer.isWriteable(SuccessResponse.class, null, null, MediaType.WILDCARD_TYPE));
+        assertFalse(writer.isWriteable(String.class, null, null, CBOR));
+    }
+
+    @Test
+    public void testWrite () throws Exception {
+        final Map<String, Object> cells = new LinkedHashMap<>();
+        cells.put("name", "foo");
+        cells.put("age", 30);
+        cells.put("comment", null);
+        final SuccessResponse response = new SuccessResponse("users", List.of(new Row(0, cells)));
+        final JsonNode expected = json.valueToTree(response);
+
+        // the same document as the JSON one, but smaller
+        for (MediaType type : List.of(CBOR, SMILE, MSGPACK)) {
+            final byte[] body = write(response, type);
+            assertEquals(expected, read(body, type));
+            assertTrue(body.length < json.writeValueAsBytes(response).length);
+        }
+    }
+
+    @Test
+    public void testWriteStream () throws Exception {
+        final ResultSetCursor cursor = mock(ResultSetCursor.class);
+        when(cursor.next()).thenReturn(true, true, false);
+        when(cursor.row()).thenReturn(Map.of("id", 1), Map.of("id", 2));
+        final StreamingResponse response = new StreamingResponse("users", cursor, new LimitParam(2), 2);
+
+        final JsonNode doc = read(write(response, CBOR), CBOR);
+        assertEquals(2, doc.get("rows").size());
+        assertEquals(2, doc.get("rows").get(1).get("cells").get("id").asInt());
+        verify(cursor).close();
+    }
+
+    @Test
+    public void testWriteError () throws Exception {
+        final ErrorResponse error = new ErrorResponse("users", Response.Status.NOT_FOUND);
+        assertEquals(json.valueToTree(error), read(write(error, SMILE), SMILE));
+    }
+
+    private byte[] write (final AmforeasResponse entity, final MediaType type) throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeTo(entity, entity.getClass(), null, null, type, new MultivaluedHashMap<>(), out);
+        return out.toByteArray();
+    }
+
+    private static JsonNode read (final byte[] body, final MediaType type) throws Exception {
+        return JacksonBinaryWriter.mapperOf(type).orElseThrow().readTree(body);
+    }
+
+}
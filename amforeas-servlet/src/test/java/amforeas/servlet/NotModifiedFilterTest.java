@@ -0,0 +1,91 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.servlet;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import amforeas.filter.NotModifiedFilter;
+
+@Tag("offline-tests")
+public class NotModifiedFilterTest {
+
+    private static final EntityTag TAG = new EntityTag("abc", true);
+
+    private final NotModifiedFilter filter = new NotModifiedFilter();
+
+    @Test
+    public void testMatch () throws Exception {
+        final ContainerRequestContext req = request("GET", Response.notModified(TAG));
+        final ContainerResponseContext res = response(200, TAG);
+
+        filter.filter(req, res);
+        verify(res).setStatus(304);
+        verify(res).setEntity(null);
+    }
+
+    @Test
+    public void testNoMatch () throws Exception {
+        final ContainerRequestContext req = request("HEAD", null);
+        final ContainerResponseContext res = response(200, TAG);
+
+        filter.filter(req, res);
+        verify(res, never()).setStatus(anyInt());
+        verify(res, never()).setEntity(any());
+    }
+
+    @Test
+    public void testIgnored () throws Exception {
+        // writes, errors and responses without a tag are never answered with a 304
+        final ContainerRequestContext post = request("POST", Response.notModified(TAG));
+        final ContainerResponseContext tagged = response(200, TAG);
+        filter.filter(post, tagged);
+        verify(tagged, never()).setStatus(anyInt());
+
+        final ContainerRequestContext get = request("GET", Response.notModified(TAG));
+        final ContainerResponseContext error = response(500, TAG);
+        filter.filter(get, error);
+        verify(error, never()).setStatus(anyInt());
+
+        final ContainerResponseContext untagged = response(200, null);
+        filter.filter(get, untagged);
+        verify(untagged, never()).setStatus(anyInt());
+    }
+
+    private static ContainerRequestContext request (final String method, final Response.ResponseBuilder precondition) {
+        final ContainerRequestContext req = mock(ContainerRequestContext.class);
+        final Request request = mock(Request.class);
+        when(req.getMethod()).thenReturn(method);
+        when(req.getRequest()).thenReturn(request);
+        when(request.evaluatePreconditions(any(EntityTag.class))).thenReturn(precondition);
+        return req;
+    }
+
+    private static ContainerResponseContext response (final int status, final EntityTag tag) {
+        final ContainerResponseContext res = mock(ContainerResponseContext.class);
+        when(res.getStatus()).thenReturn(status);
+        when(res.getEntityTag()).thenReturn(tag);
+        return res;
+    }
+
+}
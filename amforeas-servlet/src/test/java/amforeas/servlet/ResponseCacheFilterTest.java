@@ -0,0 +1,223 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.servlet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import amforeas.SingletonFactory;
+import amforeas.cache.ResponseCache;
+import amforeas.config.AmforeasConfiguration;
+import amforeas.config.DatabaseConfiguration;
+import amforeas.enums.JDBCDriver;
+import amforeas.filter.ResponseCacheFilter;
+
+@ExtendWith(MockitoExtension.class)
+@Tag("offline-tests")
+public class ResponseCacheFilterTest {
+
+    private static final byte[] BODY = "{\"success\":true}".getBytes(StandardCharsets.UTF_8);
+
+    @Mock
+    SingletonFactory factory;
+
+    @Mock
+    AmforeasConfiguration conf;
+
+    @Mock
+    ContainerRequestContext req;
+
+    @Mock
+    UriInfo uriInfo;
+
+    private final ResponseCache cache = new ResponseCache(1024);
+
+    private ResponseCacheFilter filter;
+
+    @BeforeEach
+    public void setUpEach () {
+        filter = new ResponseCacheFilter(factory);
+    }
+
+    @Test
+    public void testFilter_notCached () throws Exception {
+        request("movies");
+
+        filter.filter(req);
+
+        verify(req, never()).setProperty(anyString(), any());
+        verify(req, never()).abortWith(any());
+    }
+
+    @Test
+    public void testFilter_missAndHit () throws Exception {
+        when(factory.getResponseCache()).thenReturn(cache);
+        request("users");
+        when(uriInfo.getPath()).thenReturn("alias1/users");
+        when(uriInfo.getRequestUri()).thenReturn(URI.create("http://localhost/amforeas/alias1/users?offset=10"));
+
+        // the first request is cached once its response is written
+        final ArgumentCaptor<Object> pending = ArgumentCaptor.forClass(Object.class);
+        filter.filter(req);
+        verify(req).setProperty(anyString(), pending.capture());
+        verify(req, never()).abortWith(any());
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+        final WriterInterceptorContext context = writerContext(pending.getValue(), output, headers);
+        filter.aroundWriteTo(context);
+
+        assertArrayEquals(BODY, output.toByteArray());
+        assertEquals(new EntityTag("c2PoX+nt7m8FOksxlYjAhg=="), headers.getFirst(HttpHeaders.ETAG));
+
+        // the second one is answered from the cache
+        final Request request = mock(Request.class);
+        when(req.getRequest()).thenReturn(request);
+        filter.filter(req);
+
+        final ArgumentCaptor<Response> response = ArgumentCaptor.forClass(Response.class);
+        verify(req).abortWith(response.capture());
+        assertEquals(200, response.getValue().getStatus());
+        assertArrayEquals(BODY, (byte[]) response.getValue().getEntity());
+        assertEquals(MediaType.APPLICATION_JSON_TYPE, response.getValue().getMediaType());
+        assertEquals(new EntityTag("c2PoX+nt7m8FOksxlYjAhg=="), response.getValue().getEntityTag());
+        assertEquals("Accept, Primary-Key", response.getValue().getHeaderString(HttpHeaders.VARY));
+    }
+
+    @Test
+    public void testFilter_primaryKey () throws Exception {
+        // the row read by the id column of the table
+        final String key = ResponseCache.keyOf("alias1/users/1", null, null, null);
+        cache.put(key, cache.version("alias1", "users"), 60, BODY, MediaType.APPLICATION_JSON_TYPE);
+
+        when(factory.getResponseCache()).thenReturn(cache);
+        request("users");
+        when(uriInfo.getPath()).thenReturn("alias1/users/1");
+        when(uriInfo.getRequestUri()).thenReturn(URI.create("http://localhost/amforeas/alias1/users/1"));
+        when(req.getHeaderString(HttpHeaders.ACCEPT)).thenReturn(null);
+        when(req.getHeaderString("Primary-Key")).thenReturn("uid");
+
+        // the same path by another column is read again
+        filter.filter(req);
+
+        verify(req).setProperty(anyString(), any());
+        verify(req, never()).abortWith(any());
+    }
+
+    @Test
+    public void testFilter_notModified () throws Exception {
+        final String key = ResponseCache.keyOf("alias1/users", null, null, null);
+        final EntityTag tag = cache.put(key, cache.version("alias1", "users"), 60, BODY, MediaType.APPLICATION_JSON_TYPE).getTag();
+
+        final Request request = mock(Request.class);
+        when(request.evaluatePreconditions(tag)).thenReturn(Response.notModified());
+        when(req.getRequest()).thenReturn(request);
+        when(factory.getResponseCache()).thenReturn(cache);
+        request("users");
+        when(uriInfo.getPath()).thenReturn("alias1/users");
+        when(uriInfo.getRequestUri()).thenReturn(URI.create("http://localhost/amforeas/alias1/users"));
+
+        filter.filter(req);
+
+        final ArgumentCaptor<Response> response = ArgumentCaptor.forClass(Response.class);
+        verify(req).abortWith(response.capture());
+        assertEquals(304, response.getValue().getStatus());
+        assertEquals(tag, response.getValue().getEntityTag());
+    }
+
+    @Test
+    public void testFilter_invalidated () throws Exception {
+        final String key = ResponseCache.keyOf("alias1/users", null, null, null);
+        cache.put(key, cache.version("alias1", "users"), 60, BODY, MediaType.APPLICATION_JSON_TYPE);
+        cache.invalidate("alias1", "users");
+
+        when(factory.getResponseCache()).thenReturn(cache);
+        request("users");
+        when(uriInfo.getPath()).thenReturn("alias1/users");
+        when(uriInfo.getRequestUri()).thenReturn(URI.create("http://localhost/amforeas/alias1/users"));
+
+        filter.filter(req);
+
+        verify(req).setProperty(anyString(), any());
+        verify(req, never()).abortWith(any());
+    }
+
+    @Test
+    public void testFilter_error () throws Exception {
+        final ContainerResponseContext res = mock(ContainerResponseContext.class);
+        when(req.getProperty(anyString())).thenReturn(new Object());
+        when(res.getStatus()).thenReturn(404);
+
+        filter.filter(req, res);
+
+        verify(req).removeProperty(anyString());
+    }
+
+    private void request (String resource) {
+        final DatabaseConfiguration dbconf = DatabaseConfiguration.instanceOf("alias1", JDBCDriver.H2_MEM, null, null, "test_db", null, null, 1, false);
+        dbconf.setCacheTtl("users", 60);
+        when(factory.getConfiguration()).thenReturn(conf);
+        when(conf.getDatabaseConfigurationForAlias("alias1")).thenReturn(dbconf);
+
+        final MultivaluedMap<String, String> params = new MultivaluedHashMap<>();
+        params.putSingle("alias", "alias1");
+        params.putSingle("resource", resource);
+        when(req.getMethod()).thenReturn("GET");
+        when(req.getUriInfo()).thenReturn(uriInfo);
+        when(uriInfo.getPathParameters()).thenReturn(params);
+    }
+
+    private static WriterInterceptorContext writerContext (Object pending, OutputStream output, MultivaluedMap<String, Object> headers) throws Exception {
+        final WriterInterceptorContext context = mock(WriterInterceptorContext.class);
+        final OutputStream[] current = {output};
+        when(context.getProperty(anyString())).thenReturn(pending);
+        when(context.getOutputStream()).thenAnswer(invocation -> current[0]);
+        doAnswer(invocation -> current[0] = invocation.getArgument(0)).when(context).setOutputStream(any());
+        doAnswer(invocation -> {
+            current[0].write(BODY);
+            return null;
+        }).when(context).proceed();
+        when(context.getMediaType()).thenReturn(MediaType.APPLICATION_JSON_TYPE);
+        when(context.getHeaders()).thenReturn(headers);
+        return context;
+    }
+
+}
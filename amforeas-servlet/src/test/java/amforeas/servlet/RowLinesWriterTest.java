@@ -0,0 +1,132 @@
+/**
+ * Copyright (C) Alejandro Ayuso
+ *
+ * This file is part of Amforeas. Amforeas is free software: you can redistribute it and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the License, or any later version.
+ *
+ * Amforeas is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with Amforeas. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package amforeas.servlet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import amforeas.filter.RowLinesWriter;
+import amforeas.jdbc.LimitParam;
+import amforeas.jdbc.ResultSetCursor;
+import amforeas.rest.xstream.AmforeasResponse;
+import amforeas.rest.xstream.ErrorResponse;
+import amforeas.rest.xstream.HeadResponse;
+import amforeas.rest.xstream.Row;
+import amforeas.rest.xstream.StreamingResponse;
+import amforeas.rest.xstream.SuccessResponse;
+
+@Tag("offline-tests")
+public class RowLinesWriterTest {
+
+    private static final MediaType CSV = MediaType.valueOf("text/csv");
+    private static final MediaType NDJSON = MediaType.valueOf("application/x-ndjson");
+
+    private final RowLinesWriter writer = new RowLinesWriter();
+
+    @Test
+    public void testIsWriteable () {
+        assertTrue(writer.isWriteable(SuccessResponse.class, null, null, CSV));
+        assertTrue(writer.isWriteable(StreamingResponse.class, null, null, NDJSON));
+        assertTrue(writer.isWriteable(ErrorResponse.class, null, null, CSV));
+        assertFalse(writer.isWriteable(SuccessResponse.class, null, null, MediaType.APPLICATION_JSON_TYPE));
+        assertFalse(writer.isWriteable(SuccessResponse.class, null, null, MediaType.WILDCARD_TYPE));
+        assertFalse(writer.isWriteable(HeadResponse.class, null, null, CSV));
+    }
+
+    @Test
+    public void testWriteRows () throws Exception {
+        final Map<String, Object> first = new LinkedHashMap<>();
+        first.put("name", "foo");
+        first.put("age", 30);
+        final Map<String, Object> second = new LinkedHashMap<>();
+        second.put("name", "bar, baz");
+        second.put("age", null);
+        final SuccessResponse response = new SuccessResponse("users", List.of(new Row(0, first), new Row(1, second)));
+
+        assertEquals("name,age\r\nfoo,30\r\n\"bar, baz\",\r\n", write(response, CSV));
+        assertEquals("{\"name\":\"foo\",\"age\":30}\n{\"name\":\"bar, baz\",\"age\":null}\n", write(response, NDJSON));
+    }
+
+    @Test
+    public void testWriteStream () throws Exception {
+        final ResultSetCursor cursor = mock(ResultSetCursor.class);
+        when(cursor.next()).thenReturn(true, true, false);
+        when(cursor.row()).thenReturn(Map.of("id", 1), Map.of("id", 2));
+        final StreamingResponse response = new StreamingResponse("users", cursor, new LimitParam(2), 2);
+
+        assertEquals("{\"id\":1}\n{\"id\":2}\n", write(response, NDJSON));
+        verify(cursor).close();
+    }
+
+    @Test
+    public void testWriteError () throws Exception {
+        final ErrorResponse error = new ErrorResponse("users", Response.Status.NOT_FOUND);
+        assertEquals("{\"resource\":\"users\",\"status\":\"NOT_FOUND\",\"message\":\"Not Found\",\"sqlState\":null,\"sqlCode\":null}\n", write(error, NDJSON));
+    }
+
+    @Test
+    public void testFilter () throws Exception {
+        final StreamingResponse stream = new StreamingResponse("users", mock(ResultSetCursor.class), new LimitParam(2), 2);
+
+        // streamed rows are a JSON document when XML was negotiated
+        final ContainerResponseContext xml = response(stream, MediaType.APPLICATION_XML_TYPE);
+        writer.filter(mock(ContainerRequestContext.class), xml);
+        assertEquals(MediaType.APPLICATION_JSON_TYPE, xml.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE));
+
+        final ContainerResponseContext csv = response(stream, CSV);
+        writer.filter(mock(ContainerRequestContext.class), csv);
+        verify(csv, never()).getHeaders();
+
+        final ContainerResponseContext cbor = response(stream, MediaType.valueOf("application/cbor"));
+        writer.filter(mock(ContainerRequestContext.class), cbor);
+        verify(cbor, never()).getHeaders();
+
+        final ContainerResponseContext other = response(new SuccessResponse(), MediaType.APPLICATION_XML_TYPE);
+        writer.filter(mock(ContainerRequestContext.class), other);
+        verify(other, never()).getHeaders();
+    }
+
+    private String write (final AmforeasResponse entity, final MediaType type) throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeTo(entity, entity.getClass(), null, null, type, new MultivaluedHashMap<>(), out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static ContainerResponseContext response (final Object entity, final MediaType type) {
+        final ContainerResponseContext res = mock(ContainerResponseContext.class);
+        final MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+        when(res.getEntity()).thenReturn(entity);
+        when(res.getMediaType()).thenReturn(type);
+        when(res.getHeaders()).thenReturn(headers);
+        return res;
+    }
+
+}
@@ -15,7 +15,7 @@ public class App extends ResourceConfig {
 
     public App() {
         l.info("Scanning Jersey App");
-        packages("amforeas.rest");
+        packages("amforeas.rest", "amforeas.filter");
     }
 
 }
@@ -12,10 +12,10 @@
 
 package amforeas.rest;
 
+import java.io.InputStream;
 import java.util.List;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
-import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.HEAD;
 import javax.ws.rs.HeaderParam;
@@ -25,17 +25,22 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
+import amforeas.AliasExecutors;
 import amforeas.AmforeasWS;
 import amforeas.DefaultRestService;
 import amforeas.RestService;
+import amforeas.SingletonFactoryImpl;
 
 @Path("/")
-@Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
+@Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML, AmforeasWS.APPLICATION_CBOR, AmforeasWS.APPLICATION_SMILE, AmforeasWS.APPLICATION_MSGPACK})
 public class AmforeasResource implements AmforeasWS {
 
     @Context
@@ -43,127 +48,210 @@ public class AmforeasResource implements AmforeasWS {
 
     private final RestService restService = new DefaultRestService();
 
+    private final AliasExecutors executors = new SingletonFactoryImpl().getAliasExecutors();
+
     @GET
     @Path("{alias}")
     @Override
-    public Response dbMeta (@PathParam("alias") String alias) {
-        return restService.dbMeta(alias);
+    public void dbMeta (@PathParam("alias") String alias, @HeaderParam(HttpHeaders.CACHE_CONTROL) String cacheControl, @Suspended final AsyncResponse asyncResponse) {
+        executors.submit(alias, asyncResponse, () -> restService.dbMeta(alias, DefaultRestService.isNoCache(cacheControl)));
     }
 
     @HEAD
     @Path("{alias}/{resource}")
     @Override
-    public Response resourceMeta (@PathParam("alias") String alias, @PathParam("resource") String resource) {
-        return restService.resourceMeta(alias, resource);
+    public void resourceMeta (
+        @PathParam("alias") String alias,
+        @PathParam("resource") String resource,
+        @HeaderParam(HttpHeaders.CACHE_CONTROL) String cacheControl,
+        @Suspended final AsyncResponse asyncResponse) {
+
+        executors.submit(alias, asyncResponse, () -> restService.resourceMeta(alias, resource, DefaultRestService.isNoCache(cacheControl)));
     }
 
     @GET
     @Path("{alias}/{resource}")
+    @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML, AmforeasWS.TEXT_CSV, AmforeasWS.APPLICATION_NDJSON, AmforeasWS.APPLICATION_CBOR,
+        AmforeasWS.APPLICATION_SMILE, AmforeasWS.APPLICATION_MSGPACK})
     @Override
-    public Response getAll (
+    public void getAll (
         @PathParam("alias") String alias,
         @PathParam("resource") String resource,
-        @DefaultValue("id") @HeaderParam("Primary-Key") String pk) {
+        @HeaderParam("Primary-Key") String pk,
+        @Suspended final AsyncResponse asyncResponse) {
 
-        return restService.getAll(alias, resource, pk, ui.getQueryParameters());
+        final MultivaluedMap<String, String> queryParams = ui.getQueryParameters();
+        executors.submit(alias, asyncResponse, () -> restService.getAll(alias, resource, pk, queryParams));
+    }
+
+    @POST
+    @Path("{alias}/{resource}/_ids")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Override
+    public void getMany (
+        @PathParam("alias") String alias,
+        @PathParam("resource") String resource,
+        @HeaderParam("Primary-Key") String pk,
+        final String jsonRequest,
+        @Suspended final AsyncResponse asyncResponse) {
+
+        final MultivaluedMap<String, String> queryParams = ui.getQueryParameters();
+        executors.submit(alias, asyncResponse, () -> restService.getMany(alias, resource, pk, jsonRequest, queryParams));
     }
 
     @GET
     @Path("{alias}/{resource}/{id}")
     @Override
-    public Response get (
+    public void get (
         @PathParam("alias") String alias,
         @PathParam("resource") String resource,
-        @DefaultValue("id") @HeaderParam("Primary-Key") String pk,
-        @PathParam("id") String id) {
+        @HeaderParam("Primary-Key") String pk,
+        @PathParam("id") String id,
+        @Suspended final AsyncResponse asyncResponse) {
 
-        return restService.get(alias, resource, pk, id, ui.getQueryParameters());
+        final MultivaluedMap<String, String> queryParams = ui.getQueryParameters();
+        executors.submit(alias, asyncResponse, () -> restService.get(alias, resource, pk, id, queryParams));
     }
 
     @POST
     @Path("{alias}/{resource}")
     @Consumes(MediaType.APPLICATION_JSON)
     @Override
-    public Response insert (
+    public void insert (
         @PathParam("alias") String alias,
         @PathParam("resource") final String resource,
-        @DefaultValue("id") @HeaderParam("Primary-Key") String pk,
-        final String jsonRequest) {
+        @HeaderParam("Primary-Key") String pk,
+        @HeaderParam("Prefer") String prefer,
+        final String jsonRequest,
+        @Suspended final AsyncResponse asyncResponse) {
 
-        return restService.insert(alias, resource, pk, jsonRequest);
+        executors.submit(alias, asyncResponse, () -> restService.insert(alias, resource, pk, jsonRequest, DefaultRestService.isReturnRepresentation(prefer)));
     }
 
     @POST
     @Path("{alias}/{resource}")
     @Consumes(MediaType.APPLICATION_FORM_URLENCODED)
     @Override
-    public Response insert (
+    public void insert (
         @PathParam("alias") String alias,
         @PathParam("resource") final String resource,
-        @DefaultValue("id") @HeaderParam("Primary-Key") String pk,
-        final MultivaluedMap<String, String> formParams) {
+        @HeaderParam("Primary-Key") String pk,
+        @HeaderParam("Prefer") String prefer,
+        final MultivaluedMap<String, String> formParams,
+        @Suspended final AsyncResponse asyncResponse) {
 
-        return restService.insert(alias, resource, pk, formParams);
+        executors.submit(alias, asyncResponse, () -> restService.insert(alias, resource, pk, formParams, DefaultRestService.isReturnRepresentation(prefer)));
     }
 
     @PUT
     @Path("{alias}/{resource}/{id}")
     @Consumes(MediaType.APPLICATION_JSON)
     @Override
-    public Response update (
+    public void update (
         @PathParam("alias") String alias,
         @PathParam("resource") final String resource,
-        @DefaultValue("id") @HeaderParam("Primary-Key") String pk,
+        @HeaderParam("Primary-Key") String pk,
         @PathParam("id") final String id,
-        final String jsonRequest) {
+        final String jsonRequest,
+        @Suspended final AsyncResponse asyncResponse) {
+
+        executors.submit(alias, asyncResponse, () -> restService.update(alias, resource, pk, id, jsonRequest));
+    }
+
+    @PUT
+    @Path("{alias}/{resource}")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Override
+    public void upsert (
+        @PathParam("alias") String alias,
+        @PathParam("resource") final String resource,
+        @HeaderParam("Primary-Key") String pk,
+        @HeaderParam("Prefer") String prefer,
+        final String jsonRequest,
+        @Suspended final AsyncResponse asyncResponse) {
 
-        return restService.update(alias, resource, pk, id, jsonRequest);
+        executors.submit(alias, asyncResponse, () -> restService.upsert(alias, resource, pk, jsonRequest, DefaultRestService.isMergeResolution(prefer)));
     }
 
     @DELETE
     @Path("{alias}/{resource}/{id}")
     @Override
-    public Response delete (
+    public void delete (
         @PathParam("alias") String alias,
         @PathParam("resource") final String resource,
-        @DefaultValue("id") @HeaderParam("Primary-Key") String pk,
-        @PathParam("id") final String id) {
+        @HeaderParam("Primary-Key") String pk,
+        @PathParam("id") final String id,
+        @Suspended final AsyncResponse asyncResponse) {
 
-        return restService.delete(alias, resource, pk, id);
+        executors.submit(alias, asyncResponse, () -> restService.delete(alias, resource, pk, id));
     }
 
     @GET
     @Path("{alias}/{resource}/{column}/{arg}")
+    @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML, AmforeasWS.TEXT_CSV, AmforeasWS.APPLICATION_NDJSON, AmforeasWS.APPLICATION_CBOR,
+        AmforeasWS.APPLICATION_SMILE, AmforeasWS.APPLICATION_MSGPACK})
     @Override
-    public Response find (
+    public void find (
         @PathParam("alias") String alias,
         @PathParam("resource") String resource,
-        @DefaultValue("id") @HeaderParam("Primary-Key") String pk,
+        @HeaderParam("Primary-Key") String pk,
         @PathParam("column") final String col,
-        @PathParam("arg") final String arg) {
+        @PathParam("arg") final String arg,
+        @Suspended final AsyncResponse asyncResponse) {
 
-        return restService.find(alias, resource, pk, col, arg, ui.getQueryParameters());
+        final MultivaluedMap<String, String> queryParams = ui.getQueryParameters();
+        executors.submit(alias, asyncResponse, () -> restService.find(alias, resource, pk, col, arg, queryParams));
     }
 
     @GET
     @Path("{alias}/{resource}/dynamic/{query}")
+    @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML, AmforeasWS.TEXT_CSV, AmforeasWS.APPLICATION_NDJSON, AmforeasWS.APPLICATION_CBOR,
+        AmforeasWS.APPLICATION_SMILE, AmforeasWS.APPLICATION_MSGPACK})
     @Override
-    public Response findBy (
+    public void findBy (
         @PathParam("alias") String alias,
         @PathParam("resource") final String resource,
-        @DefaultValue("id") @HeaderParam("Primary-Key") String pk,
+        @HeaderParam("Primary-Key") String pk,
         @PathParam("query") String query,
-        @QueryParam("args") List<String> args) {
+        @QueryParam("args") List<String> args,
+        @Suspended final AsyncResponse asyncResponse) {
 
-        return restService.findBy(alias, resource, pk, query, args, ui.getQueryParameters());
+        final MultivaluedMap<String, String> queryParams = ui.getQueryParameters();
+        executors.submit(alias, asyncResponse, () -> restService.findBy(alias, resource, pk, query, args, queryParams));
     }
 
     @POST
     @Path("{alias}/call/{query}")
     @Consumes(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML, AmforeasWS.TEXT_CSV, AmforeasWS.APPLICATION_NDJSON, AmforeasWS.APPLICATION_CBOR,
+        AmforeasWS.APPLICATION_SMILE, AmforeasWS.APPLICATION_MSGPACK})
+    @Override
+    public void storedProcedure (@PathParam("alias") String alias, @PathParam("query") String query, final String jsonRequest, @Suspended final AsyncResponse asyncResponse) {
+        executors.submit(alias, asyncResponse, () -> restService.storedProcedure(alias, query, jsonRequest));
+    }
+
+    @POST
+    @Path("{alias}/{resource}/_ingest")
+    @Consumes({AmforeasWS.APPLICATION_NDJSON, AmforeasWS.TEXT_CSV})
+    @Override
+    public void ingest (
+        @PathParam("alias") String alias,
+        @PathParam("resource") final String resource,
+        @HeaderParam(HttpHeaders.CONTENT_TYPE) String contentType,
+        final InputStream body,
+        @Suspended final AsyncResponse asyncResponse) {
+
+        final MultivaluedMap<String, String> queryParams = ui.getQueryParameters();
+        executors.submit(alias, asyncResponse, () -> restService.ingest(alias, resource, contentType, body, queryParams));
+    }
+
+    @POST
+    @Path("{alias}/_batch")
+    @Consumes(MediaType.APPLICATION_JSON)
     @Override
-    public Response storedProcedure (@PathParam("alias") String alias, @PathParam("query") String query, final String jsonRequest) {
-        return restService.storedProcedure(alias, query, jsonRequest);
+    public void batch (@PathParam("alias") String alias, final String jsonRequest, @Suspended final AsyncResponse asyncResponse) {
+        final MultivaluedMap<String, String> queryParams = ui.getQueryParameters();
+        executors.submit(alias, asyncResponse, () -> restService.batch(alias, jsonRequest, queryParams));
     }
 
 